@@ -0,0 +1,67 @@
+package io.swagger.gdd.benchmarks
+
+import java.util.concurrent.TimeUnit
+
+import scala.collection.JavaConverters._
+import scala.util.Try
+
+import io.swagger.gdd.SwaggerGenerators._
+import io.swagger.gdd.SwaggerToGDD
+import io.swagger.gdd.models.{GoogleDiscoveryDocument, Method, Resource}
+import io.swagger.gdd.models.routing.{MethodRouter, PathVariables}
+import org.openjdk.jmh.annotations._
+
+/**
+ * Measures routing requests with [[io.swagger.gdd.models.routing.MethodRouter MethodRouter]], for documents converted
+ * from generated Swagger documents with an increasing number of paths. Each invocation routes a request for the next
+ * method of the document, with its variables filled in, so the time should stay flat as the number of paths grows.
+ * Methods whose generated paths the router refuses, with more than one variable in a segment, are left out.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.AverageTime))
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+class MethodRouterBenchmark {
+
+  @Param(Array("10", "100", "1000", "10000"))
+  var paths: Int = _
+
+  @Param(Array("1"))
+  var seed: Long = _
+
+  var router: MethodRouter = _
+  var httpMethods: Array[String] = _
+  var requests: Array[String] = _
+  var variables: PathVariables = _
+  var next: Int = _
+
+  @Setup
+  def setup(): Unit = {
+    val gdd = SwaggerToGDD.swaggerToGDD(Seeded.sample(genConvertibleSwagger(paths), seed))
+    def methods(resource: Resource): Seq[Method] =
+      Option(resource.getMethods).map(_.values.asScala.toSeq).getOrElse(Nil) ++
+        Option(resource.getResources).map(_.values.asScala.toSeq.flatMap(methods)).getOrElse(Nil)
+    val all = (Option(gdd.getMethods).map(_.values.asScala.toSeq).getOrElse(Nil) ++
+      Option(gdd.getResources).map(_.values.asScala.toSeq.flatMap(methods)).getOrElse(Nil))
+      .filter(m => m.getPath != null && m.getHttpMethod != null && Try(MethodRouter.of(document(Seq(m)))).isSuccess)
+    router = MethodRouter.of(document(all))
+    httpMethods = all.map(_.getHttpMethod).toArray
+    requests = all.map(_.getPath.replaceAll("\\{[^}]*\\}", "value")).toArray
+    variables = new PathVariables
+  }
+
+  def document(methods: Seq[Method]): GoogleDiscoveryDocument = {
+    val gdd = new GoogleDiscoveryDocument
+    gdd.setMethods(methods.zipWithIndex.map { case (method, i) => i.toString -> method }.toMap.asJava)
+    gdd
+  }
+
+  @Benchmark
+  def route(): Method = {
+    val i = next
+    next = if (i + 1 == requests.length) 0 else i + 1
+    router.route(httpMethods(i), requests(i), variables)
+  }
+}
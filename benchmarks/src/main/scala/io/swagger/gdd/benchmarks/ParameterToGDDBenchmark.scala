@@ -0,0 +1,49 @@
+package io.swagger.gdd.benchmarks
+
+import java.util.concurrent.TimeUnit
+
+import io.swagger.gdd.SwaggerGenerators._
+import io.swagger.gdd.SwaggerToGDD
+import io.swagger.models.parameters.Parameter
+import org.openjdk.jmh.annotations._
+import org.openjdk.jmh.infra.Blackhole
+import org.scalacheck.Gen
+
+/**
+ * Measures [[io.swagger.gdd.SwaggerToGDD#parameterToGDD parameterToGDD]] over a fixed set of generated parameters of
+ * every kind that can appear in an operation. Each invocation converts all of them, and throughput is reported per
+ * parameter.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput))
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+class ParameterToGDDBenchmark {
+
+  @Param(Array("1"))
+  var seed: Long = _
+
+  var parameters: IndexedSeq[Parameter] = _
+
+  @Setup
+  def setup(): Unit = {
+    val genParameter = Gen.oneOf[Parameter](genAbstractSerializableParameter, genBodyParameter()())
+    parameters = Seeded.samples(genParameter, ParameterToGDDBenchmark.Count, seed)
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(ParameterToGDDBenchmark.Count)
+  def parameterToGDD(blackhole: Blackhole): Unit = {
+    var i = 0
+    while (i < parameters.length) {
+      blackhole.consume(SwaggerToGDD.parameterToGDD(parameters(i)))
+      i += 1
+    }
+  }
+}
+
+object ParameterToGDDBenchmark {
+  final val Count = 1024
+}
@@ -0,0 +1,46 @@
+package io.swagger.gdd.benchmarks
+
+import java.util.concurrent.TimeUnit
+
+import io.swagger.gdd.SwaggerGenerators._
+import io.swagger.gdd.SwaggerToGDD
+import io.swagger.models.properties.Property
+import org.openjdk.jmh.annotations._
+import org.openjdk.jmh.infra.Blackhole
+
+/**
+ * Measures [[io.swagger.gdd.SwaggerToGDD#propertyToGDD propertyToGDD]] over a fixed set of generated properties of
+ * every kind. Each invocation converts all of them, and throughput is reported per property.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput))
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+class PropertyToGDDBenchmark {
+
+  @Param(Array("1"))
+  var seed: Long = _
+
+  var properties: IndexedSeq[Property] = _
+
+  @Setup
+  def setup(): Unit = {
+    properties = Seeded.samples(genProperty(), PropertyToGDDBenchmark.Count, seed)
+  }
+
+  @Benchmark
+  @OperationsPerInvocation(PropertyToGDDBenchmark.Count)
+  def propertyToGDD(blackhole: Blackhole): Unit = {
+    var i = 0
+    while (i < properties.length) {
+      blackhole.consume(SwaggerToGDD.propertyToGDD(properties(i)))
+      i += 1
+    }
+  }
+}
+
+object PropertyToGDDBenchmark {
+  final val Count = 1024
+}
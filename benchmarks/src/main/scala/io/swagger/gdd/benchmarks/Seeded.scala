@@ -0,0 +1,39 @@
+package io.swagger.gdd.benchmarks
+
+import scala.util.Random
+
+import org.scalacheck.Gen
+
+/**
+ * Draws values from ScalaCheck generators deterministically, so that every run of a benchmark sees the same inputs.
+ */
+object Seeded {
+
+  /**
+   * The generator size used for all benchmark inputs. It bounds the size of each generated collection, like the
+   * `maxSize` the specs run with.
+   */
+  val size = 5
+
+  /**
+   * Draw a value from a generator. If the generator fails for `seed`, the following seeds are tried in turn.
+   * @param gen the generator
+   * @param seed the seed of the random number generator
+   */
+  def sample[T](gen: Gen[T], seed: Long): T = {
+    Iterator.from(0).flatMap { i =>
+      gen(Gen.Parameters.default.withSize(size).withRng(new Random(seed + i)))
+    }.next()
+  }
+
+  /**
+   * Draw `count` values from a generator, seeding each draw from `seed`.
+   * @param gen the generator
+   * @param count how many values to draw
+   * @param seed the seed of the random number generator
+   */
+  def samples[T](gen: Gen[T], count: Int, seed: Long): IndexedSeq[T] = {
+    val seeds = new Random(seed)
+    IndexedSeq.fill(count)(sample(gen, seeds.nextLong()))
+  }
+}
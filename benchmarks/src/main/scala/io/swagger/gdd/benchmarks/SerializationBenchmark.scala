@@ -0,0 +1,59 @@
+package io.swagger.gdd.benchmarks
+
+import java.io.ByteArrayOutputStream
+import java.util.concurrent.TimeUnit
+
+import com.fasterxml.jackson.databind.ObjectWriter
+import io.swagger.gdd.SwaggerGenerators._
+import io.swagger.gdd.models.GoogleDiscoveryDocument
+import io.swagger.gdd.models.json.GDDJsonWriter
+import io.swagger.gdd.{GDDMapper, SwaggerToGDD}
+import org.openjdk.jmh.annotations._
+
+/**
+ * Measures writing a [[io.swagger.gdd.models.GoogleDiscoveryDocument GoogleDiscoveryDocument]] as JSON, with
+ * [[io.swagger.gdd.GDDMapper GDDMapper]] and with [[io.swagger.gdd.models.json.GDDJsonWriter GDDJsonWriter]], for
+ * documents converted from generated Swagger documents with an increasing number of paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput))
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+class SerializationBenchmark {
+
+  @Param(Array("10", "100", "1000", "10000"))
+  var paths: Int = _
+
+  @Param(Array("1"))
+  var seed: Long = _
+
+  var gdd: GoogleDiscoveryDocument = _
+  var writer: ObjectWriter = _
+  var jsonWriter: GDDJsonWriter = _
+  var out: ByteArrayOutputStream = _
+
+  @Setup
+  def setup(): Unit = {
+    gdd = SwaggerToGDD.swaggerToGDD(Seeded.sample(genConvertibleSwagger(paths), seed))
+    writer = GDDMapper().writer()
+    jsonWriter = new GDDJsonWriter()
+    out = new ByteArrayOutputStream()
+  }
+
+  @Benchmark
+  def writeJson(): Int = {
+    // reuse the buffer so that the numbers are about serialization rather than growing a fresh array each time
+    out.reset()
+    writer.writeValue(out, gdd)
+    out.size()
+  }
+
+  @Benchmark
+  def writeJsonWithoutReflection(): Int = {
+    out.reset()
+    jsonWriter.write(gdd, out)
+    out.size()
+  }
+}
@@ -0,0 +1,38 @@
+package io.swagger.gdd.benchmarks
+
+import java.util.concurrent.TimeUnit
+
+import io.swagger.gdd.SwaggerGenerators._
+import io.swagger.gdd.SwaggerToGDD
+import io.swagger.gdd.models.GoogleDiscoveryDocument
+import io.swagger.models.Swagger
+import org.openjdk.jmh.annotations._
+
+/**
+ * Measures [[io.swagger.gdd.SwaggerToGDD#swaggerToGDD swaggerToGDD]] on generated Swagger documents with an
+ * increasing number of paths.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Array(Mode.Throughput))
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+class SwaggerToGDDBenchmark {
+
+  @Param(Array("10", "100", "1000", "10000"))
+  var paths: Int = _
+
+  @Param(Array("1"))
+  var seed: Long = _
+
+  var swagger: Swagger = _
+
+  @Setup
+  def setup(): Unit = {
+    swagger = Seeded.sample(genConvertibleSwagger(paths), seed)
+  }
+
+  @Benchmark
+  def swaggerToGDD(): GoogleDiscoveryDocument = SwaggerToGDD.swaggerToGDD(swagger)
+}
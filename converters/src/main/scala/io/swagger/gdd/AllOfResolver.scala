@@ -0,0 +1,124 @@
+package io.swagger.gdd
+
+import java.util
+import java.util.concurrent.ConcurrentHashMap
+
+import scala.collection.JavaConverters._
+import scala.collection.mutable
+
+import io.swagger.gdd.models.Schema
+import io.swagger.models.properties.Property
+import io.swagger.models.{ComposedModel, Model, ModelImpl, RefModel}
+
+/**
+ * Flattens the `allOf` of [[io.swagger.models.ComposedModel ComposedModel]]s into the GDD `properties` it adds up to,
+ * against the definitions of one Swagger document.
+ *
+ * The properties of each definition are flattened at most once and kept under its key, so that a base definition
+ * shared by many others, or reached more than once through a diamond of `allOf`s, is not flattened again for each of
+ * them. A definition reached again while it is being flattened, through a cycle of `allOf`s, adds nothing the second
+ * time. What is flattened inside such a cycle is not kept, so that each definition in it is cut off where the cycle
+ * comes back to that definition, whichever was converted first. A `$$ref` to a definition which does not exist adds nothing either.
+ *
+ * Members of an `allOf` are flattened in order, and a later member's property replaces an earlier one of the same
+ * name. The converted properties are shared between the results, like interned schemas, so they should not be changed.
+ *
+ * It is safe to use from multiple threads. Two threads may flatten the same definition at once, but only one of the
+ * results is kept.
+ *
+ * @param definitions looks up a definition by key
+ * @param propertiesToGDD converts the `properties` of a Model, in the context of the conversion flattening it
+ */
+private[gdd] final class AllOfResolver(definitions: String => Option[Model],
+                                       propertiesToGDD: (util.Map[String, Property], ConversionContext) =>
+                                         util.Map[String, Schema]) {
+  import AllOfResolver._
+
+  private val flattened = new ConcurrentHashMap[String, util.Map[String, Schema]]()
+
+  /**
+   * @param model the Model to flatten
+   * @param key the key the Model is defined under, if it is a definition; a definition in a cycle is cut off where the
+   *            cycle comes back to it
+   * @param context the conversion flattening it
+   * @return its properties and those of everything in its `allOf`, in a new map
+   */
+  def properties(model: Model, key: String, context: ConversionContext): util.Map[String, Schema] = {
+    val flat = if (key != null && definitions(key).exists(_ == model)) {
+      definition(key, Set.empty, context)
+    } else {
+      flatten(model, Set.empty, context)
+    }
+    new util.LinkedHashMap(flat.properties)
+  }
+
+  /**
+   * @param model the Model to flatten
+   * @return the keys of the definitions which its properties come from, in the order they are first reached, each
+   *         with its definition, or `None` for a `$$ref` to a definition which does not exist
+   */
+  def ancestors(model: Model): Seq[(String, Option[Model])] = {
+    val reached = mutable.LinkedHashMap.empty[String, Option[Model]]
+    def visit(model: Model): Unit = model match {
+      case model: RefModel if !reached.contains(model.getSimpleRef) =>
+        val definition = definitions(model.getSimpleRef)
+        reached.put(model.getSimpleRef, definition)
+        definition.foreach(visit)
+      case model: ComposedModel => Option(model.getAllOf).foreach(_.asScala.foreach(visit))
+      case _ =>
+    }
+    model match {
+      case model: ComposedModel => visit(model)
+      case _ =>
+    }
+    reached.toList
+  }
+
+  /**
+   * @param visiting the keys of the definitions being flattened further up
+   */
+  private def flatten(model: Model, visiting: Set[String], context: ConversionContext): Flattened = model match {
+    case model: RefModel =>
+      definition(model.getSimpleRef, visiting, context)
+    case model: ComposedModel =>
+      val properties = new util.LinkedHashMap[String, Schema]()
+      val cutAt = mutable.HashSet.empty[String]
+      Option(model.getAllOf).foreach(_.asScala.foreach { member =>
+        val flat = flatten(member, visiting, context)
+        properties.putAll(flat.properties)
+        cutAt ++= flat.cutAt
+      })
+      Option(model.getProperties).map(propertiesToGDD(_, context)).foreach(properties.putAll)
+      Flattened(properties, cutAt.toSet)
+    case model: ModelImpl =>
+      Flattened(Option(model.getProperties).map(propertiesToGDD(_, context)).getOrElse(NoProperties), Set.empty)
+    case _ =>
+      Flattened(NoProperties, Set.empty)
+  }
+
+  private def definition(key: String, visiting: Set[String], context: ConversionContext): Flattened = {
+    if (visiting(key)) return Flattened(NoProperties, Set(key))
+    Option(flattened.get(key)).map(Flattened(_, Set.empty)).getOrElse {
+      definitions(key).map { model =>
+        val flat = flatten(model, visiting + key, context)
+        if (flat.cutAt.isEmpty) {
+          val properties = util.Collections.unmodifiableMap[String, Schema](flat.properties)
+          Flattened(Option(flattened.putIfAbsent(key, properties)).getOrElse(properties), flat.cutAt)
+        } else {
+          // in a cycle, what is flattened depends on where the cycle was entered
+          Flattened(flat.properties, flat.cutAt - key)
+        }
+      }.getOrElse(Flattened(NoProperties, Set.empty))
+    }
+  }
+}
+
+private[gdd] object AllOfResolver {
+
+  private val NoProperties = util.Collections.emptyMap[String, Schema]()
+
+  /**
+   * @param cutAt the keys of the definitions further up which were reached again, and so left out of `properties`
+   */
+  private case class Flattened(properties: util.Map[String, Schema], cutAt: Set[String])
+}
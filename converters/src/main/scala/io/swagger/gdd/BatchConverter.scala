@@ -0,0 +1,353 @@
+package io.swagger.gdd
+
+import java.io.{BufferedOutputStream, IOException}
+import java.nio.charset.StandardCharsets
+import java.nio.file._
+import java.nio.file.attribute.BasicFileAttributes
+import java.util.UUID
+import java.util.concurrent.{Callable, ExecutionException, Executors, TimeUnit}
+
+import scala.collection.JavaConverters._
+import scala.collection.mutable
+import scala.util.control.NonFatal
+
+import com.fasterxml.jackson.core.JsonFactory
+import com.fasterxml.jackson.core.util.DefaultPrettyPrinter
+import io.swagger.gdd.ConversionListener.Serialization
+import io.swagger.gdd.models.GoogleDiscoveryDocument
+import io.swagger.gdd.models.graph.{ResourceShards, SchemaGraph}
+import io.swagger.gdd.models.json.{CanonicalGDDWriter, GDDJsonWriter}
+import io.swagger.gdd.models.snapshot.GDDSnapshotWriter
+import io.swagger.gdd.models.validation.GDDValidator
+import io.swagger.parser.SwaggerParser
+
+/**
+ * Converts many local Swagger files into GDD files at once, on a fixed number of worker threads.
+ *
+ * Each file is read, parsed, converted and written out by one worker, so at most `threads` documents are in memory at
+ * a time. The GDD is streamed straight to its output file through a buffer. Nothing is fetched over the network:
+ * `$ref`s to other documents are left unresolved.
+ *
+ * Each GDD file is written to a temporary file beside it first, which is then moved over it atomically, so nothing
+ * reading the output directory ever sees a file half written.
+ *
+ * A file that can't be read, parsed, converted or written is reported as a failure, and the rest of the batch goes on.
+ * That includes a file nested so deeply that converting it overflows the stack.
+ *
+ * @param converter converts each Swagger
+ * @param threads how many files to convert at once
+ * @param pretty whether to pretty print the GDD JSON
+ * @param canonical whether to write canonical GDD JSON, with the `revision` of each document set to its digest; see
+ *                  [[io.swagger.gdd.models.json.CanonicalGDDWriter CanonicalGDDWriter]]. Canonical JSON is never pretty
+ *                  printed.
+ * @param deduplicate whether to collapse the schemas hoisted out of `Operation`s which are the same; see
+ *                    [[io.swagger.gdd.SwaggerToGDD#deduplicateHoistedSchemas deduplicateHoistedSchemas]]
+ * @param prune whether to drop the schemas that no `Method` can reach; see
+ *              [[io.swagger.gdd.models.graph.SchemaGraph SchemaGraph]]
+ * @param shard whether to also write a document for each top-level `Resource`, in a directory named after the GDD
+ *              file; see [[io.swagger.gdd.models.graph.ResourceShards ResourceShards]]
+ * @param validate whether to fail a file whose GDD has problems, such as dangling `$ref`s, rather than write it; see
+ *                 [[io.swagger.gdd.models.validation.GDDValidator GDDValidator]]
+ * @param snapshot where to also add each GDD, keyed by the path it was written to, in the order they are done; see
+ *                 [[io.swagger.gdd.models.snapshot.GDDSnapshotWriter GDDSnapshotWriter]]. It is not closed.
+ */
+final class BatchConverter(converter: SwaggerToGDD = new SwaggerToGDD,
+                           threads: Int = Runtime.getRuntime.availableProcessors,
+                           pretty: Boolean = false,
+                           canonical: Boolean = false,
+                           deduplicate: Boolean = false,
+                           prune: Boolean = false,
+                           shard: Boolean = false,
+                           validate: Boolean = false,
+                           snapshot: Option[GDDSnapshotWriter] = None) {
+  import BatchConverter._
+
+  private val jsonFactory = new JsonFactory()
+  private val writer = new GDDJsonWriter(jsonFactory)
+  private val canonicalWriter = new CanonicalGDDWriter(jsonFactory)
+  // each file is already validated on its own worker
+  private val validator = new GDDValidator()
+
+  /**
+   * Convert every job. Results are reported in the order of the jobs, each as soon as it and the ones before it are
+   * done. A job whose output is the same as that of an earlier one fails without being run.
+   * @param jobs the files to convert
+   * @param report called on the calling thread with the result of each job
+   * @return the totals for the whole batch
+   */
+  def convert(jobs: Seq[Job])(report: Result => Unit): Summary = {
+    val start = System.nanoTime()
+    val pool = Executors.newFixedThreadPool(threads)
+    try {
+      val outputs = mutable.HashSet.empty[Path]
+      val results = jobs.map { job =>
+        if (outputs.add(job.output.toAbsolutePath.normalize)) {
+          Right(job -> pool.submit(new Callable[Result] {
+            override def call(): Result = convert(job)
+          }))
+        } else {
+          Left(Failed(job, new IllegalArgumentException(s"another input is also written to ${job.output}")))
+        }
+      }
+      val summary = results.foldLeft(Summary(0, 0, 0L, 0L)) { (summary, submitted) =>
+        val result = submitted.fold(identity, { case (job, future) =>
+          // an Error which converting the job did not catch fails just that job
+          try future.get() catch {
+            case e: ExecutionException => Failed(job, e.getCause)
+          }
+        })
+        report(result)
+        result match {
+          case Converted(_, _, bytes) => summary.copy(converted = summary.converted + 1, bytes = summary.bytes + bytes)
+          case Failed(_, _) => summary.copy(failed = summary.failed + 1)
+        }
+      }
+      summary.copy(nanos = System.nanoTime() - start)
+    } finally {
+      pool.shutdownNow()
+      pool.awaitTermination(1, TimeUnit.MINUTES)
+    }
+  }
+
+  /**
+   * Convert one file, on the calling thread.
+   * @param job the file to convert
+   * @return the result
+   */
+  def convert(job: Job): Result = convert(job, None)
+
+  /**
+   * Convert one file, on the calling thread, converting only what changed since it was last converted with `cache`.
+   * The cache is not used when deduplicating, since that changes the converted models the cache keeps.
+   * @param job the file to convert
+   * @param cache what was converted for the previous version of the file; see
+   *              [[io.swagger.gdd.ConversionCache ConversionCache]]
+   * @return the result
+   */
+  private[gdd] def convert(job: Job, cache: Option[ConversionCache]): Result = {
+    val start = System.nanoTime()
+    try {
+      val bytes = Files.readAllBytes(job.input)
+      val swagger = Option(new SwaggerParser().parse(new String(bytes, StandardCharsets.UTF_8))).getOrElse {
+        throw new IllegalArgumentException("not a Swagger document")
+      }
+      val gdd = cache.filterNot(_ => deduplicate) match {
+        case Some(c) => converter.swaggerToGDD(swagger, c)
+        case None => converter.swaggerToGDD(swagger)
+      }
+      if (deduplicate) converter.deduplicateHoistedSchemas(swagger, gdd)
+      if (prune) SchemaGraph.pruneUnreachable(gdd)
+      if (validate) {
+        val problems = validator.validate(gdd).asScala
+        if (problems.nonEmpty) throw new IllegalArgumentException(s"invalid GDD: ${problems.mkString("; ")}")
+      }
+      write(gdd, job.output)
+      snapshot.foreach(_.add(job.output.toString, gdd))
+      if (shard) {
+        val shardDir = job.output.resolveSibling(job.output.getFileName.toString.stripSuffix(".json"))
+        ResourceShards.shard(gdd).asScala.foreach { case (key, shard) => write(shard, shardDir.resolve(s"$key.json")) }
+      }
+      Converted(job, System.nanoTime() - start, bytes.length)
+    } catch {
+      case e: StackOverflowError => Failed(job, e)
+      case NonFatal(e) => Failed(job, e)
+    }
+  }
+
+  private def write(gdd: GoogleDiscoveryDocument, path: Path): Unit = {
+    converter.timed(Serialization, path.toString) {
+      Option(path.getParent).foreach(Files.createDirectories(_))
+      val temp = path.resolveSibling(s".${path.getFileName}.${UUID.randomUUID}.tmp")
+      try {
+        val out = new BufferedOutputStream(Files.newOutputStream(temp, StandardOpenOption.CREATE_NEW), BufferSize)
+        try {
+          if (canonical) {
+            canonicalWriter.write(gdd, out)
+          } else {
+            val generator = jsonFactory.createGenerator(out)
+            if (pretty) generator.setPrettyPrinter(new DefaultPrettyPrinter())
+            writer.write(gdd, generator)
+            generator.close()
+          }
+        } finally {
+          out.close()
+        }
+        try Files.move(temp, path, StandardCopyOption.ATOMIC_MOVE) catch {
+          case _: AtomicMoveNotSupportedException => Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING)
+        }
+      } finally {
+        Files.deleteIfExists(temp)
+      }
+    }
+  }
+}
+
+/**
+ * Converts local Swagger files into GDD files from the command line.
+ *
+ * {{{
+ * BatchConverter [--threads n] [--pretty | --canonical] [--dedup] [--prune] [--shard] [--validate] [--metrics]
+ *                [--snapshot file] <output directory> <input>...
+ * }}}
+ *
+ * Each input is a Swagger file, a directory which is searched for `.json`, `.yaml` and `.yml` files, or `@` followed
+ * by a manifest file which lists one input per line. Each GDD is written to the output directory under the name of the
+ * Swagger file, or its path relative to the directory it was found in, with a `.json` extension. The timing of each
+ * file is printed as it is done, and the totals at the end. With `--metrics`, how long each phase of converting took
+ * and how many schemas and properties were converted are printed too; see
+ * [[io.swagger.gdd.ConversionHistograms ConversionHistograms]]. With `--canonical`, GDDs are written as canonical JSON,
+ * and the `revision` of each is set to its digest. With `--validate`, a file whose GDD has problems fails instead of
+ * being written; see [[io.swagger.gdd.models.validation.GDDValidator GDDValidator]]. With `--snapshot`, every GDD is
+ * also written into one binary snapshot file, which the
+ * [[io.swagger.gdd.models.snapshot.GDDSnapshotReader GDDSnapshotReader]] loads without parsing. The exit status is 1
+ * if any file failed.
+ */
+object BatchConverter {
+
+  private val BufferSize = 64 * 1024
+
+  private val Extensions = Seq(".json", ".yaml", ".yml")
+
+  /**
+   * A Swagger file to convert and where to write its GDD.
+   */
+  case class Job(input: Path, output: Path)
+
+  sealed trait Result {
+    def job: Job
+  }
+
+  /**
+   * @param nanos how long reading, converting and writing the file took
+   * @param bytes the size of the Swagger file
+   */
+  case class Converted(job: Job, nanos: Long, bytes: Long) extends Result
+
+  case class Failed(job: Job, error: Throwable) extends Result
+
+  /**
+   * @param nanos how long the whole batch took
+   * @param bytes the total size of the Swagger files that were converted
+   */
+  case class Summary(converted: Int, failed: Int, nanos: Long, bytes: Long) {
+    def seconds: Double = nanos / 1e9
+
+    def filesPerSecond: Double = if (nanos > 0) converted / seconds else 0
+
+    def megabytesPerSecond: Double = if (nanos > 0) bytes / 1e6 / seconds else 0
+  }
+
+  /**
+   * @return whether the file has the extension of a Swagger file
+   */
+  private[gdd] def isSwagger(file: Path): Boolean = Extensions.exists(file.getFileName.toString.endsWith)
+
+  /**
+   * @param input a Swagger file
+   * @param relative its path relative to the directory it was found in, or just its name
+   * @param outputDir the directory to write GDDs to
+   * @return a job which writes the GDD to the same path under the output directory, with a `.json` extension
+   */
+  private[gdd] def job(input: Path, relative: Path, outputDir: Path): Job = {
+    val name = relative.getFileName.toString
+    val base = Extensions.find(name.endsWith).map(ext => name.dropRight(ext.length)).getOrElse(name)
+    Job(input, outputDir.resolve(relative).resolveSibling(s"$base.json"))
+  }
+
+  /**
+   * Find the Swagger files named by the inputs, and decide where each one's GDD goes.
+   * @param inputs Swagger files, directories of them, and `@`-prefixed manifests
+   * @param outputDir the directory to write GDDs to
+   * @return a job for each Swagger file, in the order they were found
+   */
+  def jobs(inputs: Seq[String], outputDir: Path): Seq[Job] = {
+    val found = mutable.ArrayBuffer.empty[Job]
+    def add(input: Path, relative: Path): Unit = found += job(input, relative, outputDir)
+    def expand(input: String, relativeTo: Path): Unit = {
+      if (input.startsWith("@")) {
+        val manifest = relativeTo.resolve(input.drop(1))
+        Files.readAllLines(manifest, StandardCharsets.UTF_8).asScala.map(_.trim).filter(_.nonEmpty).foreach { line =>
+          expand(line, Option(manifest.getParent).getOrElse(Paths.get("")))
+        }
+      } else {
+        val path = relativeTo.resolve(input)
+        if (Files.isDirectory(path)) {
+          val files = mutable.ArrayBuffer.empty[Path]
+          Files.walkFileTree(path, new SimpleFileVisitor[Path] {
+            override def visitFile(file: Path, attrs: BasicFileAttributes): FileVisitResult = {
+              if (isSwagger(file)) files += file
+              FileVisitResult.CONTINUE
+            }
+          })
+          files.sortBy(_.toString).foreach(file => add(file, path.relativize(file)))
+        } else {
+          add(path, path.getFileName)
+        }
+      }
+    }
+    inputs.foreach(expand(_, Paths.get("")))
+    found
+  }
+
+  def main(args: Array[String]): Unit = {
+    var threads = Runtime.getRuntime.availableProcessors
+    var pretty = false
+    var canonical = false
+    var deduplicate = false
+    var prune = false
+    var shard = false
+    var validate = false
+    var metrics = false
+    var snapshotFile: Option[Path] = None
+    var rest = args.toList
+    var parsing = true
+    while (parsing) rest match {
+      case "--threads" :: n :: tail => threads = n.toInt; rest = tail
+      case "--pretty" :: tail => pretty = true; rest = tail
+      case "--canonical" :: tail => canonical = true; rest = tail
+      case "--dedup" :: tail => deduplicate = true; rest = tail
+      case "--prune" :: tail => prune = true; rest = tail
+      case "--shard" :: tail => shard = true; rest = tail
+      case "--validate" :: tail => validate = true; rest = tail
+      case "--metrics" :: tail => metrics = true; rest = tail
+      case "--snapshot" :: file :: tail => snapshotFile = Some(Paths.get(file)); rest = tail
+      case _ => parsing = false
+    }
+    rest match {
+      case output :: inputs if inputs.nonEmpty =>
+        val outputDir = Paths.get(output)
+        val all = try jobs(inputs, outputDir) catch {
+          case e: IOException =>
+            System.err.println(s"could not list the inputs: $e")
+            sys.exit(2)
+        }
+        val histograms = new ConversionHistograms
+        val listener = if (metrics) histograms else ConversionListener.NoOp
+        val snapshot = snapshotFile.map { file =>
+          Option(file.getParent).foreach(Files.createDirectories(_))
+          new GDDSnapshotWriter(new BufferedOutputStream(Files.newOutputStream(file), BufferSize))
+        }
+        val converter = new BatchConverter(new SwaggerToGDD(listener = listener), threads = threads, pretty = pretty,
+          canonical = canonical, deduplicate = deduplicate, prune = prune, shard = shard, validate = validate,
+          snapshot = snapshot)
+        val summary = try {
+          converter.convert(all) {
+            case Converted(job, nanos, _) =>
+              println(f"converted ${job.input} -> ${job.output} in ${nanos / 1e6}%.1f ms")
+            case Failed(job, error) => System.err.println(s"failed ${job.input}: $error")
+          }
+        } finally {
+          snapshot.foreach(_.close())
+        }
+        println(f"${summary.converted} converted, ${summary.failed} failed in ${summary.seconds}%.2f s " +
+          f"(${summary.filesPerSecond}%.1f files/s, ${summary.megabytesPerSecond}%.2f MB/s)")
+        if (metrics) println(histograms)
+        if (summary.failed > 0) sys.exit(1)
+      case _ =>
+        System.err.println(
+          "usage: BatchConverter [--threads n] [--pretty | --canonical] [--dedup] [--prune] [--shard] [--validate] " +
+            "[--metrics] [--snapshot file] <output directory> <input>...")
+        sys.exit(2)
+    }
+  }
+}
@@ -0,0 +1,101 @@
+package io.swagger.gdd
+
+import java.io.OutputStream
+import java.security.{DigestOutputStream, MessageDigest}
+
+import scala.collection.JavaConverters._
+import scala.collection.mutable
+
+import com.fasterxml.jackson.databind.ObjectMapper
+import com.fasterxml.jackson.databind.introspect.{AnnotatedMember, JacksonAnnotationIntrospector}
+import io.swagger.gdd.models.{AbstractSchema, Method, Schema}
+import io.swagger.models.{Model, Path}
+import io.swagger.util.Json
+
+/**
+ * What [[io.swagger.gdd.SwaggerToGDD#swaggerToGDD swaggerToGDD]] keeps between conversions of successive versions of
+ * the same Swagger document, so that only the definitions and paths that changed are converted again.
+ *
+ * Each definition is kept under its key, and each `Path` under its path value, along with a content hash of the
+ * Swagger model it was converted from, and of the definitions that its `allOf`s are flattened from. The hash covers
+ * every property of the models, including those left out of their Swagger JSON. A `Path`
+ * is kept with the schemas that were hoisted out of its `Operation`s, so that they come and go with it. Entries for
+ * definitions and paths that are no longer in the document are dropped after each conversion.
+ *
+ * The converted GDD models are shared between the documents returned for each version, so they should not be changed
+ * by the caller. A cache should only be used with one converter, and is not thread safe.
+ */
+final class ConversionCache {
+
+  private[gdd] val definitions = new ConversionCache.Entries[Model, Schema]
+
+  private[gdd] val paths = new ConversionCache.Entries[Path, (Map[String, Method], Seq[AbstractSchema])]
+
+  /**
+   * Drop the entries that were not used since the last call.
+   */
+  private[gdd] def sweep(): Unit = {
+    definitions.sweep()
+    paths.sweep()
+  }
+}
+
+private[gdd] object ConversionCache {
+
+  /**
+   * Converted values keyed by the key of the Swagger model they were converted from.
+   */
+  final class Entries[I <: AnyRef, O] {
+    private val entries = mutable.HashMap.empty[String, (BigInt, O)]
+    private val used = mutable.HashSet.empty[String]
+
+    /**
+     * Get the value converted from `input`, converting it only if it is not the input the kept value was converted
+     * from, or if any of the models its conversion depends on changed.
+     * @param key the key of the Swagger model
+     * @param input the Swagger model
+     * @param dependencies other Swagger models that the conversion of `input` depends on
+     * @param convert converts the Swagger model, given its key
+     */
+    def apply(key: String, input: I, dependencies: Seq[AnyRef] = Nil)(convert: (String, I) => O): O = {
+      used += key
+      val hash = if (dependencies.isEmpty) contentHash(input) else contentHash((input +: dependencies).asJava)
+      entries.get(key) match {
+        case Some((keptHash, output)) if keptHash == hash => output
+        case _ =>
+          val output = convert(key, input)
+          entries.put(key, hash -> output)
+          output
+      }
+    }
+
+    def sweep(): Unit = {
+      entries.retain((key, _) => used.contains(key))
+      used.clear()
+    }
+  }
+
+  /**
+   * Swagger's mapper, except that it also writes the properties that Swagger leaves out of its JSON with
+   * `@JsonIgnore`. The conversion reads some of those, such as whether a `Property` is required, so a change to them
+   * has to change the hash.
+   */
+  private val hashMapper: ObjectMapper = Json.mapper().copy().setAnnotationIntrospector(
+    new JacksonAnnotationIntrospector {
+      override def hasIgnoreMarker(member: AnnotatedMember): Boolean = false
+    })
+
+  /**
+   * A SHA-1 of a Swagger model, written as JSON with all of its properties, ignored or not. The JSON is hashed as it is
+   * written, without being buffered.
+   */
+  def contentHash(model: AnyRef): BigInt = {
+    val digest = MessageDigest.getInstance("SHA-1")
+    val out = new DigestOutputStream(new OutputStream {
+      override def write(b: Int): Unit = ()
+      override def write(b: Array[Byte], off: Int, len: Int): Unit = ()
+    }, digest)
+    hashMapper.writeValue(out, model)
+    BigInt(1, digest.digest())
+  }
+}
@@ -0,0 +1,25 @@
+package io.swagger.gdd
+
+import io.swagger.gdd.models.GoogleDiscoveryDocument
+
+/**
+ * The mutable state of one conversion by a [[io.swagger.gdd.SwaggerToGDD SwaggerToGDD]], including the document that
+ * the schemas hoisted out of `Operation`s go in. It is passed implicitly to each of the converter's methods that need
+ * it, so a subclass that overrides one of them passes it on by calling `super`. A context is only used by the thread it
+ * was made for; a conversion which runs on more than one thread makes one for each task, and those share what is safe
+ * to share.
+ *
+ * @param allOf flattens `allOf`s against the definitions of the Swagger being converted; shared by every task of the
+ *              conversion, and thread safe
+ * @param gdd the GoogleDiscoveryDocument that schemas hoisted out of `Operation`s are added to. A task which runs
+ *            alongside others gets one of its own, whose schemas are added to the result afterward.
+ */
+final class ConversionContext private[gdd](private[gdd] val allOf: AllOfResolver,
+                                           private[gdd] val gdd: GoogleDiscoveryDocument) {
+
+  /**
+   * How many properties are being converted, one inside the other. Only kept when there is a
+   * [[io.swagger.gdd.ConversionListener ConversionListener]] to tell.
+   */
+  private[gdd] var depth: Int = 0
+}
@@ -0,0 +1,120 @@
+package io.swagger.gdd
+
+import java.util.concurrent.atomic.{AtomicInteger, AtomicLong, AtomicLongArray}
+
+import io.swagger.gdd.ConversionListener.Phase
+
+/**
+ * A [[io.swagger.gdd.ConversionListener ConversionListener]] which keeps, in memory, a histogram of how long each phase
+ * took and totals of everything counted. It is thread safe, so one can be shared by every converter of a batch and
+ * read while they run.
+ *
+ * Durations are put in buckets by their highest bit, so each bucket holds durations up to twice as long as those of the
+ * one before it, and percentiles are the upper bounds of their buckets.
+ */
+final class ConversionHistograms extends ConversionListener {
+  import ConversionHistograms._
+
+  private val histograms = ConversionListener.Phases.map(phase => phase -> new Histogram).toMap
+
+  private val created = new AtomicLong
+  private val hoisted = new AtomicLong
+  private val converted = new AtomicLong
+  private val depth = new AtomicInteger
+
+  override def phaseFinished(phase: Phase, name: String, nanos: Long): Unit = histograms(phase).record(nanos)
+
+  override def schemaCreated(): Unit = created.incrementAndGet()
+
+  override def schemaHoisted(): Unit = hoisted.incrementAndGet()
+
+  override def propertyConverted(depth: Int): Unit = {
+    var max = this.depth.get
+    while (depth > max && !this.depth.compareAndSet(max, depth)) max = this.depth.get
+    converted.incrementAndGet()
+  }
+
+  /**
+   * @return the durations of the phase recorded so far
+   */
+  def histogram(phase: Phase): Snapshot = histograms(phase).snapshot
+
+  def schemasCreated: Long = created.get
+
+  def schemasHoisted: Long = hoisted.get
+
+  def propertiesConverted: Long = converted.get
+
+  /**
+   * @return how deeply the most deeply nested property was nested
+   */
+  def maxDepth: Int = depth.get
+
+  /**
+   * @return a line for each phase that was recorded, and one for the counters
+   */
+  override def toString: String = {
+    val phases = ConversionListener.Phases.map(phase => phase -> histogram(phase)).filter(_._2.count > 0).map {
+      case (phase, h) =>
+        f"$phase%-14s n=${h.count}%d total=${h.totalNanos / 1e6}%.1fms p50=${h.percentile(0.5) / 1e6}%.3fms " +
+          f"p99=${h.percentile(0.99) / 1e6}%.3fms max=${h.maxNanos / 1e6}%.3fms"
+    }
+    (phases :+ s"schemas created=$schemasCreated hoisted=$schemasHoisted properties=$propertiesConverted " +
+      s"max depth=$maxDepth").mkString("\n")
+  }
+}
+
+object ConversionHistograms {
+
+  private val Buckets = 64
+
+  /**
+   * The durations of one phase.
+   * @param buckets how many durations had each highest bit; bucket `i` holds those below `2^i` nanoseconds
+   */
+  final class Snapshot private[ConversionHistograms](val count: Long, val totalNanos: Long, val maxNanos: Long,
+                                                     buckets: IndexedSeq[Long]) {
+
+    def meanNanos: Double = if (count > 0) totalNanos.toDouble / count else 0
+
+    /**
+     * @param p between 0 and 1
+     * @return the upper bound of the bucket holding the duration below which a fraction `p` of the durations are, but
+     *         no more than the longest duration
+     */
+    def percentile(p: Double): Long = {
+      if (count == 0) return 0
+      val rank = math.max(1L, math.ceil(p * count).toLong)
+      var seen = 0L
+      var i = 0
+      while (i < Buckets) {
+        seen += buckets(i)
+        if (seen >= rank) return math.min(upperBound(i), maxNanos)
+        i += 1
+      }
+      maxNanos
+    }
+  }
+
+  private def upperBound(bucket: Int): Long = if (bucket >= 63) Long.MaxValue else (1L << bucket) - 1
+
+  private final class Histogram {
+    private val buckets = new AtomicLongArray(Buckets)
+    private val count = new AtomicLong
+    private val total = new AtomicLong
+    private val max = new AtomicLong
+
+    def record(nanos: Long): Unit = {
+      val n = math.max(0L, nanos)
+      buckets.incrementAndGet(64 - java.lang.Long.numberOfLeadingZeros(n))
+      count.incrementAndGet()
+      total.addAndGet(n)
+      var m = max.get
+      while (n > m && !max.compareAndSet(m, n)) m = max.get
+    }
+
+    def snapshot: Snapshot = {
+      new Snapshot(count.get, total.get, max.get, (0 until Buckets).map(buckets.get))
+    }
+  }
+}
@@ -0,0 +1,84 @@
+package io.swagger.gdd
+
+/**
+ * Hears about the work a [[io.swagger.gdd.SwaggerToGDD SwaggerToGDD]] does while it converts, so that it can be timed
+ * and counted.
+ *
+ * A phase is reported when it starts and when it finishes, along with what it was working on:
+ *
+ * <table>
+ *   <tr><th>Phase</th><th>Reported</th><th>Name</th></tr>
+ *   <tr><td>`Definitions`</td><td>once per document, around converting all of its definitions</td>
+ *     <td>the document's `title`</td></tr>
+ *   <tr><td>`PathGrouping`</td><td>once per document, around grouping its paths into Resources</td>
+ *     <td>the document's `title`</td></tr>
+ *   <tr><td>`Resource`</td><td>for each Resource, around converting the paths whose methods go in it</td>
+ *     <td>the first of those paths</td></tr>
+ *   <tr><td>`Operation`</td><td>for each Operation</td><td>its HTTP method and path, like `GET /pets`</td></tr>
+ *   <tr><td>`Hoisting`</td><td>for each schema hoisted out of an Operation</td><td>the schema's `id`</td></tr>
+ *   <tr><td>`Serialization`</td><td>for each document written out by a [[io.swagger.gdd.BatchConverter BatchConverter]]
+ *     </td><td>the file written to</td></tr>
+ * </table>
+ *
+ * Phases nest: the `Operation`s of a `Resource` are reported inside it, on the same thread. Conversions which run on
+ * more than one thread report from each of them, so a listener shared by those must be thread safe. Each schema is
+ * reported as hoisted once, however the conversion runs, but work saved by a
+ * [[io.swagger.gdd.ConversionCache ConversionCache]] is not reported: a path taken from the cache reports none of its
+ * `Operation`s or hoisted schemas. The methods are called in the middle of converting, so they should return quickly
+ * and not throw.
+ *
+ * Every method does nothing by default. A converter whose listener is [[ConversionListener.NoOp NoOp]] does not even
+ * read the clock.
+ */
+trait ConversionListener {
+  import ConversionListener._
+
+  def phaseStarted(phase: Phase, name: String): Unit = ()
+
+  /**
+   * @param nanos how long the phase took, including the phases inside it
+   */
+  def phaseFinished(phase: Phase, name: String, nanos: Long): Unit = ()
+
+  /**
+   * Called for each GDD `Schema` converted from a Swagger definition or property.
+   */
+  def schemaCreated(): Unit = ()
+
+  /**
+   * Called for each schema hoisted out of an Operation into the document's `schemas`.
+   */
+  def schemaHoisted(): Unit = ()
+
+  /**
+   * Called for each Swagger property converted.
+   * @param depth how deeply the property is nested: 1 for one that is not in another, 2 for the `items` of one, etc.
+   */
+  def propertyConverted(depth: Int): Unit = ()
+}
+
+object ConversionListener {
+
+  sealed abstract class Phase(val name: String) {
+    override def toString: String = name
+  }
+
+  case object Definitions extends Phase("definitions")
+
+  case object PathGrouping extends Phase("path grouping")
+
+  case object Resource extends Phase("resource")
+
+  case object Operation extends Phase("operation")
+
+  case object Hoisting extends Phase("hoisting")
+
+  case object Serialization extends Phase("serialization")
+
+  val Phases: Seq[Phase] = Seq(Definitions, PathGrouping, Resource, Operation, Hoisting, Serialization)
+
+  /**
+   * Listens to nothing. The default for [[io.swagger.gdd.SwaggerToGDD SwaggerToGDD]].
+   */
+  object NoOp extends ConversionListener
+}
@@ -0,0 +1,22 @@
+package io.swagger.gdd
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include
+import com.fasterxml.jackson.databind.{DeserializationFeature, ObjectMapper, SerializationFeature}
+
+/**
+ * Jackson configuration for writing GDD models as JSON. `null` fields are left out of the output.
+ */
+object GDDMapper {
+
+  /**
+   * @return a new ObjectMapper which is configured to write GDD models
+   */
+  def apply(): ObjectMapper = {
+    val mapper = new ObjectMapper()
+    mapper.setSerializationInclusion(Include.NON_NULL)
+    mapper.configure(SerializationFeature.FAIL_ON_EMPTY_BEANS, false)
+    mapper.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+    mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+    mapper
+  }
+}
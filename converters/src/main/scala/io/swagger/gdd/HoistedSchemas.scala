@@ -0,0 +1,30 @@
+package io.swagger.gdd
+
+import java.security.MessageDigest
+
+import com.fasterxml.jackson.databind.node.ObjectNode
+import com.fasterxml.jackson.databind.{MapperFeature, SerializationFeature}
+import io.swagger.gdd.models.AbstractSchema
+
+/**
+ * Structural fingerprints of the schemas hoisted out of `Operation`s, used to find the ones which are the same.
+ */
+private[gdd] object HoistedSchemas {
+
+  /**
+   * Writes fields, and the entries of maps such as `properties`, sorted by name, so that their order doesn't matter.
+   */
+  private val canonicalMapper = GDDMapper()
+    .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+    .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+
+  /**
+   * A SHA-1 of the canonical JSON of a schema, leaving out its own `id`, which is what differs between hoisted schemas
+   * that are otherwise the same.
+   */
+  def fingerprint(schema: AbstractSchema): BigInt = {
+    val node = canonicalMapper.valueToTree[ObjectNode](schema)
+    node.remove("id")
+    BigInt(1, MessageDigest.getInstance("SHA-1").digest(canonicalMapper.writeValueAsBytes(node)))
+  }
+}
@@ -0,0 +1,33 @@
+package io.swagger.gdd
+
+import java.util
+
+/**
+ * A `java.util.Map` whose contents are computed the first time it is used in any way, and then kept. It is safe to
+ * use from multiple threads: the contents are computed only once, no matter how many threads use the map at once.
+ * Changes to the map go to the computed contents, which are only as thread safe as the map that was computed.
+ *
+ * @param contents computes the contents
+ */
+private[gdd] final class MemoizedMap[K, V](contents: => util.Map[K, V]) extends util.AbstractMap[K, V] {
+
+  private lazy val map = contents
+
+  override def size(): Int = map.size()
+
+  override def containsKey(key: Any): Boolean = map.containsKey(key)
+
+  override def get(key: Any): V = map.get(key)
+
+  override def put(key: K, value: V): V = map.put(key, value)
+
+  override def remove(key: Any): V = map.remove(key)
+
+  override def clear(): Unit = map.clear()
+
+  override def keySet(): util.Set[K] = map.keySet()
+
+  override def values(): util.Collection[V] = map.values()
+
+  override def entrySet(): util.Set[util.Map.Entry[K, V]] = map.entrySet()
+}
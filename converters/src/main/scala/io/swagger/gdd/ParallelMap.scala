@@ -0,0 +1,45 @@
+package io.swagger.gdd
+
+import java.util.concurrent.{ForkJoinPool, ForkJoinTask, RecursiveAction}
+
+/**
+ * Maps over a sequence on a fork-join pool, keeping the order of the results.
+ */
+private[gdd] object ParallelMap {
+
+  /**
+   * Ranges are split in half until they are at most this many times smaller than the pool's parallelism, which leaves
+   * enough tasks to steal when some items take much longer to convert than others.
+   */
+  private val SplitsPerThread = 8
+
+  /**
+   * @param items the items to map over
+   * @param pool the pool to run on
+   * @param f the function to apply to each item; it must be safe to call from multiple threads at once
+   * @return the results, in the same order as the items
+   */
+  def apply[A, B](items: IndexedSeq[A], pool: ForkJoinPool)(f: A => B): IndexedSeq[B] = {
+    val results = new Array[Any](items.size)
+    val threshold = math.max(1, items.size / (pool.getParallelism * SplitsPerThread))
+    pool.invoke(new MapTask(items, results, 0, items.size, threshold, f))
+    results.toIndexedSeq.asInstanceOf[IndexedSeq[B]]
+  }
+
+  private class MapTask[A, B](items: IndexedSeq[A], results: Array[Any], from: Int, until: Int, threshold: Int,
+                              f: A => B) extends RecursiveAction {
+    override def compute(): Unit = {
+      if (until - from <= threshold) {
+        var i = from
+        while (i < until) {
+          results(i) = f(items(i))
+          i += 1
+        }
+      } else {
+        val mid = (from + until) >>> 1
+        ForkJoinTask.invokeAll(new MapTask(items, results, from, mid, threshold, f),
+          new MapTask(items, results, mid, until, threshold, f))
+      }
+    }
+  }
+}
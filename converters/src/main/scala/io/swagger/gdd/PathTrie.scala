@@ -0,0 +1,63 @@
+package io.swagger.gdd
+
+import java.util
+
+import scala.collection.JavaConverters._
+import scala.collection.mutable
+
+/**
+ * A trie over the resource segments of path values, which mirrors the nesting of GDD
+ * [[io.swagger.gdd.models.Resource Resource]]s. Each node holds the paths that end at it, in insertion order, and its
+ * child nodes keyed by segment, also in insertion order. The root holds the paths with no resource segments at all.
+ *
+ * Building the trie takes time linear in the total number of segments, and nothing is copied along the way.
+ *
+ * @tparam A what is stored for each path, such as the [[io.swagger.models.Path Path]] itself
+ */
+private[gdd] final class PathTrie[A] {
+  private val childNodes = new util.LinkedHashMap[String, PathTrie[A]]()
+  private val pathValues = mutable.ArrayBuffer.empty[(String, A)]
+
+  /**
+   * @return the paths that end at this node, keyed by path value
+   */
+  def paths: Seq[(String, A)] = pathValues
+
+  /**
+   * @return the child nodes, keyed by segment
+   */
+  def children: Iterable[(String, PathTrie[A])] = childNodes.asScala
+
+  /**
+   * Add a path under the node reached by following the given segments from this one.
+   * @param segments the resource segments of the path
+   * @param pathValue the full path value
+   * @param value what to store for the path
+   */
+  def insert(segments: Seq[String], pathValue: String, value: A): Unit = {
+    var node = this
+    segments.foreach { segment =>
+      val child = node.childNodes.get(segment)
+      node = if (child != null) child else {
+        val newChild = new PathTrie[A]
+        node.childNodes.put(segment, newChild)
+        newChild
+      }
+    }
+    node.pathValues += pathValue -> value
+  }
+}
+
+private[gdd] object PathTrie {
+
+  /**
+   * @param paths the paths to put in the trie, keyed by path value
+   * @param segmentsOf the resource segments of a path value
+   * @return a trie of all of the paths
+   */
+  def apply[A](paths: Iterable[(String, A)])(segmentsOf: String => Seq[String]): PathTrie[A] = {
+    val root = new PathTrie[A]
+    paths.foreach { case (pathValue, value) => root.insert(segmentsOf(pathValue), pathValue, value) }
+    root
+  }
+}
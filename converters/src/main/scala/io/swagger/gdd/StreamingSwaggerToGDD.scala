@@ -0,0 +1,278 @@
+package io.swagger.gdd
+
+import java.io.{File, OutputStream}
+import java.nio.channels.{Channels, FileChannel}
+import java.nio.file.{Files, StandardOpenOption}
+import java.util
+
+import scala.collection.JavaConverters._
+import scala.collection.mutable
+
+import com.fasterxml.jackson.core.{JsonGenerator, JsonParser, JsonToken}
+import com.fasterxml.jackson.databind.node.ObjectNode
+import com.fasterxml.jackson.databind.{JsonNode, ObjectMapper, SerializationFeature}
+import io.swagger.gdd.models.{AbstractSchema, GoogleDiscoveryDocument}
+import io.swagger.models.{Model, Path, Swagger}
+import io.swagger.util.Json
+
+/**
+ * Converts Swagger JSON to GDD JSON one definition and one path at a time, so that neither the whole
+ * [[io.swagger.models.Swagger Swagger]] nor the whole [[io.swagger.gdd.models.GoogleDiscoveryDocument GoogleDiscoveryDocument]]
+ * is ever held in memory. Peak memory grows with the largest single definition or path rather than with the document.
+ *
+ * The Swagger file is read twice. The first pass reads the small top-level fields and records where each entry of
+ * `definitions` and `paths` starts. The second pass reads those entries back one by one, converts them with the
+ * mapping rules of the given [[io.swagger.gdd.SwaggerToGDD SwaggerToGDD]] and writes the result straight away. Schemas
+ * hoisted out of operations are converted as each path is, and its methods are spooled to a temporary file. The
+ * schemas are spooled to another, and copied into `schemas` once every path is converted, then the methods into
+ * `methods` and `resources`. The definitions that an `allOf` is flattened from are read back as they are needed, and
+ * only their flattened properties are kept.
+ *
+ * The output has the same content as serializing the result of
+ * [[io.swagger.gdd.SwaggerToGDD#swaggerToGDD swaggerToGDD]], but entries are written in the order they appear in the
+ * Swagger file. As there, a hoisted schema whose id is already in `schemas`, such as that of a definition, takes the
+ * place of the one before it. Duplicate `operationId`s, which Swagger does not allow, will produce duplicate keys in
+ * `methods`.
+ *
+ * @param converter the converter whose mapping rules are used for each definition and path
+ * @param mapper the ObjectMapper used to write the GDD models; see [[io.swagger.gdd.GDDMapper GDDMapper]]
+ */
+class StreamingSwaggerToGDD(val converter: SwaggerToGDD = new SwaggerToGDD, val mapper: ObjectMapper = GDDMapper()) {
+
+  private val swaggerMapper = Json.mapper()
+
+  /**
+   * Convert a Swagger JSON file to GDD JSON. The output stream is flushed, but not closed.
+   * @param swaggerJson a Swagger JSON file
+   * @param out where the GDD JSON will be written
+   */
+  def convert(swaggerJson: File, out: OutputStream): Unit = {
+    val channel = FileChannel.open(swaggerJson.toPath, StandardOpenOption.READ)
+    val spool = Files.createTempFile("swagger-gdd", ".json")
+    val schemas = new SchemaWriter
+    try {
+      val index = indexSwagger(channel)
+      val gdd = converter.modelFactory.newGoogleDiscoveryDocument()
+      converter.swaggerMetadataToGDD(index.skeleton, gdd)
+
+      val generator = newGenerator(out)
+      generator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)
+      generator.writeStartObject()
+      val header: ObjectNode = mapper.valueToTree(gdd)
+      header.fields.asScala.foreach { field =>
+        generator.writeFieldName(field.getKey)
+        mapper.writeTree(generator, field.getValue)
+      }
+
+      // the definitions an allOf refers to are read back when they are first flattened
+      val offsets = index.definitions.map(_.toMap).getOrElse(Map.empty[String, Long])
+      val allOf = converter.allOfResolver(key => offsets.get(key).map(readAt(channel, _, classOf[Model])))
+      implicit val context = new ConversionContext(allOf, gdd)
+      index.definitions.foreach { definitions =>
+        schemas.open()
+        definitions.foreach { case (key, offset) =>
+          schemas.write(key, converter.schemaObjectToGDD(key, readAt(channel, offset, classOf[Model])))
+        }
+      }
+
+      index.paths.foreach { paths =>
+        val spooler = newGenerator(Files.newOutputStream(spool))
+        try {
+          spooler.writeStartObject()
+          // nest resources by path segment, as swaggerToGDD does
+          val root = PathTrie(paths)(converter.resourceSegmentsOf)
+          // root level methods go under methods, not resources
+          if (root.paths.nonEmpty) {
+            spooler.writeFieldName("methods")
+            writeMethods(channel, root, gdd, schemas, spooler)
+          }
+          spooler.writeFieldName("resources")
+          writeResources(channel, root, gdd, schemas, spooler)
+          spooler.writeEndObject()
+        } finally {
+          spooler.close()
+        }
+      }
+      schemas.copyTo(generator)
+
+      if (index.paths.isDefined) {
+        val parser = mapper.getFactory.createParser(spool.toFile)
+        try {
+          parser.nextToken()
+          while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            generator.copyCurrentStructure(parser)
+          }
+        } finally {
+          parser.close()
+        }
+      }
+      generator.writeEndObject()
+      generator.close()
+    } finally {
+      schemas.close()
+      Files.deleteIfExists(spool)
+      channel.close()
+    }
+  }
+
+  private def writeResources(channel: FileChannel, node: PathTrie[Long], gdd: GoogleDiscoveryDocument,
+                             schemas: SchemaWriter, spooler: JsonGenerator)
+                            (implicit context: ConversionContext): Unit = {
+    spooler.writeStartObject()
+    node.children.foreach { case (segment, child) =>
+      spooler.writeObjectFieldStart(segment)
+      if (child.paths.nonEmpty) {
+        spooler.writeFieldName("methods")
+        writeMethods(channel, child, gdd, schemas, spooler)
+      }
+      if (child.children.nonEmpty) {
+        spooler.writeFieldName("resources")
+        writeResources(channel, child, gdd, schemas, spooler)
+      }
+      spooler.writeEndObject()
+    }
+    spooler.writeEndObject()
+  }
+
+  private def writeMethods(channel: FileChannel, node: PathTrie[Long], gdd: GoogleDiscoveryDocument,
+                           schemas: SchemaWriter, spooler: JsonGenerator)
+                          (implicit context: ConversionContext): Unit = {
+    spooler.writeStartObject()
+    node.paths.foreach { case (key, offset) => writePath(channel, key, offset, gdd, schemas, spooler) }
+    spooler.writeEndObject()
+  }
+
+  /**
+   * Convert one path and write it out. Its methods go to the spool, and the schemas hoisted out of its operations go
+   * straight into `schemas`. The GoogleDiscoveryDocument only holds metadata; it gets a fresh `schemas` map for each
+   * path to collect the hoisted schemas.
+   */
+  private def writePath(channel: FileChannel, key: String, offset: Long, gdd: GoogleDiscoveryDocument,
+                        schemas: SchemaWriter, spooler: JsonGenerator)
+                       (implicit context: ConversionContext): Unit = {
+    gdd.setSchemas(new util.LinkedHashMap[String, AbstractSchema]())
+    val methods = converter.pathObjectToGDD(key, readAt(channel, offset, classOf[Path]))
+    gdd.getSchemas.asScala.foreach { case (id, schema) => schemas.write(id, schema) }
+    gdd.setSchemas(null)
+    methods.foreach { case (id, method) =>
+      spooler.writeFieldName(id)
+      mapper.writeValue(spooler, method)
+    }
+  }
+
+  /**
+   * Spools the entries of `schemas` to a temporary file, remembering where the last one of each id starts, so that one
+   * written again takes the place of the one before it, as in a map. Only the ids and their offsets are kept in memory.
+   * The field is only written if it was opened, once it is known that the document has one.
+   */
+  private class SchemaWriter {
+    private val file = Files.createTempFile("swagger-gdd-schemas", ".json")
+    private val channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)
+    private val spooler = mapper.getFactory.createGenerator(Channels.newOutputStream(channel))
+    private val offsets = new util.LinkedHashMap[String, Long]()
+    private var opened = false
+
+    def open(): Unit = opened = true
+
+    def write(id: String, schema: AbstractSchema): Unit = {
+      open()
+      spooler.flush()
+      offsets.put(id, channel.position())
+      mapper.writeValue(spooler, schema)
+    }
+
+    /**
+     * Write `schemas`, with the last schema of each id, in the order the ids were first written.
+     */
+    def copyTo(generator: JsonGenerator): Unit = if (opened) {
+      spooler.flush()
+      generator.writeObjectFieldStart("schemas")
+      offsets.asScala.foreach { case (id, offset) =>
+        val parser = mapper.getFactory.createParser(Channels.newInputStream(channel.position(offset)))
+        parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE) // the channel is reused for every entry
+        try {
+          parser.nextToken()
+          generator.writeFieldName(id)
+          generator.copyCurrentStructure(parser)
+        } finally {
+          parser.close()
+        }
+      }
+      generator.writeEndObject()
+    }
+
+    def close(): Unit = {
+      try {
+        spooler.close()
+      } finally {
+        channel.close()
+        Files.deleteIfExists(file)
+      }
+    }
+  }
+
+  /**
+   * The top-level fields of a Swagger file without `definitions` and `paths`, plus the byte offset at which each
+   * entry of `definitions` and `paths` starts. Each is `None` if the file does not have that field.
+   */
+  private case class SwaggerIndex(skeleton: Swagger, definitions: Option[Seq[(String, Long)]],
+                                  paths: Option[Seq[(String, Long)]])
+
+  private def indexSwagger(channel: FileChannel): SwaggerIndex = {
+    val parser = newParser(channel, 0)
+    try {
+      val skeleton = swaggerMapper.createObjectNode()
+      var definitions = Option.empty[Seq[(String, Long)]]
+      var paths = Option.empty[Seq[(String, Long)]]
+      if (parser.nextToken() != JsonToken.START_OBJECT) {
+        throw new IllegalArgumentException("Swagger JSON must be an object")
+      }
+      while (parser.nextToken() == JsonToken.FIELD_NAME) {
+        val field = parser.getCurrentName
+        parser.nextToken()
+        field match {
+          case "definitions" if parser.getCurrentToken == JsonToken.START_OBJECT => definitions = Some(indexEntries(parser))
+          case "paths" if parser.getCurrentToken == JsonToken.START_OBJECT => paths = Some(indexEntries(parser))
+          case _ => skeleton.set(field, swaggerMapper.readTree[JsonNode](parser))
+        }
+      }
+      SwaggerIndex(swaggerMapper.treeToValue(skeleton, classOf[Swagger]), definitions, paths)
+    } finally {
+      parser.close()
+    }
+  }
+
+  private def indexEntries(parser: JsonParser): Seq[(String, Long)] = {
+    val entries = mutable.ArrayBuffer.empty[(String, Long)]
+    while (parser.nextToken() == JsonToken.FIELD_NAME) {
+      val key = parser.getCurrentName
+      if (parser.nextToken() == JsonToken.START_OBJECT) {
+        // the token location of a value after a field name points at the name, so use the position just past the {
+        entries += key -> (parser.getCurrentLocation.getByteOffset - 1)
+      }
+      parser.skipChildren()
+    }
+    entries
+  }
+
+  private def readAt[T](channel: FileChannel, offset: Long, clazz: Class[T]): T = {
+    val parser = newParser(channel, offset)
+    try {
+      swaggerMapper.readValue(parser, clazz)
+    } finally {
+      parser.close()
+    }
+  }
+
+  private def newParser(channel: FileChannel, offset: Long): JsonParser = {
+    val parser = swaggerMapper.getFactory.createParser(Channels.newInputStream(channel.position(offset)))
+    parser.disable(JsonParser.Feature.AUTO_CLOSE_SOURCE) // the channel is reused for every entry
+    parser
+  }
+
+  private def newGenerator(out: OutputStream): JsonGenerator = {
+    val generator = mapper.getFactory.createGenerator(out)
+    if (mapper.isEnabled(SerializationFeature.INDENT_OUTPUT)) generator.useDefaultPrettyPrinter()
+    generator
+  }
+}
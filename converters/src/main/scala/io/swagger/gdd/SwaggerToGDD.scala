@@ -1,6 +1,10 @@
 package io.swagger.gdd
 
+import java.util.concurrent.{Executor, ForkJoinPool, RejectedExecutionException}
+
 import scala.collection.JavaConverters._
+import scala.collection.mutable
+import scala.concurrent.{Future, Promise}
 
 import io.swagger.gdd.models._
 import io.swagger.gdd.models.factory.GDDModelFactory
@@ -15,10 +19,20 @@ import io.swagger.models.properties._
  * this class. Then you can either change your custom models after the fact, or you can subclass this class and override
  * the behavior, preferably by calling super and then making the changes you need afterward.
  *
+ * A SwaggerToGDD keeps no state between conversions, so one instance can be shared by any number of threads converting
+ * at once, as long as its `modelFactory` and `listener` are thread safe, as the ones provided here are. What a
+ * conversion keeps track of as it goes, including the document that schemas hoisted out of `Operation`s are added to,
+ * is held in a [[io.swagger.gdd.ConversionContext ConversionContext]] confined to the threads doing that conversion.
+ * Subclasses which keep their own state the same way are thread safe too.
+ *
  * @param modelFactory factory for creating GDD models. For custom implementations, subclass
  *                     [[io.swagger.gdd.models.factory.GDDModelFactory GDDModelFactory]] to inject different models.
+ * @param listener hears about each phase of converting, to time and count it; see
+ *                 [[io.swagger.gdd.ConversionListener ConversionListener]]
  */
-class SwaggerToGDD(val modelFactory: GDDModelFactory = new GDDModelFactory) {
+class SwaggerToGDD(val modelFactory: GDDModelFactory = new GDDModelFactory,
+                   val listener: ConversionListener = ConversionListener.NoOp) {
+  import ConversionListener.{Definitions, Hoisting, NoOp, PathGrouping, Phase}
 
   // todo: header, form, cookie params are all things that Swagger supports but GDD does not. only path and query.
 
@@ -29,7 +43,352 @@ class SwaggerToGDD(val modelFactory: GDDModelFactory = new GDDModelFactory) {
    */
   def swaggerToGDD(swagger: Swagger): GoogleDiscoveryDocument = {
     val gdd = modelFactory.newGoogleDiscoveryDocument()
+    swaggerMetadataToGDD(swagger, gdd)
+    implicit val context = new ConversionContext(allOfResolver(swagger), gdd)
+    timed(Definitions, gdd.getTitle)(definitionsToGDD(swagger, gdd)(schemaObjectToGDD(_, _)))
+    pathsToGDD(swagger, gdd)(node => pathObjectsToGDD(node.paths))
+    gdd
+  }
+
+  /**
+   * Create a new GoogleDiscoveryDocument from a Swagger instance, converting definitions and paths in parallel on the
+   * given pool. The Swagger will not be modified. The result is the same, down to the iteration order of every map,
+   * as that of the sequential `swaggerToGDD`.
+   *
+   * The paths of each `Resource` are converted together, against their own empty GoogleDiscoveryDocument, so that the
+   * schemas hoisted out of their `Operation`s are confined to the task converting them, and the `Operation` phases are
+   * reported inside the `Resource` phase on the same thread. The schemas are added to the resulting document
+   * afterward, on the calling thread, in the order the sequential conversion would have added them.
+   *
+   * @param swagger a model of a swagger document
+   * @param pool the pool to convert definitions and paths on
+   * @return the Swagger converted into a GoogleDiscoveryDocument
+   */
+  def swaggerToGDD(swagger: Swagger, pool: ForkJoinPool): GoogleDiscoveryDocument = {
+    val gdd = modelFactory.newGoogleDiscoveryDocument()
+    swaggerMetadataToGDD(swagger, gdd)
+
+    val allOf = allOfResolver(swagger)
+    val definitions = Option(swagger.getDefinitions).map(_.asScala.toIndexedSeq).getOrElse(IndexedSeq.empty)
+    timed(Definitions, gdd.getTitle) {
+      val schemas = ParallelMap(definitions, pool) { case (key, model) =>
+        key -> schemaObjectToGDD(key, model)(new ConversionContext(allOf, modelFactory.newGoogleDiscoveryDocument()))
+      }.toMap
+      definitionsToGDD(swagger, gdd)((key, _) => schemas(key))
+    }
+
+    pathTrie(swagger, gdd).foreach { trie =>
+      def withPaths(node: PathTrie[Path]): IndexedSeq[PathTrie[Path]] = {
+        (if (node.paths.nonEmpty) IndexedSeq(node) else IndexedSeq.empty) ++ node.children.flatMap(c => withPaths(c._2))
+      }
+      val resources = ParallelMap(withPaths(trie), pool) { node =>
+        val scratch = modelFactory.newGoogleDiscoveryDocument()
+        node -> ((pathObjectsToGDD(node.paths)(new ConversionContext(allOf, scratch)), Option(scratch.getSchemas)))
+      }.toMap
+      resourcesToGDD(trie, gdd) { node =>
+        val (resource, hoisted) = resources(node)
+        hoisted.foreach(_.asScala.values.foreach(putSchema(_, gdd)))
+        resource
+      }
+    }
+    gdd
+  }
+
+  /**
+   * Create a new GoogleDiscoveryDocument from a Swagger instance on the given executor, such as a dedicated pool,
+   * rather than on the calling thread. The Swagger will not be modified, and should not be modified until the
+   * conversion is done.
+   * @param swagger a model of a swagger document
+   * @param executor runs the conversion
+   * @return the Swagger converted into a GoogleDiscoveryDocument, or what the conversion failed with, including a
+   *         `RejectedExecutionException` if the executor would not run it
+   */
+  def swaggerToGDDAsync(swagger: Swagger, executor: Executor): Future[GoogleDiscoveryDocument] = {
+    val promise = Promise[GoogleDiscoveryDocument]()
+    try {
+      executor.execute(new Runnable {
+        override def run(): Unit = {
+          try promise.success(swaggerToGDD(swagger)) catch {
+            // fatal errors too, such as a StackOverflowError on a deeply nested document, so no caller waits forever
+            case e: Throwable =>
+              promise.failure(e)
+              e match {
+                case e: VirtualMachineError => throw e
+                case _ =>
+              }
+          }
+        }
+      })
+    } catch {
+      case e: RejectedExecutionException => promise.failure(e)
+    }
+    promise.future
+  }
+
+  /**
+   * Create a new GoogleDiscoveryDocument from a Swagger instance, converting only the definitions and paths that
+   * changed since the previous version of the same document was converted with `cache`. The rest are taken from the
+   * cache, and the schemas hoisted out of a path's `Operation`s are added or left out along with the path. The Swagger
+   * will not be modified. The result is the same as that of the sequential `swaggerToGDD`.
+   *
+   * Whether a definition or path changed is decided by a content hash of its Swagger model, along with those of the
+   * definitions that its `allOf`, or the `allOf` of a path's body parameters, is flattened from, and the keys of those
+   * which do not exist yet. A subclass whose conversion of one depends on anything else in the Swagger should not use
+   * this.
+   *
+   * @param swagger a model of a swagger document
+   * @param cache what was converted for the previous version of the document; see
+   *              [[io.swagger.gdd.ConversionCache ConversionCache]]
+   * @return the Swagger converted into a GoogleDiscoveryDocument
+   */
+  def swaggerToGDD(swagger: Swagger, cache: ConversionCache): GoogleDiscoveryDocument = {
+    val gdd = modelFactory.newGoogleDiscoveryDocument()
+    swaggerMetadataToGDD(swagger, gdd)
+    val allOf = allOfResolver(swagger)
+    implicit val context = new ConversionContext(allOf, gdd)
+    try {
+      timed(Definitions, gdd.getTitle) {
+        definitionsToGDD(swagger, gdd) { (key, model) =>
+          cache.definitions(key, model, allOfDependencies(allOf, Seq(model)))(schemaObjectToGDD(_, _))
+        }
+      }
+      pathsToGDD(swagger, gdd)(node => pathsToResource(node.paths) { (pathValue, path) =>
+        val (methods, hoisted) = cache.paths(pathValue, path, allOfDependencies(allOf, bodyModels(path))) {
+          (pathValue, path) =>
+            // converted against a document of its own, so that its hoisted schemas can be kept with it
+            val scratch = modelFactory.newGoogleDiscoveryDocument()
+            val methods = pathObjectToGDD(pathValue, path)(new ConversionContext(allOf, scratch))
+            (methods, Option(scratch.getSchemas).map(_.asScala.values.toList).getOrElse(Nil))
+        }
+        hoisted.foreach(putSchema(_, gdd))
+        methods
+      })
+    } finally {
+      cache.sweep()
+    }
+    gdd
+  }
+
+  /**
+   * What converting `models` depends on besides the models themselves, for a `ConversionCache` to hash: each definition
+   * their `allOf`s are flattened from, under its key, and the key of each one which does not exist, so that adding it
+   * later counts as a change too.
+   */
+  private def allOfDependencies(allOf: AllOfResolver, models: Seq[Model]): Seq[AnyRef] = {
+    models.flatMap(allOf.ancestors).distinct.map { case (key, definition) =>
+      java.util.Collections.singletonMap(key, definition.orNull)
+    }
+  }
+
+  /**
+   * @return the schemas of the body parameters of every `Operation` of the path
+   */
+  private def bodyModels(path: Path): Seq[Model] = {
+    Option(path.getOperations).map(_.asScala.toList).getOrElse(Nil).flatMap { op =>
+      Option(op.getParameters).map(_.asScala.toList).getOrElse(Nil).collect {
+        case p: BodyParameter if p.getSchema != null => p.getSchema
+      }
+    }
+  }
+
+  /**
+   * Create a new GoogleDiscoveryDocument from a Swagger instance, converting only its document-level metadata up front.
+   * The Swagger will not be modified, and should not be modified while the result is in use.
+   *
+   * The `methods` and `resources` of the result, and those of every `Resource` in it, are converted the first time
+   * they are used. Looking up one `Resource` converts none of the paths, and using its `methods` converts just the
+   * paths whose methods go in it. `schemas` holds the definitions and every schema hoisted out of an `Operation`, so
+   * using it converts all of the paths that were not converted yet. Each part is converted only once, even when it is
+   * first used from multiple threads at once.
+   *
+   * Once fully converted, the result is the same as that of the sequential `swaggerToGDD`, except that `schemas` is
+   * empty rather than `null` when there are no schemas at all.
+   *
+   * @param swagger a model of a swagger document
+   * @return the Swagger converted into a GoogleDiscoveryDocument whose definitions and paths are converted on demand
+   */
+  def lazySwaggerToGDD(swagger: Swagger): GoogleDiscoveryDocument = {
+    val gdd = modelFactory.newGoogleDiscoveryDocument()
+    swaggerMetadataToGDD(swagger, gdd)
+    val allOf = allOfResolver(swagger)
+    val root = Option(swagger.getPaths).map { paths =>
+      new LazyNode(timed(PathGrouping, gdd.getTitle)(PathTrie(paths.asScala)(resourceSegmentsOf)), allOf)
+    }
+    gdd.setSchemas(new MemoizedMap({
+      val scratch = modelFactory.newGoogleDiscoveryDocument()
+      val context = new ConversionContext(allOf, scratch)
+      timed(Definitions, gdd.getTitle)(definitionsToGDD(swagger, scratch)(schemaObjectToGDD(_, _)(context)))
+      root.foreach(_.foreach(_.hoisted.foreach(putSchema(_, scratch))))
+      Option(scratch.getSchemas).getOrElse(new java.util.LinkedHashMap[String, AbstractSchema]())
+    }))
+    root.map(_.resource).foreach { resource =>
+      Option(resource.getMethods).foreach(gdd.setMethods)
+      gdd.setResources(Option(resource.getResources).getOrElse(new java.util.LinkedHashMap[String, Resource]()))
+    }
+    gdd
+  }
+
+  /**
+   * <i>Side effecting</i>. Sets the GoogleDiscoveryDocument's `schemas` to the Swagger's `definitions`, converted.
+   * @param swagger a model of a swagger document
+   * @param gdd the GoogleDiscoveryDocument to populate
+   * @param toSchema converts a definition, given the key it is defined under
+   */
+  private def definitionsToGDD(swagger: Swagger, gdd: GoogleDiscoveryDocument)(toSchema: (String, Model) => Schema): Unit = {
+    Option(swagger.getDefinitions).map(_.asScala.map { case (key, model) =>
+      key -> (toSchema(key, model): AbstractSchema)
+    }.asJava).foreach(gdd.setSchemas)
+  }
+
+  /**
+   * <i>Side effecting</i>. Sets the GoogleDiscoveryDocument's `methods` and `resources` from the Swagger's `paths`.
+   *
+   * Paths are put in a [[io.swagger.gdd.PathTrie PathTrie]] by their
+   * [[io.swagger.gdd.SwaggerToGDD#resourceSegmentsOf resource segments]], which is then turned into nested
+   * `Resource`s. Paths without any resource segments have their methods put in the GoogleDiscoveryDocument's `methods`.
+   *
+   * @param swagger a model of a swagger document
+   * @param gdd the GoogleDiscoveryDocument to populate
+   * @param toResource converts the paths that end at one node of the trie into a Resource
+   */
+  private def pathsToGDD(swagger: Swagger, gdd: GoogleDiscoveryDocument)
+                        (toResource: PathTrie[Path] => Resource): Unit = {
+    pathTrie(swagger, gdd).foreach(resourcesToGDD(_, gdd)(toResource))
+
+    // todo: parameters need to go in schemas
+  }
+
+  /**
+   * @return the Swagger's `paths` in a trie by their resource segments, if it has any
+   */
+  private def pathTrie(swagger: Swagger, gdd: GoogleDiscoveryDocument): Option[PathTrie[Path]] = {
+    Option(swagger.getPaths).map { paths =>
+      timed(PathGrouping, gdd.getTitle)(PathTrie(paths.asScala)(resourceSegmentsOf))
+    }
+  }
+
+  /**
+   * <i>Side effecting</i>. Sets the GoogleDiscoveryDocument's `methods` and `resources` from a trie of its paths.
+   */
+  private def resourcesToGDD(trie: PathTrie[Path], gdd: GoogleDiscoveryDocument)
+                            (toResource: PathTrie[Path] => Resource): Unit = {
+    val root = trieToResource(trie)(toResource)
+    Option(root.getMethods).foreach(gdd.setMethods)
+    gdd.setResources(Option(root.getResources).getOrElse(new java.util.LinkedHashMap[String, Resource]()))
+  }
+
+  private val instrumented = listener ne NoOp
+
+  /**
+   * Run `f` as a phase of converting, and tell the listener how long it took. The clock is only read if there is a
+   * listener.
+   * @param name what the phase is working on
+   */
+  private[gdd] def timed[T](phase: Phase, name: => String)(f: => T): T = {
+    if (!instrumented) return f
+    val n = name
+    listener.phaseStarted(phase, n)
+    val start = System.nanoTime()
+    try f finally listener.phaseFinished(phase, n, System.nanoTime() - start)
+  }
+
+  /**
+   * A context of its own for a part of a document converted on its own, such as by calling `propertyToGDD` directly,
+   * which has no definitions to flatten `allOf`s against.
+   * @param gdd the GoogleDiscoveryDocument that schemas hoisted out of `Operation`s are added to
+   */
+  def standaloneContext(gdd: GoogleDiscoveryDocument): ConversionContext = {
+    new ConversionContext(allOfResolver(_ => None), gdd)
+  }
+
+  /**
+   * @param definitions looks up a definition by key
+   * @return a resolver which flattens `allOf`s against the definitions, using this converter's rules for properties
+   */
+  private[gdd] def allOfResolver(definitions: String => Option[Model]): AllOfResolver = {
+    new AllOfResolver(definitions, nestedPropertiesToGDD(_)(_))
+  }
+
+  private def allOfResolver(swagger: Swagger): AllOfResolver = {
+    val definitions = Option(swagger.getDefinitions)
+    allOfResolver(key => definitions.flatMap(d => Option(d.get(key))))
+  }
+
+  private def trieToResource(node: PathTrie[Path])(toResource: PathTrie[Path] => Resource): Resource = {
+    val resource = if (node.paths.nonEmpty) toResource(node) else modelFactory.newResource()
+    if (node.children.nonEmpty) {
+      val resources = new java.util.LinkedHashMap[String, Resource]()
+      node.children.foreach { case (segment, child) => resources.put(segment, trieToResource(child)(toResource)) }
+      resource.setResources(resources)
+    }
+    resource
+  }
+
+  /**
+   * A node of a [[io.swagger.gdd.PathTrie PathTrie]] whose paths are converted the first time they are needed. The
+   * schemas hoisted out of its `Operation`s are kept aside, for `schemas` to add in the order the sequential conversion
+   * would have added them.
+   */
+  private class LazyNode(node: PathTrie[Path], allOf: AllOfResolver) {
+    private lazy val children = node.children.map { case (segment, child) =>
+      segment -> new LazyNode(child, allOf)
+    }.toList
 
+    private lazy val converted: (java.util.Map[String, Method], Seq[AbstractSchema]) = {
+      val scratch = modelFactory.newGoogleDiscoveryDocument()
+      implicit val context = new ConversionContext(allOf, scratch)
+      val methods = pathsToResource(node.paths)(pathObjectToGDD(_, _)).getMethods
+      (methods, Option(scratch.getSchemas).map(_.asScala.values.toList).getOrElse(Nil))
+    }
+
+    def hoisted: Seq[AbstractSchema] = converted._2
+
+    /**
+     * Apply `f` to this node and then to each node under it, in the order that `trieToResource` converts them.
+     */
+    def foreach(f: LazyNode => Unit): Unit = {
+      f(this)
+      children.foreach(_._2.foreach(f))
+    }
+
+    /**
+     * @return a Resource whose `methods` and `resources` are converted the first time they are used
+     */
+    def resource: Resource = {
+      val resource = modelFactory.newResource()
+      if (node.paths.nonEmpty) resource.setMethods(new MemoizedMap(converted._1))
+      if (node.children.nonEmpty) {
+        resource.setResources(new MemoizedMap({
+          val resources = new java.util.LinkedHashMap[String, Resource]()
+          children.foreach { case (segment, child) => resources.put(segment, child.resource) }
+          resources
+        }))
+      }
+      resource
+    }
+  }
+
+  /**
+   * <i>Side effecting</i>. Copies the document-level metadata of the Swagger onto the GoogleDiscoveryDocument.
+   * The Swagger will not be modified. Neither `definitions` nor `paths` are looked at.
+   *
+   * <table>
+   *   <tr><th>GDD field</th><th>Swagger field which determines it</th></tr>
+   *   <tr><td>`servicePath`</td><td>`basePath`</td></tr>
+   *   <tr><td>`rootUrl`</td><td>the first of `schemes`, and `host`</td></tr>
+   *   <tr><td>`title`</td><td>`info.title`</td></tr>
+   *   <tr><td>`name`</td><td>`info.title`, lowercased, with whitespace replaced by hyphens</td></tr>
+   *   <tr><td>`version`</td><td>the major part of `info.version`</td></tr>
+   *   <tr><td>`revision`</td><td>the minor part of `info.version`</td></tr>
+   *   <tr><td>`id`</td><td>not set by a field, set to `"{name}:{version}"`</td></tr>
+   *   <tr><td>`description`</td><td>`info.description`</td></tr>
+   *   <tr><td>`documentationLink`</td><td>`externalDocs.url`</td></tr>
+   * </table>
+   *
+   * @param swagger a model of a swagger document
+   * @param gdd the GoogleDiscoveryDocument to populate
+   */
+  def swaggerMetadataToGDD(swagger: Swagger, gdd: GoogleDiscoveryDocument): Unit = {
     // basics: basePath -> servicePath, schemes + host -> rootUrl
     gdd.setServicePath(swagger.getBasePath)
     val rootUrl = for {
@@ -57,31 +416,18 @@ class SwaggerToGDD(val modelFactory: GDDModelFactory = new GDDModelFactory) {
 
     // external docs -> documentationLink
     Option(swagger.getExternalDocs).map(_.getUrl).foreach(gdd.setDocumentationLink)
+  }
 
-    // definitions -> schemas
-    Option(swagger.getDefinitions).map(_.asScala.map { case (key, model) =>
-      key -> (schemaObjectToGDD(key, model): AbstractSchema)
-    }.asJava).foreach(gdd.setSchemas)
-
-    // paths -> methods, resources
-    Option(swagger.getPaths).map(_.asScala).foreach { paths =>
-      // group paths by base. does not include the leading /
-      val pathsByBase = paths.foldLeft(Map.empty[String, Map[String, Path]]) { case (curr, (key, path)) =>
-        val base = key.stripPrefix("/").split('/').toList.headOption.getOrElse("")
-        curr + (base -> (curr.getOrElse(base, Map.empty[String, Path]) + (key -> path)))
-      }
-      gdd.setResources(pathsByBase.foldLeft(Map.empty[String, Resource]) {
-        case (curr, ("", ps)) => // root level methods go under methods, not resources
-          gdd.setMethods(pathObjectsToGDD(ps, gdd).getMethods)
-          curr
-        case (curr, (basePath, ps)) =>
-          curr + (basePath.stripPrefix("/") -> pathObjectsToGDD(ps, gdd))
-      }.asJava)
-    }
-
-    // todo: parameters need to go in schemas
-
-    gdd
+  /**
+   * The keys of the nested [[io.swagger.gdd.models.Resource Resource]]s that a path's methods go in, outermost first.
+   * These are the segments of the path, minus path parameters. For example, `/pets/{petId}/photos` goes in the
+   * `photos` resource under the `pets` resource. Paths with no segments besides path parameters get an empty list;
+   * their methods go in the GoogleDiscoveryDocument's `methods` rather than in a `Resource`.
+   * @param pathValue the full path value (including path parameters in a templated string)
+   * @return the resource segments of the path
+   */
+  def resourceSegmentsOf(pathValue: String): Seq[String] = {
+    pathValue.split('/').filter(segment => segment.nonEmpty && !segment.contains('{'))
   }
 
   /**
@@ -113,7 +459,8 @@ class SwaggerToGDD(val modelFactory: GDDModelFactory = new GDDModelFactory) {
    * @param model the Schema Object that will be converted into a GDD Schema
    * @return the converted Schema
    */
-  def schemaObjectToGDD(key: String, model: Model): Schema = {
+  def schemaObjectToGDD(key: String, model: Model)(implicit context: ConversionContext): Schema = {
+    listener.schemaCreated()
     val schema = modelFactory.newSchema()
     schema.setId(key)
     schema.setDescription(model.getDescription)
@@ -127,20 +474,29 @@ class SwaggerToGDD(val modelFactory: GDDModelFactory = new GDDModelFactory) {
    *
    * The resulting `Resource` will have a [[io.swagger.gdd.models.Method Method]] for each of the `Path`'s
    * [[io.swagger.models.Operation Operation]]s, for each `Path`. They will be the in `methods` field, keyed by
-   * each `Method`'s `id`.
+   * each `Method`'s `id`, in the order of the `Path`s. Its `resources` are not set.
    *
    * @see [[io.swagger.gdd.SwaggerToGDD#pathObjectToGDD pathObjectToGDD]]
-   * @param paths `Path`s grouped by key (path value)
-   * @param gdd the original `GoogleDiscoveryDocument`, which may need to have its schemas changed based on the
-   *            `Operation`s of the `Path` Objects
+   * @param paths `Path`s keyed by path value
+   * @param context holds the `GoogleDiscoveryDocument` which may need to have its schemas changed based on the
+   *                `Operation`s of the `Path` Objects
    * @return the `Resource` with all of its methods
    */
-  def pathObjectsToGDD(paths: Map[String, Path], gdd: GoogleDiscoveryDocument): Resource = {
-    val resource = modelFactory.newResource()
-    resource.setMethods(paths.foldLeft(Map.empty[String, Method]) {
-      case (curr, (pathValue, path)) => curr ++ pathObjectToGDD(pathValue, path, gdd)
-    }.asJava)
-    resource
+  def pathObjectsToGDD(paths: Iterable[(String, Path)])(implicit context: ConversionContext): Resource = {
+    pathsToResource(paths)(pathObjectToGDD(_, _))
+  }
+
+  private def pathsToResource(paths: Iterable[(String, Path)])
+                             (toMethods: (String, Path) => Map[String, Method]): Resource = {
+    timed(ConversionListener.Resource, paths.headOption.map(_._1).orNull) {
+      val resource = modelFactory.newResource()
+      val methods = new java.util.LinkedHashMap[String, Method]()
+      paths.foreach { case (pathValue, path) =>
+        toMethods(pathValue, path).foreach { case (id, method) => methods.put(id, method) }
+      }
+      resource.setMethods(methods)
+      resource
+    }
   }
 
   /**
@@ -162,18 +518,18 @@ class SwaggerToGDD(val modelFactory: GDDModelFactory = new GDDModelFactory) {
    * @see [[io.swagger.gdd.SwaggerToGDD#operationToGDD operationToGDD]]
    * @param pathValue the full path value (including path parameters in a templated string)
    * @param path the `Path` object
-   * @param gdd the original `GoogleDiscoveryDocument`, which may need to have its schemas changed based on the
-   *            `Operation`s of the `Path` Object
+   * @param context holds the `GoogleDiscoveryDocument` which may need to have its schemas changed based on the
+   *                `Operation`s of the `Path` Object
    * @return a map of `Method.id` to `Method`
    */
-  def pathObjectToGDD(pathValue: String, path: Path, gdd: GoogleDiscoveryDocument): Map[String, Method] = {
-    val methods = Option(path.getGet).map(operationToGDD(_, pathValue, "GET", gdd)) ::
-      Option(path.getPut).map(operationToGDD(_, pathValue, "PUT", gdd)) ::
-      Option(path.getPost).map(operationToGDD(_, pathValue, "POST", gdd)) ::
-      Option(path.getPatch).map(operationToGDD(_, pathValue, "PATCH", gdd)) ::
-      Option(path.getDelete).map(operationToGDD(_, pathValue, "DELETE", gdd)) ::
-      Option(path.getHead).map(operationToGDD(_, pathValue, "HEAD", gdd)) ::
-      Option(path.getOptions).map(operationToGDD(_, pathValue, "OPTIONS", gdd)) :: List.empty[Option[Method]]
+  def pathObjectToGDD(pathValue: String, path: Path)(implicit context: ConversionContext): Map[String, Method] = {
+    val methods = Option(path.getGet).map(operationToGDD(_, pathValue, "GET")) ::
+      Option(path.getPut).map(operationToGDD(_, pathValue, "PUT")) ::
+      Option(path.getPost).map(operationToGDD(_, pathValue, "POST")) ::
+      Option(path.getPatch).map(operationToGDD(_, pathValue, "PATCH")) ::
+      Option(path.getDelete).map(operationToGDD(_, pathValue, "DELETE")) ::
+      Option(path.getHead).map(operationToGDD(_, pathValue, "HEAD")) ::
+      Option(path.getOptions).map(operationToGDD(_, pathValue, "OPTIONS")) :: List.empty[Option[Method]]
     methods.foldLeft(Map.empty[String, Method]) {
       case (curr, Some(m)) => curr + (m.getId -> m)
       case (curr, None) => curr
@@ -216,11 +572,17 @@ class SwaggerToGDD(val modelFactory: GDDModelFactory = new GDDModelFactory) {
    * @param op the Operation on the Path
    * @param pathValue the full path value for the operation (including path parameters)
    * @param httpMethod the HTTP method for the operation
-   * @param gdd the original GoogleDiscoveryDocument, which may have its schemas added to if an Operation's response is
-   *            not a reference type. This is because GDD does not support non-ref responses.
+   * @param context holds the GoogleDiscoveryDocument, which may have its schemas added to if an Operation's response
+   *                is not a reference type. This is because GDD does not support non-ref responses.
    * @return the converted Method
    */
-  def operationToGDD(op: Operation, pathValue: String, httpMethod: String, gdd: GoogleDiscoveryDocument): Method = {
+  def operationToGDD(op: Operation, pathValue: String, httpMethod: String)
+                    (implicit context: ConversionContext): Method = {
+    timed(ConversionListener.Operation, s"$httpMethod $pathValue")(convertOperation(op, pathValue, httpMethod))
+  }
+
+  private def convertOperation(op: Operation, pathValue: String, httpMethod: String)
+                              (implicit context: ConversionContext): Method = {
     val method = modelFactory.newMethod()
     method.setId(op.getOperationId)
     method.setDescription(op.getSummary)
@@ -233,11 +595,7 @@ class SwaggerToGDD(val modelFactory: GDDModelFactory = new GDDModelFactory) {
         // non-ref responses have to get added as schemas since GDD doesn't allow non-ref responses
         val prop = propertyToGDD(property)
         prop.setId(s"${method.getId}Response")
-        Option(gdd.getSchemas) match {
-          case Some(schemas) => schemas.put(prop.getId, prop)
-          case None =>
-            gdd.setSchemas(Map[String, AbstractSchema](prop.getId -> prop).asJava)
-        }
+        hoistSchema(prop)
         method.setResponse(modelFactory.newSchemaRef(prop.getId))
     }
     Option(op.getParameters).map(_.asScala.toList).foreach { parameters =>
@@ -249,11 +607,7 @@ class SwaggerToGDD(val modelFactory: GDDModelFactory = new GDDModelFactory) {
               // parameters defined globally in GDD apply to all apis. so we need to define a parameter as a schema
               val schema = parameterToGDD(param)
               schema.setId(s"${method.getId}${schema.getId}Request")
-              Option(gdd.getSchemas) match {
-                case Some(schemas) => schemas.put(schema.getId, schema)
-                case None =>
-                  gdd.setSchemas(Map[String, AbstractSchema](schema.getId -> schema).asJava)
-              }
+              hoistSchema(schema)
               method.setRequest(modelFactory.newSchemaRef(schema.getId))
           }
           curr
@@ -264,6 +618,86 @@ class SwaggerToGDD(val modelFactory: GDDModelFactory = new GDDModelFactory) {
     method
   }
 
+  /**
+   * <i>Side effecting</i>. Adds a schema to the `schemas` of the context's GoogleDiscoveryDocument under its `id`,
+   * creating `schemas` if there isn't one yet.
+   * @param schema the schema to add
+   * @param context holds the GoogleDiscoveryDocument whose schemas will be added to
+   */
+  protected def hoistSchema(schema: AbstractSchema)(implicit context: ConversionContext): Unit = {
+    timed(Hoisting, schema.getId)(putSchema(schema, context.gdd))
+    listener.schemaHoisted()
+  }
+
+  /**
+   * The same as `hoistSchema`, without telling the listener, to add a schema that was already hoisted out of an
+   * `Operation` into another document, such as the one a path was converted against on its own.
+   */
+  private def putSchema(schema: AbstractSchema, gdd: GoogleDiscoveryDocument): Unit = {
+    Option(gdd.getSchemas) match {
+      case Some(schemas) => schemas.put(schema.getId, schema)
+      case None =>
+        val schemas = new java.util.LinkedHashMap[String, AbstractSchema]()
+        schemas.put(schema.getId, schema)
+        gdd.setSchemas(schemas)
+    }
+  }
+
+  /**
+   * <i>Side effecting</i>. Collapse the schemas hoisted out of `Operation`s which are structurally the same into one.
+   *
+   * Hoisted schemas are those which a `Method`'s `request` or `response` refers to, and which are not definitions of
+   * the Swagger. Two of them are the same when they would be written out the same, other than their `id`s, and
+   * regardless of the order of their `properties`. Of each group of the same schemas, the first one in `schemas` is
+   * kept, and the `Method`s which referred to the others are changed to refer to it.
+   *
+   * The `Method`s and `schemas` of the GoogleDiscoveryDocument are changed in place, so this should not be used on a
+   * document from [[io.swagger.gdd.SwaggerToGDD#lazySwaggerToGDD lazySwaggerToGDD]] or from a `ConversionCache`, whose
+   * models are shared.
+   *
+   * @param swagger the Swagger the GoogleDiscoveryDocument was converted from
+   * @param gdd the GoogleDiscoveryDocument to deduplicate
+   * @return the id of each schema that was dropped, mapped to the id of the schema that was kept in its place
+   */
+  def deduplicateHoistedSchemas(swagger: Swagger, gdd: GoogleDiscoveryDocument): Map[String, String] = {
+    if (gdd.getSchemas == null) return Map.empty
+    val definitions = Option(swagger.getDefinitions).map(_.keySet.asScala.toSet).getOrElse(Set.empty[String])
+    val methods = allMethods(gdd)
+    val referenced = methods.flatMap(m => Seq(m.getRequest, m.getResponse)).filter(_ != null).map(_.get$ref).toSet
+    // in the order of schemas, so that the first of each group is the one kept
+    val hoisted = gdd.getSchemas.entrySet.asScala.iterator.map(e => e.getKey -> e.getValue).filter {
+      case (key, schema) => referenced(key) && !definitions(key) && schema != null
+    }
+
+    val canonical = mutable.HashMap.empty[BigInt, String]
+    val replaced = hoisted.toList.flatMap { case (key, schema) =>
+      val kept = canonical.getOrElseUpdate(HoistedSchemas.fingerprint(schema), key)
+      if (kept != key) Some(key -> kept) else None
+    }.toMap
+
+    if (replaced.nonEmpty) {
+      replaced.keys.foreach(gdd.getSchemas.remove)
+      methods.foreach { method =>
+        Option(method.getRequest).flatMap(r => replaced.get(r.get$ref)).foreach { kept =>
+          method.setRequest(modelFactory.newSchemaRef(kept))
+        }
+        Option(method.getResponse).flatMap(r => replaced.get(r.get$ref)).foreach { kept =>
+          method.setResponse(modelFactory.newSchemaRef(kept))
+        }
+      }
+    }
+    replaced
+  }
+
+  private def allMethods(gdd: GoogleDiscoveryDocument): Seq[Method] = {
+    def ofResource(resource: Resource): Seq[Method] = {
+      Option(resource.getMethods).map(_.asScala.values.filter(_ != null).toSeq).getOrElse(Nil) ++
+        Option(resource.getResources).map(_.asScala.values.filter(_ != null).toSeq.flatMap(ofResource)).getOrElse(Nil)
+    }
+    Option(gdd.getMethods).map(_.asScala.values.filter(_ != null).toSeq).getOrElse(Nil) ++
+      Option(gdd.getResources).map(_.asScala.values.filter(_ != null).toSeq.flatMap(ofResource)).getOrElse(Nil)
+  }
+
   /**
    * Find the response that best matches the default response. Prefers the smallest 2xx code.
    * @param responses an Operation's responses
@@ -315,7 +749,8 @@ class SwaggerToGDD(val modelFactory: GDDModelFactory = new GDDModelFactory) {
    * @param parameter the Parameter to transform
    * @return the converted Parameter
    */
-  def parameterToGDD(parameter: io.swagger.models.parameters.Parameter): Parameter = {
+  def parameterToGDD(parameter: io.swagger.models.parameters.Parameter)
+                    (implicit context: ConversionContext): Parameter = {
     val param = modelFactory.newParameter()
     parameter match {
       case p: RefParameter =>
@@ -334,7 +769,7 @@ class SwaggerToGDD(val modelFactory: GDDModelFactory = new GDDModelFactory) {
             param.setDefault(p.getDefaultValue)
             Option(p.getMinimum).map(_.toString).foreach(param.setMinimum)
             Option(p.getMaximum).map(_.toString).foreach(param.setMaximum)
-            Option(p.getItems).map(propertyToGDD).foreach(param.setItems)
+            Option(p.getItems).map(nestedPropertyToGDD).foreach(param.setItems)
             Option(p.getCollectionFormat) match {
               case Some("multi") => param.setRepeated(true)
               case _ =>
@@ -398,7 +833,15 @@ class SwaggerToGDD(val modelFactory: GDDModelFactory = new GDDModelFactory) {
    * @param property the Property to convert
    * @return the converted Schema
    */
-  def propertyToGDD(property: Property): Schema = {
+  def propertyToGDD(property: Property)(implicit context: ConversionContext): Schema = {
+    if (!instrumented) return convertProperty(property)
+    context.depth += 1
+    listener.schemaCreated()
+    listener.propertyConverted(context.depth)
+    try convertProperty(property) finally context.depth -= 1
+  }
+
+  private def convertProperty(property: Property)(implicit context: ConversionContext): Schema = {
     val schema = modelFactory.newSchema()
     schema.setId(property.getName)
     schema.setDescription(property.getDescription) // todo what about title?
@@ -452,13 +895,13 @@ class SwaggerToGDD(val modelFactory: GDDModelFactory = new GDDModelFactory) {
         }
       case prop: ArrayProperty =>
         schema.setType("array")
-        Option(prop.getItems).map(propertyToGDD).foreach(schema.setItems)
+        Option(prop.getItems).map(nestedPropertyToGDD).foreach(schema.setItems)
       case prop: MapProperty =>
         schema.setType("object")
-        Option(prop.getAdditionalProperties).map(propertyToGDD).foreach(schema.setAdditionalProperties)
+        Option(prop.getAdditionalProperties).map(nestedPropertyToGDD).foreach(schema.setAdditionalProperties)
       case prop: ObjectProperty =>
         schema.setType("object")
-        Option(prop.getProperties).map(_.asScala.mapValues(propertyToGDD).asJava).foreach(schema.setProperties)
+        Option(prop.getProperties).map(nestedPropertiesToGDD).foreach(schema.setProperties)
       case prop: FileProperty =>
         // todo figure out a sane way to treat these since GDD has no concept of formData.
         schema.setType(prop.getType)
@@ -467,47 +910,139 @@ class SwaggerToGDD(val modelFactory: GDDModelFactory = new GDDModelFactory) {
     schema
   }
 
+  /**
+   * Convert a Property that is part of another schema, i.e. its `items`, `additionalProperties` or one of its
+   * `properties`, and pass it through the model factory's
+   * [[io.swagger.gdd.models.factory.GDDModelFactory#internSchema internSchema]].
+   */
+  private def nestedPropertyToGDD(property: Property)(implicit context: ConversionContext): Schema = {
+    modelFactory.internSchema(propertyToGDD(property))
+  }
+
+  private def nestedPropertiesToGDD(properties: java.util.Map[String, Property])
+                                   (implicit context: ConversionContext): java.util.Map[String, Schema] = {
+    val schemas = new java.util.LinkedHashMap[String, Schema]()
+    properties.asScala.foreach { case (key, property) => schemas.put(key, nestedPropertyToGDD(property)) }
+    schemas
+  }
+
   /**
    * <i>Side effecting</i>. Changes the Schema/Parameter based on the type of the Model.
+   *
+   * A [[io.swagger.models.ComposedModel ComposedModel]] becomes an object whose `properties` are those of every Model
+   * in its `allOf`, flattened; see [[io.swagger.gdd.AllOfResolver AllOfResolver]]. `$$ref`s in an `allOf` are only
+   * followed while a whole Swagger is being converted, since that is where the definitions come from.
+   *
    * @param schema the Schema or Parameter to modify
    * @param model the Model to use for manipulating the schema
    */
-  def changeSchemaUsingModel(schema: AbstractSchema, model: Model): Unit = model match {
+  def changeSchemaUsingModel(schema: AbstractSchema, model: Model)
+                            (implicit context: ConversionContext): Unit = model match {
     case model: RefModel =>
       schema.set$ref(model.getSimpleRef)
     case model: ArrayModel =>
       schema.setType("array")
-      Option(model.getItems).map(propertyToGDD).foreach(schema.setItems)
+      Option(model.getItems).map(nestedPropertyToGDD).foreach(schema.setItems)
     case model: ModelImpl =>
       schema.setType(model.getType)
       schema.setFormat(model.getFormat)
       schema.setDefault(model.getDefaultValue)
-      Option(model.getProperties).map(_.asScala.mapValues(propertyToGDD).asJava).foreach(schema.setProperties)
-      Option(model.getAdditionalProperties).map(propertyToGDD).foreach(schema.setAdditionalProperties)
+      Option(model.getProperties).map(nestedPropertiesToGDD).foreach(schema.setProperties)
+      Option(model.getAdditionalProperties).map(nestedPropertyToGDD).foreach(schema.setAdditionalProperties)
       // todo ModelImpl is missing many fields defined in Swagger spec, add them when swagger-models adds them
     case model: ComposedModel =>
-      // todo
+      schema.setType("object")
+      val properties = context.allOf.properties(model, schema.getId, context)
+      if (!properties.isEmpty) schema.setProperties(properties)
   }
 
 
 }
 
+/**
+ * Converts with one `SwaggerToGDD` that has the default model factory, shared by every call.
+ */
 object SwaggerToGDD {
 
+  private val Default = new SwaggerToGDD()
+
   /**
    * Create a new GoogleDiscoveryDocument from a Swagger instance. The Swagger will not be modified.
    * @param swagger a model of a swagger document
    * @return the Swagger converted into a GoogleDiscoveryDocument
    */
   def swaggerToGDD(swagger: Swagger): GoogleDiscoveryDocument = {
-    new SwaggerToGDD().swaggerToGDD(swagger)
+    Default.swaggerToGDD(swagger)
+  }
+
+  /**
+   * Create a new GoogleDiscoveryDocument from a Swagger instance, converting definitions and paths in parallel on the
+   * given pool. The Swagger will not be modified.
+   * @param swagger a model of a swagger document
+   * @param pool the pool to convert definitions and paths on
+   * @return the Swagger converted into a GoogleDiscoveryDocument
+   */
+  def swaggerToGDD(swagger: Swagger, pool: ForkJoinPool): GoogleDiscoveryDocument = {
+    Default.swaggerToGDD(swagger, pool)
+  }
+
+  /**
+   * Create a new GoogleDiscoveryDocument from a Swagger instance, converting only the definitions and paths that
+   * changed since the previous version of the same document was converted with `cache`. The Swagger will not be
+   * modified.
+   * @param swagger a model of a swagger document
+   * @param cache what was converted for the previous version of the document
+   * @return the Swagger converted into a GoogleDiscoveryDocument
+   */
+  def swaggerToGDD(swagger: Swagger, cache: ConversionCache): GoogleDiscoveryDocument = {
+    Default.swaggerToGDD(swagger, cache)
+  }
+
+  /**
+   * Create a new GoogleDiscoveryDocument from a Swagger instance, converting its definitions and paths only when they
+   * are first used. The Swagger will not be modified.
+   * @param swagger a model of a swagger document
+   * @return the Swagger converted into a GoogleDiscoveryDocument whose definitions and paths are converted on demand
+   */
+  def lazySwaggerToGDD(swagger: Swagger): GoogleDiscoveryDocument = {
+    Default.lazySwaggerToGDD(swagger)
+  }
+
+  /**
+   * Create a new GoogleDiscoveryDocument from a Swagger instance on the given executor. The Swagger will not be
+   * modified.
+   * @param swagger a model of a swagger document
+   * @param executor runs the conversion
+   * @return the Swagger converted into a GoogleDiscoveryDocument
+   */
+  def swaggerToGDDAsync(swagger: Swagger, executor: Executor): Future[GoogleDiscoveryDocument] = {
+    Default.swaggerToGDDAsync(swagger, executor)
+  }
+
+  /**
+   * Collapse the schemas hoisted out of `Operation`s which are structurally the same into one, changing the
+   * GoogleDiscoveryDocument in place.
+   * @param swagger the Swagger the GoogleDiscoveryDocument was converted from
+   * @param gdd the GoogleDiscoveryDocument to deduplicate
+   * @return the id of each schema that was dropped, mapped to the id of the schema that was kept in its place
+   */
+  def deduplicateHoistedSchemas(swagger: Swagger, gdd: GoogleDiscoveryDocument): Map[String, String] = {
+    Default.deduplicateHoistedSchemas(swagger, gdd)
   }
 
   def parameterToGDD(parameter: io.swagger.models.parameters.Parameter): Parameter = {
-    new SwaggerToGDD().parameterToGDD(parameter)
+    Default.parameterToGDD(parameter)(standaloneContext)
   }
 
   def propertyToGDD(property: Property): Schema = {
-    new SwaggerToGDD().propertyToGDD(property)
+    Default.propertyToGDD(property)(standaloneContext)
+  }
+
+  /**
+   * A context for converting a part of a document on its own. Nothing that can be converted through this object
+   * hoists schemas, so it gets a document of its own to hoist into.
+   */
+  private def standaloneContext: ConversionContext = {
+    Default.standaloneContext(Default.modelFactory.newGoogleDiscoveryDocument())
   }
 }
@@ -0,0 +1,215 @@
+package io.swagger.gdd
+
+import java.io.{Closeable, IOException}
+import java.nio.file.StandardWatchEventKinds._
+import java.nio.file._
+import java.nio.file.attribute.BasicFileAttributes
+import java.util.concurrent.TimeUnit
+
+import scala.collection.JavaConverters._
+import scala.collection.mutable
+
+import io.swagger.gdd.BatchConverter._
+
+/**
+ * Watches a tree of Swagger files, and converts each one into a GDD file again whenever it changes.
+ *
+ * Changes come in bursts, since editors tend to save a file in several steps, so the watcher waits until nothing has
+ * changed for `quietMillis` before converting what did. Only the Swagger files that changed are read, parsed and
+ * converted again, each on its own [[io.swagger.gdd.ConversionCache ConversionCache]], so that only the definitions and
+ * paths that changed within a file are converted again too. The caches are kept for as long as the watcher runs.
+ *
+ * GDDs are written by `batch`, under the same path relative to the output directory as the Swagger file has relative
+ * to the root, with a `.json` extension, and each is moved over the one before it atomically. The GDD of a Swagger file
+ * which is deleted is deleted too, as are those of every Swagger file under a directory which is deleted, moved out of
+ * the root, or can no longer be watched. Directories created under the root are watched as they appear, except for the
+ * output directory, which may be under the root.
+ *
+ * A directory that can't be listed or watched is reported as a failure, and the watcher goes on with the rest.
+ *
+ * The watcher runs on the thread that calls `run`, until it is closed.
+ *
+ * @param root the directory to watch
+ * @param outputDir the directory to write GDDs to
+ * @param batch converts and writes each file
+ * @param quietMillis how long to wait for changes to stop before converting
+ */
+final class SwaggerWatcher(root: Path,
+                           outputDir: Path,
+                           batch: BatchConverter = new BatchConverter,
+                           quietMillis: Long = 100) extends Closeable {
+
+  private val output = outputDir.toAbsolutePath.normalize
+  private val watchService = root.getFileSystem.newWatchService()
+  private val directories = mutable.HashMap.empty[WatchKey, Path]
+  private val caches = mutable.HashMap.empty[Path, ConversionCache]
+
+  /**
+   * Convert every Swagger file under the root, then convert each again whenever it changes, until closed.
+   * @param report called with the result of each conversion
+   */
+  def run(report: Result => Unit): Unit = {
+    try {
+      swaggerFiles(root, report).foreach(update(_, report))
+      while (true) {
+        val changed = mutable.LinkedHashSet.empty[Path]
+        var key = watchService.take()
+        while (key != null) {
+          changed ++= events(key, report)
+          key = watchService.poll(quietMillis, TimeUnit.MILLISECONDS)
+        }
+        changed.foreach(update(_, report))
+      }
+    } catch {
+      case _: ClosedWatchServiceException =>
+      case _: InterruptedException => Thread.currentThread.interrupt()
+    }
+  }
+
+  /**
+   * Stop watching. `run` returns once it is done with any file it is converting.
+   */
+  override def close(): Unit = watchService.close()
+
+  /**
+   * Watch the directory and every directory under it. A directory that can't be listed or watched is reported as a
+   * failure, and skipped.
+   * @return the Swagger files found in them
+   */
+  private def swaggerFiles(directory: Path, report: Result => Unit): Seq[Path] = {
+    val files = mutable.ArrayBuffer.empty[Path]
+    def failed(path: Path, e: IOException): FileVisitResult = {
+      report(Failed(BatchConverter.job(path, root.relativize(path), outputDir), e))
+      FileVisitResult.CONTINUE
+    }
+    Files.walkFileTree(directory, new SimpleFileVisitor[Path] {
+      override def preVisitDirectory(dir: Path, attrs: BasicFileAttributes): FileVisitResult = {
+        if (isOutput(dir)) {
+          FileVisitResult.SKIP_SUBTREE
+        } else {
+          try directories(dir.register(watchService, ENTRY_CREATE, ENTRY_MODIFY, ENTRY_DELETE)) = dir catch {
+            case e: IOException => failed(dir, e)
+          }
+          FileVisitResult.CONTINUE
+        }
+      }
+
+      override def visitFile(file: Path, attrs: BasicFileAttributes): FileVisitResult = {
+        if (isSwagger(file)) files += file
+        FileVisitResult.CONTINUE
+      }
+
+      override def visitFileFailed(file: Path, e: IOException): FileVisitResult = failed(file, e)
+
+      override def postVisitDirectory(dir: Path, e: IOException): FileVisitResult = {
+        if (e != null) failed(dir, e) else FileVisitResult.CONTINUE
+      }
+    })
+    files.sortBy(_.toString)
+  }
+
+  /**
+   * @return the Swagger files that the events of the key say were changed
+   */
+  private def events(key: WatchKey, report: Result => Unit): Seq[Path] = {
+    val changed = mutable.ArrayBuffer.empty[Path]
+    directories.get(key).foreach { directory =>
+      key.pollEvents().asScala.foreach { event =>
+        if (event.kind == OVERFLOW) {
+          // some events were lost, so check everything
+          changed ++= swaggerFiles(directory, report) ++ caches.keys.filter(_.startsWith(directory))
+        } else {
+          val path = directory.resolve(event.context.asInstanceOf[Path])
+          if (event.kind == ENTRY_CREATE && Files.isDirectory(path, LinkOption.NOFOLLOW_LINKS)) {
+            changed ++= swaggerFiles(path, report)
+          } else if (event.kind == ENTRY_DELETE) {
+            // a directory that was deleted or moved away takes the Swagger files under it along
+            changed ++= forget(path)
+            if (isSwagger(path) && !isOutput(path)) changed += path
+          } else if (isSwagger(path) && !isOutput(path)) {
+            changed += path
+          }
+        }
+      }
+    }
+    if (!key.reset()) {
+      directories.get(key).foreach(directory => changed ++= forget(directory))
+      directories -= key
+    }
+    changed
+  }
+
+  /**
+   * Stop watching the directories under a path that is gone.
+   * @return the Swagger files that were converted under it, whose GDDs are to be deleted
+   */
+  private def forget(path: Path): Iterable[Path] = {
+    directories.filter(_._2.startsWith(path)).keys.foreach { key =>
+      key.cancel()
+      directories -= key
+    }
+    caches.keys.filter(_.startsWith(path)).toList
+  }
+
+  private def isOutput(path: Path): Boolean = path.toAbsolutePath.normalize.startsWith(output)
+
+  private def update(input: Path, report: Result => Unit): Unit = {
+    val job = BatchConverter.job(input, root.relativize(input), outputDir)
+    if (Files.isRegularFile(input)) {
+      report(batch.convert(job, Some(caches.getOrElseUpdate(input, new ConversionCache))))
+    } else {
+      caches -= input
+      try Files.deleteIfExists(job.output) catch {
+        case e: IOException => report(Failed(job, e))
+      }
+    }
+  }
+}
+
+/**
+ * Watches a directory of Swagger files from the command line, and keeps a directory of GDD files up to date with it.
+ *
+ * {{{
+ * SwaggerWatcher [--pretty | --canonical] [--prune] [--quiet ms] <output directory> <swagger directory>
+ * }}}
+ *
+ * Every Swagger file is converted when it starts, and then again whenever it changes, and each conversion is printed.
+ * It runs until it is killed.
+ */
+object SwaggerWatcher {
+
+  def main(args: Array[String]): Unit = {
+    var pretty = false
+    var canonical = false
+    var prune = false
+    var quietMillis = 100L
+    var rest = args.toList
+    var parsing = true
+    while (parsing) rest match {
+      case "--pretty" :: tail => pretty = true; rest = tail
+      case "--canonical" :: tail => canonical = true; rest = tail
+      case "--prune" :: tail => prune = true; rest = tail
+      case "--quiet" :: ms :: tail => quietMillis = ms.toLong; rest = tail
+      case _ => parsing = false
+    }
+    rest match {
+      case output :: input :: Nil =>
+        val batch = new BatchConverter(threads = 1, pretty = pretty, canonical = canonical, prune = prune)
+        val watcher = try new SwaggerWatcher(Paths.get(input), Paths.get(output), batch, quietMillis) catch {
+          case e: IOException =>
+            System.err.println(s"could not watch $input: $e")
+            sys.exit(2)
+        }
+        watcher.run {
+          case Converted(job, nanos, _) =>
+            println(f"converted ${job.input} -> ${job.output} in ${nanos / 1e6}%.1f ms")
+          case Failed(job, error) => System.err.println(s"failed ${job.input}: $error")
+        }
+      case _ =>
+        System.err.println(
+          "usage: SwaggerWatcher [--pretty | --canonical] [--prune] [--quiet ms] " +
+            "<output directory> <swagger directory>")
+        sys.exit(2)
+    }
+  }
+}
@@ -0,0 +1,170 @@
+package io.swagger.gdd
+
+import java.io.ByteArrayOutputStream
+import java.nio.charset.StandardCharsets
+import java.nio.file.{Files, Path}
+
+import scala.collection.JavaConverters._
+import scala.collection.mutable
+
+import io.swagger.gdd.BatchConverter._
+import io.swagger.gdd.models.GoogleDiscoveryDocument
+import io.swagger.gdd.models.json.GDDJsonWriter
+import io.swagger.gdd.models.snapshot.{GDDSnapshotReader, GDDSnapshotWriter}
+import io.swagger.models.Swagger
+import org.specs2.specification.AfterAll
+import org.specs2.specification.core.SpecStructure
+import org.specs2.{ScalaCheck, Specification}
+
+/**
+ * Tests [[io.swagger.gdd.BatchConverter BatchConverter]].
+ */
+class BatchConverterSpecs extends Specification with ScalaCheck with TestHelpers with AfterAll {
+  override def is: SpecStructure = s2"""
+  BatchConverter converts many local Swagger files into GDD files at once.
+
+  It should:
+    Write the same GDD for each file as converting it on its own                   $sameAsSingle
+    Report a file that fails and go on with the rest                               $failureDoesNotAbort
+    Report a file whose conversion throws an Error, such as a StackOverflowError   $errorDoesNotAbort
+    Find Swagger files in directories and manifests, mirroring directories         $expandsInputs
+    Fail a job whose output is the same as that of an earlier job                  $duplicateOutputs
+    Write a document for each top-level Resource when sharding                      $shards
+    Add each GDD to the snapshot, keyed by where it was written                      $snapshot
+    Fail a file whose GDD has problems without writing it when validating          $validate
+  """
+
+  override def afterAll(): Unit = deleteTempDirectories()
+
+  def run(jobs: Seq[Job]): (Summary, Seq[Result]) = {
+    val results = mutable.ArrayBuffer.empty[Result]
+    val summary = new BatchConverter(threads = 2).convert(jobs)(results += _)
+    (summary, results)
+  }
+
+  def sameAsSingle = {
+    val in = tempDirectory("swagger")
+    val out = tempDirectory("gdd")
+    val jsons = Seq(swaggerJson("/pets", "/pets/{petId}"), swaggerJson("/owners"), swaggerJson("/", "/stores"))
+    val files = jsons.zipWithIndex.map { case (json, i) => writeFile(in, s"spec$i.json", json) }
+    val (summary, results) = run(BatchConverter.jobs(files.map(_.toString), out))
+    (summary.converted must beEqualTo(3)) and
+      (summary.failed must beEqualTo(0)) and
+      (results.map(_.job.input) must beEqualTo(files)) and
+      (jsons.zipWithIndex.map { case (json, i) =>
+        new String(Files.readAllBytes(out.resolve(s"spec$i.json")), StandardCharsets.UTF_8)
+      } must beEqualTo(jsons.map(convertedJson)))
+  }
+
+  def failureDoesNotAbort = {
+    val in = tempDirectory("swagger")
+    val out = tempDirectory("gdd")
+    val broken = writeFile(in, "broken.json", "this is not swagger")
+    val fine = writeFile(in, "fine.json", swaggerJson("/pets"))
+    val missing = in.resolve("missing.json")
+    val (summary, results) = run(BatchConverter.jobs(Seq(broken, missing, fine).map(_.toString), out))
+    (summary.converted must beEqualTo(1)) and
+      (summary.failed must beEqualTo(2)) and
+      (results.collect { case Failed(job, _) => job.input } must beEqualTo(Seq(broken, missing))) and
+      (Files.exists(out.resolve("fine.json")) must beTrue)
+  }
+
+  def errorDoesNotAbort = {
+    val in = tempDirectory("swagger")
+    val out = tempDirectory("gdd")
+    val converter = new SwaggerToGDD {
+      override def swaggerToGDD(swagger: Swagger): GoogleDiscoveryDocument = {
+        if (swagger.getPaths.containsKey("/deep")) throw new StackOverflowError
+        if (swagger.getPaths.containsKey("/internal")) throw new InternalError("broken")
+        super.swaggerToGDD(swagger)
+      }
+    }
+    val files = Seq("/deep", "/internal", "/pets").map { path =>
+      writeFile(in, s"${path.drop(1)}.json", swaggerJson(path))
+    }
+    val results = mutable.ArrayBuffer.empty[Result]
+    val summary = new BatchConverter(converter, threads = 2).convert(BatchConverter.jobs(files.map(_.toString), out))(
+      results += _)
+    (summary.converted must beEqualTo(1)) and
+      (summary.failed must beEqualTo(2)) and
+      (results.collect { case Failed(_, error) => error.getClass } must beEqualTo(
+        Seq(classOf[StackOverflowError], classOf[InternalError]))) and
+      (Files.exists(out.resolve("pets.json")) must beTrue)
+  }
+
+  def expandsInputs = {
+    val in = tempDirectory("swagger")
+    val out = tempDirectory("gdd")
+    writeFile(in, "dir/a.json", "")
+    writeFile(in, "dir/nested/b.yaml", "")
+    writeFile(in, "dir/notes.txt", "")
+    writeFile(in, "c.yml", "")
+    writeFile(in, "manifest.txt", "c.yml\n\n")
+    val jobs = BatchConverter.jobs(Seq(in.resolve("dir").toString, "@" + in.resolve("manifest.txt")), out)
+    jobs must beEqualTo(Seq(
+      Job(in.resolve("dir/a.json"), out.resolve("a.json")),
+      Job(in.resolve("dir/nested/b.yaml"), out.resolve("nested/b.json")),
+      Job(in.resolve("c.yml"), out.resolve("c.json"))))
+  }
+
+  def duplicateOutputs = {
+    val in = tempDirectory("swagger")
+    val out = tempDirectory("gdd")
+    val json = writeFile(in, "pets.json", swaggerJson("/pets"))
+    val yaml = writeFile(in, "pets.yaml", swaggerJson("/owners"))
+    val (summary, results) = run(BatchConverter.jobs(Seq(json, yaml).map(_.toString), out))
+    (summary.converted must beEqualTo(1)) and
+      (results.last must beLike { case Failed(job, _) => job.input must beEqualTo(yaml) }) and
+      (new String(Files.readAllBytes(out.resolve("pets.json")), StandardCharsets.UTF_8) must beEqualTo(
+        convertedJson(swaggerJson("/pets"))))
+  }
+
+  def shards = {
+    val in = tempDirectory("swagger")
+    val out = tempDirectory("gdd")
+    val file = writeFile(in, "petstore.json", swaggerJson("/pets", "/pets/{petId}", "/owners", "/"))
+    val summary = new BatchConverter(shard = true).convert(BatchConverter.jobs(Seq(file.toString), out))(_ => ())
+    val shardDir = out.resolve("petstore")
+    (summary.converted must beEqualTo(1)) and
+      (Files.exists(out.resolve("petstore.json")) must beTrue) and
+      (Files.newDirectoryStream(shardDir).asScala.map(_.getFileName.toString).toSet must beEqualTo(
+        Set("pets.json", "owners.json")))
+  }
+
+  def snapshot = {
+    val in = tempDirectory("swagger")
+    val out = tempDirectory("gdd")
+    val jsons = Seq(swaggerJson("/pets"), swaggerJson("/owners", "/owners/{ownerId}"))
+    val files = jsons.zipWithIndex.map { case (json, i) => writeFile(in, s"spec$i.json", json) }
+    val file = out.resolve("gdds.snapshot")
+    val writer = new GDDSnapshotWriter(Files.newOutputStream(file))
+    val jobs = BatchConverter.jobs(files.map(_.toString), out)
+    val converter = new BatchConverter(threads = 2, snapshot = Some(writer))
+    val summary = try converter.convert(jobs)(_ => ()) finally writer.close()
+    val documents = new GDDSnapshotReader().read(file.toFile)
+    val written = new ByteArrayOutputStream()
+    (summary.converted must beEqualTo(2)) and
+      (documents.keySet.asScala.toSet must beEqualTo(jobs.map(_.output.toString).toSet)) and
+      (jobs.map { job =>
+        written.reset()
+        new GDDJsonWriter().write(documents.get(job.output.toString), written)
+        written.toString("UTF-8")
+      } must beEqualTo(jsons.map(convertedJson)))
+  }
+
+  def validate = {
+    val in = tempDirectory("swagger")
+    val out = tempDirectory("gdd")
+    val fine = writeFile(in, "fine.json", swaggerJson("/pets"))
+    // there is no parameter for {petId}
+    val unbound = writeFile(in, "unbound.json", swaggerJson("/pets/{petId}"))
+    val results = mutable.ArrayBuffer.empty[Result]
+    val summary = new BatchConverter(validate = true).convert(BatchConverter.jobs(Seq(fine, unbound).map(_.toString),
+      out))(results += _)
+    (summary.converted must beEqualTo(1)) and
+      (results.last must beLike { case Failed(job, error) =>
+        (job.input must beEqualTo(unbound)) and (error.getMessage must contain("{petId}"))
+      }) and
+      (Files.exists(out.resolve("unbound.json")) must beFalse)
+  }
+}
@@ -0,0 +1,153 @@
+package io.swagger.gdd
+
+import java.io.ByteArrayOutputStream
+import java.util
+
+import scala.collection.JavaConverters._
+
+import com.fasterxml.jackson.databind.{JsonNode, ObjectMapper}
+import io.swagger.gdd.SwaggerGenerators._
+import io.swagger.gdd.models._
+import io.swagger.gdd.models.json.{CanonicalGDDWriter, GDDJsonWriter}
+import org.scalacheck.Prop.{apply => _, _}
+import org.specs2.specification.core.SpecStructure
+import org.specs2.{ScalaCheck, Specification}
+
+/**
+ * Tests [[io.swagger.gdd.models.json.CanonicalGDDWriter CanonicalGDDWriter]].
+ */
+class CanonicalGDDWriterSpecs extends Specification with ScalaCheck with TestHelpers {
+  override def is: SpecStructure = s2"""
+  CanonicalGDDWriter writes GDDs as canonical JSON, and sets their revision to their digest as it does.
+
+  It should:
+    Write the same document as GDDJsonWriter, in another order                      $sameDocument
+    Write the fields and entries of every object in order, and the revision last    $sorted
+    Write the same JSON for documents whose maps are in different orders            $mapOrder
+    Set the revision to the same digest whether or not it writes the document       $writeOrDigest
+    Not depend on the revision the document had                                    $ignoresRevision
+    Change the digest and the hash of just the resource that changed                $resourceChanged
+    Recompute the same digest from an earlier one after a resource changes          $incremental
+    Reuse the hash of a resource that is not said to have changed                   $reuse
+  """
+
+  val mapper = new ObjectMapper()
+
+  def canonical(gdd: GoogleDiscoveryDocument): Array[Byte] = {
+    val out = new ByteArrayOutputStream()
+    new CanonicalGDDWriter().write(gdd, out)
+    out.toByteArray
+  }
+
+  def json(gdd: GoogleDiscoveryDocument): String = {
+    val out = new ByteArrayOutputStream()
+    new GDDJsonWriter().write(gdd, out)
+    out.toString("UTF-8")
+  }
+
+  def sameDocument = forAll(genConvertibleSwagger) { swagger =>
+    val gdd = SwaggerToGDD.swaggerToGDD(swagger)
+    val written = canonical(gdd)
+    // object nodes are equal whatever order their fields are in
+    mapper.readTree(written) must beEqualTo(mapper.readTree(json(gdd)))
+  }
+
+  def inOrder(node: JsonNode): Boolean = {
+    val names = node.fieldNames.asScala.toList
+    names == names.sorted && node.elements.asScala.forall(inOrder)
+  }
+
+  def sorted = {
+    val tree = mapper.readTree(canonical(gddWithEveryField))
+    val names = tree.fieldNames.asScala.toList
+    (names.last must beEqualTo("revision")) and
+      (names.init must beEqualTo(names.init.sorted)) and
+      (tree.elements.asScala.forall(inOrder) must beTrue)
+  }
+
+  def reversed[V](map: util.Map[String, V]): util.Map[String, V] = {
+    val copy = new util.LinkedHashMap[String, V]()
+    map.asScala.toSeq.reverse.foreach { case (key, value) => copy.put(key, value) }
+    copy
+  }
+
+  def mapOrder = {
+    val forward = gddWithEveryField
+    forward.getSchemas.put("Owner", new Schema)
+    val backward = gddWithEveryField
+    backward.setSchemas(reversed(forward.getSchemas))
+    (new String(canonical(backward), "UTF-8") must beEqualTo(new String(canonical(forward), "UTF-8"))) and
+      (backward.getRevision must beEqualTo(forward.getRevision))
+  }
+
+  def writeOrDigest = forAll(genConvertibleSwagger) { swagger =>
+    val gdd = SwaggerToGDD.swaggerToGDD(swagger)
+    val written = new CanonicalGDDWriter().write(gdd, new ByteArrayOutputStream())
+    val digested = new CanonicalGDDWriter().digest(SwaggerToGDD.swaggerToGDD(swagger))
+    (written.getRevision must beEqualTo(digested.getRevision)) and
+      (gdd.getRevision must beEqualTo(written.getRevision)) and
+      (written.getSchemaHashes must beEqualTo(digested.getSchemaHashes)) and
+      (written.getResourceHashes must beEqualTo(digested.getResourceHashes))
+  }
+
+  def ignoresRevision = {
+    val gdd = gddWithEveryField
+    val first = new CanonicalGDDWriter().digest(gdd)
+    gdd.setRevision("20150326")
+    new CanonicalGDDWriter().digest(gdd).getRevision must beEqualTo(first.getRevision)
+  }
+
+  /**
+   * @return a document with every field, whose `resources` can be changed
+   */
+  def gdd: GoogleDiscoveryDocument = {
+    val gdd = gddWithEveryField
+    gdd.setResources(new util.LinkedHashMap[String, Resource](gdd.getResources))
+    gdd
+  }
+
+  /**
+   * Change the Method of the `pets` Resource, which is also one of the document's own methods, in just the Resource.
+   */
+  def changeResource(gdd: GoogleDiscoveryDocument): Unit = {
+    val method = new Method
+    method.setId("pets.insert")
+    method.setDescription("insert a pet")
+    gdd.getResources.get("pets").setMethods(Map("insert" -> method).asJava)
+  }
+
+  def resourceChanged = {
+    val gdd = this.gdd
+    gdd.getResources.put("owners", new Resource)
+    val before = new CanonicalGDDWriter().digest(gdd)
+    changeResource(gdd)
+    val after = new CanonicalGDDWriter().digest(gdd)
+    (after.getRevision must not(beEqualTo(before.getRevision))) and
+      (after.getSchemaHashes must beEqualTo(before.getSchemaHashes)) and
+      (after.getResourceHashes.get("owners") must beEqualTo(before.getResourceHashes.get("owners"))) and
+      (after.getResourceHashes.get("pets") must not(beEqualTo(before.getResourceHashes.get("pets"))))
+  }
+
+  def incremental = {
+    val writer = new CanonicalGDDWriter()
+    val gdd = this.gdd
+    val before = writer.digest(gdd)
+    changeResource(gdd)
+    gdd.getSchemas.put("Owner", new Schema)
+    val recomputed = writer.digest(gdd, before, Set("Owner").asJava, Set("pets").asJava)
+    val full = writer.digest(gdd)
+    (recomputed.getRevision must beEqualTo(full.getRevision)) and
+      (recomputed.getSchemaHashes must beEqualTo(full.getSchemaHashes)) and
+      (recomputed.getResourceHashes must beEqualTo(full.getResourceHashes))
+  }
+
+  def reuse = {
+    val writer = new CanonicalGDDWriter()
+    val gdd = this.gdd
+    val before = writer.digest(gdd)
+    changeResource(gdd)
+    val stale = writer.digest(gdd, before, Set.empty[String].asJava, Set.empty[String].asJava)
+    (stale.getRevision must beEqualTo(before.getRevision)) and
+      (writer.digest(gdd).getRevision must not(beEqualTo(before.getRevision)))
+  }
+}
@@ -0,0 +1,227 @@
+package io.swagger.gdd
+
+import java.util.concurrent.ForkJoinPool
+
+import scala.collection.JavaConverters._
+import scala.collection.mutable
+
+import io.swagger.gdd.ConversionListener._
+import io.swagger.gdd.SwaggerGenerators._
+import io.swagger.gdd.models.GoogleDiscoveryDocument
+import io.swagger.models.properties.{ArrayProperty, StringProperty}
+import io.swagger.models.{ModelImpl, Swagger}
+import org.scalacheck.Prop.{apply => _, _}
+import org.specs2.specification.AfterAll
+import org.specs2.specification.core.SpecStructure
+import org.specs2.{ScalaCheck, Specification}
+
+class ConversionListenerSpecs extends Specification with ScalaCheck with TestHelpers with AfterAll {
+  override def is: SpecStructure = s2"""
+
+  SwaggerToGDD tells its ConversionListener about each phase of converting. It should:
+    Not have a listener by default                                           ${Phases.noOpByDefault}
+    Report the definitions and the grouping of paths once per document       ${Phases.oncePerDocument}
+    Report each Operation                                                    ${Phases.operations}
+    Report each hoisted schema                                               ${Phases.hoisted}
+    Finish each phase before the one it is in                                ${Phases.nested}
+    Report the same Operations when converting in parallel                   ${Phases.parallel}
+    Report each hoisted schema once, in every mode                           ${Modes.hoisted}
+    Nest Operations in Resources on each thread, in every mode               ${Modes.nested}
+    Report nothing for the paths a ConversionCache saves converting          ${Modes.cached}
+
+  It should count:
+    How deeply properties are nested                                         ${Counters.depth}
+
+  ConversionHistograms should:
+    Record how many times each phase finished, and how long it took at most  ${Histograms.recorded}
+    Give percentiles no lower than the durations below them                  ${Histograms.percentiles}
+    Total the counters                                                       ${Histograms.counters}
+  """
+
+  override def afterAll(): Unit = Modes.pool.shutdown()
+
+  class RecordingListener extends ConversionListener {
+    val events = mutable.ArrayBuffer.empty[(String, Phase, String)]
+    val threads = mutable.ArrayBuffer.empty[Long]
+    var hoisted = 0
+    var maxDepth = 0
+
+    override def phaseStarted(phase: Phase, name: String): Unit = record("started", phase, name)
+
+    override def phaseFinished(phase: Phase, name: String, nanos: Long): Unit = record("finished", phase, name)
+
+    private def record(event: String, phase: Phase, name: String): Unit = synchronized {
+      events += ((event, phase, name))
+      threads += Thread.currentThread.getId
+    }
+
+    override def schemaHoisted(): Unit = synchronized(hoisted += 1)
+
+    override def propertyConverted(depth: Int): Unit = synchronized(maxDepth = math.max(maxDepth, depth))
+
+    def finished(phase: Phase): Seq[String] = events.collect { case ("finished", `phase`, name) => name }
+  }
+
+  def record(swagger: Swagger)(convert: SwaggerToGDD => Any): RecordingListener = {
+    val listener = new RecordingListener
+    convert(new SwaggerToGDD(listener = listener))
+    listener
+  }
+
+  def operations(swagger: Swagger): Seq[String] = {
+    Option(swagger.getPaths).map(_.asScala.toSeq).getOrElse(Nil).flatMap { case (pathValue, path) =>
+      Seq("GET" -> path.getGet, "PUT" -> path.getPut, "POST" -> path.getPost, "PATCH" -> path.getPatch,
+        "DELETE" -> path.getDelete, "HEAD" -> path.getHead, "OPTIONS" -> path.getOptions).collect {
+        case (method, operation) if operation != null => s"$method $pathValue"
+      }
+    }
+  }
+
+  object Phases {
+    def noOpByDefault = new SwaggerToGDD().listener must be(NoOp)
+
+    def oncePerDocument = forAll(genConvertibleSwagger) { swagger =>
+      val listener = record(swagger)(_.swaggerToGDD(swagger))
+      (listener.finished(Definitions).size must beEqualTo(1)) and
+        (listener.finished(PathGrouping).size must beEqualTo(if (swagger.getPaths == null) 0 else 1))
+    }
+
+    def operations = forAll(genConvertibleSwagger) { swagger =>
+      val listener = record(swagger)(_.swaggerToGDD(swagger))
+      listener.finished(Operation) must containTheSameElementsAs(ConversionListenerSpecs.this.operations(swagger))
+    }
+
+    def hoisted = forAll(genConvertibleSwagger) { swagger =>
+      val listener = record(swagger)(_.swaggerToGDD(swagger))
+      listener.finished(Hoisting).size must beEqualTo(listener.hoisted)
+    }
+
+    def nested = forAll(genConvertibleSwagger) { swagger =>
+      unnested(record(swagger)(_.swaggerToGDD(swagger))) must beEmpty
+    }
+
+    def parallel = forAll(genConvertibleSwagger) { swagger =>
+      val pool = new ForkJoinPool(4)
+      try {
+        val sequential = record(swagger)(_.swaggerToGDD(swagger))
+        val parallel = record(swagger)(_.swaggerToGDD(swagger, pool))
+        parallel.finished(Operation) must containTheSameElementsAs(sequential.finished(Operation))
+      } finally {
+        pool.shutdown()
+      }
+    }
+  }
+
+  /**
+   * @return the phases of each thread that did not finish in the order they started, or that are Operations outside
+   *         of a Resource
+   */
+  def unnested(listener: RecordingListener): Seq[String] = {
+    listener.events.zip(listener.threads).groupBy(_._2).values.toList.flatMap { events =>
+      val (open, wrong) = events.map(_._1).foldLeft((List.empty[(Phase, String)], List.empty[String])) {
+        case ((stack, wrong), ("started", Operation, name)) if !stack.exists(_._1 == Resource) =>
+          ((Operation, name) :: stack, s"$name outside of a resource" :: wrong)
+        case ((stack, wrong), ("started", phase, name)) => ((phase, name) :: stack, wrong)
+        case (((phase, name) :: stack, wrong), ("finished", finishedPhase, finishedName))
+          if phase == finishedPhase && name == finishedName => (stack, wrong)
+        case ((stack, wrong), event) => (stack, s"$event finished out of order" :: wrong)
+      }
+      wrong.reverse ++ open.map(phase => s"$phase never finished")
+    }
+  }
+
+  /**
+   * Use every part of a document, so that a lazily converted one is converted all the way.
+   */
+  def useAll(gdd: GoogleDiscoveryDocument): Unit = {
+    def use(resource: models.Resource): Unit = {
+      Option(resource.getMethods).foreach(_.size)
+      Option(resource.getResources).foreach(_.asScala.values.foreach(use))
+    }
+    Option(gdd.getSchemas).foreach(_.size)
+    Option(gdd.getMethods).foreach(_.size)
+    Option(gdd.getResources).foreach(_.asScala.values.foreach(use))
+  }
+
+  object Modes {
+    lazy val pool = new ForkJoinPool(4)
+
+    /**
+     * Each way of converting, with a listener of its own.
+     */
+    def modes(swagger: Swagger): Seq[(String, RecordingListener)] = Seq(
+      "sequential" -> record(swagger)(_.swaggerToGDD(swagger)),
+      "parallel" -> record(swagger)(_.swaggerToGDD(swagger, pool)),
+      "cached" -> record(swagger)(_.swaggerToGDD(swagger, new ConversionCache)),
+      "lazy" -> record(swagger)(converter => useAll(converter.lazySwaggerToGDD(swagger))))
+
+    def hoisted = forAll(genConvertibleSwagger) { swagger =>
+      val counts = modes(swagger).map { case (mode, listener) =>
+        (mode, listener.hoisted, listener.finished(Hoisting).size)
+      }
+      val sequential = counts.head._2
+      counts must contain((count: (String, Int, Int)) => (count._2 must beEqualTo(sequential)) and
+        (count._3 must beEqualTo(sequential))).forall
+    }
+
+    def nested = forAll(genConvertibleSwagger) { swagger =>
+      modes(swagger).map { case (mode, listener) => mode -> unnested(listener) } must
+        contain((mode: (String, Seq[String])) => mode._2 must beEmpty).forall
+    }
+
+    def cached = forAll(genConvertibleSwagger) { swagger =>
+      val cache = new ConversionCache
+      val first = record(swagger)(_.swaggerToGDD(swagger, cache))
+      val second = record(swagger)(_.swaggerToGDD(swagger, cache))
+      (first.hoisted must beEqualTo(record(swagger)(_.swaggerToGDD(swagger)).hoisted)) and
+        (second.hoisted must beEqualTo(0)) and
+        (second.finished(Operation) must beEmpty) and
+        (unnested(second) must beEmpty)
+    }
+  }
+
+  object Counters {
+    def depth = {
+      val model = new ModelImpl
+      model.addProperty("matrix", new ArrayProperty(new ArrayProperty(new StringProperty)))
+      val swagger = new Swagger
+      swagger.addDefinition("Grid", model)
+      record(swagger)(_.swaggerToGDD(swagger)).maxDepth must beEqualTo(3)
+    }
+  }
+
+  object Histograms {
+    def recorded = {
+      val histograms = new ConversionHistograms
+      Seq(5L, 1000L, 70L).foreach(histograms.phaseFinished(Operation, "GET /pets", _))
+      val histogram = histograms.histogram(Operation)
+      (histogram.count must beEqualTo(3)) and (histogram.totalNanos must beEqualTo(1075)) and
+        (histogram.maxNanos must beEqualTo(1000)) and (histograms.histogram(Hoisting).count must beEqualTo(0))
+    }
+
+    def percentiles = forAll { (durations: List[Int]) =>
+      val nanos = durations.map(d => math.abs(d.toLong))
+      val histograms = new ConversionHistograms
+      nanos.foreach(histograms.phaseFinished(Resource, "/pets", _))
+      val histogram = histograms.histogram(Resource)
+      val sorted = nanos.sorted
+      val bounded = Seq(0.5, 0.9, 0.99).flatMap { p =>
+        sorted.lift(math.max(0, math.ceil(p * sorted.size).toInt - 1)).map { atRank =>
+          histogram.percentile(p) must beBetween(atRank, 2 * atRank max 1)
+        }
+      }
+      (histogram.percentile(1.0) must beEqualTo(sorted.lastOption.getOrElse(0L))) and
+        bounded.foldLeft(ok: org.specs2.execute.Result)(_ and _)
+    }
+
+    def counters = forAll(genConvertibleSwagger) { swagger =>
+      val histograms = new ConversionHistograms
+      val recording = new RecordingListener
+      new SwaggerToGDD(listener = histograms).swaggerToGDD(swagger)
+      new SwaggerToGDD(listener = recording).swaggerToGDD(swagger)
+      (histograms.schemasHoisted must beEqualTo(recording.hoisted)) and
+        (histograms.maxDepth must beEqualTo(recording.maxDepth)) and
+        (histograms.histogram(Operation).count must beEqualTo(operations(swagger).size))
+    }
+  }
+}
@@ -0,0 +1,107 @@
+package io.swagger.gdd
+
+import java.lang.reflect.Modifier
+
+import scala.collection.JavaConverters._
+
+import io.swagger.gdd.SwaggerGenerators._
+import io.swagger.gdd.models._
+import io.swagger.gdd.models.factory.InterningGDDModelFactory
+import io.swagger.models.ModelImpl
+import io.swagger.models.properties.{ObjectProperty, Property, StringProperty}
+import org.scalacheck.Prop.{apply => _, _}
+import org.specs2.specification.core.SpecStructure
+import org.specs2.{ScalaCheck, Specification}
+
+/**
+ * Tests [[io.swagger.gdd.models.GoogleDiscoveryDocument#freeze GoogleDiscoveryDocument.freeze]].
+ */
+class FreezeSpecs extends Specification with ScalaCheck with TestHelpers {
+  override def is: SpecStructure = s2"""
+  GoogleDiscoveryDocument.freeze makes a deeply immutable snapshot of a document.
+
+  It should:
+    Serialize to exactly the same JSON as the document                               $sameJson
+    Be equal to, and hash the same as, another snapshot of the same document         $equalSnapshots
+    Not change when the document changes afterward                                   $detached
+    Refuse to be changed, all the way down                                           $immutable
+    Keep schemas shared through interning shared                                     $keepsSharing
+    Keep its values in final fields of its own, leaving the inherited ones untouched $ownFinalFields
+  """
+
+  val writer = GDDMapper().writer()
+
+  def sameJson = {
+    forAll(genConvertibleSwagger) { swagger =>
+      val gdd = SwaggerToGDD.swaggerToGDD(swagger)
+      writer.writeValueAsString(gdd.freeze()) must beEqualTo(writer.writeValueAsString(gdd))
+    }
+  }
+
+  def equalSnapshots = {
+    forAll(genConvertibleSwagger) { swagger =>
+      val gdd = SwaggerToGDD.swaggerToGDD(swagger)
+      val (a, b) = (gdd.freeze(), gdd.freeze())
+      (a must beEqualTo(b)) and (a.hashCode must beEqualTo(b.hashCode)) and (a.freeze() must beTheSameAs(a))
+    }
+  }
+
+  def detached = {
+    val gdd = SwaggerToGDD.swaggerToGDD(swaggerWithPaths("/pets"))
+    val frozen = gdd.freeze()
+    val before = writer.writeValueAsString(frozen)
+    gdd.setTitle("changed")
+    gdd.getResources.get("pets").getMethods.get("/pets").setDescription("changed")
+    writer.writeValueAsString(frozen) must beEqualTo(before)
+  }
+
+  def immutable = {
+    val frozen = SwaggerToGDD.swaggerToGDD(swaggerWithPaths("/pets")).freeze()
+    val pets = frozen.getResources.get("pets")
+    (frozen.setTitle("changed") must throwAn[UnsupportedOperationException]) and
+      (frozen.getResources.put("owners", pets) must throwAn[UnsupportedOperationException]) and
+      (pets.getMethods.get("/pets").setDescription("changed") must throwAn[UnsupportedOperationException]) and
+      (pets.getMethods.remove("/pets") must throwAn[UnsupportedOperationException])
+  }
+
+  def keepsSharing = {
+    def objectWith(properties: (String, Property)*): ObjectProperty = {
+      val prop = new ObjectProperty()
+      prop.setProperties(properties.toMap.asJava)
+      prop
+    }
+    val model = new ModelImpl()
+    model.addProperty("pet", objectWith("name" -> new StringProperty()))
+    model.addProperty("owner", objectWith("name" -> new StringProperty()))
+    val swagger = swaggerWithPaths("/pets")
+    swagger.addDefinition("Adoption", model)
+    val frozen = new SwaggerToGDD(new InterningGDDModelFactory).swaggerToGDD(swagger).freeze()
+    val properties = frozen.getSchemas.get("Adoption").getProperties
+    properties.get("pet") must beTheSameAs(properties.get("owner"))
+  }
+
+  def ownFinalFields = {
+    def fields(c: Class[_]) = c.getDeclaredFields.toList.filterNot(f => Modifier.isStatic(f.getModifiers))
+    def inherited(model: AnyRef, fresh: AnyRef) =
+      Iterator.iterate[Class[_]](model.getClass.getSuperclass)(_.getSuperclass).takeWhile(_ != classOf[Object])
+        .flatMap(fields).map { f => f.setAccessible(true); (f.get(model), f.get(fresh)) }.toList
+    val get = method("pets.get", "/pets/{id}", "id" -> parameter("path", required = true))
+    get.setResponse(new SchemaRef("Pet"))
+    val gdd = document(get)
+    gdd.setResources(Map("pets" -> resource("get" -> get)).asJava)
+    gdd.setSchemas(Map[String, AbstractSchema]("Pet" -> schema()).asJava)
+    val frozen = gdd.freeze()
+    val pets = frozen.getResources.get("pets")
+    val frozenGet = pets.getMethods.get("get")
+    val models = List(frozen -> new GoogleDiscoveryDocument, pets -> new Resource, frozenGet -> new Method,
+      frozenGet.getParameters.get("id") -> new Parameter, frozenGet.getResponse -> new SchemaRef(null),
+      frozen.getSchemas.get("Pet") -> new Schema)
+    models must contain { (pair: (AnyRef, AnyRef)) =>
+      val (model, fresh) = pair
+      (fields(model.getClass).map(f => Modifier.isFinal(f.getModifiers)) must not contain false) and
+        (inherited(model, fresh) must contain { (values: (AnyRef, AnyRef)) =>
+          values._1 must beTheSameAs(values._2)
+        }.forall)
+    }.forall
+  }
+}
@@ -0,0 +1,52 @@
+package io.swagger.gdd
+
+import java.io.ByteArrayOutputStream
+
+import io.swagger.gdd.SwaggerGenerators._
+import io.swagger.gdd.models._
+import io.swagger.gdd.models.json.GDDJsonWriter
+import org.scalacheck.Prop.{apply => _, _}
+import org.specs2.specification.core.SpecStructure
+import org.specs2.{ScalaCheck, Specification}
+
+/**
+ * Tests [[io.swagger.gdd.models.json.GDDJsonWriter GDDJsonWriter]].
+ */
+class GDDJsonWriterSpecs extends Specification with ScalaCheck with TestHelpers {
+  override def is: SpecStructure = s2"""
+  GDDJsonWriter writes GDD models as JSON without bean introspection.
+
+  It should:
+    Write exactly the same JSON as GDDMapper for converted documents                 $sameAsMapper
+    Write exactly the same JSON as GDDMapper for a document with every field set     $everyField
+    Leave the output stream open                                                      $leavesOpen
+  """
+
+  def write(gdd: GoogleDiscoveryDocument): String = {
+    val out = new ByteArrayOutputStream()
+    new GDDJsonWriter().write(gdd, out)
+    out.toString("UTF-8")
+  }
+
+  def sameAsMapper = {
+    val mapper = GDDMapper()
+    forAll(genConvertibleSwagger) { swagger =>
+      val gdd = SwaggerToGDD.swaggerToGDD(swagger)
+      write(gdd) must beEqualTo(mapper.writeValueAsString(gdd))
+    }
+  }
+
+  def everyField = {
+    val gdd = gddWithEveryField
+    write(gdd) must beEqualTo(GDDMapper().writeValueAsString(gdd))
+  }
+
+  def leavesOpen = {
+    var closed = false
+    val out = new ByteArrayOutputStream() {
+      override def close(): Unit = closed = true
+    }
+    new GDDJsonWriter().write(new GoogleDiscoveryDocument, out)
+    (closed must beFalse) and (out.toString("UTF-8") must beEqualTo(GDDMapper().writeValueAsString(new GoogleDiscoveryDocument)))
+  }
+}
@@ -0,0 +1,91 @@
+package io.swagger.gdd
+
+import java.io.ByteArrayOutputStream
+import java.util.concurrent.atomic.AtomicInteger
+
+import scala.collection.JavaConverters._
+
+import io.swagger.gdd.SwaggerGenerators._
+import io.swagger.gdd.models._
+import io.swagger.gdd.models.factory.GDDModelFactory
+import io.swagger.gdd.models.json.{GDDJsonWriter, GDDReader}
+import com.fasterxml.jackson.core.{JsonFactory, JsonParseException}
+import org.scalacheck.Prop.{apply => _, _}
+import org.specs2.specification.core.SpecStructure
+import org.specs2.{ScalaCheck, Specification}
+
+/**
+ * Tests [[io.swagger.gdd.models.json.GDDReader GDDReader]].
+ */
+class GDDReaderSpecs extends Specification with ScalaCheck with TestHelpers {
+  override def is: SpecStructure = s2"""
+  GDDReader reads GDD JSON, parsing schemas and resources only when they are accessed.
+
+  It should:
+    Read back exactly what GDDJsonWriter wrote for converted documents           $roundTrip
+    Read back exactly what GDDJsonWriter wrote for a document with every field    $everyField
+    Not parse any schema or resource until it is looked up                        $lazily
+    Parse only the schema or resource that is looked up, and only once            $onlyAccessed
+    Reject a document that is not an object                                       $notAnObject
+    Reject an object or an array where a string or a boolean should be            $notAScalar
+  """
+
+  def write(gdd: GoogleDiscoveryDocument): Array[Byte] = {
+    val out = new ByteArrayOutputStream()
+    new GDDJsonWriter().write(gdd, out)
+    out.toByteArray
+  }
+
+  def roundTrip = forAll(genConvertibleSwagger) { swagger =>
+    val json = write(SwaggerToGDD.swaggerToGDD(swagger))
+    new String(write(new GDDReader().read(json)), "UTF-8") must beEqualTo(new String(json, "UTF-8"))
+  }
+
+  def everyField = {
+    val json = write(gddWithEveryField)
+    new String(write(new GDDReader().read(json)), "UTF-8") must beEqualTo(new String(json, "UTF-8"))
+  }
+
+  /**
+   * Counts the schemas and resources it creates.
+   */
+  class CountingFactory extends GDDModelFactory {
+    val schemas = new AtomicInteger
+    val resources = new AtomicInteger
+    override def newSchema(): Schema = { schemas.incrementAndGet(); super.newSchema() }
+    override def newResource(): Resource = { resources.incrementAndGet(); super.newResource() }
+  }
+
+  def lazily = {
+    val factory = new CountingFactory
+    val gdd = new GDDReader(factory, new JsonFactory).read(write(gddWithEveryField))
+    (gdd.getSchemas.keySet.asScala must beEqualTo(Set("Pet", "petId"))) and
+      (gdd.getResources.size must beEqualTo(1)) and
+      (factory.schemas.get must beEqualTo(0)) and
+      (factory.resources.get must beEqualTo(0))
+  }
+
+  def onlyAccessed = {
+    val factory = new CountingFactory
+    val gdd = new GDDReader(factory, new JsonFactory).read(write(gddWithEveryField))
+    val first = gdd.getSchemas.get("petId")
+    val again = gdd.getSchemas.get("petId")
+    (first must beTheSameAs(again)) and
+      (first.getLocation must beEqualTo("path")) and
+      (factory.schemas.get must beEqualTo(1)) and
+      (factory.resources.get must beEqualTo(0)) and
+      (gdd.getResources.get("pets").getResources.keySet.asScala must beEqualTo(Set("photos"))) and
+      (factory.resources.get must beEqualTo(2))
+  }
+
+  def notAnObject = {
+    new GDDReader().read("[]".getBytes("UTF-8")) must throwA[JsonParseException]
+  }
+
+  def notAScalar = {
+    def read(json: String) = new GDDReader().read(json.getBytes("UTF-8"))
+    (read("""{"title": {"name": "inner"}, "name": "outer"}""") must throwA[JsonParseException]) and
+      (read("""{"methods": {"get": {"supportsMediaDownload": [true]}}}""") must throwA[JsonParseException]) and
+      (read("""{"title": 1, "name": "outer"}""").getName must beEqualTo("outer"))
+  }
+}
@@ -0,0 +1,142 @@
+package io.swagger.gdd
+
+import java.io.{ByteArrayOutputStream, FilterOutputStream, IOException}
+import java.nio.ByteBuffer
+import java.nio.file.Files
+import java.util.concurrent.atomic.AtomicInteger
+
+import scala.collection.JavaConverters._
+
+import io.swagger.gdd.SwaggerGenerators._
+import io.swagger.gdd.models._
+import io.swagger.gdd.models.factory.GDDModelFactory
+import io.swagger.gdd.models.json.GDDJsonWriter
+import io.swagger.gdd.models.snapshot.{GDDSnapshotReader, GDDSnapshotWriter}
+import org.scalacheck.Prop.{apply => _, _}
+import org.specs2.specification.core.SpecStructure
+import org.specs2.{ScalaCheck, Specification}
+
+/**
+ * Tests [[io.swagger.gdd.models.snapshot.GDDSnapshotWriter GDDSnapshotWriter]] and
+ * [[io.swagger.gdd.models.snapshot.GDDSnapshotReader GDDSnapshotReader]].
+ */
+class GDDSnapshotSpecs extends Specification with ScalaCheck with TestHelpers {
+  override def is: SpecStructure = s2"""
+  GDDSnapshotWriter writes GDDs into a binary snapshot, which GDDSnapshotReader loads, decoding documents, schemas and
+  resources only when they are looked up.
+
+  It should:
+    Read back the same JSON for converted documents                               $roundTrip
+    Read back the same JSON for a document with every field, from a mapped file   $everyField
+    Keep the documents in the order they were added                               $order
+    Not decode any document until it is looked up                                 $lazily
+    Decode only the schema or resource that is looked up, and only once           $onlyAccessed
+    Share each string among the documents which have it                           $sharedStrings
+    Refuse two documents with the same key                                        $duplicateKey
+    Refuse to add or close once a write has failed                                $failedAdd
+    Reject what is not a snapshot                                                 $notASnapshot
+  """
+
+  def json(gdd: GoogleDiscoveryDocument): String = {
+    val out = new ByteArrayOutputStream()
+    new GDDJsonWriter().write(gdd, out)
+    out.toString("UTF-8")
+  }
+
+  def snapshot(documents: (String, GoogleDiscoveryDocument)*): ByteBuffer = {
+    val out = new ByteArrayOutputStream()
+    val writer = new GDDSnapshotWriter(out)
+    documents.foreach { case (key, gdd) => writer.add(key, gdd) }
+    writer.close()
+    ByteBuffer.wrap(out.toByteArray)
+  }
+
+  def roundTrip = forAll(genConvertibleSwagger) { swagger =>
+    val gdd = SwaggerToGDD.swaggerToGDD(swagger)
+    json(new GDDSnapshotReader().read(snapshot("gdd" -> gdd)).get("gdd")) must beEqualTo(json(gdd))
+  }
+
+  def everyField = {
+    val file = Files.createTempFile("gdd", ".snapshot")
+    val writer = new GDDSnapshotWriter(Files.newOutputStream(file))
+    writer.add("gdd", gddWithEveryField)
+    writer.close()
+    json(new GDDSnapshotReader().read(file.toFile).get("gdd")) must beEqualTo(json(gddWithEveryField))
+  }
+
+  def order = {
+    val keys = Seq("pets", "owners", "stores")
+    val documents = new GDDSnapshotReader().read(snapshot(keys.map(_ -> gddWithEveryField): _*))
+    documents.keySet.asScala.toSeq must beEqualTo(keys)
+  }
+
+  /**
+   * Counts the documents, schemas and resources it creates.
+   */
+  class CountingFactory extends GDDModelFactory {
+    val documents = new AtomicInteger
+    val schemas = new AtomicInteger
+    val resources = new AtomicInteger
+    override def newGoogleDiscoveryDocument(): GoogleDiscoveryDocument = {
+      documents.incrementAndGet()
+      super.newGoogleDiscoveryDocument()
+    }
+    override def newSchema(): Schema = { schemas.incrementAndGet(); super.newSchema() }
+    override def newResource(): Resource = { resources.incrementAndGet(); super.newResource() }
+  }
+
+  def lazily = {
+    val factory = new CountingFactory
+    val documents = new GDDSnapshotReader(factory).read(snapshot("a" -> gddWithEveryField, "b" -> gddWithEveryField))
+    (documents.size must beEqualTo(2)) and (factory.documents.get must beEqualTo(0))
+  }
+
+  def onlyAccessed = {
+    val factory = new CountingFactory
+    val gdd = new GDDSnapshotReader(factory).read(snapshot("a" -> gddWithEveryField, "b" -> gddWithEveryField)).get("b")
+    val decoded = (factory.documents.get, factory.schemas.get, factory.resources.get)
+    val first = gdd.getSchemas.get("petId")
+    val again = gdd.getSchemas.get("petId")
+    (decoded must beEqualTo((1, 0, 0))) and
+      (gdd.getSchemas.keySet.asScala must beEqualTo(Set("Pet", "petId"))) and
+      (first must beTheSameAs(again)) and
+      (first must beAnInstanceOf[Parameter]) and
+      (factory.schemas.get must beEqualTo(0)) and
+      (factory.resources.get must beEqualTo(0)) and
+      (gdd.getResources.get("pets").getResources.keySet.asScala must beEqualTo(Set("photos"))) and
+      (factory.resources.get must beEqualTo(2))
+  }
+
+  def sharedStrings = {
+    val documents = new GDDSnapshotReader().read(snapshot("a" -> gddWithEveryField, "b" -> gddWithEveryField))
+    documents.get("a").getTitle must beTheSameAs(documents.get("b").getTitle)
+  }
+
+  def duplicateKey = {
+    val writer = new GDDSnapshotWriter(new ByteArrayOutputStream())
+    writer.add("gdd", gddWithEveryField)
+    writer.add("gdd", gddWithEveryField) must throwAn[IllegalArgumentException]
+  }
+
+  def failedAdd = {
+    val out = new ByteArrayOutputStream()
+    var failing = false
+    val writer = new GDDSnapshotWriter(new FilterOutputStream(out) {
+      override def write(b: Array[Byte], off: Int, len: Int): Unit = {
+        if (failing) throw new IOException("disk full")
+        out.write(b, off, len)
+      }
+    })
+    failing = true
+    val failed = writer.add("gdd", gddWithEveryField) must throwAn[IOException]
+    failing = false
+    failed and
+      (writer.add("other", gddWithEveryField) must throwAn[IllegalStateException]) and
+      (writer.close() must throwAn[IllegalStateException])
+  }
+
+  def notASnapshot = {
+    new GDDSnapshotReader().read(ByteBuffer.wrap("{\"kind\": \"discovery#restDescription\"}".getBytes("UTF-8"))) must
+      throwAn[IOException]
+  }
+}
@@ -0,0 +1,139 @@
+package io.swagger.gdd
+
+import java.util
+import java.util.concurrent.Executors
+
+import scala.collection.JavaConverters._
+
+import io.swagger.gdd.models._
+import io.swagger.gdd.models.validation.GDDValidator
+import io.swagger.gdd.models.validation.GDDValidator.Kind._
+import io.swagger.gdd.models.validation.GDDValidator.{Kind, Problem}
+import org.specs2.specification.core.SpecStructure
+import org.specs2.{ScalaCheck, Specification}
+
+/**
+ * Tests [[io.swagger.gdd.models.validation.GDDValidator GDDValidator]].
+ */
+class GDDValidatorSpecs extends Specification with ScalaCheck with TestHelpers {
+  override def is: SpecStructure = s2"""
+  GDDValidator collects every problem in a GDD in one pass.
+
+  It should:
+    Find no problems in a valid document                                           $valid
+    Find every $$ref that is not a schema, however deeply nested                    $danglingRefs
+    Find parameterOrder entries that are not parameters of the method              $unknownParameterOrder
+    Find path variables with no path parameter, whatever their operator            $unboundPathVariables
+    Find path parameters which are not required                                    $optionalPathParameters
+    Find method ids used more than once, across resources                          $duplicateMethodIds
+    Report a schema found twice in one part of the document once                   $sharedSchema
+    Find the same problems, in the same order, on an executor                      $parallel
+  """
+
+  /**
+   * A document with a `Pet` schema, and a `pets` resource with `list` and `get` methods.
+   */
+  def petstore: GoogleDiscoveryDocument = {
+    val gdd = new GoogleDiscoveryDocument
+    val pet = new Schema
+    pet.setId("Pet")
+    pet.setType("object")
+    pet.setProperties(Map[String, Schema]("owner" -> schema("Owner")).asJava)
+    val owner = new Schema
+    owner.setId("Owner")
+    owner.setType("object")
+    gdd.setSchemas(new util.LinkedHashMap[String, AbstractSchema](Map("Pet" -> pet, "Owner" -> owner).asJava))
+    val get = method("pets.get", "pets/{petId}", "petId" -> parameter("path", required = true))
+    get.setParameterOrder(List("petId").asJava)
+    get.setResponse(new SchemaRef("Pet"))
+    gdd.setResources(new util.LinkedHashMap[String, Resource](Map("pets" -> resource(
+      "list" -> method("pets.list", "pets", "limit" -> parameter("query", required = true)),
+      "get" -> get)).asJava))
+    gdd
+  }
+
+  def validate(gdd: GoogleDiscoveryDocument): Seq[Problem] = new GDDValidator().validate(gdd).asScala
+
+  def found(problems: Seq[Problem]): Seq[(Kind, String)] = problems.map(p => (p.getKind, p.getLocation))
+
+  def valid = validate(petstore) must beEmpty
+
+  def danglingRefs = {
+    val gdd = petstore
+    val nested = new Schema
+    nested.setType("array")
+    nested.setItems(schema("Photo"))
+    gdd.getSchemas.get("Owner").setProperties(Map[String, Schema]("photos" -> nested).asJava)
+    val get = gdd.getResources.get("pets").getMethods.get("get")
+    get.setRequest(new SchemaRef("PetRequest"))
+    val filter = parameter("query", required = true)
+    filter.setAdditionalProperties(schema("Filter"))
+    get.getParameters.put("filter", filter)
+    found(validate(gdd)) must beEqualTo(Seq(
+      DANGLING_REF -> "schemas.Owner.properties.photos.items",
+      DANGLING_REF -> "resources.pets.methods.get.request",
+      DANGLING_REF -> "resources.pets.methods.get.parameters.filter.additionalProperties"))
+  }
+
+  def unknownParameterOrder = {
+    val gdd = petstore
+    gdd.getResources.get("pets").getMethods.get("get").setParameterOrder(List("petId", "ownerId").asJava)
+    validate(gdd).map(_.toString) must beEqualTo(Seq(
+      "resources.pets.methods.get.parameterOrder: ownerId is not one of the method's parameters"))
+  }
+
+  def unboundPathVariables = {
+    val gdd = petstore
+    gdd.setParameters(
+      Map("userId" -> parameter("path", required = true), "alt" -> parameter("query", required = true)).asJava)
+    val methods = gdd.getResources.get("pets").getMethods
+    methods.put("photo", method("pets.photo", "users/{userId}/pets/{petId}/{+photo}",
+      "petId" -> parameter("path", required = true)))
+    methods.put("search", method("pets.search", "pets{?alt,q}", "q" -> parameter("query", required = true)))
+    validate(gdd).map(_.toString) must beEqualTo(Seq(
+      "resources.pets.methods.photo.path: {photo} is not a path parameter",
+      "resources.pets.methods.search.path: {alt} is not a path parameter",
+      "resources.pets.methods.search.path: {q} is not a path parameter"))
+  }
+
+  def optionalPathParameters = {
+    val gdd = petstore
+    gdd.getResources.get("pets").getMethods.get("get").getParameters.get("petId").setRequired(null)
+    found(validate(gdd)) must beEqualTo(Seq(OPTIONAL_PATH_PARAMETER -> "resources.pets.methods.get.parameters.petId"))
+  }
+
+  def duplicateMethodIds = {
+    val gdd = petstore
+    val owners = resource("list" -> method("pets.list", "owners"))
+    owners.setResources(Map("pets" -> resource("get" -> method("pets.get", "owners/pets"))).asJava)
+    gdd.getResources.put("owners", owners)
+    validate(gdd).map(_.toString) must beEqualTo(Seq(
+      "resources.owners.methods.list: the id pets.list is also the id of resources.pets.methods.list",
+      "resources.owners.resources.pets.methods.get: the id pets.get is also the id of resources.pets.methods.get"))
+  }
+
+  def sharedSchema = {
+    val gdd = petstore
+    val photo = schema("Photo")
+    gdd.getSchemas.get("Owner").setProperties(Map[String, Schema]("photo" -> photo, "avatar" -> photo).asJava)
+    validate(gdd).count(_.getKind == DANGLING_REF) must beEqualTo(1)
+  }
+
+  def parallel = {
+    val gdd = petstore
+    val resources = gdd.getResources
+    (0 until 200).foreach { i =>
+      val broken = method("pets.get", s"things$i/{thingId}", "thingId" -> parameter("path", required = i % 2 == 0))
+      broken.setResponse(new SchemaRef(s"Thing$i"))
+      resources.put(s"things$i", resource("get" -> broken))
+    }
+    val executor = Executors.newFixedThreadPool(4)
+    try {
+      val problems = new GDDValidator(executor).validate(gdd).asScala.map(_.toString)
+      (problems must beEqualTo(validate(gdd).map(_.toString))) and
+        (problems.size must beEqualTo(200 + 100 + 200))
+    } finally {
+      executor.shutdown()
+    }
+  }
+}
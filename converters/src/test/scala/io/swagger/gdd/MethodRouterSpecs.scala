@@ -0,0 +1,158 @@
+package io.swagger.gdd
+
+import scala.collection.JavaConverters._
+
+import io.swagger.gdd.models._
+import io.swagger.gdd.models.routing.{MethodRouter, PathVariables}
+import org.specs2.specification.core.SpecStructure
+import org.specs2.{ScalaCheck, Specification}
+
+/**
+ * Tests [[io.swagger.gdd.models.routing.MethodRouter MethodRouter]].
+ */
+class MethodRouterSpecs extends Specification with ScalaCheck with TestHelpers {
+  override def is: SpecStructure = s2"""
+  MethodRouter finds the Method of a GDD that a request is for.
+
+  It should:
+    Route to the methods of the document and of nested resources                   $nested
+    Extract the variables of the path, named as in each method's template           $variables
+    Prefer a literal segment to a variable                                         $literalFirst
+    Fall back to a variable when the literal leads nowhere                         $backtrack
+    Tell methods on the same path apart by their HTTP method                       $httpMethods
+    Match a variable with a literal around it                                      $affixed
+    Match the rest of the path with a trailing reserved expansion                  $reserved
+    Name variables without their operators and modifiers                           $operators
+    Refuse a segment with more than one variable                                   $multipleVariables
+    Ignore empty segments, the query string and query expressions                  $ignored
+    Find nothing, and no variables, for a request no method is for                 $noMatch
+    Route every converted path to its own method                                   $converted
+  """
+
+  /**
+   * @return a Method whose `id` is its HTTP method and its path
+   */
+  def endpoint(httpMethod: String, path: String): Method = {
+    val endpoint = method(s"$httpMethod $path", path)
+    endpoint.setHttpMethod(httpMethod)
+    endpoint
+  }
+
+  def router(methods: Method*): MethodRouter = MethodRouter.of(document(methods: _*))
+
+  def id(router: MethodRouter, httpMethod: String, path: String, variables: PathVariables = new PathVariables) =
+    Option(router.route(httpMethod, path, variables)).map(_.getId).orNull
+
+  def nested = {
+    val gdd = new GoogleDiscoveryDocument
+    gdd.setMethods(Map("root" -> endpoint("GET", "/")).asJava)
+    val pets = resource("list" -> endpoint("GET", "pets"))
+    pets.setResources(Map("photos" -> resource("list" -> endpoint("GET", "pets/{petId}/photos"))).asJava)
+    gdd.setResources(Map("pets" -> pets).asJava)
+    val router = MethodRouter.of(gdd)
+    (router.size must beEqualTo(3)) and
+      (id(router, "GET", "/") must beEqualTo("GET /")) and
+      (id(router, "GET", "pets") must beEqualTo("GET pets")) and
+      (id(router, "GET", "pets/1/photos") must beEqualTo("GET pets/{petId}/photos"))
+  }
+
+  def variables = {
+    val r = router(endpoint("GET", "users/{userId}/pets/{petId}"), endpoint("DELETE", "users/{owner}/pets/{pet}"))
+    val variables = new PathVariables
+    id(r, "GET", "users/ann/pets/rex", variables)
+    val get = (0 until variables.size).map(i => variables.name(i) -> variables.value(i))
+    id(r, "DELETE", "users/bob/pets/fido", variables)
+    (get must beEqualTo(Seq("userId" -> "ann", "petId" -> "rex"))) and
+      (variables.get("owner") must beEqualTo("bob")) and
+      (variables.get("pet") must beEqualTo("fido")) and
+      (variables.get("petId") must beNull) and
+      (variables.toString must beEqualTo("{owner=bob, pet=fido}"))
+  }
+
+  def literalFirst = {
+    val r = router(endpoint("GET", "pets/{petId}"), endpoint("GET", "pets/mine"))
+    val variables = new PathVariables
+    (id(r, "GET", "pets/mine", variables) must beEqualTo("GET pets/mine")) and
+      (variables.size must beEqualTo(0)) and
+      (id(r, "GET", "pets/rex") must beEqualTo("GET pets/{petId}"))
+  }
+
+  def backtrack = {
+    val r = router(endpoint("GET", "pets/mine"), endpoint("GET", "pets/{petId}/photos"),
+      endpoint("GET", "{kind}/mine/toys"))
+    val variables = new PathVariables
+    (id(r, "GET", "pets/mine/photos", variables) must beEqualTo("GET pets/{petId}/photos")) and
+      (variables.get("petId") must beEqualTo("mine")) and
+      (id(r, "GET", "pets/mine/toys", variables) must beEqualTo("GET {kind}/mine/toys")) and
+      (variables.size must beEqualTo(1)) and
+      (variables.get("kind") must beEqualTo("pets"))
+  }
+
+  def httpMethods = {
+    val r = router(endpoint("GET", "pets/{petId}"), endpoint("DELETE", "pets/{petId}"))
+    (id(r, "GET", "pets/1") must beEqualTo("GET pets/{petId}")) and
+      (id(r, "DELETE", "pets/1") must beEqualTo("DELETE pets/{petId}")) and
+      (id(r, "PUT", "pets/1") must beNull)
+  }
+
+  def affixed = {
+    val r = router(endpoint("GET", "files/{name}.json"), endpoint("GET", "files/v{version}"),
+      endpoint("GET", "files/{id}"))
+    val variables = new PathVariables
+    (id(r, "GET", "files/report.json", variables) must beEqualTo("GET files/{name}.json")) and
+      (variables.get("name") must beEqualTo("report")) and
+      (id(r, "GET", "files/v2", variables) must beEqualTo("GET files/v{version}")) and
+      (variables.get("version") must beEqualTo("2")) and
+      (id(r, "GET", "files/.json", variables) must beEqualTo("GET files/{id}"))
+  }
+
+  def reserved = {
+    val r = router(endpoint("GET", "v1/{+name}"), endpoint("GET", "v1/{+parent}/children"))
+    val variables = new PathVariables
+    (id(r, "GET", "v1/projects/p/locations/l/", variables) must beEqualTo("GET v1/{+name}")) and
+      (variables.get("name") must beEqualTo("projects/p/locations/l")) and
+      (id(r, "GET", "v1/projects/children", variables) must beEqualTo("GET v1/{+parent}/children")) and
+      (variables.get("parent") must beEqualTo("projects"))
+  }
+
+  def operators = {
+    val r = router(endpoint("GET", "a{/first}/x{.second}/{third*}/{fourth:3}"), endpoint("GET", "b/{;fifth}/{#sixth}"))
+    val variables = new PathVariables
+    (id(r, "GET", "a/1/x.2/3/4", variables) must beEqualTo("GET a{/first}/x{.second}/{third*}/{fourth:3}")) and
+      (Seq("first", "second", "third", "fourth").map(variables.get) must beEqualTo(Seq("1", "2", "3", "4"))) and
+      (id(r, "GET", "b/5/6", variables) must beEqualTo("GET b/{;fifth}/{#sixth}")) and
+      (Seq("fifth", "sixth").map(variables.get) must beEqualTo(Seq("5", "6")))
+  }
+
+  def multipleVariables = {
+    (router(endpoint("GET", "files/{name}.{format}")) must throwAn[IllegalArgumentException]) and
+      (router(endpoint("GET", "files/{name,format}")) must throwAn[IllegalArgumentException]) and
+      (router(endpoint("GET", "files/{name}/{format}")).size must beEqualTo(1))
+  }
+
+  def ignored = {
+    val r = router(endpoint("GET", "/pets/{petId}{?alt,fields}"))
+    val variables = new PathVariables
+    (id(r, "GET", "//pets//rex/?alt=json&fields=a/b", variables) must beEqualTo("GET /pets/{petId}{?alt,fields}")) and
+      (variables.get("petId") must beEqualTo("rex"))
+  }
+
+  def noMatch = {
+    val r = router(endpoint("GET", "pets/{petId}/photos"))
+    val variables = new PathVariables
+    (id(r, "GET", "pets/rex", variables) must beNull) and
+      (variables.size must beEqualTo(0)) and
+      (id(r, "GET", "owners/ann/photos") must beNull) and
+      (id(r, "GET", "") must beNull)
+  }
+
+  def converted = {
+    val pathValues = Seq("/pets", "/pets/{petId}", "/pets/{petId}/photos", "/pets/mine", "/owners/{ownerId}/pets",
+      "/stores/{storeId}/orders/{orderId}")
+    val gdd = SwaggerToGDD.swaggerToGDD(swaggerWithPaths(pathValues: _*))
+    val router = MethodRouter.of(gdd)
+    val variables = new PathVariables
+    (router.size must beEqualTo(pathValues.size)) and
+      (pathValues.map(p => id(router, "GET", p.replaceAll("\\{[^}]*\\}", "x"), variables)) must beEqualTo(pathValues))
+  }
+}
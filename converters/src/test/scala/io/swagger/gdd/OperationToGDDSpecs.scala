@@ -3,7 +3,8 @@ package io.swagger.gdd
 import scala.collection.JavaConverters._
 
 import io.swagger.gdd.SwaggerGenerators._
-import io.swagger.gdd.models.GoogleDiscoveryDocument
+import io.swagger.gdd.models.{GoogleDiscoveryDocument, Method}
+import io.swagger.models.Operation
 import io.swagger.models.parameters.{Parameter => SwaggerParameter}
 import io.swagger.models.properties.RefProperty
 import org.scalacheck.Arbitrary._
@@ -38,35 +39,39 @@ class OperationToGDDSpecs extends Specification with ScalaCheck with Mockito wit
 
   """
 
+  def convert(operation: Operation, pathValue: String, httpMethod: String, gdd: GoogleDiscoveryDocument): Method = {
+    val swaggerToGDD = new SwaggerToGDD()
+    swaggerToGDD.operationToGDD(operation, pathValue, httpMethod)(swaggerToGDD.standaloneContext(gdd))
+  }
+
   def id = {
     forAll(genOperation(), arbitrary[String], arbitrary[String]) { (operation, pathValue, httpMethod) =>
-      val method = new SwaggerToGDD().operationToGDD(operation, pathValue, httpMethod, mock[GoogleDiscoveryDocument])
+      val method = convert(operation, pathValue, httpMethod, mock[GoogleDiscoveryDocument])
       method.getId must beEqualTo(operation.getOperationId)
     }
   }
   def description = {
     forAll(genOperation(), arbitrary[String], arbitrary[String]) { (operation, pathValue, httpMethod) =>
-      val method = new SwaggerToGDD().operationToGDD(operation, pathValue, httpMethod, mock[GoogleDiscoveryDocument])
+      val method = convert(operation, pathValue, httpMethod, mock[GoogleDiscoveryDocument])
       method.getDescription must beEqualTo(operation.getSummary)
     }
   }
   def httpMethod = {
     forAll(genOperation(), arbitrary[String], arbitrary[String]) { (operation, pathValue, httpMethod) =>
-      val method = new SwaggerToGDD().operationToGDD(operation, pathValue, httpMethod, mock[GoogleDiscoveryDocument])
+      val method = convert(operation, pathValue, httpMethod, mock[GoogleDiscoveryDocument])
       method.getHttpMethod must beEqualTo(httpMethod)
     }
   }
   def path = {
     forAll(genOperation(), arbitrary[String], arbitrary[String]) { (operation, pathValue, httpMethod) =>
-      val method = new SwaggerToGDD().operationToGDD(operation, pathValue, httpMethod, mock[GoogleDiscoveryDocument])
+      val method = convert(operation, pathValue, httpMethod, mock[GoogleDiscoveryDocument])
       method.getPath must beEqualTo(pathValue)
     }
   }
   def parameters = {
     forAll(genOperation().guarantee(_.getParameters), arbitrary[String], arbitrary[String]) { (operation, pathValue, httpMethod) =>
-      val swaggerToGDD = new SwaggerToGDD()
-      val method = swaggerToGDD.operationToGDD(operation, pathValue, httpMethod, mock[GoogleDiscoveryDocument])
-      val expected = operation.getParameters.asScala.filter(p => "body" != p.getIn).map(swaggerToGDD.parameterToGDD).map(p => p.getId -> p).toMap
+      val method = convert(operation, pathValue, httpMethod, mock[GoogleDiscoveryDocument])
+      val expected = operation.getParameters.asScala.filter(p => "body" != p.getIn).map(SwaggerToGDD.parameterToGDD).map(p => p.getId -> p).toMap
       method.getParameters.asScala must beEqualTo(expected)
     }
   }
@@ -75,8 +80,7 @@ class OperationToGDDSpecs extends Specification with ScalaCheck with Mockito wit
       val responses = operation.getResponses.asScala + ("200" -> response)
       operation.setResponses(responses.asJava)
       operation.getResponses.put("200", response)
-      val swaggerToGDD = new SwaggerToGDD()
-      val method = swaggerToGDD.operationToGDD(operation, pathValue, httpMethod, mock[GoogleDiscoveryDocument])
+      val method = convert(operation, pathValue, httpMethod, mock[GoogleDiscoveryDocument])
       val responseRef = method.getResponse.get$ref()
       responseRef must beEqualTo(response.getSchema.getName) or (responseRef must beEqualTo(s"${method.getId}Response"))
     }
@@ -89,7 +93,7 @@ class OperationToGDDSpecs extends Specification with ScalaCheck with Mockito wit
       operation.setParameters(null) // avoid interaction with mock call
       val gddMock = mock[GoogleDiscoveryDocument]
       gddMock.getSchemas returns null
-      val method = new SwaggerToGDD().operationToGDD(operation, pathValue, httpMethod, gddMock)
+      val method = convert(operation, pathValue, httpMethod, gddMock)
       val responseRef = method.getResponse.get$ref
       responseRef must beEqualTo(s"${method.getId}Response") and (there was one(gddMock).setSchemas(any))
     }
@@ -98,7 +102,7 @@ class OperationToGDDSpecs extends Specification with ScalaCheck with Mockito wit
     forAll(genOperation(), genResponse(), arbitrary[String], arbitrary[String]) { (operation, response, pathValue, httpMethod) =>
       val responses = operation.getResponses.asScala.filterKeys(k => !(k.startsWith("2") || k == "default")) + ("400" -> response)
       operation.setResponses(responses.asJava)
-      val method = new SwaggerToGDD().operationToGDD(operation, pathValue, httpMethod, mock[GoogleDiscoveryDocument])
+      val method = convert(operation, pathValue, httpMethod, mock[GoogleDiscoveryDocument])
       method.getResponse must beNull
     }
   }
@@ -110,10 +114,9 @@ class OperationToGDDSpecs extends Specification with ScalaCheck with Mockito wit
         case None => parameter :: List.empty[SwaggerParameter]
       }
       operation.setParameters(parameters.asJava)
-      val swaggerToGDD = new SwaggerToGDD()
-      val method = swaggerToGDD.operationToGDD(operation, pathValue, httpMethod, mock[GoogleDiscoveryDocument])
+      val method = convert(operation, pathValue, httpMethod, mock[GoogleDiscoveryDocument])
       val requestRef = method.getRequest.get$ref
-      requestRef must beEqualTo(parameter.getName) or (requestRef must beEqualTo(s"${method.getId}${swaggerToGDD.parameterToGDD(parameter).getId}Request"))
+      requestRef must beEqualTo(parameter.getName) or (requestRef must beEqualTo(s"${method.getId}${SwaggerToGDD.parameterToGDD(parameter).getId}Request"))
     }
   }
   def requestNotRef = {
@@ -126,17 +129,16 @@ class OperationToGDDSpecs extends Specification with ScalaCheck with Mockito wit
       operation.setResponses(null) // avoid interaction with mock call
       val gddMock = mock[GoogleDiscoveryDocument]
       gddMock.getSchemas returns null
-      val swaggerToGDD = new SwaggerToGDD()
-      val method = swaggerToGDD.operationToGDD(operation, pathValue, httpMethod, gddMock)
+      val method = convert(operation, pathValue, httpMethod, gddMock)
       val requestRef = method.getRequest.get$ref
-      requestRef must beEqualTo(s"${method.getId}${swaggerToGDD.parameterToGDD(parameter).getId}Request") and (there was one(gddMock).setSchemas(any))
+      requestRef must beEqualTo(s"${method.getId}${SwaggerToGDD.parameterToGDD(parameter).getId}Request") and (there was one(gddMock).setSchemas(any))
     }
   }
   def noRequest = {
     forAll(genOperation(), arbitrary[String], arbitrary[String]) { (operation, pathValue, httpMethod) =>
       val parameters = Option(operation.getParameters).map(_.asScala.toList.filter(p => "body" != p.getIn)).getOrElse(List.empty[SwaggerParameter])
       operation.setParameters(parameters.asJava)
-      val method = new SwaggerToGDD().operationToGDD(operation, pathValue, httpMethod, mock[GoogleDiscoveryDocument])
+      val method = convert(operation, pathValue, httpMethod, mock[GoogleDiscoveryDocument])
       method.getRequest must beNull
     }
   }
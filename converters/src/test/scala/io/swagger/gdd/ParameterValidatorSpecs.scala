@@ -0,0 +1,230 @@
+package io.swagger.gdd
+
+import java.util
+
+import scala.collection.JavaConverters._
+
+import io.swagger.gdd.models._
+import io.swagger.gdd.models.routing.{MethodRouter, ParameterValidator, PathVariables}
+import org.specs2.specification.core.SpecStructure
+import org.specs2.{ScalaCheck, Specification}
+
+/**
+ * Tests [[io.swagger.gdd.models.routing.ParameterValidator ParameterValidator]].
+ */
+class ParameterValidatorSpecs extends Specification with ScalaCheck with TestHelpers {
+  override def is: SpecStructure = s2"""
+  ParameterValidator checks the parameters of a request against a Method's definitions.
+
+  It should:
+    Find nothing wrong with a valid request, without allocating a list             $valid
+    Require parameters in parameterOrder, in that order, then required ones        $required
+    Allow only repeated parameters to be given more than once                      $repeated
+    Check int32 and uint32 values, and their bounds                                $int32
+    Check int64 and uint64 values up to their limits                               $int64
+    Round fractional bounds of integers inwards                                    $fractionalBounds
+    Check numbers, and their bounds                                                $numbers
+    Check booleans                                                                 $booleans
+    Check enums, of query parameters and of path variables                         $enums
+    Ignore null enum values                                                        $nullEnum
+    Find patterns anywhere in the value, unless they are anchored                  $patterns
+    Percent-decode path variables before checking them                             $encoded
+    Apply the document's parameters, unless the method overrides them              $documentParameters
+    Refuse a pattern or a bound that can't be compiled                             $invalidDefinitions
+    Validate every method a MethodRouter routes to                                 $routed
+  """
+
+  def query(values: (String, String)*): util.Map[String, util.List[String]] =
+    values.groupBy(_._1).map { case (name, pairs) => name -> pairs.map(_._2).asJava }.asJava
+
+  /**
+   * Routes `GET path` to the only method of a document, and validates its parameters.
+   */
+  def validate(method: Method, path: String, values: (String, String)*): Seq[String] = {
+    val gdd = document(method)
+    val variables = new PathVariables
+    MethodRouter.of(gdd).route("GET", path, variables)
+    ParameterValidator.compile(gdd, method).validate(variables, query(values: _*)).asScala.map(_.toString)
+  }
+
+  /**
+   * @return the violations of a request which gives one value of the only parameter of a method
+   */
+  def value(name: String, p: Parameter): String => Seq[String] =
+    v => validate(method("things", "things", name -> p), "things", name -> v)
+
+  def valid = {
+    val get = method("users/{userId}/pets/{petId}", "users/{userId}/pets/{petId}",
+      "userId" -> parameter("path", required = true),
+      "petId" -> parameter("path", "integer", required = true, minimum = "1"),
+      "limit" -> parameter("query", "integer", maximum = "100"),
+      "status" -> parameter("query", enum = Seq("sold", "available")))
+    val gdd = document(get)
+    val variables = new PathVariables
+    MethodRouter.of(gdd).route("GET", "users/ann/pets/12", variables)
+    val violations = ParameterValidator.compile(gdd, get).validate(variables, query("limit" -> "10"))
+    (violations must beTheSameAs(util.Collections.emptyList[ParameterValidator.Violation])) and
+      (validate(get, "users/ann/pets/12", "status" -> "sold") must beEmpty)
+  }
+
+  def required = {
+    val get = method("things", "things",
+      "optional" -> parameter("query"),
+      "flagged" -> parameter("query", required = true),
+      "second" -> parameter("query"),
+      "first" -> parameter("query"))
+    get.setParameterOrder(List("first", "second", "missing").asJava)
+    (validate(get, "things") must beEqualTo(Seq(
+      "first: is required", "second: is required", "flagged: is required"))) and
+      (validate(get, "things", "first" -> "a", "second" -> "b", "flagged" -> "c") must beEmpty)
+  }
+
+  def repeated = {
+    val get = method("things", "things",
+      "one" -> parameter("query"), "many" -> parameter("query", "integer", repeated = true))
+    (validate(get, "things", "one" -> "a", "one" -> "b") must beEqualTo(Seq("one: must not be repeated"))) and
+      (validate(get, "things", "many" -> "1", "many" -> "2") must beEmpty) and
+      (validate(get, "things", "many" -> "1", "many" -> "x") must beEqualTo(Seq("many x: is not an integer")))
+  }
+
+  def int32 = {
+    val signed = value("n", parameter("query", "integer", "int32"))
+    val unsigned = value("n", parameter("query", "integer", "uint32"))
+    val bounded = value("n", parameter("query", "integer", minimum = "-5", maximum = "5"))
+    (signed("-2147483648") must beEmpty) and
+      (signed("+2147483647") must beEmpty) and
+      (signed("2147483648") must beEqualTo(Seq("n 2147483648: is not an int32"))) and
+      (signed("12a") must beEqualTo(Seq("n 12a: is not an integer"))) and
+      (signed("-") must beEqualTo(Seq("n -: is not an integer"))) and
+      (signed("") must beEqualTo(Seq("n : is not an integer"))) and
+      (unsigned("4294967295") must beEmpty) and
+      (unsigned("4294967296") must beEqualTo(Seq("n 4294967296: is not a uint32"))) and
+      (unsigned("-1") must beEqualTo(Seq("n -1: is not a uint32"))) and
+      (bounded("-5") must beEmpty) and
+      (bounded("5") must beEmpty) and
+      (bounded("-6") must beEqualTo(Seq("n -6: is less than -5"))) and
+      (bounded("6") must beEqualTo(Seq("n 6: is more than 5")))
+  }
+
+  def int64 = {
+    val signed = value("n", parameter("query", "string", "int64"))
+    val unsigned = value("n", parameter("query", "string", "uint64"))
+    val capped = value("n", parameter("query", "string", "uint64", maximum = "1000"))
+    (signed("-9223372036854775808") must beEmpty) and
+      (signed("9223372036854775807") must beEmpty) and
+      (signed("9223372036854775808") must beEqualTo(Seq("n 9223372036854775808: is not an int64"))) and
+      (signed("-9223372036854775809") must beEqualTo(Seq("n -9223372036854775809: is not an int64"))) and
+      (unsigned("18446744073709551615") must beEmpty) and
+      (unsigned("018446744073709551615") must beEmpty) and
+      (unsigned("18446744073709551616") must beEqualTo(Seq("n 18446744073709551616: is not a uint64"))) and
+      (unsigned("-1") must beEqualTo(Seq("n -1: is not a uint64"))) and
+      (capped("18446744073709551615") must beEqualTo(Seq("n 18446744073709551615: is more than 1000")))
+  }
+
+  def fractionalBounds = {
+    val bounded = value("n", parameter("query", "integer", minimum = "1.5", maximum = "3.5"))
+    (bounded("1") must beEqualTo(Seq("n 1: is less than 1.5"))) and
+      (bounded("2") must beEmpty) and
+      (bounded("3") must beEmpty) and
+      (bounded("4") must beEqualTo(Seq("n 4: is more than 3.5")))
+  }
+
+  def numbers = {
+    val number = value("x", parameter("query", "number", minimum = "0", maximum = "1.5"))
+    (number("0") must beEmpty) and
+      (number("1.5") must beEmpty) and
+      (number("1e-3") must beEmpty) and
+      (number("-0.5") must beEqualTo(Seq("x -0.5: is less than 0"))) and
+      (number("1.75") must beEqualTo(Seq("x 1.75: is more than 1.5"))) and
+      (number("NaN") must beEqualTo(Seq("x NaN: is not a number"))) and
+      (number("1d") must beEqualTo(Seq("x 1d: is not a number"))) and
+      (number("1..2") must beEqualTo(Seq("x 1..2: is not a number"))) and
+      (validate(method("ratio/{x}", "ratio/{x}", "x" -> parameter("path", "string", "double", required = true)),
+        "ratio/0.25") must beEmpty)
+  }
+
+  def booleans = {
+    val flag = value("b", parameter("query", "boolean"))
+    (flag("true") must beEmpty) and
+      (flag("false") must beEmpty) and
+      (flag("True") must beEqualTo(Seq("b True: is not a boolean"))) and
+      (flag("truest") must beEqualTo(Seq("b truest: is not a boolean")))
+  }
+
+  def enums = {
+    val status = parameter("query", enum = Seq("sold", "available"))
+    val get = method("pets/{kind}/list", "pets/{kind}/list",
+      "kind" -> parameter("path", required = true, enum = Seq("cat", "dog")), "status" -> status)
+    (validate(get, "pets/dog/list", "status" -> "available") must beEmpty) and
+      (validate(get, "pets/cow/list", "status" -> "gone") must beEqualTo(Seq(
+        "kind cow: is not one of the allowed values", "status gone: is not one of the allowed values"))) and
+      (validate(get, "pets/do/list") must beEqualTo(Seq("kind do: is not one of the allowed values")))
+  }
+
+  def nullEnum = {
+    val status = value("status", parameter("query", enum = Seq("sold", null)))
+    (status("sold") must beEmpty) and
+      (status("null") must beEqualTo(Seq("status null: is not one of the allowed values")))
+  }
+
+  def patterns = {
+    val get = method("users/{userId}.json", "users/{userId}.json",
+      "userId" -> parameter("path", required = true, pattern = "^[a-z]+$"),
+      "tag" -> parameter("query", pattern = "t[0-9]"))
+    (validate(get, "users/ann.json", "tag" -> "t1") must beEmpty) and
+      (validate(get, "users/ann.json", "tag" -> "xt1y") must beEmpty) and
+      (validate(get, "users/ann1.json", "tag" -> "tx") must beEqualTo(Seq(
+        "userId ann1: does not match the pattern", "tag tx: does not match the pattern")))
+  }
+
+  def encoded = {
+    val get = method("users/{userId}/tags/{tag}", "users/{userId}/tags/{tag}",
+      "userId" -> parameter("path", required = true, enum = Seq("ann lee", "zo\u00eb")),
+      "tag" -> parameter("path", required = true, pattern = "^[a-z]+/[a-z]+$"))
+    (validate(get, "users/ann%20lee/tags/a%2Fb") must beEmpty) and
+      (validate(get, "users/zo%C3%AB/tags/a%2fb") must beEmpty) and
+      (validate(get, "users/ann%2/tags/a%2Fb%2F") must beEqualTo(Seq(
+        "userId ann%2: is not percent-encoded properly", "tag a/b/: does not match the pattern")))
+  }
+
+  def documentParameters = {
+    val get = method("things", "things", "alt" -> parameter("query", enum = Seq("json", "xml")))
+    val gdd = document(get)
+    gdd.setParameters(Map(
+      "alt" -> parameter("query", enum = Seq("json")),
+      "key" -> parameter("query", required = true)).asJava)
+    val validator = ParameterValidator.compile(gdd, get)
+    def violations(values: (String, String)*) =
+      validator.validate(new PathVariables, query(values: _*)).asScala.map(_.toString)
+    (violations("alt" -> "xml", "key" -> "k") must beEmpty) and
+      (violations("alt" -> "csv") must beEqualTo(Seq(
+        "alt csv: is not one of the allowed values", "key: is required")))
+  }
+
+  def invalidDefinitions = {
+    val gdd = new GoogleDiscoveryDocument
+    (ParameterValidator.compile(gdd, method("a", "a", "p" -> parameter("query", pattern = "[a-"))) must
+      throwAn[IllegalArgumentException]("parameter p has an invalid pattern")) and
+      (ParameterValidator.compile(gdd, method("b", "b", "n" -> parameter("query", "integer", maximum = "ten"))) must
+        throwAn[IllegalArgumentException]("parameter n has a bound which is not a number"))
+  }
+
+  def routed = {
+    val pets = new Resource
+    pets.setMethods(Map(
+      "get" -> method("pets/{petId}", "pets/{petId}", "petId" -> parameter("path", "integer", required = true)),
+      "list" -> method("pets", "pets", "limit" -> parameter("query", "integer", maximum = "10"))).asJava)
+    val gdd = new GoogleDiscoveryDocument
+    gdd.setResources(Map("pets" -> pets).asJava)
+    val router = MethodRouter.of(gdd)
+    val validators = ParameterValidator.compileAll(gdd)
+    val variables = new PathVariables
+    def check(path: String, values: (String, String)*) =
+      validators.get(router.route("GET", path, variables)).validate(variables, query(values: _*)).asScala
+        .map(_.toString)
+    (validators.size must beEqualTo(2)) and
+      (check("pets/7") must beEmpty) and
+      (check("pets/seven") must beEqualTo(Seq("petId seven: is not an integer"))) and
+      (check("pets", "limit" -> "11") must beEqualTo(Seq("limit 11: is more than 10")))
+  }
+}
@@ -48,8 +48,9 @@ class PathObjectToGDDSpecs extends Specification with ScalaCheck with Mockito wi
       forAll(genPath().suchThat { case (_, p) => Option(o(p)).isDefined }) { case (pathValue, path) =>
         val swaggerToGDD = spy(new SwaggerToGDD())
         val mockGDD = mock[GoogleDiscoveryDocument]
-        swaggerToGDD.pathObjectToGDD(pathValue, path, mockGDD)
-        there was one(swaggerToGDD).operationToGDD(o(path), pathValue, httpMethod, mockGDD)
+        implicit val context = swaggerToGDD.standaloneContext(mockGDD)
+        swaggerToGDD.pathObjectToGDD(pathValue, path)
+        there was one(swaggerToGDD).operationToGDD(o(path), pathValue, httpMethod)
       }
     }
     def get = testCallAndCorrectHttpMethod(_.getGet, "GET")
@@ -68,7 +69,7 @@ class PathObjectToGDDSpecs extends Specification with ScalaCheck with Mockito wi
           override def newMethod() = mockMethod
         })
         val mockGDD = mock[GoogleDiscoveryDocument]
-        val methods = swaggerToGDD.pathObjectToGDD(pathValue, path, mockGDD)
+        val methods = swaggerToGDD.pathObjectToGDD(pathValue, path)(swaggerToGDD.standaloneContext(mockGDD))
         methods.get(id) must beSome(mockMethod)
       }
     }
@@ -87,7 +88,8 @@ class PathObjectToGDDSpecs extends Specification with ScalaCheck with Mockito wi
           }
         }
         val mockGDD = mock[GoogleDiscoveryDocument]
-        val resource = new SwaggerToGDD().pathObjectsToGDD(paths, mockGDD)
+        val swaggerToGDD = new SwaggerToGDD()
+        val resource = swaggerToGDD.pathObjectsToGDD(paths)(swaggerToGDD.standaloneContext(mockGDD))
         resource.getMethods.size must beEqualTo(operationCount)
       }
     }
@@ -99,7 +101,7 @@ class PathObjectToGDDSpecs extends Specification with ScalaCheck with Mockito wi
           override def newMethod() = mockMethod
         })
         val mockGDD = mock[GoogleDiscoveryDocument]
-        val resource = swaggerToGDD.pathObjectsToGDD(paths, mockGDD)
+        val resource = swaggerToGDD.pathObjectsToGDD(paths)(swaggerToGDD.standaloneContext(mockGDD))
         resource.getMethods.get(id) must beEqualTo(mockMethod)
       }
     }
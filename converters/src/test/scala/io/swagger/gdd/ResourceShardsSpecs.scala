@@ -0,0 +1,83 @@
+package io.swagger.gdd
+
+import java.util
+
+import scala.collection.JavaConverters._
+
+import io.swagger.gdd.SwaggerGenerators._
+import io.swagger.gdd.models._
+import io.swagger.gdd.models.graph.{ResourceShards, SchemaGraph}
+import org.scalacheck.Prop.{apply => _, _}
+import org.specs2.specification.core.SpecStructure
+import org.specs2.{ScalaCheck, Specification}
+
+/**
+ * Tests [[io.swagger.gdd.models.graph.ResourceShards ResourceShards]].
+ */
+class ResourceShardsSpecs extends Specification with ScalaCheck with TestHelpers {
+  override def is: SpecStructure = s2"""
+  ResourceShards splits a GoogleDiscoveryDocument into a document per top-level Resource.
+
+  It should:
+    Give each shard the metadata of the document and one of its Resources          $metadata
+    Give each shard just the schemas its Methods and the parameters reach          $closure
+    Leave no schema of a converted document out of a shard that refers to it        $selfContained
+  """
+
+  /**
+   * @return a Resource whose only Method's request is `request`
+   */
+  def inserting(request: String): Resource = {
+    val insert = method(s"insert$request", null)
+    insert.setRequest(new SchemaRef(request))
+    resource("insert" -> insert)
+  }
+
+  def metadata = {
+    val gdd = gddWithEveryField
+    val shards = ResourceShards.shard(gdd)
+    val shard = shards.get("pets")
+    (shards.keySet.asScala.toList must beEqualTo(List("pets"))) and
+      (shard.getResources must beEqualTo(gdd.getResources)) and
+      (shard.getMethods must beNull) and
+      (shard.getName must beEqualTo(gdd.getName)) and
+      (shard.getParameters must beTheSameAs(gdd.getParameters)) and
+      (shard.getAuth must beTheSameAs(gdd.getAuth)) and
+      (shard.getSchemas.keySet.asScala.toList must beEqualTo(List("Pet")))
+  }
+
+  def closure = {
+    val gdd = new GoogleDiscoveryDocument
+    val pet = new Schema
+    pet.setProperties(Map("owner" -> schema("Owner")).asJava)
+    val schemas = new util.LinkedHashMap[String, AbstractSchema]()
+    Seq("Filter" -> new Schema, "Owner" -> new Schema, "Pet" -> pet, "Store" -> new Schema).foreach {
+      case (key, value) => schemas.put(key, value)
+    }
+    gdd.setSchemas(schemas)
+    val filter = new Parameter
+    filter.set$ref("Filter")
+    gdd.setParameters(Map("filter" -> filter).asJava)
+    val resources = new util.LinkedHashMap[String, Resource]()
+    resources.put("pets", inserting("Pet"))
+    resources.put("stores", inserting("Store"))
+    resources.put("empty", new Resource)
+    gdd.setResources(resources)
+    val shards = ResourceShards.shard(gdd).asScala.mapValues(_.getSchemas.keySet.asScala.toList)
+    shards must beEqualTo(Map(
+      "pets" -> List("Filter", "Owner", "Pet"),
+      "stores" -> List("Filter", "Store"),
+      "empty" -> List("Filter")))
+  }
+
+  def selfContained = forAll(genConvertibleSwagger) { swagger =>
+    val gdd = SwaggerToGDD.swaggerToGDD(swagger)
+    val dangling = SchemaGraph.of(gdd).danglingReferences
+    val shards = ResourceShards.shard(gdd).asScala
+    (shards.keySet.toSet must beEqualTo(Option(gdd.getResources).map(_.keySet.asScala.toSet).getOrElse(Set.empty))) and
+      shards.values.map { shard =>
+        val graph = SchemaGraph.of(shard)
+        (dangling.containsAll(graph.danglingReferences) must beTrue) and (graph.unreachable.asScala must beEmpty)
+      }.foldLeft(success: org.specs2.execute.Result)(_ and _)
+  }
+}
@@ -0,0 +1,146 @@
+package io.swagger.gdd
+
+import java.util
+
+import scala.collection.JavaConverters._
+import scala.collection.immutable.ListMap
+
+import io.swagger.gdd.SwaggerGenerators._
+import io.swagger.gdd.models._
+import io.swagger.gdd.models.graph.SchemaGraph
+import io.swagger.models.properties.{ArrayProperty, RefProperty}
+import io.swagger.models.{Model, ModelImpl, Path, Response}
+import org.scalacheck.Prop.{apply => _, _}
+import org.specs2.specification.core.SpecStructure
+import org.specs2.{ScalaCheck, Specification}
+
+/**
+ * Tests [[io.swagger.gdd.models.graph.SchemaGraph SchemaGraph]].
+ */
+class SchemaGraphSpecs extends Specification with ScalaCheck with TestHelpers {
+  override def is: SpecStructure = s2"""
+  SchemaGraph indexes which schemas of a GoogleDiscoveryDocument refer to which others.
+
+  It should:
+    Find references anywhere in a schema, forward and in reverse                  $references
+    Take the schemas that Methods and parameters refer to as the roots            $roots
+    Find references to names which are not schemas                                $dangling
+    Find schemas which refer to each other in a cycle                             $cycles
+    Find every schema reachable from a schema, sharing closures along cycles       $closures
+    Drop only the schemas which no Method can reach                               $prune
+    Keep every schema that a converted document refers to                         $keepsReferenced
+  """
+
+  def objectWith(properties: (String, Schema)*): Schema = {
+    val schema = new Schema
+    schema.setType("object")
+    schema.setProperties(new util.LinkedHashMap[String, Schema](ListMap(properties: _*).asJava))
+    schema
+  }
+
+  def gddWith(schemas: (String, Schema)*): GoogleDiscoveryDocument = {
+    val gdd = new GoogleDiscoveryDocument
+    val map = new util.LinkedHashMap[String, AbstractSchema]()
+    schemas.foreach { case (key, value) => map.put(key, value) }
+    gdd.setSchemas(map)
+    gdd
+  }
+
+  def withMethod(gdd: GoogleDiscoveryDocument, request: String, response: String): GoogleDiscoveryDocument = {
+    val method = new Method
+    method.setId("pets.insert")
+    Option(request).foreach(ref => method.setRequest(new SchemaRef(ref)))
+    Option(response).foreach(ref => method.setResponse(new SchemaRef(ref)))
+    val resource = new Resource
+    val nested = new Resource
+    nested.setMethods(Map("insert" -> method).asJava)
+    resource.setResources(Map("photos" -> nested).asJava)
+    gdd.setResources(Map("pets" -> resource).asJava)
+    gdd
+  }
+
+  def references = {
+    val list = new Schema
+    list.setItems(schema("Pet"))
+    val map = new Schema
+    map.setAdditionalProperties(schema("Owner"))
+    val graph = SchemaGraph.of(gddWith(
+      "Pets" -> objectWith("list" -> list, "byOwner" -> map, "self" -> schema("Pets")),
+      "Pet" -> objectWith("owner" -> schema("Owner")),
+      "Owner" -> new Schema))
+    (graph.referencesFrom("Pets").asScala.toSet must beEqualTo(Set("Pet", "Owner", "Pets"))) and
+      (graph.referencesFrom("Owner").asScala must beEmpty) and
+      (graph.referencesTo("Owner").asScala.toSet must beEqualTo(Set("Pets", "Pet"))) and
+      (graph.referencesTo("Pets").asScala.toSet must beEqualTo(Set("Pets")))
+  }
+
+  def roots = {
+    val gdd = withMethod(gddWith("Pet" -> new Schema, "Error" -> new Schema), "Pet", "Error")
+    val parameter = new Parameter
+    parameter.set$ref("Filter")
+    gdd.setParameters(Map("filter" -> parameter).asJava)
+    SchemaGraph.of(gdd).roots.asScala.toSet must beEqualTo(Set("Pet", "Error", "Filter"))
+  }
+
+  def dangling = {
+    val gdd = withMethod(gddWith("Pet" -> objectWith("owner" -> schema("Owner"))), "Pet", "Missing")
+    SchemaGraph.of(gdd).danglingReferences.asScala.toList must beEqualTo(List("Missing", "Owner"))
+  }
+
+  def cycles = {
+    val graph = SchemaGraph.of(gddWith(
+      "A" -> objectWith("b" -> schema("B")),
+      "B" -> objectWith("c" -> schema("C")),
+      "C" -> objectWith("a" -> schema("A")),
+      "D" -> objectWith("d" -> schema("D"), "a" -> schema("A")),
+      "E" -> objectWith("a" -> schema("A"))))
+    graph.cycles.asScala.map(_.asScala.toList).toSet must beEqualTo(Set(List("A", "B", "C"), List("D")))
+  }
+
+  def closures = {
+    val graph = SchemaGraph.of(gddWith(
+      "A" -> objectWith("b" -> schema("B")),
+      "B" -> objectWith("a" -> schema("A"), "c" -> schema("C")),
+      "C" -> objectWith("missing" -> schema("Missing")),
+      "D" -> objectWith("a" -> schema("A"))))
+    (graph.closure("D").asScala.toSet must beEqualTo(Set("A", "B", "C", "D"))) and
+      (graph.closure("A") must beTheSameAs(graph.closure("B"))) and
+      (graph.closure("A").asScala.toSet must beEqualTo(Set("A", "B", "C"))) and
+      (graph.closure("C").asScala.toSet must beEqualTo(Set("C"))) and
+      (graph.closure("Missing").asScala must beEmpty)
+  }
+
+  def prune = {
+    val gdd = withMethod(gddWith(
+      "Unused" -> objectWith("pet" -> schema("Pet")),
+      "Pet" -> objectWith("owner" -> schema("Owner")),
+      "Owner" -> new Schema,
+      "Orphan" -> new Schema), "Pet", null)
+    val dropped = SchemaGraph.pruneUnreachable(gdd)
+    (dropped.asScala.toList must beEqualTo(List("Unused", "Orphan"))) and
+      (gdd.getSchemas.keySet.asScala.toList must beEqualTo(List("Pet", "Owner")))
+  }
+
+  def keepsReferenced = forAll(genConvertibleSwagger) { swagger =>
+    // a definition referred to only through a response, and one referred to by nothing
+    val pet = new ModelImpl
+    pet.setType("object")
+    val definitions = new util.LinkedHashMap[String, Model](Option(swagger.getDefinitions).getOrElse(new util.HashMap))
+    definitions.put("ReferencedPet", pet)
+    definitions.put("UnusedPet", new ModelImpl)
+    swagger.setDefinitions(definitions)
+    val paths = new util.LinkedHashMap[String, Path](Option(swagger.getPaths).getOrElse(new util.HashMap))
+    val referenced = swaggerWithPaths("/referenced-pets").getPath("/referenced-pets")
+    referenced.getGet.response(200, new Response().schema(new ArrayProperty(new RefProperty("ReferencedPet"))))
+    paths.put("/referenced-pets", referenced)
+    swagger.setPaths(paths)
+    val gdd = SwaggerToGDD.swaggerToGDD(swagger)
+    val before = SchemaGraph.of(gdd)
+    val dropped = before.prune(gdd)
+    val after = SchemaGraph.of(gdd)
+    (dropped.asScala must contain("UnusedPet")) and
+      (gdd.getSchemas.asScala must haveKey("ReferencedPet")) and
+      (after.unreachable.asScala must beEmpty) and
+      (after.danglingReferences must beEqualTo(before.danglingReferences))
+  }
+}
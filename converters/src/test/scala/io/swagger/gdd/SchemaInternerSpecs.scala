@@ -0,0 +1,90 @@
+package io.swagger.gdd
+
+import scala.collection.JavaConverters._
+
+import io.swagger.gdd.SwaggerGenerators._
+import io.swagger.gdd.models.Schema
+import io.swagger.gdd.models.factory.{InterningGDDModelFactory, SchemaInterner}
+import io.swagger.models.ModelImpl
+import io.swagger.models.properties.{DateTimeProperty, ObjectProperty, Property}
+import org.scalacheck.Prop.{apply => _, _}
+import org.specs2.specification.core.SpecStructure
+import org.specs2.{ScalaCheck, Specification}
+
+/**
+ * Tests converting with an [[io.swagger.gdd.models.factory.InterningGDDModelFactory InterningGDDModelFactory]].
+ */
+class SchemaInternerSpecs extends Specification with ScalaCheck with TestHelpers {
+  override def is: SpecStructure = s2"""
+  An InterningGDDModelFactory makes structurally equal nested schemas share one instance.
+
+  It should:
+    Produce exactly the same JSON as converting without interning                     $sameJson
+    Share one instance between nested schemas that are structurally equal             $shared
+    Not share instances between nested schemas that differ in any field               $notShared
+    Let go of canonical schemas that nothing else refers to                           $weak
+  """
+
+  def sameJson = {
+    val writer = GDDMapper().writer()
+    forAll(genConvertibleSwagger) { swagger =>
+      val interned = new SwaggerToGDD(new InterningGDDModelFactory).swaggerToGDD(swagger)
+      writer.writeValueAsString(interned) must beEqualTo(writer.writeValueAsString(SwaggerToGDD.swaggerToGDD(swagger)))
+    }
+  }
+
+  def objectWith(properties: (String, Property)*): ObjectProperty = {
+    val prop = new ObjectProperty()
+    prop.setProperties(properties.toMap.asJava)
+    prop
+  }
+
+  def dateTime(name: String, description: String): DateTimeProperty = {
+    val prop = new DateTimeProperty()
+    prop.setName(name)
+    prop.setDescription(description)
+    prop
+  }
+
+  def shared = {
+    val model = new ModelImpl()
+    model.addProperty("pet", objectWith("createdAt" -> dateTime("createdAt", "when")))
+    model.addProperty("owner", objectWith("createdAt" -> dateTime("createdAt", "when")))
+    val converter = new SwaggerToGDD(new InterningGDDModelFactory)
+    val schema = converter.schemaObjectToGDD("Adoption", model)(standalone(converter))
+    val pet = schema.getProperties.get("pet")
+    val owner = schema.getProperties.get("owner")
+    (pet.getProperties.get("createdAt") must beTheSameAs(owner.getProperties.get("createdAt"))) and
+      (pet must beTheSameAs(owner))
+  }
+
+  def notShared = {
+    val model = new ModelImpl()
+    model.addProperty("pet", objectWith("createdAt" -> dateTime("createdAt", "when")))
+    model.addProperty("owner", objectWith("createdAt" -> dateTime("createdAt", "since when")))
+    model.addProperty("vet", objectWith("updatedAt" -> dateTime("updatedAt", "when")))
+    val converter = new SwaggerToGDD(new InterningGDDModelFactory)
+    val schema = converter.schemaObjectToGDD("Adoption", model)(standalone(converter))
+    val nested = schema.getProperties.asScala.values.toList
+    nested.combinations(2).exists { case List(a, b) => a eq b } must beFalse
+  }
+
+  def weak = {
+    def withId(id: String): Schema = {
+      val schema = new Schema
+      schema.setId(id)
+      schema
+    }
+    val interner = new SchemaInterner
+    val kept = interner.intern(withId("kept"))
+    (1 to 100).foreach(i => interner.intern(withId(s"dropped$i")))
+    val deadline = System.currentTimeMillis + 10000
+    while (interner.size > 1 && System.currentTimeMillis < deadline) {
+      System.gc()
+      Thread.sleep(10)
+    }
+    (interner.size must beEqualTo(1)) and
+      (interner.intern(withId("kept")) must beTheSameAs(kept)) and
+      (interner.intern(withId("dropped1")).getId must beEqualTo("dropped1"))
+  }
+}
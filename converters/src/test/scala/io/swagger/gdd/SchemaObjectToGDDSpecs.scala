@@ -4,7 +4,9 @@ import scala.collection.JavaConverters._
 
 import io.swagger.gdd.SwaggerGenerators._
 import io.swagger.gdd.models.Schema
-import io.swagger.models.Model
+import io.swagger.models.properties.{Property, StringProperty}
+import io.swagger.models.parameters.BodyParameter
+import io.swagger.models.{ComposedModel, Model, ModelImpl, Operation, Path, RefModel, Swagger}
 import org.scalacheck.Arbitrary._
 import org.scalacheck.Gen
 import org.scalacheck.Prop.{apply => _, _}
@@ -32,8 +34,18 @@ class SchemaObjectToGDDSpecs extends Specification with ScalaCheck with TestHelp
     Set the Schema's items to the Model's items, converted                ${ArrayModels.items}
   For RefModels, it should:
     Set the Schema's $$ref to the Model's $$ref (simpleRef)               ${RefModels.$ref}
+  For ComposedModels, it should:
+    Set the Schema's type to "object"                                     ${ComposedModels.`type`}
+    Set the Schema's properties to those of the allOf, converted          ${ComposedModels.properties}
+    Follow $$refs in the allOf to the definitions of the Swagger           ${ComposedModels.refs}
+    Flatten each definition once, however many others it is shared by    ${ComposedModels.once}
+    Stop at cycles of allOfs                                              ${ComposedModels.cycles}
+    Convert a definition again when one it is flattened from changes      ${ComposedModels.cache}
+    Convert a path again when its body's allOf changes, or can be resolved ${ComposedModels.cachedBody}
   """
 
+  implicit def context: ConversionContext = standalone(new SwaggerToGDD())
+
   def testSetBy[T, M <: Model](g: Gen[M])(t: Schema => T)(m: M => T) = {
     forAll(arbitrary[String], g) { (key, model) =>
       val schema = new SwaggerToGDD().schemaObjectToGDD(key, model)
@@ -89,4 +101,119 @@ class SchemaObjectToGDDSpecs extends Specification with ScalaCheck with TestHelp
       }
     }
   }
+
+  object ComposedModels {
+    def `type` = testSetTo(genAModel(genComposedModel))(_.getType)("object")
+    def properties = testSetBy(genComposedModel())(s => Option(s.getProperties).map(_.asScala.toMap)) { model =>
+      val properties = model.getAllOf.asScala.flatMap(m => Option(m.getProperties).map(_.asScala).getOrElse(Nil))
+      if (properties.isEmpty) None else Some(properties.toMap.mapValues(new SwaggerToGDD().propertyToGDD))
+    }
+
+    def refs = {
+      val gdd = new SwaggerToGDD().swaggerToGDD(diamond)
+      propertyNames(gdd, "D") must beEqualTo(List("a", "b", "c", "d"))
+    }
+
+    def once = {
+      // a ladder of diamonds, which would take 2^depth flattenings of the base without memoization
+      val depth = 30
+      val swagger = new Swagger
+      swagger.addDefinition("level0", objectWith("base"))
+      (1 to depth).foreach { level =>
+        swagger.addDefinition(s"left$level", composedOf(ref(s"level${level - 1}"), objectWith(s"left$level")))
+        swagger.addDefinition(s"right$level", composedOf(ref(s"level${level - 1}"), objectWith(s"right$level")))
+        swagger.addDefinition(s"level$level", composedOf(ref(s"left$level"), ref(s"right$level")))
+      }
+      val converter = new CountingPropertiesSwaggerToGDD
+      val gdd = converter.swaggerToGDD(swagger)
+      (propertyNames(gdd, s"level$depth") must contain("base")) and
+        (converter.converted("base") must beEqualTo(2)) // once as level0 itself, and once flattened
+    }
+
+    def cycles = {
+      val swagger = new Swagger
+      swagger.addDefinition("A", composedOf(ref("B"), objectWith("a")))
+      swagger.addDefinition("B", composedOf(ref("A"), objectWith("b")))
+      val gdd = new SwaggerToGDD().swaggerToGDD(swagger)
+      (propertyNames(gdd, "A") must beEqualTo(List("b", "a"))) and
+        (propertyNames(gdd, "B") must beEqualTo(List("a", "b")))
+    }
+
+    def cache = {
+      val cache = new ConversionCache
+      val converter = new SwaggerToGDD()
+      val before = converter.swaggerToGDD(diamond, cache)
+      val changed = diamond
+      changed.getDefinitions.put("A", objectWith("z"))
+      val after = converter.swaggerToGDD(changed, cache)
+      (propertyNames(before, "D") must beEqualTo(List("a", "b", "c", "d"))) and
+        (propertyNames(after, "D") must beEqualTo(List("z", "b", "c", "d")))
+    }
+
+    def cachedBody = {
+      def withBody(swagger: Swagger): Swagger = {
+        val body = new BodyParameter
+        body.setName("body")
+        body.setSchema(composedOf(ref("A"), ref("E"), objectWith("p")))
+        val operation = new Operation
+        operation.setOperationId("pets.insert")
+        operation.addParameter(body)
+        swagger.path("/pets", new Path().post(operation))
+      }
+      val cache = new ConversionCache
+      val converter = new SwaggerToGDD()
+      def request(swagger: Swagger) = propertyNames(converter.swaggerToGDD(swagger, cache), "pets.insertbodyRequest")
+      val before = request(withBody(diamond))
+      val changed = withBody(diamond)
+      changed.getDefinitions.put("A", objectWith("z"))
+      val afterChange = request(changed)
+      changed.addDefinition("E", objectWith("e"))
+      val afterAdding = request(changed)
+      (before must beEqualTo(List("a", "p"))) and
+        (afterChange must beEqualTo(List("z", "p"))) and
+        (afterAdding must beEqualTo(List("z", "e", "p")))
+    }
+
+    /**
+     * D is both a B and a C, which are both an A.
+     */
+    def diamond: Swagger = {
+      val swagger = new Swagger
+      swagger.addDefinition("A", objectWith("a"))
+      swagger.addDefinition("B", composedOf(ref("A"), objectWith("b")))
+      swagger.addDefinition("C", composedOf(ref("A"), objectWith("c")))
+      swagger.addDefinition("D", composedOf(ref("B"), ref("C"), objectWith("d")))
+      swagger
+    }
+
+    def objectWith(property: String): ModelImpl = {
+      val model = new ModelImpl
+      model.setType(ModelImpl.OBJECT)
+      val stringProperty = new StringProperty
+      stringProperty.setName(property)
+      model.addProperty(property, stringProperty)
+      model
+    }
+
+    def composedOf(allOf: Model*): ComposedModel = {
+      val model = new ComposedModel
+      model.setAllOf(allOf.asJava)
+      model
+    }
+
+    def ref(key: String): RefModel = new RefModel(key)
+
+    def propertyNames(gdd: models.GoogleDiscoveryDocument, key: String): List[String] = {
+      gdd.getSchemas.get(key).getProperties.keySet.asScala.toList
+    }
+  }
+
+  class CountingPropertiesSwaggerToGDD extends SwaggerToGDD {
+    val converted = collection.mutable.HashMap.empty[String, Int].withDefaultValue(0)
+
+    override def propertyToGDD(property: Property)(implicit context: ConversionContext): Schema = {
+      converted.synchronized(converted(property.getName) += 1)
+      super.propertyToGDD(property)
+    }
+  }
 }
@@ -0,0 +1,93 @@
+package io.swagger.gdd
+
+import java.io.{ByteArrayOutputStream, File}
+import java.nio.file.Files
+
+import scala.collection.JavaConverters._
+
+import com.fasterxml.jackson.core.JsonParser
+import com.fasterxml.jackson.databind.JsonNode
+import io.swagger.gdd.SwaggerGenerators._
+import io.swagger.models.properties.{ArrayProperty, StringProperty}
+import io.swagger.models.{ModelImpl, Operation, Path, Response, Swagger}
+import io.swagger.util.Json
+import org.scalacheck.Prop.{apply => _, _}
+import org.specs2.specification.core.SpecStructure
+import org.specs2.{ScalaCheck, Specification}
+
+/**
+ * Tests [[io.swagger.gdd.StreamingSwaggerToGDD StreamingSwaggerToGDD]].
+ */
+class StreamingSwaggerToGDDSpecs extends Specification with ScalaCheck with TestHelpers {
+  override def is: SpecStructure = sequential ^ s2"""
+  StreamingSwaggerToGDD converts Swagger JSON to GDD JSON one definition and one path at a time.
+
+  It should:
+    Write the same document as serializing the result of SwaggerToGDD.swaggerToGDD     $sameAsSwaggerToGDD
+    Write a hoisted schema whose id is taken in place of the one before it             $collidingIds
+    Delete its temporary files when converting fails                                  $failed
+  """
+
+  /**
+   * @return the result of SwaggerToGDD.swaggerToGDD, serialized, and what StreamingSwaggerToGDD writes instead
+   */
+  def convert(swagger: Swagger): (JsonNode, Array[Byte]) = {
+    val file = Files.createTempFile("swagger", ".json")
+    try {
+      Json.mapper().writeValue(file.toFile, swagger)
+      val expected = GDDMapper().valueToTree[JsonNode](
+        SwaggerToGDD.swaggerToGDD(Json.mapper().readValue(file.toFile, classOf[Swagger])))
+      val out = new ByteArrayOutputStream()
+      new StreamingSwaggerToGDD().convert(file.toFile, out)
+      (expected, out.toByteArray)
+    } finally {
+      Files.delete(file)
+    }
+  }
+
+  def sameAsSwaggerToGDD = {
+    forAll(genConvertibleSwagger) { swagger =>
+      val (expected, written) = convert(swagger)
+      GDDMapper().readTree(written) must beEqualTo(expected)
+    }
+  }
+
+  def collidingIds = {
+    val swagger = new Swagger
+    val pet = new ModelImpl
+    pet.setType(ModelImpl.OBJECT)
+    swagger.addDefinition("Pet", pet)
+    swagger.addDefinition("listPetsResponse", pet)
+    val list = new Operation
+    list.setOperationId("listPets")
+    list.response(200, new Response().schema(new ArrayProperty(new StringProperty)))
+    swagger.path("/pets", new Path().get(list))
+    val (expected, bytes) = convert(swagger)
+    val mapper = GDDMapper()
+    val parser = mapper.getFactory.createParser(bytes)
+    parser.enable(JsonParser.Feature.STRICT_DUPLICATE_DETECTION)
+    val written = mapper.readTree[JsonNode](parser)
+    (written must beEqualTo(expected)) and
+      (written.get("schemas").fieldNames.asScala.toList must beEqualTo(List("Pet", "listPetsResponse"))) and
+      (written.get("schemas").get("listPetsResponse").get("type").asText must beEqualTo("array"))
+  }
+
+  def failed = {
+    def spools = new File(System.getProperty("java.io.tmpdir")).list.filter(_.startsWith("swagger-gdd")).toSet
+    val failing = new SwaggerToGDD {
+      override def pathObjectToGDD(pathValue: String, path: Path)
+                                  (implicit context: ConversionContext): Map[String, models.Method] =
+        throw new IllegalStateException(s"can't convert $pathValue")
+    }
+    val file = Files.createTempFile("swagger", ".json")
+    try {
+      Json.mapper().writeValue(file.toFile, swaggerWithPaths("/pets"))
+      val before = spools
+      (new StreamingSwaggerToGDD(failing).convert(file.toFile, new ByteArrayOutputStream) must
+        throwAn[IllegalStateException]("can't convert /pets")) and
+        (spools must beEqualTo(before))
+    } finally {
+      Files.delete(file)
+    }
+  }
+}
@@ -29,7 +29,14 @@ object SwaggerGenerators {
    * Generates a complete [[io.swagger.models.Swagger Swagger]]. Everything can be null, except for `swagger` which
    * defaults to 2.0 anyway, `info`, and `paths`.
    */
-  def genSwagger: Gen[Swagger] = {
+  def genSwagger: Gen[Swagger] = genSwagger(mapOf(_))
+
+  /**
+   * Generate a [[io.swagger.models.Swagger Swagger]] like [[genSwagger]] does, but with `paths` generated from the
+   * given function.
+   * @param genPaths given a generator of a single Path Item Object, generate the Paths Object
+   */
+  def genSwagger(genPaths: Gen[(String, Path)] => Gen[Map[String, Path]]): Gen[Swagger] = {
     for {
       info <- genInfo
       host <- arbitrary[Option[(String, Option[String])]]
@@ -44,7 +51,7 @@ object SwaggerGenerators {
         ).map(p => p.getName -> p)))
       securityDefinitions <- option(mapOf(arbitrary[String].flatMap(k => genSecuritySchemeDefinition.map(k -> _))))
       securityRequirements <- option(someOf(securityDefinitions.map(_.values).getOrElse(Nil)).flatMap(l => sequence(l.map(genSecurityRequirement))))
-      paths <- mapOf(genPath(definitions, parameters, securityDefinitions)).map(_.asJava)
+      paths <- genPaths(genPath(definitions, parameters, securityDefinitions)).map(_.asJava)
       tags <- option(listOf(genTag).map(_.asJava))
       externalDocs <- option(genExternalDocs)
       // todo responses when swagger-models adds it
@@ -70,6 +77,45 @@ object SwaggerGenerators {
     }
   }
 
+  /**
+   * Generate a [[io.swagger.models.Swagger Swagger]] like [[genSwagger]] does, minus what the converter cannot handle:
+   * non-body [[io.swagger.models.parameters.RefParameter RefParameter]]s have no name to key them by in a GDD
+   * `Method`'s `parameters`, so they are left out.
+   */
+  def genConvertibleSwagger: Gen[Swagger] = genSwagger.map(convertible)
+
+  /**
+   * Generate a [[io.swagger.models.Swagger Swagger]] like [[genConvertibleSwagger]] does, with exactly `pathCount`
+   * paths. Generated path keys that collide get a numeric suffix so that none of them are lost. A path that fails to
+   * generate is drawn again, since otherwise a single failure among thousands of paths would fail the whole document.
+   */
+  def genConvertibleSwagger(pathCount: Int): Gen[Swagger] = genSwagger { genPath =>
+    listOfN(pathCount, retrying(genPath)).map { paths =>
+      val seen = collection.mutable.Set.empty[String]
+      paths.zipWithIndex.map { case ((key, path), i) =>
+        var unique = key
+        while (!seen.add(unique)) unique = s"${unique.stripSuffix("/")}/$i"
+        unique -> path
+      }.toMap
+    }
+  }.map(convertible)
+
+  /**
+   * Draw from `gen` until it produces a value, up to `attempts` times, rather than failing on the first try.
+   */
+  def retrying[T](gen: Gen[T], attempts: Int = 100): Gen[T] = parameterized { params =>
+    Iterator.fill(attempts)(gen(params)).collectFirst { case Some(t) => t }.map(const).getOrElse(fail)
+  }
+
+  private def convertible(swagger: Swagger): Swagger = {
+    swagger.getPaths.asScala.values.flatMap(_.getOperations.asScala).foreach { op =>
+      Option(op.getParameters).foreach { params =>
+        op.setParameters(params.asScala.filterNot(p => p.isInstanceOf[RefParameter] && "body" != p.getIn).asJava)
+      }
+    }
+    swagger
+  }
+
   /**
    * Generate the [[io.swagger.models.Info Info]] object of a [[io.swagger.models.Swagger Swagger]] document.
    * `title` and `version` will always be populated, while the other fields may be null.
@@ -145,6 +191,7 @@ object SwaggerGenerators {
     for {
       pathParams <- listOf(genPathParameter)
       staticPathParts <- listOf(genNonEmptyAlphaNumStr)
+      shuffleSeed <- arbitrary[Long]
       get <- option(genOperation(pathParams, globalDefinitions, globalParameters, securityDefinitions))
       put <- option(genOperation(pathParams, globalDefinitions, globalParameters, securityDefinitions))
       post <- option(genOperation(pathParams, globalDefinitions, globalParameters, securityDefinitions))
@@ -165,7 +212,7 @@ object SwaggerGenerators {
       vendorExtensions <- mapOf(genVendorExtension)
     } yield {
       val path = new Path
-      val key = "/" + Random.shuffle(pathParams.map(p => s"{${p.getName}}") ::: staticPathParts).mkString("/")
+      val key = "/" + new Random(shuffleSeed).shuffle(pathParams.map(p => s"{${p.getName}}") ::: staticPathParts).mkString("/")
       get.foreach(path.setGet)
       put.foreach(path.setPut)
       post.foreach(path.setPost)
@@ -470,12 +517,14 @@ object SwaggerGenerators {
         case Some(globalDefs) if globalDefs.nonEmpty =>
           oneOf(genModelImpl(globalDefinitions).map(m => {m.setName(name); m}),
             genArrayModel(globalDefinitions),
+            genComposedModel(globalDefinitions),
             genRefModel(globalDefs))
         case _ => oneOf(genModelImpl(globalDefinitions).map(m => {m.setName(name); m}),
-          genArrayModel(globalDefinitions))
+          genArrayModel(globalDefinitions),
+          genComposedModel(globalDefinitions))
       }
     } yield model
-  } // todo add genComposedModel when it's implemented
+  }
 
   /**
    * Generate a [[io.swagger.models.ModelImpl ModelImpl]].
@@ -553,9 +602,25 @@ object SwaggerGenerators {
 
   /**
    * Generate a [[io.swagger.models.ComposedModel ComposedModel]].
-   * @throws NotImplementedError converter does not yet support ComposedModels.
+   * @param globalDefinitions [[io.swagger.models.Model Model]]s defined in the [[io.swagger.models.Swagger Swagger]]
+   *                         document which can be referred to
+   * @return a model whose `allOf` has up to four object schema definitions and references to globally defined models.
    */
-  def genComposedModel: Gen[(String, ComposedModel)] = ??? // todo implement this when converter supports it
+  def genComposedModel(globalDefinitions: Option[Map[String, Model]] = None): Gen[ComposedModel] = {
+    val member: Gen[Model] = globalDefinitions match {
+      case Some(globalDefs) if globalDefs.nonEmpty =>
+        oneOf(genObjectModelImpl(globalDefinitions), genRefModel(globalDefs))
+      case _ => genObjectModelImpl(globalDefinitions)
+    }
+    for {
+      model <- (new ComposedModel).withCommonFields
+      size <- choose(1, 4)
+      allOf <- listOfN(size, member)
+    } yield {
+      model.setAllOf(allOf.asJava)
+      model
+    }
+  }
 
   /**
    * Generate a [[io.swagger.models.RefModel RefModel]].
@@ -1077,10 +1142,10 @@ object SwaggerGenerators {
    */
   def genVersion: Gen[String] = {
     for {
-      major <- arbitrary[Long]
-      minor <- listOf(arbitrary[Long])
-    } yield s"$major.${minor.mkString(".")}"
-  }.suchThat(_.matches("""\d+(?:\.\d+)*"""))
+      major <- chooseNum(0L, Long.MaxValue)
+      minor <- listOf(chooseNum(0L, Long.MaxValue))
+    } yield (major :: minor).mkString(".")
+  }
 
   /**
    * Generate a URL. Not particularly adventurous in terms of the characters in the URL.
@@ -1203,7 +1268,7 @@ object SwaggerGenerators {
         security <- securityDefinitions match {
           case Some(securityDefs) if securityDefs.nonEmpty =>
             option(listOf(genSecurityRequirement(securityDefs).map(_.mapValues(_.asJava)).map(_.asJava)).map(_.asJava))
-          case None => const(None)
+          case _ => const(None)
         }
         vendorExtensions <- mapOf(genVendorExtension)
       } yield {
@@ -1,14 +1,358 @@
 package io.swagger.gdd
 
+import java.util.concurrent.{Callable, Executor, Executors, ForkJoinPool, RejectedExecutionException}
+
+import scala.collection.JavaConverters._
+import scala.collection.immutable.ListMap
+import scala.concurrent.Await
+import scala.concurrent.duration._
+
+import io.swagger.gdd.SwaggerGenerators._
+import io.swagger.gdd.models.graph.SchemaGraph
+import io.swagger.gdd.models.{AbstractSchema, GoogleDiscoveryDocument, Method, Schema}
+import io.swagger.models.properties._
+import io.swagger.models.{ComposedModel, Model, ModelImpl, Path, RefModel, Response, Swagger}
+import org.scalacheck.Prop.{apply => _, _}
+import org.specs2.specification.AfterAll
 import org.specs2.specification.core.SpecStructure
 import org.specs2.{Specification, ScalaCheck}
 
-class SwaggerToGDDSpecs extends Specification with ScalaCheck with TestHelpers {
+class SwaggerToGDDSpecs extends Specification with ScalaCheck with TestHelpers with AfterAll {
   override def is: SpecStructure = s2"""
 
   SwaggerToGDD takes Swagger model objects and converts them to their GDD equivalents.
 
-  SwaggerToGDD.convertProperty converts a Swagger Property into a GDD Schema.
+  SwaggerToGDD.swaggerToGDD converts a Swagger into a GoogleDiscoveryDocument.
+
+  It should:
+    Nest Resources by the path segments that are not path parameters                   ${Resources.nested}
+    Put the methods of paths made up only of path parameters in the top-level methods  ${Resources.root}
+
+  When given a ForkJoinPool, it should:
+    Produce exactly the same JSON as the sequential conversion                       ${Parallel.sameAsSequential}
+
+  When shared by many threads, it should:
+    Produce exactly the same JSON on each of them as on one                          ${Shared.sameAsAlone}
+
+  When given an Executor, it should:
+    Produce exactly the same JSON on the executor as on the calling thread           ${Async.sameAsSync}
+    Fail if the executor rejects the conversion                                      ${Async.rejected}
+    Fail, rather than never complete, if the conversion throws a fatal error         ${Async.fatal}
+
+  When given a ConversionCache, it should:
+    Produce exactly the same JSON as converting the new version from scratch         ${Incremental.sameAsFresh}
+    Convert again only the definitions and paths that changed                        ${Incremental.onlyChanged}
+    Convert again when only whether a property is required changed                   ${Incremental.requiredChanged}
+    Drop the schemas hoisted out of a path along with the path                       ${Incremental.dropsHoisted}
+
+  SwaggerToGDD.lazySwaggerToGDD converts definitions and paths only when they are first used. It should:
+    Produce exactly the same JSON as the eager conversion                            ${Lazy.sameAsEager}
+    Convert only the paths whose methods are used                                    ${Lazy.onlyUsed}
+    Add the schemas hoisted out of every path to schemas                             ${Lazy.hoisted}
+    Convert each path only once when used from multiple threads at once              ${Lazy.once}
+
+  SwaggerToGDD.deduplicateHoistedSchemas collapses hoisted schemas which are the same. It should:
+    Point the Methods of dropped schemas at the one that was kept                     ${Dedup.collapses}
+    Keep the first of each group in the order of schemas                             ${Dedup.keepsFirst}
+    Not care about the order of properties                                           ${Dedup.propertyOrder}
+    Leave definitions alone                                                          ${Dedup.definitions}
+    Not leave any Method referring to a dropped schema                               ${Dedup.noDangling}
 
   """
+
+  override def afterAll(): Unit = {
+    Parallel.pool.shutdown()
+    Shared.pool.shutdown()
+    Async.pool.shutdown()
+  }
+
+  class CountingSwaggerToGDD extends SwaggerToGDD {
+    var definitions = 0
+    var paths = 0
+
+    override def schemaObjectToGDD(key: String, model: Model)(implicit context: ConversionContext): Schema = {
+      synchronized(definitions += 1)
+      super.schemaObjectToGDD(key, model)
+    }
+
+    override def pathObjectToGDD(pathValue: String, path: Path)
+                                (implicit context: ConversionContext): Map[String, Method] = {
+      synchronized(paths += 1)
+      super.pathObjectToGDD(pathValue, path)
+    }
+  }
+
+  object Resources {
+    def nested = {
+      val gdd = SwaggerToGDD.swaggerToGDD(swaggerWithPaths("/pets", "/pets/{petId}", "/pets/{petId}/photos"))
+      val pets = gdd.getResources.get("pets")
+      (gdd.getResources.keySet.asScala must beEqualTo(Set("pets"))) and
+        (pets.getMethods.keySet.asScala must beEqualTo(Set("/pets", "/pets/{petId}"))) and
+        (pets.getResources.get("photos").getMethods.keySet.asScala must beEqualTo(Set("/pets/{petId}/photos")))
+    }
+
+    def root = {
+      val gdd = SwaggerToGDD.swaggerToGDD(swaggerWithPaths("/", "/{petId}", "/pets"))
+      gdd.getMethods.keySet.asScala must beEqualTo(Set("/", "/{petId}"))
+    }
+  }
+
+  object Parallel {
+    lazy val pool = new ForkJoinPool(4)
+
+    def sameAsSequential = {
+      forAll(genConvertibleSwagger) { swagger =>
+        val writer = GDDMapper().writer()
+        val sequential = writer.writeValueAsString(SwaggerToGDD.swaggerToGDD(swagger))
+        val parallel = writer.writeValueAsString(SwaggerToGDD.swaggerToGDD(swagger, pool))
+        parallel must beEqualTo(sequential)
+      }
+    }
+  }
+
+  object Shared {
+    lazy val pool = Executors.newFixedThreadPool(8)
+
+    def sameAsAlone = {
+      forAll(genConvertibleSwagger) { swagger =>
+        val writer = GDDMapper().writer()
+        val alone = writer.writeValueAsString(new SwaggerToGDD().swaggerToGDD(swagger))
+        val shared = new SwaggerToGDD()
+        val tasks = List.fill(16)(new Callable[String] {
+          override def call(): String = writer.writeValueAsString(shared.swaggerToGDD(swagger))
+        })
+        pool.invokeAll(tasks.asJava).asScala.map(_.get).distinct must beEqualTo(List(alone))
+      }
+    }
+  }
+
+  object Async {
+    lazy val pool = Executors.newFixedThreadPool(2)
+
+    def sameAsSync = {
+      forAll(genConvertibleSwagger) { swagger =>
+        val writer = GDDMapper().writer()
+        val async = Await.result(SwaggerToGDD.swaggerToGDDAsync(swagger, pool), 1.minute)
+        writer.writeValueAsString(async) must beEqualTo(writer.writeValueAsString(SwaggerToGDD.swaggerToGDD(swagger)))
+      }
+    }
+
+    def rejected = {
+      val executor = new Executor {
+        override def execute(command: Runnable): Unit = throw new RejectedExecutionException("full")
+      }
+      val future = SwaggerToGDD.swaggerToGDDAsync(swaggerWithPaths("/pets"), executor)
+      Await.ready(future, 1.minute).value.get must beFailedTry.withThrowable[RejectedExecutionException]
+    }
+
+    def fatal = {
+      val converter = new SwaggerToGDD {
+        override def swaggerToGDD(swagger: Swagger): GoogleDiscoveryDocument = throw new StackOverflowError
+      }
+      // a thread of its own, which dies of the error once the future has failed with it
+      val executor = new Executor {
+        override def execute(command: Runnable): Unit = {
+          val thread = new Thread(command)
+          thread.setUncaughtExceptionHandler(new Thread.UncaughtExceptionHandler {
+            override def uncaughtException(t: Thread, e: Throwable): Unit = ()
+          })
+          thread.start()
+        }
+      }
+      val future = converter.swaggerToGDDAsync(swaggerWithPaths("/pets"), executor)
+      // a Promise boxes the Errors it fails with
+      Await.ready(future, 1.minute).value.get.failed.map(_.getCause) must beSuccessfulTry.like {
+        case cause => cause must beAnInstanceOf[StackOverflowError]
+      }
+    }
+  }
+
+  object Incremental {
+    val writer = GDDMapper().writer()
+
+    def sameAsFresh = {
+      forAll(retrying(genConvertibleSwagger), retrying(genConvertibleSwagger)) { (previous, next) =>
+        val cache = new ConversionCache
+        SwaggerToGDD.swaggerToGDD(previous, cache)
+        writer.writeValueAsString(SwaggerToGDD.swaggerToGDD(next, cache)) must beEqualTo(
+          writer.writeValueAsString(SwaggerToGDD.swaggerToGDD(next)))
+      }
+    }
+
+    def onlyChanged = {
+      forAll(retrying(genConvertibleSwagger.suchThat(s => !s.getPaths.isEmpty))) { swagger =>
+        val converter = new CountingSwaggerToGDD
+        val cache = new ConversionCache
+        converter.swaggerToGDD(swagger, cache)
+        converter.definitions = 0
+        converter.paths = 0
+        swagger.getPaths.asScala.head._2.setVendorExtension("x-changed", true)
+        val gdd = converter.swaggerToGDD(swagger, cache)
+        (converter.paths must beEqualTo(1)) and
+          (converter.definitions must beEqualTo(0)) and
+          (writer.writeValueAsString(gdd) must beEqualTo(writer.writeValueAsString(SwaggerToGDD.swaggerToGDD(swagger))))
+      }
+    }
+
+    def requiredChanged = {
+      val (name, id) = (new StringProperty, new StringProperty)
+      val owner = new ObjectProperty
+      owner.setProperties(Map[String, Property]("name" -> name).asJava)
+      val pet = new ModelImpl
+      pet.addProperty("owner", owner)
+      val dog = new ComposedModel
+      dog.setAllOf(List[Model](new RefModel("Pet")).asJava)
+      val body = new ObjectProperty
+      body.setProperties(Map[String, Property]("id" -> id).asJava)
+      val swagger = swaggerWithPaths("/pets")
+      swagger.getPaths.get("/pets").getGet.response(200, new Response().schema(body))
+      swagger.addDefinition("Pet", pet)
+      swagger.addDefinition("Dog", dog)
+      val converter = new CountingSwaggerToGDD
+      val cache = new ConversionCache
+      converter.swaggerToGDD(swagger, cache)
+      converter.definitions = 0
+      converter.paths = 0
+      name.setRequired(true)
+      id.setRequired(true)
+      val gdd = converter.swaggerToGDD(swagger, cache)
+      (converter.definitions must beEqualTo(2)) and
+        (converter.paths must beEqualTo(1)) and
+        (writer.writeValueAsString(gdd) must beEqualTo(writer.writeValueAsString(SwaggerToGDD.swaggerToGDD(swagger))))
+    }
+
+    def dropsHoisted = {
+      val swagger = swaggerWithPaths("/pets", "/owners")
+      swagger.getPaths.asScala.values.foreach { path =>
+        path.getGet.response(200, new Response().schema(new StringProperty))
+      }
+      val cache = new ConversionCache
+      val before = SwaggerToGDD.swaggerToGDD(swagger, cache)
+      // getPaths returns a copy
+      swagger.setPaths(swagger.getPaths.asScala.filterKeys(_ != "/owners").asJava)
+      val after = SwaggerToGDD.swaggerToGDD(swagger, cache)
+      (before.getSchemas.keySet.asScala.toSet must beEqualTo(Set("/petsResponse", "/ownersResponse"))) and
+        (after.getSchemas.keySet.asScala.toSet must beEqualTo(Set("/petsResponse")))
+    }
+  }
+
+  object Lazy {
+    val writer = GDDMapper().writer()
+
+    def sameAsEager = {
+      forAll(genConvertibleSwagger) { swagger =>
+        val eager = SwaggerToGDD.swaggerToGDD(swagger)
+        val gdd = SwaggerToGDD.lazySwaggerToGDD(swagger)
+        // schemas is empty rather than null when there are none
+        if (eager.getSchemas == null && gdd.getSchemas.isEmpty) gdd.setSchemas(null)
+        writer.writeValueAsString(gdd) must beEqualTo(writer.writeValueAsString(eager))
+      }
+    }
+
+    def onlyUsed = {
+      val converter = new CountingSwaggerToGDD
+      val gdd = converter.lazySwaggerToGDD(swaggerWithPaths("/pets", "/pets/{petId}", "/pets/{petId}/photos", "/owners"))
+      val pets = gdd.getResources.get("pets")
+      val before = converter.paths
+      val methods = pets.getMethods.keySet.asScala.toSet
+      val after = converter.paths
+      gdd.getSchemas.size
+      (before must beEqualTo(0)) and
+        (methods must beEqualTo(Set("/pets", "/pets/{petId}"))) and
+        (after must beEqualTo(2)) and
+        (converter.paths must beEqualTo(4)) and
+        (converter.definitions must beEqualTo(0))
+    }
+
+    def hoisted = {
+      val swagger = swaggerWithPaths("/pets", "/owners")
+      swagger.getPaths.asScala.values.foreach { path =>
+        path.getGet.response(200, new Response().schema(new StringProperty))
+      }
+      val gdd = SwaggerToGDD.lazySwaggerToGDD(swagger)
+      gdd.getResources.get("pets").getMethods
+      (gdd.getSchemas.keySet.asScala.toSet must beEqualTo(Set("/petsResponse", "/ownersResponse"))) and
+        (gdd.getResources.get("pets").getMethods.get("/pets").getResponse.get$ref must beEqualTo("/petsResponse"))
+    }
+
+    def once = {
+      val converter = new CountingSwaggerToGDD
+      val gdd = converter.lazySwaggerToGDD(swaggerWithPaths("/pets", "/pets/{petId}"))
+      val pool = Executors.newFixedThreadPool(8)
+      try {
+        val tasks = List.fill(8)(new Callable[Method] {
+          override def call(): Method = gdd.getResources.get("pets").getMethods.get("/pets")
+        })
+        val methods = pool.invokeAll(tasks.asJava).asScala.map(_.get)
+        (methods.distinct.size must beEqualTo(1)) and (converter.paths must beEqualTo(2))
+      } finally {
+        pool.shutdown()
+      }
+    }
+  }
+
+  object Dedup {
+    def withResponses(responses: (String, Property)*): Swagger = {
+      val swagger = swaggerWithPaths(responses.map(_._1): _*)
+      responses.foreach { case (pathValue, property) =>
+        swagger.getPath(pathValue).getGet.response(200, new Response().schema(property))
+      }
+      swagger
+    }
+
+    def collapses = {
+      val swagger = withResponses("/pets" -> new StringProperty, "/owners" -> new StringProperty,
+        "/stores" -> new ArrayProperty(new StringProperty))
+      val gdd = SwaggerToGDD.swaggerToGDD(swagger)
+      val replaced = SwaggerToGDD.deduplicateHoistedSchemas(swagger, gdd)
+      (replaced must beEqualTo(Map("/petsResponse" -> "/ownersResponse"))) and
+        (gdd.getSchemas.keySet.asScala.toSet must beEqualTo(Set("/ownersResponse", "/storesResponse"))) and
+        (gdd.getResources.get("pets").getMethods.get("/pets").getResponse.get$ref must beEqualTo("/ownersResponse")) and
+        (gdd.getResources.get("stores").getMethods.get("/stores").getResponse.get$ref must beEqualTo("/storesResponse"))
+    }
+
+    def keepsFirst = {
+      // Swagger sorts its paths, so /a is converted, and its response hoisted, first
+      val swagger = withResponses(Seq("/zebra", "/pets", "/a", "/m", "/owners").map(_ -> new StringProperty): _*)
+      val gdd = SwaggerToGDD.swaggerToGDD(swagger)
+      // hash order, which filtering schemas as a Scala map would have gone by, keeping /petsResponse
+      val byHash = new java.util.HashMap[String, AbstractSchema]()
+      gdd.getSchemas.asScala.foreach { case (key, schema) => byHash.put(key, schema) }
+      val replaced = SwaggerToGDD.deduplicateHoistedSchemas(swagger, gdd)
+      (byHash.keySet.asScala.head must not(beEqualTo("/aResponse"))) and
+        (gdd.getSchemas.keySet.asScala.toList must beEqualTo(List("/aResponse"))) and
+        (replaced.values.toSet must beEqualTo(Set("/aResponse")))
+    }
+
+    def propertyOrder = {
+      def objectOf(names: String*): Property = {
+        val property = new ObjectProperty
+        property.setProperties(new java.util.LinkedHashMap[String, Property](
+          ListMap(names.map(_ -> (new StringProperty: Property)): _*).asJava))
+        property
+      }
+      val swagger = withResponses("/pets" -> objectOf("name", "age"), "/owners" -> objectOf("age", "name"))
+      val gdd = SwaggerToGDD.swaggerToGDD(swagger)
+      SwaggerToGDD.deduplicateHoistedSchemas(swagger, gdd).size must beEqualTo(1)
+    }
+
+    def definitions = {
+      val swagger = withResponses("/pets" -> new RefProperty("Pet"), "/owners" -> new RefProperty("Owner"))
+      val definitions = new java.util.LinkedHashMap[String, Model]()
+      definitions.put("Pet", new ModelImpl)
+      definitions.put("Owner", new ModelImpl)
+      swagger.setDefinitions(definitions)
+      val gdd = SwaggerToGDD.swaggerToGDD(swagger)
+      (SwaggerToGDD.deduplicateHoistedSchemas(swagger, gdd) must beEmpty) and
+        (gdd.getSchemas.keySet.asScala.toSet must beEqualTo(Set("Pet", "Owner")))
+    }
+
+    def noDangling = forAll(genConvertibleSwagger) { swagger =>
+      val gdd = SwaggerToGDD.swaggerToGDD(swagger)
+      val before = SchemaGraph.of(gdd).danglingReferences
+      val replaced = SwaggerToGDD.deduplicateHoistedSchemas(swagger, gdd)
+      (SchemaGraph.of(gdd).danglingReferences must beEqualTo(before)) and
+        (Option(gdd.getSchemas).map(_.keySet.asScala.toSet).getOrElse(Set.empty).intersect(replaced.keySet) must beEmpty)
+    }
+  }
 }
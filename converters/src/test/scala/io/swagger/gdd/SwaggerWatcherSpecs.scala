@@ -0,0 +1,172 @@
+package io.swagger.gdd
+
+import java.io.IOException
+import java.nio.charset.StandardCharsets
+import java.nio.file.{Files, Path}
+
+import scala.collection.JavaConverters._
+import scala.collection.mutable
+
+import io.swagger.gdd.BatchConverter._
+import org.specs2.specification.AfterAll
+import org.specs2.specification.core.SpecStructure
+import org.specs2.{ScalaCheck, Specification}
+
+/**
+ * Tests [[io.swagger.gdd.SwaggerWatcher SwaggerWatcher]].
+ */
+class SwaggerWatcherSpecs extends Specification with ScalaCheck with TestHelpers with AfterAll {
+  override def is: SpecStructure = sequential ^ s2"""
+  SwaggerWatcher converts Swagger files into GDD files again whenever they change.
+
+  It should:
+    Convert every Swagger file when it starts                                      $initial
+    Convert just the file that changed                                             $changed
+    Convert a burst of changes to a file once                                      $burst
+    Delete the GDD of a Swagger file that is deleted                               $deleted
+    Delete the GDDs under a directory that is moved out of the tree                $movedOut
+    Watch directories that are created                                             $newDirectory
+    Leave no temporary files in the output directory                               $noTemporaryFiles
+    Report a directory that can't be listed, and go on watching                    $unlisted
+  """
+
+  override def afterAll(): Unit = deleteTempDirectories()
+
+  def read(file: Path): String = new String(Files.readAllBytes(file), StandardCharsets.UTF_8)
+
+  /**
+   * Wait for up to ten seconds for the condition to hold.
+   */
+  def eventually(condition: => Boolean): Boolean = {
+    val deadline = System.currentTimeMillis + 10000
+    while (!condition && System.currentTimeMillis < deadline) Thread.sleep(20)
+    condition
+  }
+
+  /**
+   * Run a watcher of `in` on another thread while `f` runs, with the results it has reported so far.
+   */
+  def watching[T](in: Path, out: Path)(f: mutable.Buffer[Result] => T): T = {
+    val results = mutable.ArrayBuffer.empty[Result]
+    val watcher = new SwaggerWatcher(in, out, quietMillis = 200)
+    val thread = new Thread(new Runnable {
+      override def run(): Unit = watcher.run(result => results.synchronized(results += result))
+    })
+    thread.start()
+    try {
+      f(results)
+    } finally {
+      watcher.close()
+      thread.join()
+    }
+  }
+
+  def inputs(results: mutable.Buffer[Result]): Seq[Path] = results.synchronized(results.map(_.job.input).toList)
+
+  def initial = {
+    val in = tempDirectory("swagger")
+    val out = tempDirectory("gdd")
+    val pets = writeFile(in, "pets.json", swaggerJson("/pets"))
+    val owners = writeFile(in, "api/owners.yaml", swaggerJson("/owners"))
+    watching(in, out) { results =>
+      (eventually(inputs(results).size == 2) must beTrue) and
+        (inputs(results) must beEqualTo(Seq(owners, pets))) and
+        (read(out.resolve("pets.json")) must beEqualTo(convertedJson(swaggerJson("/pets")))) and
+        (read(out.resolve("api/owners.json")) must beEqualTo(convertedJson(swaggerJson("/owners"))))
+    }
+  }
+
+  def changed = {
+    val in = tempDirectory("swagger")
+    val out = tempDirectory("gdd")
+    val pets = writeFile(in, "pets.json", swaggerJson("/pets"))
+    writeFile(in, "owners.json", swaggerJson("/owners"))
+    watching(in, out) { results =>
+      eventually(inputs(results).size == 2)
+      writeFile(in, "pets.json", swaggerJson("/pets", "/pets/{petId}"))
+      val gdd = convertedJson(swaggerJson("/pets", "/pets/{petId}"))
+      (eventually(read(out.resolve("pets.json")) == gdd) must beTrue) and
+        (inputs(results).drop(2) must beEqualTo(Seq(pets)))
+    }
+  }
+
+  def burst = {
+    val in = tempDirectory("swagger")
+    val out = tempDirectory("gdd")
+    val pets = writeFile(in, "pets.json", swaggerJson("/pets"))
+    watching(in, out) { results =>
+      eventually(inputs(results).size == 1)
+      Seq("/owners", "/stores", "/users").foreach { pathValue =>
+        writeFile(in, "pets.json", swaggerJson("/pets", pathValue))
+        Thread.sleep(20)
+      }
+      (eventually(read(out.resolve("pets.json")) == convertedJson(swaggerJson("/pets", "/users"))) must beTrue) and
+        (inputs(results) must beEqualTo(Seq(pets, pets)))
+    }
+  }
+
+  def deleted = {
+    val in = tempDirectory("swagger")
+    val out = tempDirectory("gdd")
+    val pets = writeFile(in, "pets.json", swaggerJson("/pets"))
+    watching(in, out) { results =>
+      eventually(Files.exists(out.resolve("pets.json")))
+      Files.delete(pets)
+      eventually(!Files.exists(out.resolve("pets.json"))) must beTrue
+    }
+  }
+
+  def movedOut = {
+    val in = tempDirectory("swagger")
+    val out = tempDirectory("gdd")
+    writeFile(in, "api/v1/pets.json", swaggerJson("/pets"))
+    writeFile(in, "owners.json", swaggerJson("/owners"))
+    watching(in, out) { results =>
+      eventually(Files.exists(out.resolve("api/v1/pets.json")))
+      Files.move(in.resolve("api"), tempDirectory("elsewhere").resolve("api"))
+      (eventually(!Files.exists(out.resolve("api/v1/pets.json"))) must beTrue) and
+        (Files.exists(out.resolve("owners.json")) must beTrue)
+    }
+  }
+
+  def newDirectory = {
+    val in = tempDirectory("swagger")
+    val out = tempDirectory("gdd")
+    watching(in, out) { results =>
+      // give the watcher a moment to start watching before anything is created
+      Thread.sleep(200)
+      writeFile(in, "api/v1/pets.json", swaggerJson("/pets"))
+      val gdd = out.resolve("api/v1/pets.json")
+      (eventually(Files.exists(gdd) && read(gdd) == convertedJson(swaggerJson("/pets"))) must beTrue) and {
+        writeFile(in, "api/v1/pets.json", swaggerJson("/pets", "/owners"))
+        eventually(read(gdd) == convertedJson(swaggerJson("/pets", "/owners"))) must beTrue
+      }
+    }
+  }
+
+  def noTemporaryFiles = {
+    val in = tempDirectory("swagger")
+    val out = in.resolve("gdd")
+    writeFile(in, "pets.json", swaggerJson("/pets"))
+    watching(in, out) { results =>
+      eventually(inputs(results).size == 1)
+      writeFile(in, "pets.json", swaggerJson("/pets", "/owners"))
+      eventually(inputs(results).size == 2)
+      // the output directory is under the one being watched, but writing to it should not set the watcher off
+      Thread.sleep(400)
+      (Files.newDirectoryStream(out).asScala.map(_.getFileName.toString).toList must beEqualTo(List("pets.json"))) and
+        (inputs(results).size must beEqualTo(2))
+    }
+  }
+
+  def unlisted = {
+    val in = tempDirectory("swagger").resolve("missing")
+    val out = tempDirectory("gdd")
+    watching(in, out) { results =>
+      (eventually(results.synchronized(results.nonEmpty)) must beTrue) and
+        (results.synchronized(results.toList) must beLike {
+          case List(Failed(job, _: IOException)) => job.input must beEqualTo(in)
+        })
+    }
+  }
+}
@@ -1,5 +1,20 @@
 package io.swagger.gdd
 
+import java.io.ByteArrayOutputStream
+import java.nio.charset.StandardCharsets
+import java.nio.file.{FileVisitResult, Files, SimpleFileVisitor, Path => FilePath}
+import java.nio.file.attribute.BasicFileAttributes
+import java.util
+
+import scala.collection.JavaConverters._
+import scala.collection.immutable.ListMap
+import scala.collection.mutable
+
+import io.swagger.gdd.models._
+import io.swagger.gdd.models.json.GDDJsonWriter
+import io.swagger.models.{Operation, Path, Swagger}
+import io.swagger.parser.SwaggerParser
+import io.swagger.util.Json
 import org.scalacheck.Gen
 import org.specs2.ScalaCheck
 import org.specs2.scalacheck.Parameters
@@ -19,4 +34,208 @@ trait TestHelpers {
     def guarantee(f: T => Any): Gen[T] = gen.suchThat(t => Option(f(t)).isDefined)
   }
 
+  /**
+   * A Swagger with a GET operation on each of the given paths, whose `operationId` is the path value.
+   */
+  def swaggerWithPaths(pathValues: String*): Swagger = {
+    val swagger = new Swagger
+    pathValues.foreach { pathValue =>
+      val operation = new Operation
+      operation.setOperationId(pathValue)
+      swagger.path(pathValue, new Path().get(operation))
+    }
+    swagger
+  }
+
+  /**
+   * [[swaggerWithPaths]], as JSON.
+   */
+  def swaggerJson(pathValues: String*): String = Json.pretty(swaggerWithPaths(pathValues: _*))
+
+  /**
+   * @return the GDD JSON of a Swagger's JSON, converted on its own
+   */
+  def convertedJson(json: String): String = {
+    val out = new ByteArrayOutputStream()
+    new GDDJsonWriter().write(SwaggerToGDD.swaggerToGDD(new SwaggerParser().parse(json)), out)
+    out.toString("UTF-8")
+  }
+
+  /**
+   * Write a file under a directory, creating the directories in between.
+   */
+  def writeFile(dir: FilePath, name: String, content: String): FilePath = {
+    val file = dir.resolve(name)
+    Files.createDirectories(file.getParent)
+    Files.write(file, content.getBytes(StandardCharsets.UTF_8))
+  }
+
+  private val tempDirectories = mutable.ArrayBuffer.empty[FilePath]
+
+  /**
+   * A new temporary directory, which [[deleteTempDirectories]] deletes.
+   */
+  def tempDirectory(prefix: String): FilePath = tempDirectories.synchronized {
+    val dir = Files.createTempDirectory(prefix)
+    tempDirectories += dir
+    dir
+  }
+
+  /**
+   * Delete every [[tempDirectory]] made so far, and everything in them.
+   */
+  def deleteTempDirectories(): Unit = tempDirectories.synchronized {
+    tempDirectories.filter(Files.exists(_)).foreach { dir =>
+      Files.walkFileTree(dir, new SimpleFileVisitor[FilePath] {
+        override def visitFile(file: FilePath, attrs: BasicFileAttributes): FileVisitResult = {
+          Files.delete(file)
+          FileVisitResult.CONTINUE
+        }
+
+        override def postVisitDirectory(dir: FilePath, e: java.io.IOException): FileVisitResult = {
+          Files.delete(dir)
+          FileVisitResult.CONTINUE
+        }
+      })
+    }
+    tempDirectories.clear()
+  }
+
+  /**
+   * A context for converting a part of a document on its own with `converter`. The schemas it hoists go in a document
+   * of their own.
+   */
+  def standalone(converter: SwaggerToGDD): ConversionContext = {
+    converter.standaloneContext(converter.modelFactory.newGoogleDiscoveryDocument())
+  }
+
+  /**
+   * @return an empty Schema, or one which refers to `ref`
+   */
+  def schema(ref: String = null): Schema = {
+    val schema = new Schema
+    schema.set$ref(ref)
+    schema
+  }
+
+  def parameter(location: String, `type`: String = "string", format: String = null, required: Boolean = false,
+                minimum: String = null, maximum: String = null, enum: Seq[String] = null,
+                pattern: String = null, repeated: Boolean = false): Parameter = {
+    val parameter = new Parameter
+    parameter.setLocation(location)
+    parameter.setType(`type`)
+    parameter.setFormat(format)
+    if (required) parameter.setRequired(true)
+    if (repeated) parameter.setRepeated(true)
+    parameter.setMinimum(minimum)
+    parameter.setMaximum(maximum)
+    if (enum != null) parameter.setEnum(enum.asJava)
+    parameter.setPattern(pattern)
+    parameter
+  }
+
+  /**
+   * @return a `GET` Method with the parameters, in the order they are given
+   */
+  def method(id: String, path: String, parameters: (String, Parameter)*): Method = {
+    val method = new Method
+    method.setId(id)
+    method.setPath(path)
+    method.setHttpMethod("GET")
+    method.setParameters(new util.LinkedHashMap[String, Parameter](ListMap(parameters: _*).asJava))
+    method
+  }
+
+  def resource(methods: (String, Method)*): Resource = {
+    val resource = new Resource
+    resource.setMethods(new util.LinkedHashMap[String, Method](ListMap(methods: _*).asJava))
+    resource
+  }
+
+  /**
+   * @return a GDD with the Methods, each under its `id`
+   */
+  def document(methods: Method*): GoogleDiscoveryDocument = {
+    val gdd = new GoogleDiscoveryDocument
+    gdd.setMethods(new util.LinkedHashMap[String, Method](ListMap(methods.map(m => m.getId -> m): _*).asJava))
+    gdd
+  }
+
+  /**
+   * A GDD with every field of every model set.
+   */
+  def gddWithEveryField: GoogleDiscoveryDocument = {
+    val gdd = new GoogleDiscoveryDocument
+    Seq[String => Unit](gdd.setId, gdd.setName, gdd.setVersion, gdd.setRevision, gdd.setTitle, gdd.setDescription,
+      gdd.setDocumentationLink, gdd.setRootUrl, gdd.setServicePath, gdd.setBatchPath).zipWithIndex.foreach {
+      case (set, i) => set(s"value$i")
+    }
+    val icons = new Icons
+    icons.setX16("16.png")
+    icons.setX32("32.png")
+    gdd.setIcons(icons)
+    gdd.setLabels(List(GoogleDiscoveryDocument.Label.LIMITED_AVAILABILITY).asJava)
+    gdd.setFeatures(List("dataWrapper").asJava)
+    val scope = new Scope
+    scope.setDescription("read")
+    val oauth2 = new OAuth2
+    oauth2.setScopes(Map("https://example.com/read" -> scope).asJava)
+    val auth = new Auth
+    auth.setOauth2(oauth2)
+    gdd.setAuth(auth)
+
+    val schema = new Schema
+    Seq[String => Unit](schema.setId, schema.setType, schema.set$ref, schema.setDescription, schema.setLocation,
+      schema.setFormat, schema.setPattern, schema.setMinimum, schema.setMaximum, schema.setDefault).zipWithIndex.foreach {
+      case (set, i) => set(s"value$i")
+    }
+    val nested = new Schema
+    nested.setType("string")
+    schema.setProperties(Map("name" -> nested).asJava)
+    schema.setAdditionalProperties(nested)
+    schema.setItems(nested)
+    val annotations = new Annotations
+    annotations.setRequired(Array("pets.insert"))
+    schema.setAnnotations(annotations)
+    schema.setEnum(List("a", "b").asJava)
+    schema.setEnumDescriptions(List("A", "B").asJava)
+    schema.setRequired(true)
+    schema.setRepeated(false)
+    val parameter = new Parameter
+    parameter.setId("petId")
+    parameter.setLocation("path")
+    gdd.setParameters(Map("petId" -> parameter).asJava)
+    gdd.setSchemas(new util.LinkedHashMap[String, AbstractSchema](Map[String, AbstractSchema]("Pet" -> schema, "petId" -> parameter).asJava))
+
+    val protocol = new Protocol
+    protocol.setMultipart(true)
+    protocol.setPath("/upload")
+    val mediaUpload = new MediaUpload
+    mediaUpload.setAccept(List("image/*").asJava)
+    mediaUpload.setMaxSize("10MB")
+    mediaUpload.setSimple(protocol)
+    mediaUpload.setResumable(protocol)
+    val method = new Method
+    method.setId("pets.insert")
+    method.setDescription("insert")
+    method.setPath("pets")
+    method.setHttpMethod("POST")
+    method.setRequest(new SchemaRef("Pet"))
+    method.setResponse(new SchemaRef("Pet"))
+    method.setParameters(Map("petId" -> parameter).asJava)
+    method.setParameterOrder(List("petId").asJava)
+    method.setScopes(List("https://example.com/read").asJava)
+    method.setSupportsMediaDownload(true)
+    method.setSupportsMediaUpload(true)
+    method.setSupportsSubscription(false)
+    method.setMediaUpload(mediaUpload)
+    gdd.setMethods(Map("insert" -> method).asJava)
+    val resource = new Resource
+    resource.setMethods(Map("insert" -> method).asJava)
+    resource.setResources(Map("photos" -> new Resource).asJava)
+    gdd.setResources(Map("pets" -> resource).asJava)
+
+    gdd
+  }
+
 }
@@ -1,5 +1,7 @@
 package io.swagger.gdd.models;
 
+import io.swagger.gdd.models.frozen.Freezer;
+
 import java.util.List;
 import java.util.Map;
 
@@ -222,6 +224,18 @@ public class GoogleDiscoveryDocument {
         this.resources = resources;
     }
 
+    /**
+     * Make a deeply immutable snapshot of this document. The snapshot and everything in it keep their values in final
+     * fields of their own, so they can be shared across threads without copying or locking. They also hash themselves
+     * only once and serialize to the same JSON as this document. Changing this document afterward does not change the
+     * snapshot.
+     *
+     * @return the snapshot; see {@link io.swagger.gdd.models.frozen.Freezer Freezer}
+     */
+    public GoogleDiscoveryDocument freeze() {
+        return Freezer.freeze(this);
+    }
+
     public enum Label {
         LIMITED_AVAILABILITY("limited_availability"), DEPRECATED("deprecated");
         private final String label;
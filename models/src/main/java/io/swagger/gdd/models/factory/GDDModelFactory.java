@@ -19,4 +19,11 @@ public class GDDModelFactory {
     public Schema newSchema() { return new Schema(); }
     public SchemaRef newSchemaRef(String $ref) { return new SchemaRef($ref); }
     public Scope newScope() { return new Scope(); }
+
+    /**
+     * Called on each {@link Schema} that is converted as part of another schema, i.e. an entry of {@code properties},
+     * {@code additionalProperties} or {@code items}, once it is complete. Returns the schema to use in its place. By
+     * default, it is the schema itself; see {@link InterningGDDModelFactory} for sharing structurally equal schemas.
+     */
+    public Schema internSchema(Schema schema) { return schema; }
 }
@@ -0,0 +1,30 @@
+package io.swagger.gdd.models.factory;
+
+import io.swagger.gdd.models.Schema;
+
+/**
+ * Creates the GDD model classes like {@link GDDModelFactory} does, but makes structurally equal nested schemas share
+ * one instance through a {@link SchemaInterner}. Converted documents with many properties of the same shape then
+ * retain far fewer objects. The shared schemas must not be changed after conversion.
+ */
+public class InterningGDDModelFactory extends GDDModelFactory {
+    private final SchemaInterner interner;
+
+    public InterningGDDModelFactory() {
+        this(new SchemaInterner());
+    }
+
+    /**
+     * @param interner the interner to share schemas through, which may be shared with other factories
+     */
+    public InterningGDDModelFactory(SchemaInterner interner) {
+        this.interner = interner;
+    }
+
+    public SchemaInterner getInterner() {
+        return interner;
+    }
+
+    @Override
+    public Schema internSchema(Schema schema) { return interner.intern(schema); }
+}
@@ -0,0 +1,131 @@
+package io.swagger.gdd.models.factory;
+
+import io.swagger.gdd.models.Schema;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Makes structurally equal {@link Schema}s share one canonical instance. Thread safe.
+ *
+ * Schemas are interned bottom-up: a schema's {@code properties}, {@code additionalProperties} and {@code items} are
+ * expected to have been interned before it is. That way two schemas are structurally equal when their own fields are
+ * equal and their children are the very same instances, and neither the structural hash nor the comparison ever has to
+ * walk the tree. A schema whose children were not interned is still interned correctly, it just only shares an instance
+ * with schemas that have the same child instances.
+ *
+ * The {@code id} is part of the structure, since it is written out along with the rest. So is the order of
+ * {@code properties}. An interned schema is shared, so it must not be changed afterward.
+ *
+ * Canonical instances are only held weakly, so an interner shared by many conversions doesn't keep the schemas of
+ * documents which are long gone. Once nothing else refers to one, it is let go, and the next schema equal to it
+ * becomes canonical instead.
+ */
+public class SchemaInterner {
+    private final ConcurrentMap<Key, Canonical> canonical = new ConcurrentHashMap<Key, Canonical>();
+    private final ReferenceQueue<Schema> collected = new ReferenceQueue<Schema>();
+
+    /**
+     * @param schema the schema to intern
+     * @return the canonical instance of a schema structurally equal to {@code schema}, which is {@code schema} itself
+     *         if there was none yet
+     */
+    public Schema intern(Schema schema) {
+        if (schema == null) return null;
+        expunge();
+        Key key = new Key(schema);
+        Canonical candidate = new Canonical(key, schema, collected);
+        while (true) {
+            Canonical existing = canonical.putIfAbsent(key, candidate);
+            if (existing == null) return schema;
+            Schema interned = existing.get();
+            if (interned != null) return interned;
+            // the canonical instance was let go, but its entry is still here
+            if (canonical.replace(key, existing, candidate)) return schema;
+        }
+    }
+
+    /**
+     * @return the number of canonical instances, which may still count some that were just let go
+     */
+    public int size() {
+        expunge();
+        return canonical.size();
+    }
+
+    private void expunge() {
+        for (Reference<? extends Schema> reference; (reference = collected.poll()) != null; ) {
+            Canonical entry = (Canonical) reference;
+            canonical.remove(entry.key, entry);
+        }
+    }
+
+    /**
+     * A canonical instance, held weakly, along with its key to remove it by once it is let go.
+     */
+    private static final class Canonical extends WeakReference<Schema> {
+        private final Key key;
+
+        Canonical(Key key, Schema schema, ReferenceQueue<Schema> queue) {
+            super(schema, queue);
+            this.key = key;
+        }
+    }
+
+    /**
+     * A schema's own fields, with its children compared by identity. The hash is computed once, up front.
+     */
+    private static final class Key {
+        private final Object[] fields;
+        private final Object[] children;
+        private final int hash;
+
+        Key(Schema schema) {
+            fields = new Object[] {
+                schema.getClass(), schema.getId(), schema.getType(), schema.get$ref(), schema.getDescription(),
+                schema.getLocation(), schema.getFormat(), schema.getPattern(), schema.getMinimum(), schema.getMaximum(),
+                schema.getDefault(), schema.getAnnotations(), schema.getEnum(), schema.getEnumDescriptions(),
+                schema.getRequired(), schema.getRepeated(),
+                schema.getProperties() != null ? new ArrayList<String>(schema.getProperties().keySet()) : null
+            };
+            List<Object> children = new ArrayList<Object>();
+            children.add(schema.getAdditionalProperties());
+            children.add(schema.getItems());
+            if (schema.getProperties() != null) {
+                children.addAll(schema.getProperties().values());
+            }
+            this.children = children.toArray();
+
+            int result = Arrays.hashCode(fields);
+            for (Object child : this.children) {
+                result = 31 * result + System.identityHashCode(child);
+            }
+            hash = result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (!(o instanceof Key)) return false;
+
+            Key that = (Key) o;
+
+            if (hash != that.hash || children.length != that.children.length) return false;
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] != that.children[i]) return false;
+            }
+            return Arrays.equals(fields, that.fields);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package io.swagger.gdd.models.frozen;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * An immutable map that keeps its entries in two arrays, in the order they were given. Maps of up to
+ * {@value #LINEAR_SCAN_MAX} entries are looked up by scanning; larger ones get an open-addressed index. Its hash is
+ * computed once, up front, which is cheap as long as the values memoize theirs.
+ */
+final class CompactMap<K, V> extends AbstractMap<K, V> {
+    private static final int LINEAR_SCAN_MAX = 8;
+
+    private final Object[] keys;
+    private final Object[] values;
+    /**
+     * Slots of 1 + the position of a key, or 0 for an empty slot. {@code null} for small maps.
+     */
+    private final int[] index;
+    private final int hash;
+
+    /**
+     * @param map the entries to copy, in the order to keep them. The keys and values are kept as they are.
+     */
+    CompactMap(Map<? extends K, ? extends V> map) {
+        int size = map.size();
+        keys = new Object[size];
+        values = new Object[size];
+        int i = 0;
+        int h = 0;
+        for (Map.Entry<? extends K, ? extends V> entry : map.entrySet()) {
+            keys[i] = entry.getKey();
+            values[i] = entry.getValue();
+            h += hashOf(keys[i]) ^ hashOf(values[i]);
+            i++;
+        }
+        hash = h;
+
+        if (size > LINEAR_SCAN_MAX) {
+            index = new int[Integer.highestOneBit(size) << 2];
+            for (int k = 0; k < size; k++) {
+                int slot = hashOf(keys[k]) & (index.length - 1);
+                while (index[slot] != 0) slot = (slot + 1) & (index.length - 1);
+                index[slot] = k + 1;
+            }
+        } else {
+            index = null;
+        }
+    }
+
+    private static int hashOf(Object o) {
+        return o == null ? 0 : o.hashCode();
+    }
+
+    private static boolean eq(Object a, Object b) {
+        return a == null ? b == null : a.equals(b);
+    }
+
+    private int positionOf(Object key) {
+        if (index == null) {
+            for (int i = 0; i < keys.length; i++) {
+                if (eq(key, keys[i])) return i;
+            }
+            return -1;
+        }
+        int slot = hashOf(key) & (index.length - 1);
+        while (index[slot] != 0) {
+            if (eq(key, keys[index[slot] - 1])) return index[slot] - 1;
+            slot = (slot + 1) & (index.length - 1);
+        }
+        return -1;
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return positionOf(key) >= 0;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        int i = positionOf(key);
+        return i >= 0 ? (V) values[i] : null;
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        return new AbstractSet<Map.Entry<K, V>>() {
+            @Override
+            public Iterator<Map.Entry<K, V>> iterator() {
+                return new Iterator<Map.Entry<K, V>>() {
+                    private int next = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < keys.length;
+                    }
+
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public Map.Entry<K, V> next() {
+                        if (next >= keys.length) throw new NoSuchElementException();
+                        Map.Entry<K, V> entry = new SimpleImmutableEntry<K, V>((K) keys[next], (V) values[next]);
+                        next++;
+                        return entry;
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o instanceof CompactMap && hash != ((CompactMap<?, ?>) o).hash) return false;
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
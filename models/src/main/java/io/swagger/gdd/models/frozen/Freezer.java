@@ -0,0 +1,95 @@
+package io.swagger.gdd.models.frozen;
+
+import io.swagger.gdd.models.*;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Makes deeply immutable snapshots of GDD models. Models that appear more than once in the tree, such as schemas shared
+ * through a {@link io.swagger.gdd.models.factory.SchemaInterner SchemaInterner}, get one snapshot which is shared the
+ * same way. Models that are already frozen are used as they are.
+ *
+ * Only the fields of the GDD models themselves are kept, so subclasses with more fields lose them.
+ *
+ * Each snapshot copies its values into final fields of its own and overrides the getters to read them, leaving the
+ * mutable fields it inherits unset. That gives snapshots the final-field guarantees of the Java memory model: a thread
+ * that sees a snapshot sees all of its values, however the snapshot reached that thread.
+ */
+public final class Freezer {
+    private final Map<Object, Object> frozen = new IdentityHashMap<Object, Object>();
+
+    private Freezer() {
+    }
+
+    /**
+     * @param gdd the document to freeze
+     * @return a deeply immutable snapshot of the document, which serializes to the same JSON
+     */
+    public static GoogleDiscoveryDocument freeze(GoogleDiscoveryDocument gdd) {
+        if (gdd == null || gdd instanceof FrozenGoogleDiscoveryDocument) return gdd;
+        return new FrozenGoogleDiscoveryDocument(gdd, new Freezer());
+    }
+
+    static UnsupportedOperationException unsupported() {
+        return new UnsupportedOperationException("frozen GDD models cannot be changed");
+    }
+
+    static <T> List<T> list(List<T> list) {
+        if (list == null) return null;
+        @SuppressWarnings("unchecked")
+        T[] copy = (T[]) list.toArray();
+        return Collections.unmodifiableList(Arrays.asList(copy));
+    }
+
+    <V> Map<String, V> map(Map<String, V> map) {
+        if (map == null) return null;
+        Map<String, V> values = new LinkedHashMap<String, V>();
+        for (Map.Entry<String, V> entry : map.entrySet()) {
+            @SuppressWarnings("unchecked")
+            V value = (V) freeze(entry.getValue());
+            values.put(entry.getKey(), value);
+        }
+        return new CompactMap<String, V>(values);
+    }
+
+    /**
+     * Freeze any GDD model, reusing the snapshot if it was frozen already.
+     */
+    Object freeze(Object model) {
+        if (model == null || model instanceof Frozen) return model;
+        Object snapshot = frozen.get(model);
+        if (snapshot == null) {
+            snapshot = snapshot(model);
+            frozen.put(model, snapshot);
+        }
+        return snapshot;
+    }
+
+    private Object snapshot(Object model) {
+        if (model instanceof Schema) return new FrozenSchema((Schema) model, this);
+        if (model instanceof Parameter) return new FrozenParameter((Parameter) model, this);
+        if (model instanceof Method) return new FrozenMethod((Method) model, this);
+        if (model instanceof Resource) return new FrozenResource((Resource) model, this);
+        if (model instanceof SchemaRef) return new FrozenSchemaRef((SchemaRef) model);
+        if (model instanceof Annotations) return new FrozenAnnotations((Annotations) model);
+        if (model instanceof MediaUpload) return new FrozenMediaUpload((MediaUpload) model, this);
+        if (model instanceof Protocol) return new FrozenProtocol((Protocol) model);
+        if (model instanceof Icons) return new FrozenIcons((Icons) model);
+        if (model instanceof Auth) return new FrozenAuth((Auth) model, this);
+        if (model instanceof OAuth2) return new FrozenOAuth2((OAuth2) model, this);
+        if (model instanceof Scope) return new FrozenScope((Scope) model);
+        throw new IllegalArgumentException("not a GDD model: " + model.getClass().getName());
+    }
+
+    /**
+     * Marks the frozen models. Each hashes its fields once, when it is created, and compares them in {@code equals}
+     * only once the hashes match.
+     */
+    interface Frozen {
+    }
+}
@@ -0,0 +1,45 @@
+package io.swagger.gdd.models.frozen;
+
+import io.swagger.gdd.models.Annotations;
+
+import java.util.Arrays;
+
+/**
+ * An immutable snapshot of {@link Annotations}. Made by {@link Freezer}. Since arrays cannot be made immutable,
+ * {@code required} is copied on the way out.
+ */
+public final class FrozenAnnotations extends Annotations implements Freezer.Frozen {
+    private final String[] required;
+    private final int hash;
+
+    FrozenAnnotations(Annotations annotations) {
+        String[] required = annotations.getRequired();
+        this.required = required != null ? required.clone() : null;
+        hash = Arrays.hashCode(this.required);
+    }
+
+    @Override
+    public String[] getRequired() {
+        return required != null ? required.clone() : null;
+    }
+
+    @Override
+    public void setRequired(String[] required) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        FrozenAnnotations that = (FrozenAnnotations) o;
+
+        return hash == that.hash && Arrays.equals(required, that.required);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
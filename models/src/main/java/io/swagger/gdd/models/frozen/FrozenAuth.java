@@ -0,0 +1,48 @@
+package io.swagger.gdd.models.frozen;
+
+import io.swagger.gdd.models.Auth;
+import io.swagger.gdd.models.OAuth2;
+
+import java.util.Arrays;
+
+/**
+ * An immutable snapshot of an {@link Auth}. Made by {@link Freezer}.
+ */
+public final class FrozenAuth extends Auth implements Freezer.Frozen {
+    private final OAuth2 oauth2;
+    private final int hash;
+
+    FrozenAuth(Auth auth, Freezer freezer) {
+        this.oauth2 = (OAuth2) freezer.freeze(auth.getOauth2());
+        hash = Arrays.hashCode(fields());
+    }
+
+    private Object[] fields() {
+        return new Object[] {getOauth2()};
+    }
+
+    @Override
+    public OAuth2 getOauth2() {
+        return oauth2;
+    }
+
+    @Override
+    public void setOauth2(OAuth2 oauth2) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        FrozenAuth that = (FrozenAuth) o;
+
+        return hash == that.hash && Arrays.equals(fields(), that.fields());
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
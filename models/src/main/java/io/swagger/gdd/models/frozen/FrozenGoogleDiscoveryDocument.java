@@ -0,0 +1,303 @@
+package io.swagger.gdd.models.frozen;
+
+import io.swagger.gdd.models.AbstractSchema;
+import io.swagger.gdd.models.Auth;
+import io.swagger.gdd.models.GoogleDiscoveryDocument;
+import io.swagger.gdd.models.Icons;
+import io.swagger.gdd.models.Method;
+import io.swagger.gdd.models.Parameter;
+import io.swagger.gdd.models.Resource;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of a {@link GoogleDiscoveryDocument}. Made by {@link Freezer}.
+ */
+public final class FrozenGoogleDiscoveryDocument extends GoogleDiscoveryDocument implements Freezer.Frozen {
+    private final String kind;
+    private final String discoveryVersion;
+    private final String id;
+    private final String name;
+    private final String version;
+    private final String revision;
+    private final String title;
+    private final String description;
+    private final String documentationLink;
+    private final String protocol;
+    private final String rootUrl;
+    private final String servicePath;
+    private final String batchPath;
+    private final Icons icons;
+    private final List<Label> labels;
+    private final Map<String, Parameter> parameters;
+    private final Auth auth;
+    private final List<String> features;
+    private final Map<String, AbstractSchema> schemas;
+    private final Map<String, Method> methods;
+    private final Map<String, Resource> resources;
+    private final int hash;
+
+    FrozenGoogleDiscoveryDocument(GoogleDiscoveryDocument gdd, Freezer freezer) {
+        this.kind = gdd.getKind();
+        this.discoveryVersion = gdd.getDiscoveryVersion();
+        this.id = gdd.getId();
+        this.name = gdd.getName();
+        this.version = gdd.getVersion();
+        this.revision = gdd.getRevision();
+        this.title = gdd.getTitle();
+        this.description = gdd.getDescription();
+        this.documentationLink = gdd.getDocumentationLink();
+        this.protocol = gdd.getProtocol();
+        this.rootUrl = gdd.getRootUrl();
+        this.servicePath = gdd.getServicePath();
+        this.batchPath = gdd.getBatchPath();
+        this.icons = (Icons) freezer.freeze(gdd.getIcons());
+        this.labels = Freezer.list(gdd.getLabels());
+        this.parameters = freezer.map(gdd.getParameters());
+        this.auth = (Auth) freezer.freeze(gdd.getAuth());
+        this.features = Freezer.list(gdd.getFeatures());
+        this.schemas = freezer.map(gdd.getSchemas());
+        this.methods = freezer.map(gdd.getMethods());
+        this.resources = freezer.map(gdd.getResources());
+        hash = Arrays.hashCode(fields());
+    }
+
+    private Object[] fields() {
+        return new Object[] {getKind(), getDiscoveryVersion(), getId(), getName(), getVersion(), getRevision(),
+            getTitle(), getDescription(), getDocumentationLink(), getProtocol(), getRootUrl(), getServicePath(),
+            getBatchPath(), getIcons(), getLabels(), getParameters(), getAuth(), getFeatures(), getSchemas(),
+            getMethods(), getResources()};
+    }
+
+    @Override
+    public String getKind() {
+        return kind;
+    }
+
+    @Override
+    public String getDiscoveryVersion() {
+        return discoveryVersion;
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public String getName() {
+        return name;
+    }
+
+    @Override
+    public String getVersion() {
+        return version;
+    }
+
+    @Override
+    public String getRevision() {
+        return revision;
+    }
+
+    @Override
+    public String getTitle() {
+        return title;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public String getDocumentationLink() {
+        return documentationLink;
+    }
+
+    @Override
+    public String getProtocol() {
+        return protocol;
+    }
+
+    @Override
+    public String getRootUrl() {
+        return rootUrl;
+    }
+
+    @Override
+    public String getServicePath() {
+        return servicePath;
+    }
+
+    @Override
+    public String getBatchPath() {
+        return batchPath;
+    }
+
+    @Override
+    public Icons getIcons() {
+        return icons;
+    }
+
+    @Override
+    public List<Label> getLabels() {
+        return labels;
+    }
+
+    @Override
+    public Map<String, Parameter> getParameters() {
+        return parameters;
+    }
+
+    @Override
+    public Auth getAuth() {
+        return auth;
+    }
+
+    @Override
+    public List<String> getFeatures() {
+        return features;
+    }
+
+    @Override
+    public Map<String, AbstractSchema> getSchemas() {
+        return schemas;
+    }
+
+    @Override
+    public Map<String, Method> getMethods() {
+        return methods;
+    }
+
+    @Override
+    public Map<String, Resource> getResources() {
+        return resources;
+    }
+
+    @Override
+    public void setKind(String kind) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setDiscoveryVersion(String discoveryVersion) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setId(String id) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setName(String name) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setVersion(String version) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setRevision(String revision) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setTitle(String title) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setDescription(String description) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setDocumentationLink(String documentationLink) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setProtocol(String protocol) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setRootUrl(String rootUrl) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setServicePath(String servicePath) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setBatchPath(String batchPath) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setIcons(Icons icons) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setLabels(List<Label> labels) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setParameters(Map<String, Parameter> parameters) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setAuth(Auth auth) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setFeatures(List<String> features) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setSchemas(Map<String, AbstractSchema> schemas) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setMethods(Map<String, Method> methods) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setResources(Map<String, Resource> resources) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public GoogleDiscoveryDocument freeze() {
+        return this;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        FrozenGoogleDiscoveryDocument that = (FrozenGoogleDiscoveryDocument) o;
+
+        return hash == that.hash && Arrays.equals(fields(), that.fields());
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,59 @@
+package io.swagger.gdd.models.frozen;
+
+import io.swagger.gdd.models.Icons;
+
+import java.util.Arrays;
+
+/**
+ * An immutable snapshot of {@link Icons}. Made by {@link Freezer}.
+ */
+public final class FrozenIcons extends Icons implements Freezer.Frozen {
+    private final String x16;
+    private final String x32;
+    private final int hash;
+
+    FrozenIcons(Icons icons) {
+        this.x16 = icons.getX16();
+        this.x32 = icons.getX32();
+        hash = Arrays.hashCode(fields());
+    }
+
+    private Object[] fields() {
+        return new Object[] {getX16(), getX32()};
+    }
+
+    @Override
+    public String getX16() {
+        return x16;
+    }
+
+    @Override
+    public String getX32() {
+        return x32;
+    }
+
+    @Override
+    public void setX16(String x16) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setX32(String x32) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        FrozenIcons that = (FrozenIcons) o;
+
+        return hash == that.hash && Arrays.equals(fields(), that.fields());
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,85 @@
+package io.swagger.gdd.models.frozen;
+
+import io.swagger.gdd.models.MediaUpload;
+import io.swagger.gdd.models.Protocol;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable snapshot of a {@link MediaUpload}. Made by {@link Freezer}.
+ */
+public final class FrozenMediaUpload extends MediaUpload implements Freezer.Frozen {
+    private final List<String> accept;
+    private final String maxSize;
+    private final Protocol simple;
+    private final Protocol resumable;
+    private final int hash;
+
+    FrozenMediaUpload(MediaUpload mediaUpload, Freezer freezer) {
+        this.accept = Freezer.list(mediaUpload.getAccept());
+        this.maxSize = mediaUpload.getMaxSize();
+        this.simple = (Protocol) freezer.freeze(mediaUpload.getSimple());
+        this.resumable = (Protocol) freezer.freeze(mediaUpload.getResumable());
+        hash = Arrays.hashCode(fields());
+    }
+
+    private Object[] fields() {
+        return new Object[] {getAccept(), getMaxSize(), getSimple(), getResumable()};
+    }
+
+    @Override
+    public List<String> getAccept() {
+        return accept;
+    }
+
+    @Override
+    public String getMaxSize() {
+        return maxSize;
+    }
+
+    @Override
+    public Protocol getSimple() {
+        return simple;
+    }
+
+    @Override
+    public Protocol getResumable() {
+        return resumable;
+    }
+
+    @Override
+    public void setAccept(List<String> accept) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setMaxSize(String maxSize) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setSimple(Protocol simple) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setResumable(Protocol resumable) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        FrozenMediaUpload that = (FrozenMediaUpload) o;
+
+        return hash == that.hash && Arrays.equals(fields(), that.fields());
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,225 @@
+package io.swagger.gdd.models.frozen;
+
+import io.swagger.gdd.models.MediaUpload;
+import io.swagger.gdd.models.Method;
+import io.swagger.gdd.models.Parameter;
+import io.swagger.gdd.models.SchemaRef;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of a {@link Method}. Made by {@link Freezer}.
+ */
+@SuppressWarnings("deprecation")
+public final class FrozenMethod extends Method implements Freezer.Frozen {
+    private final String id;
+    private final String description;
+    private final String path;
+    private final String httpMethod;
+    private final SchemaRef request;
+    private final SchemaRef response;
+    private final Map<String, Parameter> parameters;
+    private final List<String> parameterOrder;
+    private final List<String> scopes;
+    private final Boolean supportsMediaDownload;
+    private final Boolean supportsMediaUpload;
+    private final Boolean supportsSubscription;
+    private final MediaUpload mediaUpload;
+    private final String baseUrl;
+    private final String basePath;
+    private final int hash;
+
+    FrozenMethod(Method method, Freezer freezer) {
+        this.id = method.getId();
+        this.description = method.getDescription();
+        this.path = method.getPath();
+        this.httpMethod = method.getHttpMethod();
+        this.request = (SchemaRef) freezer.freeze(method.getRequest());
+        this.response = (SchemaRef) freezer.freeze(method.getResponse());
+        this.parameters = freezer.map(method.getParameters());
+        this.parameterOrder = Freezer.list(method.getParameterOrder());
+        this.scopes = Freezer.list(method.getScopes());
+        this.supportsMediaDownload = method.getSupportsMediaDownload();
+        this.supportsMediaUpload = method.getSupportsMediaUpload();
+        this.supportsSubscription = method.getSupportsSubscription();
+        this.mediaUpload = (MediaUpload) freezer.freeze(method.getMediaUpload());
+        this.baseUrl = method.getBaseUrl();
+        this.basePath = method.getBasePath();
+        hash = Arrays.hashCode(fields());
+    }
+
+    private Object[] fields() {
+        return new Object[] {getId(), getDescription(), getPath(), getHttpMethod(), getRequest(), getResponse(),
+            getParameters(), getParameterOrder(), getScopes(), getSupportsMediaDownload(), getSupportsMediaUpload(),
+            getSupportsSubscription(), getMediaUpload(), getBaseUrl(), getBasePath()};
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public String getPath() {
+        return path;
+    }
+
+    @Override
+    public String getHttpMethod() {
+        return httpMethod;
+    }
+
+    @Override
+    public SchemaRef getRequest() {
+        return request;
+    }
+
+    @Override
+    public SchemaRef getResponse() {
+        return response;
+    }
+
+    @Override
+    public Map<String, Parameter> getParameters() {
+        return parameters;
+    }
+
+    @Override
+    public List<String> getParameterOrder() {
+        return parameterOrder;
+    }
+
+    @Override
+    public List<String> getScopes() {
+        return scopes;
+    }
+
+    @Override
+    public Boolean getSupportsMediaDownload() {
+        return supportsMediaDownload;
+    }
+
+    @Override
+    public Boolean getSupportsMediaUpload() {
+        return supportsMediaUpload;
+    }
+
+    @Override
+    public Boolean getSupportsSubscription() {
+        return supportsSubscription;
+    }
+
+    @Override
+    public MediaUpload getMediaUpload() {
+        return mediaUpload;
+    }
+
+    @Override
+    @Deprecated
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    @Override
+    @Deprecated
+    public String getBasePath() {
+        return basePath;
+    }
+
+    @Override
+    public void setId(String id) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setDescription(String description) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setPath(String path) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setHttpMethod(String httpMethod) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setRequest(SchemaRef request) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setResponse(SchemaRef response) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setParameters(Map<String, Parameter> parameters) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setParameterOrder(List<String> parameterOrder) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setScopes(List<String> scopes) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setSupportsMediaDownload(Boolean supportsMediaDownload) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setSupportsMediaUpload(Boolean supportsMediaUpload) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setSupportsSubscription(Boolean supportsSubscription) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setMediaUpload(MediaUpload mediaUpload) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setBaseUrl(String baseUrl) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setBasePath(String basePath) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        FrozenMethod that = (FrozenMethod) o;
+
+        return hash == that.hash && Arrays.equals(fields(), that.fields());
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,49 @@
+package io.swagger.gdd.models.frozen;
+
+import io.swagger.gdd.models.OAuth2;
+import io.swagger.gdd.models.Scope;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of an {@link OAuth2}. Made by {@link Freezer}.
+ */
+public final class FrozenOAuth2 extends OAuth2 implements Freezer.Frozen {
+    private final Map<String, Scope> scopes;
+    private final int hash;
+
+    FrozenOAuth2(OAuth2 oauth2, Freezer freezer) {
+        this.scopes = freezer.map(oauth2.getScopes());
+        hash = Arrays.hashCode(fields());
+    }
+
+    private Object[] fields() {
+        return new Object[] {getScopes()};
+    }
+
+    @Override
+    public Map<String, Scope> getScopes() {
+        return scopes;
+    }
+
+    @Override
+    public void setScopes(Map<String, Scope> scopes) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        FrozenOAuth2 that = (FrozenOAuth2) o;
+
+        return hash == that.hash && Arrays.equals(fields(), that.fields());
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,257 @@
+package io.swagger.gdd.models.frozen;
+
+import io.swagger.gdd.models.Annotations;
+import io.swagger.gdd.models.Parameter;
+import io.swagger.gdd.models.Schema;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of a {@link Parameter}. Made by {@link Freezer}.
+ */
+public final class FrozenParameter extends Parameter implements Freezer.Frozen {
+    private final String id;
+    private final String type;
+    private final String $ref;
+    private final String description;
+    private final String location;
+    private final String format;
+    private final String pattern;
+    private final String minimum;
+    private final String maximum;
+    private final String _default;
+    private final Map<String, Schema> properties;
+    private final Schema additionalProperties;
+    private final Schema items;
+    private final Annotations annotations;
+    private final List<String> _enum;
+    private final List<String> enumDescriptions;
+    private final Boolean required;
+    private final Boolean repeated;
+    private final int hash;
+
+    FrozenParameter(Parameter parameter, Freezer freezer) {
+        this.id = parameter.getId();
+        this.type = parameter.getType();
+        this.$ref = parameter.get$ref();
+        this.description = parameter.getDescription();
+        this.location = parameter.getLocation();
+        this.format = parameter.getFormat();
+        this.pattern = parameter.getPattern();
+        this.minimum = parameter.getMinimum();
+        this.maximum = parameter.getMaximum();
+        this._default = parameter.getDefault();
+        this.properties = freezer.map(parameter.getProperties());
+        this.additionalProperties = (Schema) freezer.freeze(parameter.getAdditionalProperties());
+        this.items = (Schema) freezer.freeze(parameter.getItems());
+        this.annotations = (Annotations) freezer.freeze(parameter.getAnnotations());
+        this._enum = Freezer.list(parameter.getEnum());
+        this.enumDescriptions = Freezer.list(parameter.getEnumDescriptions());
+        this.required = parameter.getRequired();
+        this.repeated = parameter.getRepeated();
+        hash = Arrays.hashCode(fields());
+    }
+
+    private Object[] fields() {
+        return new Object[] {getId(), getType(), get$ref(), getDescription(), getLocation(), getFormat(),
+            getPattern(), getMinimum(), getMaximum(), getDefault(), getProperties(), getAdditionalProperties(),
+            getItems(), getAnnotations(), getEnum(), getEnumDescriptions(), getRequired(), getRepeated()};
+    }
+
+    @Override
+    public String getId() {
+        return id;
+    }
+
+    @Override
+    public String getType() {
+        return type;
+    }
+
+    @Override
+    public String get$ref() {
+        return $ref;
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public String getLocation() {
+        return location;
+    }
+
+    @Override
+    public String getFormat() {
+        return format;
+    }
+
+    @Override
+    public String getPattern() {
+        return pattern;
+    }
+
+    @Override
+    public String getMinimum() {
+        return minimum;
+    }
+
+    @Override
+    public String getMaximum() {
+        return maximum;
+    }
+
+    @Override
+    public String getDefault() {
+        return _default;
+    }
+
+    @Override
+    public Map<String, Schema> getProperties() {
+        return properties;
+    }
+
+    @Override
+    public Schema getAdditionalProperties() {
+        return additionalProperties;
+    }
+
+    @Override
+    public Schema getItems() {
+        return items;
+    }
+
+    @Override
+    public Annotations getAnnotations() {
+        return annotations;
+    }
+
+    @Override
+    public List<String> getEnum() {
+        return _enum;
+    }
+
+    @Override
+    public List<String> getEnumDescriptions() {
+        return enumDescriptions;
+    }
+
+    @Override
+    public Boolean getRequired() {
+        return required;
+    }
+
+    @Override
+    public Boolean getRepeated() {
+        return repeated;
+    }
+
+    @Override
+    public void setId(String id) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setType(String type) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void set$ref(String $ref) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setDescription(String description) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setLocation(String location) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setFormat(String format) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setPattern(String pattern) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setMinimum(String minimum) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setMaximum(String maximum) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setDefault(String _default) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setProperties(Map<String, Schema> properties) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setAdditionalProperties(Schema additionalProperties) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setItems(Schema items) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setAnnotations(Annotations annotations) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setEnum(List<String> _enum) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setEnumDescriptions(List<String> enumDescriptions) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setRequired(Boolean required) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setRepeated(Boolean repeated) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        FrozenParameter that = (FrozenParameter) o;
+
+        return hash == that.hash && Arrays.equals(fields(), that.fields());
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
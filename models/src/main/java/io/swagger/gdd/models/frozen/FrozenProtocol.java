@@ -0,0 +1,59 @@
+package io.swagger.gdd.models.frozen;
+
+import io.swagger.gdd.models.Protocol;
+
+import java.util.Arrays;
+
+/**
+ * An immutable snapshot of a {@link Protocol}. Made by {@link Freezer}.
+ */
+public final class FrozenProtocol extends Protocol implements Freezer.Frozen {
+    private final String path;
+    private final Boolean multipart;
+    private final int hash;
+
+    FrozenProtocol(Protocol protocol) {
+        this.path = protocol.getPath();
+        this.multipart = protocol.getMultipart();
+        hash = Arrays.hashCode(fields());
+    }
+
+    private Object[] fields() {
+        return new Object[] {getPath(), getMultipart()};
+    }
+
+    @Override
+    public String getPath() {
+        return path;
+    }
+
+    @Override
+    public Boolean getMultipart() {
+        return multipart;
+    }
+
+    @Override
+    public void setPath(String path) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setMultipart(Boolean multipart) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        FrozenProtocol that = (FrozenProtocol) o;
+
+        return hash == that.hash && Arrays.equals(fields(), that.fields());
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
@@ -0,0 +1,61 @@
+package io.swagger.gdd.models.frozen;
+
+import io.swagger.gdd.models.Method;
+import io.swagger.gdd.models.Resource;
+
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * An immutable snapshot of a {@link Resource}. Made by {@link Freezer}.
+ */
+public final class FrozenResource extends Resource implements Freezer.Frozen {
+    private final Map<String, Method> methods;
+    private final Map<String, Resource> resources;
+    private final int hash;
+
+    FrozenResource(Resource resource, Freezer freezer) {
+        this.methods = freezer.map(resource.getMethods());
+        this.resources = freezer.map(resource.getResources());
+        hash = Arrays.hashCode(fields());
+    }
+
+    private Object[] fields() {
+        return new Object[] {getMethods(), getResources()};
+    }
+
+    @Override
+    public Map<String, Method> getMethods() {
+        return methods;
+    }
+
+    @Override
+    public Map<String, Resource> getResources() {
+        return resources;
+    }
+
+    @Override
+    public void setMethods(Map<String, Method> methods) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public void setResources(Map<String, Resource> resources) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        FrozenResource that = (FrozenResource) o;
+
+        return hash == that.hash && Arrays.equals(fields(), that.fields());
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
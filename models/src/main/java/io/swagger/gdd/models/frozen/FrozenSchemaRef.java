@@ -0,0 +1,48 @@
+package io.swagger.gdd.models.frozen;
+
+import io.swagger.gdd.models.SchemaRef;
+
+import java.util.Arrays;
+
+/**
+ * An immutable snapshot of a {@link SchemaRef}. Made by {@link Freezer}.
+ */
+public final class FrozenSchemaRef extends SchemaRef implements Freezer.Frozen {
+    private final String $ref;
+    private final int hash;
+
+    FrozenSchemaRef(SchemaRef schemaRef) {
+        super(null);
+        this.$ref = schemaRef.get$ref();
+        hash = Arrays.hashCode(fields());
+    }
+
+    private Object[] fields() {
+        return new Object[] {get$ref()};
+    }
+
+    @Override
+    public String get$ref() {
+        return $ref;
+    }
+
+    @Override
+    public void set$ref(String $ref) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        FrozenSchemaRef that = (FrozenSchemaRef) o;
+
+        return hash == that.hash && Arrays.equals(fields(), that.fields());
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
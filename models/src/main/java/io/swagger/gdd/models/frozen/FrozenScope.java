@@ -0,0 +1,47 @@
+package io.swagger.gdd.models.frozen;
+
+import io.swagger.gdd.models.Scope;
+
+import java.util.Arrays;
+
+/**
+ * An immutable snapshot of a {@link Scope}. Made by {@link Freezer}.
+ */
+public final class FrozenScope extends Scope implements Freezer.Frozen {
+    private final String description;
+    private final int hash;
+
+    FrozenScope(Scope scope) {
+        this.description = scope.getDescription();
+        hash = Arrays.hashCode(fields());
+    }
+
+    private Object[] fields() {
+        return new Object[] {getDescription()};
+    }
+
+    @Override
+    public String getDescription() {
+        return description;
+    }
+
+    @Override
+    public void setDescription(String description) {
+        throw Freezer.unsupported();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+
+        FrozenScope that = (FrozenScope) o;
+
+        return hash == that.hash && Arrays.equals(fields(), that.fields());
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+}
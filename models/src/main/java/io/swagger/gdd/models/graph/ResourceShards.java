@@ -0,0 +1,114 @@
+package io.swagger.gdd.models.graph;
+
+import io.swagger.gdd.models.AbstractSchema;
+import io.swagger.gdd.models.GoogleDiscoveryDocument;
+import io.swagger.gdd.models.Resource;
+import io.swagger.gdd.models.factory.GDDModelFactory;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Splits a {@link GoogleDiscoveryDocument} into one self-contained document per top-level {@link Resource}.
+ *
+ * Each shard has the document-level fields of the original, such as its {@code name}, {@code parameters} and
+ * {@code auth}, and just the one Resource. Its {@code schemas} are those that the Resource's {@code Method}s and the
+ * document's {@code parameters} reach through {@code $ref}s, in their original order. The document's own
+ * {@code methods} are not in any shard.
+ *
+ * The closures of the schemas are computed once, by one {@link SchemaGraph}, and shared by every shard. The shards share
+ * the models of the original document rather than copying them, so neither should be changed afterward.
+ */
+public final class ResourceShards {
+
+    private ResourceShards() {
+    }
+
+    /**
+     * @param gdd the document to split
+     * @return a document for each of its top-level Resources, keyed and ordered like {@code resources}
+     */
+    public static Map<String, GoogleDiscoveryDocument> shard(GoogleDiscoveryDocument gdd) {
+        return shard(gdd, new GDDModelFactory());
+    }
+
+    /**
+     * @param gdd the document to split
+     * @param modelFactory factory for creating the shards
+     * @return a document for each of its top-level Resources, keyed and ordered like {@code resources}
+     */
+    public static Map<String, GoogleDiscoveryDocument> shard(GoogleDiscoveryDocument gdd, GDDModelFactory modelFactory) {
+        Map<String, GoogleDiscoveryDocument> shards = new LinkedHashMap<String, GoogleDiscoveryDocument>();
+        if (gdd.getResources() == null) return shards;
+
+        SchemaGraph graph = SchemaGraph.of(gdd);
+        Set<String> shared = new HashSet<String>();
+        for (String root : graph.rootsOfParameters()) {
+            shared.addAll(graph.closure(root));
+        }
+        // each shard's schemas are put in their original order by position, rather than by going through all of them
+        final Map<String, Integer> positions = new HashMap<String, Integer>();
+        for (String name : graph.schemas()) {
+            positions.put(name, positions.size());
+        }
+
+        for (Map.Entry<String, Resource> entry : gdd.getResources().entrySet()) {
+            GoogleDiscoveryDocument shard = modelFactory.newGoogleDiscoveryDocument();
+            copyMetadata(gdd, shard);
+            Map<String, Resource> resources = new LinkedHashMap<String, Resource>();
+            resources.put(entry.getKey(), entry.getValue());
+            shard.setResources(resources);
+
+            if (entry.getValue() != null) {
+                Set<String> reached = new HashSet<String>(shared);
+                for (String root : graph.rootsOf(entry.getValue())) {
+                    reached.addAll(graph.closure(root));
+                }
+                if (!reached.isEmpty()) {
+                    List<String> names = new ArrayList<String>(reached);
+                    Collections.sort(names, new Comparator<String>() {
+                        @Override
+                        public int compare(String a, String b) {
+                            return positions.get(a).compareTo(positions.get(b));
+                        }
+                    });
+                    Map<String, AbstractSchema> shardSchemas = new LinkedHashMap<String, AbstractSchema>();
+                    for (String name : names) {
+                        shardSchemas.put(name, gdd.getSchemas().get(name));
+                    }
+                    shard.setSchemas(shardSchemas);
+                }
+            }
+            shards.put(entry.getKey(), shard);
+        }
+        return shards;
+    }
+
+    private static void copyMetadata(GoogleDiscoveryDocument from, GoogleDiscoveryDocument to) {
+        to.setKind(from.getKind());
+        to.setDiscoveryVersion(from.getDiscoveryVersion());
+        to.setId(from.getId());
+        to.setName(from.getName());
+        to.setVersion(from.getVersion());
+        to.setRevision(from.getRevision());
+        to.setTitle(from.getTitle());
+        to.setDescription(from.getDescription());
+        to.setDocumentationLink(from.getDocumentationLink());
+        to.setProtocol(from.getProtocol());
+        to.setRootUrl(from.getRootUrl());
+        to.setServicePath(from.getServicePath());
+        to.setBatchPath(from.getBatchPath());
+        to.setIcons(from.getIcons());
+        to.setLabels(from.getLabels());
+        to.setParameters(from.getParameters());
+        to.setAuth(from.getAuth());
+        to.setFeatures(from.getFeatures());
+    }
+}
@@ -0,0 +1,397 @@
+package io.swagger.gdd.models.graph;
+
+import io.swagger.gdd.models.*;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * An index of which of a {@link GoogleDiscoveryDocument}'s {@code schemas} refer to which others through {@code $ref}s.
+ *
+ * A schema refers to each {@code $ref} anywhere in it: its own, and those of its {@code properties},
+ * {@code additionalProperties} and {@code items}, all the way down. The document's {@code parameters}, and the
+ * {@code request}, {@code response} and {@code parameters} of every {@link Method} in it, are the roots: the schemas
+ * they refer to are used directly, and the ones reachable from those are used indirectly. Schemas are named by their
+ * keys in {@code schemas}.
+ *
+ * The index is built in one pass over the document. Nested schemas that appear more than once, such as interned ones,
+ * are only looked through once. It is a snapshot, so it does not see changes made to the document afterward.
+ */
+public final class SchemaGraph {
+    private final Set<String> schemas;
+    private final Map<String, Set<String>> forward = new HashMap<String, Set<String>>();
+    private final Map<String, Set<String>> reverse = new HashMap<String, Set<String>>();
+    private final Set<String> roots = new LinkedHashSet<String>();
+    private final Set<String> parameterRoots = new LinkedHashSet<String>();
+    private final Collector collector = new Collector();
+    private List<Set<String>> components;
+    private Map<String, Set<String>> closures;
+
+    private SchemaGraph(Set<String> schemas) {
+        this.schemas = schemas;
+    }
+
+    /**
+     * @param gdd the document to index
+     * @return the index of the document's schemas
+     */
+    public static SchemaGraph of(GoogleDiscoveryDocument gdd) {
+        Map<String, AbstractSchema> schemas = gdd.getSchemas() != null
+                ? gdd.getSchemas() : Collections.<String, AbstractSchema>emptyMap();
+        SchemaGraph graph = new SchemaGraph(Collections.unmodifiableSet(new LinkedHashSet<String>(schemas.keySet())));
+        Collector collector = graph.collector;
+
+        for (Map.Entry<String, AbstractSchema> entry : schemas.entrySet()) {
+            for (String ref : collector.refs(entry.getValue())) {
+                graph.link(entry.getKey(), ref);
+            }
+        }
+
+        if (gdd.getParameters() != null) {
+            for (Parameter parameter : gdd.getParameters().values()) {
+                graph.parameterRoots.addAll(collector.refs(parameter));
+            }
+            graph.roots.addAll(graph.parameterRoots);
+        }
+        addRoots(graph.roots, gdd.getMethods(), collector);
+        Deque<Resource> resources = new ArrayDeque<Resource>();
+        if (gdd.getResources() != null) resources.addAll(nonNull(gdd.getResources().values()));
+        while (!resources.isEmpty()) {
+            Resource resource = resources.pop();
+            addRoots(graph.roots, resource.getMethods(), collector);
+            if (resource.getResources() != null) resources.addAll(nonNull(resource.getResources().values()));
+        }
+        return graph;
+    }
+
+    /**
+     * @return the keys of the document's {@code schemas}, in order
+     */
+    public Set<String> schemas() {
+        return schemas;
+    }
+
+    /**
+     * @return the names referred to directly by the document's {@code parameters} and its {@code Method}s, whether or
+     *         not they are schemas of the document
+     */
+    public Set<String> roots() {
+        return Collections.unmodifiableSet(roots);
+    }
+
+    /**
+     * @param name a schema
+     * @return the names the schema refers to
+     */
+    public Set<String> referencesFrom(String name) {
+        Set<String> references = forward.get(name);
+        return references != null ? Collections.unmodifiableSet(references) : Collections.<String>emptySet();
+    }
+
+    /**
+     * @param name a schema, or any name referred to
+     * @return the schemas which refer to the name
+     */
+    public Set<String> referencesTo(String name) {
+        Set<String> references = reverse.get(name);
+        return references != null ? Collections.unmodifiableSet(references) : Collections.<String>emptySet();
+    }
+
+    /**
+     * @return the names which are referred to, by a schema or by a root, but are not schemas of the document
+     */
+    public Set<String> danglingReferences() {
+        Set<String> dangling = new LinkedHashSet<String>();
+        for (String name : roots) {
+            if (!schemas.contains(name)) dangling.add(name);
+        }
+        for (String schema : schemas) {
+            for (String name : referencesFrom(schema)) {
+                if (!schemas.contains(name)) dangling.add(name);
+            }
+        }
+        return dangling;
+    }
+
+    /**
+     * @return the schemas which can be reached from the roots, in the order of {@code schemas}
+     */
+    public Set<String> reachable() {
+        Set<String> reached = new HashSet<String>();
+        Deque<String> pending = new ArrayDeque<String>(roots);
+        while (!pending.isEmpty()) {
+            String name = pending.pop();
+            if (schemas.contains(name) && reached.add(name)) {
+                pending.addAll(referencesFrom(name));
+            }
+        }
+        Set<String> ordered = new LinkedHashSet<String>();
+        for (String name : schemas) {
+            if (reached.contains(name)) ordered.add(name);
+        }
+        return ordered;
+    }
+
+    /**
+     * @return the schemas which can't be reached from the roots, in the order of {@code schemas}
+     */
+    public Set<String> unreachable() {
+        Set<String> unreachable = new LinkedHashSet<String>(schemas);
+        unreachable.removeAll(reachable());
+        return unreachable;
+    }
+
+    /**
+     * Find the groups of schemas which refer to each other in a cycle, including schemas which refer to themselves.
+     * This takes time linear in the number of schemas and references.
+     * @return each group of schemas on a cycle, in the order of {@code schemas}
+     */
+    public List<Set<String>> cycles() {
+        List<Set<String>> cycles = new ArrayList<Set<String>>();
+        for (Set<String> component : components()) {
+            String first = component.iterator().next();
+            if (component.size() > 1 || referencesFrom(first).contains(first)) cycles.add(component);
+        }
+        return cycles;
+    }
+
+    /**
+     * The schemas reachable from a schema, including itself, which are the schemas that have to be shipped along with it.
+     * The closures of all schemas are computed together, the first time one is asked for, in time linear in the number
+     * of schemas and references plus the size of the closures. Schemas on a cycle share one closure.
+     * @param name a schema
+     * @return the schemas reachable from it, or an empty set if it is not a schema of the document
+     */
+    public Set<String> closure(String name) {
+        if (closures == null) {
+            Map<String, Set<String>> computed = new HashMap<String, Set<String>>();
+            // components come out of Tarjan's algorithm after every component they refer to
+            for (Set<String> component : components()) {
+                Set<String> closure = new HashSet<String>(component);
+                for (String member : component) {
+                    for (String reference : referencesFrom(member)) {
+                        if (schemas.contains(reference) && !component.contains(reference)) {
+                            closure.addAll(computed.get(reference));
+                        }
+                    }
+                }
+                Set<String> shared = Collections.unmodifiableSet(closure);
+                for (String member : component) {
+                    computed.put(member, shared);
+                }
+            }
+            closures = computed;
+        }
+        Set<String> closure = closures.get(name);
+        return closure != null ? closure : Collections.<String>emptySet();
+    }
+
+    /**
+     * @return the names referred to directly by the document's {@code parameters}, which apply to every {@code Method}
+     */
+    public Set<String> rootsOfParameters() {
+        return Collections.unmodifiableSet(parameterRoots);
+    }
+
+    /**
+     * @param resource a Resource of the document
+     * @return the names referred to directly by the {@code Method}s of the Resource and of the Resources nested in it
+     */
+    public Set<String> rootsOf(Resource resource) {
+        Set<String> roots = new LinkedHashSet<String>();
+        Deque<Resource> resources = new ArrayDeque<Resource>();
+        resources.push(resource);
+        while (!resources.isEmpty()) {
+            Resource next = resources.pop();
+            addRoots(roots, next.getMethods(), collector);
+            if (next.getResources() != null) resources.addAll(nonNull(next.getResources().values()));
+        }
+        return roots;
+    }
+
+    private List<Set<String>> components() {
+        if (components == null) components = new Tarjan().run();
+        return components;
+    }
+
+    /**
+     * <i>Side effecting</i>. Set the document's {@code schemas} to only those which are {@link #reachable() reachable},
+     * in the same order. {@code schemas} is replaced rather than changed in place.
+     * @param gdd the document this graph was built from
+     * @return the keys of the schemas that were dropped
+     */
+    public Set<String> prune(GoogleDiscoveryDocument gdd) {
+        Set<String> unreachable = unreachable();
+        if (!unreachable.isEmpty()) {
+            Map<String, AbstractSchema> pruned = new LinkedHashMap<String, AbstractSchema>();
+            for (Map.Entry<String, AbstractSchema> entry : gdd.getSchemas().entrySet()) {
+                if (!unreachable.contains(entry.getKey())) pruned.put(entry.getKey(), entry.getValue());
+            }
+            gdd.setSchemas(pruned);
+        }
+        return unreachable;
+    }
+
+    /**
+     * Drop the schemas of a document that no {@code Method} can reach.
+     * @param gdd the document to prune
+     * @return the keys of the schemas that were dropped
+     */
+    public static Set<String> pruneUnreachable(GoogleDiscoveryDocument gdd) {
+        return of(gdd).prune(gdd);
+    }
+
+    private void link(String from, String to) {
+        Set<String> references = forward.get(from);
+        if (references == null) {
+            references = new LinkedHashSet<String>();
+            forward.put(from, references);
+        }
+        references.add(to);
+        Set<String> referrers = reverse.get(to);
+        if (referrers == null) {
+            referrers = new LinkedHashSet<String>();
+            reverse.put(to, referrers);
+        }
+        referrers.add(from);
+    }
+
+    private static void addRoots(Set<String> roots, Map<String, Method> methods, Collector collector) {
+        if (methods == null) return;
+        for (Method method : methods.values()) {
+            if (method == null) continue;
+            if (method.getRequest() != null && method.getRequest().get$ref() != null) {
+                roots.add(method.getRequest().get$ref());
+            }
+            if (method.getResponse() != null && method.getResponse().get$ref() != null) {
+                roots.add(method.getResponse().get$ref());
+            }
+            if (method.getParameters() != null) {
+                for (Parameter parameter : method.getParameters().values()) {
+                    roots.addAll(collector.refs(parameter));
+                }
+            }
+        }
+    }
+
+    private static <T> List<T> nonNull(Iterable<T> values) {
+        List<T> list = new ArrayList<T>();
+        for (T value : values) {
+            if (value != null) list.add(value);
+        }
+        return list;
+    }
+
+    /**
+     * Collects the {@code $ref}s anywhere in a schema, remembering those of each nested schema by identity.
+     */
+    private static final class Collector {
+        private final Map<AbstractSchema, Set<String>> seen = new IdentityHashMap<AbstractSchema, Set<String>>();
+
+        Set<String> refs(AbstractSchema schema) {
+            if (schema == null) return Collections.emptySet();
+            Set<String> refs = seen.get(schema);
+            if (refs != null) return refs;
+            refs = new LinkedHashSet<String>();
+            if (schema.get$ref() != null) refs.add(schema.get$ref());
+            if (schema.getProperties() != null) {
+                for (Schema property : schema.getProperties().values()) {
+                    refs.addAll(refs(property));
+                }
+            }
+            refs.addAll(refs(schema.getAdditionalProperties()));
+            refs.addAll(refs(schema.getItems()));
+            seen.put(schema, refs);
+            return refs;
+        }
+    }
+
+    /**
+     * Tarjan's strongly connected components, with an explicit stack so that long chains of references can't overflow
+     * the call stack.
+     */
+    private final class Tarjan {
+        private final Map<String, Integer> index = new HashMap<String, Integer>();
+        private final Map<String, Integer> lowLink = new HashMap<String, Integer>();
+        private final Deque<String> stack = new ArrayDeque<String>();
+        private final Set<String> onStack = new HashSet<String>();
+        private final List<Set<String>> components = new ArrayList<Set<String>>();
+
+        List<Set<String>> run() {
+            for (String name : schemas) {
+                if (!index.containsKey(name)) visit(name);
+            }
+            return components;
+        }
+
+        private void visit(String start) {
+            Deque<Frame> frames = new ArrayDeque<Frame>();
+            frames.push(enter(start));
+            while (!frames.isEmpty()) {
+                Frame frame = frames.peek();
+                if (frame.next < frame.successors.size()) {
+                    String successor = frame.successors.get(frame.next++);
+                    if (!schemas.contains(successor)) continue;
+                    if (!index.containsKey(successor)) {
+                        frames.push(enter(successor));
+                    } else if (onStack.contains(successor)) {
+                        lowLink.put(frame.name, Math.min(lowLink.get(frame.name), index.get(successor)));
+                    }
+                } else {
+                    frames.pop();
+                    if (!frames.isEmpty()) {
+                        String parent = frames.peek().name;
+                        lowLink.put(parent, Math.min(lowLink.get(parent), lowLink.get(frame.name)));
+                    }
+                    if (lowLink.get(frame.name).equals(index.get(frame.name))) {
+                        Set<String> component = new HashSet<String>();
+                        String name;
+                        do {
+                            name = stack.pop();
+                            onStack.remove(name);
+                            component.add(name);
+                        } while (!name.equals(frame.name));
+                        if (component.size() == 1) {
+                            components.add(component);
+                        } else {
+                            Set<String> ordered = new LinkedHashSet<String>();
+                            for (String schema : schemas) {
+                                if (component.contains(schema)) ordered.add(schema);
+                            }
+                            components.add(ordered);
+                        }
+                    }
+                }
+            }
+        }
+
+        private Frame enter(String name) {
+            index.put(name, index.size());
+            lowLink.put(name, index.get(name));
+            stack.push(name);
+            onStack.add(name);
+            return new Frame(name, new ArrayList<String>(referencesFrom(name)));
+        }
+    }
+
+    private static final class Frame {
+        final String name;
+        final List<String> successors;
+        int next;
+
+        Frame(String name, List<String> successors) {
+            this.name = name;
+            this.successors = successors;
+        }
+    }
+}
@@ -0,0 +1,460 @@
+package io.swagger.gdd.models.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.swagger.gdd.models.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+
+/**
+ * Writes GDDs as canonical JSON, and digests them as it writes them, to fill in their {@code revision}.
+ *
+ * Canonical JSON has no whitespace, and the fields of every object and the entries of every map are in the order of
+ * their names, as {@link String#compareTo} orders them. Lists keep their order, and {@code null} fields are left out.
+ * The one exception is {@code revision}, which is written last, since it is the digest of the rest of the document: two
+ * documents have the same revision if and only if, short of a SHA-256 collision, they have the same canonical JSON, so
+ * the revision can also serve as a strong ETag for it.
+ *
+ * The digest is not a hash of the whole JSON, but of a hash of the JSON outside of {@code schemas} and
+ * {@code resources}, followed by the key and the hash of the JSON of each schema and each top-level resource. Those
+ * hashes are kept in the {@link Digest} that is returned, so that after some schemas or resources change, the digest of
+ * the document can be {@link #digest(GoogleDiscoveryDocument, Digest, Set, Set) recomputed} by hashing only them and
+ * the rest of the document.
+ */
+public class CanonicalGDDWriter {
+    private static final String ALGORITHM = "SHA-256";
+    /**
+     * How many bytes of the digest are in the revision.
+     */
+    private static final int REVISION_BYTES = 16;
+
+    private final JsonFactory factory;
+    /**
+     * Writes the models whose fields are already in order, and which have no maps.
+     */
+    private final GDDJsonWriter writer;
+
+    public CanonicalGDDWriter() {
+        this(new JsonFactory());
+    }
+
+    /**
+     * @param factory the factory used to create generators
+     */
+    public CanonicalGDDWriter(JsonFactory factory) {
+        this.factory = factory;
+        this.writer = new GDDJsonWriter(factory);
+    }
+
+    /**
+     * Set the revision of a document to its digest, and write it as canonical JSON. The stream is flushed, but not
+     * closed.
+     * @param gdd the document to write
+     * @param out where the JSON will be written
+     * @return the digest of the document
+     */
+    public Digest write(GoogleDiscoveryDocument gdd, OutputStream out) throws IOException {
+        return write(gdd, new DigestingStream(out), null, Collections.<String>emptySet(),
+                Collections.<String>emptySet());
+    }
+
+    /**
+     * Set the revision of a document to its digest, without writing it anywhere.
+     * @param gdd the document to digest
+     * @return the digest of the document
+     */
+    public Digest digest(GoogleDiscoveryDocument gdd) throws IOException {
+        return digest(gdd, null, Collections.<String>emptySet(), Collections.<String>emptySet());
+    }
+
+    /**
+     * Set the revision of a document to its digest, reusing the digests of the schemas and top-level resources that
+     * have not changed since an earlier digest of it. Only the rest of the document, and the schemas and resources that
+     * changed or were added, are hashed.
+     * @param gdd the document to digest
+     * @param previous an earlier digest of the document, or {@code null} to hash all of it
+     * @param changedSchemas the keys of the schemas which may have changed since then
+     * @param changedResources the keys of the top-level resources which may have changed since then
+     * @return the digest of the document, which is the same as if all of it had been hashed
+     */
+    public Digest digest(GoogleDiscoveryDocument gdd, Digest previous, Set<String> changedSchemas,
+                         Set<String> changedResources) throws IOException {
+        return write(gdd, new DigestingStream(null), previous, changedSchemas, changedResources);
+    }
+
+    private Digest write(GoogleDiscoveryDocument gdd, DigestingStream stream, Digest previous,
+                         Set<String> changedSchemas, Set<String> changedResources) throws IOException {
+        JsonGenerator gen = factory.createGenerator(stream);
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        stream.digest = newDigest();
+        gen.writeStartObject();
+        if (gdd.getAuth() != null) {
+            gen.writeFieldName("auth");
+            write(gdd.getAuth(), gen);
+        }
+        writeString(gen, "batchPath", gdd.getBatchPath());
+        writeString(gen, "description", gdd.getDescription());
+        writeString(gen, "discoveryVersion", gdd.getDiscoveryVersion());
+        writeString(gen, "documentationLink", gdd.getDocumentationLink());
+        writeStrings(gen, "features", gdd.getFeatures());
+        if (gdd.getIcons() != null) {
+            gen.writeFieldName("icons");
+            writer.write(gdd.getIcons(), gen);
+        }
+        writeString(gen, "id", gdd.getId());
+        writeString(gen, "kind", gdd.getKind());
+        if (gdd.getLabels() != null) {
+            gen.writeArrayFieldStart("labels");
+            for (GoogleDiscoveryDocument.Label label : gdd.getLabels()) {
+                if (label != null) gen.writeString(label.name()); else gen.writeNull();
+            }
+            gen.writeEndArray();
+        }
+        writeMethods(gen, gdd.getMethods());
+        writeString(gen, "name", gdd.getName());
+        writeParameters(gen, gdd.getParameters());
+        writeString(gen, "protocol", gdd.getProtocol());
+        SortedMap<String, byte[]> resources = writeEntries(gen, stream, "resources", gdd.getResources(),
+                previous != null ? previous.resources : null, changedResources);
+        writeString(gen, "rootUrl", gdd.getRootUrl());
+        SortedMap<String, byte[]> schemas = writeEntries(gen, stream, "schemas", gdd.getSchemas(),
+                previous != null ? previous.schemas : null, changedSchemas);
+        writeString(gen, "servicePath", gdd.getServicePath());
+        writeString(gen, "title", gdd.getTitle());
+        writeString(gen, "version", gdd.getVersion());
+        gen.flush();
+
+        MessageDigest digest = newDigest();
+        digest.update(stream.digest.digest());
+        update(digest, schemas);
+        update(digest, resources);
+        Digest result = new Digest(hex(digest.digest(), REVISION_BYTES), schemas, resources);
+        gdd.setRevision(result.getRevision());
+
+        stream.digest = null;
+        gen.writeStringField("revision", result.getRevision());
+        gen.writeEndObject();
+        gen.close();
+        return result;
+    }
+
+    /**
+     * Write the entries of {@code schemas} or {@code resources}, hashing each one's JSON on its own, or reusing its
+     * earlier hash if it has not changed, in which case a placeholder is written in its place. Reuse is only for when
+     * nothing is being written out.
+     * @return the hash of each entry
+     */
+    private SortedMap<String, byte[]> writeEntries(JsonGenerator gen, DigestingStream stream, String name,
+                                                   Map<String, ?> entries, Map<String, byte[]> previous,
+                                                   Set<String> changed) throws IOException {
+        SortedMap<String, byte[]> digests = new TreeMap<String, byte[]>();
+        if (entries == null) return digests;
+        MessageDigest outside = stream.digest;
+        gen.writeObjectFieldStart(name);
+        for (Map.Entry<String, ?> entry : sorted(entries).entrySet()) {
+            gen.writeFieldName(entry.getKey());
+            // everything up to here belongs to the rest of the document; the value, and the : before it, to the entry
+            gen.flush();
+            byte[] reused = previous != null && !changed.contains(entry.getKey()) ? previous.get(entry.getKey()) : null;
+            if (reused != null) {
+                stream.digest = null;
+                gen.writeNull();
+            } else {
+                stream.digest = newDigest();
+                Object value = entry.getValue();
+                if (value instanceof Resource) write((Resource) value, gen);
+                else if (value instanceof AbstractSchema) write((AbstractSchema) value, gen);
+                else gen.writeNull();
+            }
+            gen.flush();
+            digests.put(entry.getKey(), reused != null ? reused : stream.digest.digest());
+            stream.digest = outside;
+        }
+        gen.writeEndObject();
+        return digests;
+    }
+
+    private void write(Resource resource, JsonGenerator gen) throws IOException {
+        if (resource == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject();
+        writeMethods(gen, resource.getMethods());
+        if (resource.getResources() != null) {
+            gen.writeObjectFieldStart("resources");
+            for (Map.Entry<String, Resource> entry : sorted(resource.getResources()).entrySet()) {
+                gen.writeFieldName(entry.getKey());
+                write(entry.getValue(), gen);
+            }
+            gen.writeEndObject();
+        }
+        gen.writeEndObject();
+    }
+
+    @SuppressWarnings("deprecation")
+    private void write(Method method, JsonGenerator gen) throws IOException {
+        if (method == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject();
+        writeString(gen, "basePath", method.getBasePath());
+        writeString(gen, "baseUrl", method.getBaseUrl());
+        writeString(gen, "description", method.getDescription());
+        writeString(gen, "httpMethod", method.getHttpMethod());
+        writeString(gen, "id", method.getId());
+        MediaUpload mediaUpload = method.getMediaUpload();
+        if (mediaUpload != null) {
+            gen.writeObjectFieldStart("mediaUpload");
+            writeStrings(gen, "accept", mediaUpload.getAccept());
+            writeString(gen, "maxSize", mediaUpload.getMaxSize());
+            if (mediaUpload.getResumable() != null) {
+                gen.writeFieldName("resumable");
+                writer.write(mediaUpload.getResumable(), gen);
+            }
+            if (mediaUpload.getSimple() != null) {
+                gen.writeFieldName("simple");
+                writer.write(mediaUpload.getSimple(), gen);
+            }
+            gen.writeEndObject();
+        }
+        writeStrings(gen, "parameterOrder", method.getParameterOrder());
+        writeParameters(gen, method.getParameters());
+        writeString(gen, "path", method.getPath());
+        if (method.getRequest() != null) {
+            gen.writeFieldName("request");
+            writer.write(method.getRequest(), gen);
+        }
+        if (method.getResponse() != null) {
+            gen.writeFieldName("response");
+            writer.write(method.getResponse(), gen);
+        }
+        writeStrings(gen, "scopes", method.getScopes());
+        writeBoolean(gen, "supportsMediaDownload", method.getSupportsMediaDownload());
+        writeBoolean(gen, "supportsMediaUpload", method.getSupportsMediaUpload());
+        writeBoolean(gen, "supportsSubscription", method.getSupportsSubscription());
+        gen.writeEndObject();
+    }
+
+    private void write(AbstractSchema schema, JsonGenerator gen) throws IOException {
+        if (schema == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject();
+        writeString(gen, "$ref", schema.get$ref());
+        if (schema.getAdditionalProperties() != null) {
+            gen.writeFieldName("additionalProperties");
+            write(schema.getAdditionalProperties(), gen);
+        }
+        if (schema.getAnnotations() != null) {
+            gen.writeFieldName("annotations");
+            writer.write(schema.getAnnotations(), gen);
+        }
+        writeString(gen, "default", schema.getDefault());
+        writeString(gen, "description", schema.getDescription());
+        writeStrings(gen, "enum", schema.getEnum());
+        writeStrings(gen, "enumDescriptions", schema.getEnumDescriptions());
+        writeString(gen, "format", schema.getFormat());
+        writeString(gen, "id", schema.getId());
+        if (schema.getItems() != null) {
+            gen.writeFieldName("items");
+            write(schema.getItems(), gen);
+        }
+        writeString(gen, "location", schema.getLocation());
+        writeString(gen, "maximum", schema.getMaximum());
+        writeString(gen, "minimum", schema.getMinimum());
+        writeString(gen, "pattern", schema.getPattern());
+        if (schema.getProperties() != null) {
+            gen.writeObjectFieldStart("properties");
+            for (Map.Entry<String, Schema> entry : sorted(schema.getProperties()).entrySet()) {
+                gen.writeFieldName(entry.getKey());
+                write(entry.getValue(), gen);
+            }
+            gen.writeEndObject();
+        }
+        writeBoolean(gen, "repeated", schema.getRepeated());
+        writeBoolean(gen, "required", schema.getRequired());
+        writeString(gen, "type", schema.getType());
+        gen.writeEndObject();
+    }
+
+    private void write(Auth auth, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        OAuth2 oauth2 = auth.getOauth2();
+        if (oauth2 != null) {
+            gen.writeObjectFieldStart("oauth2");
+            if (oauth2.getScopes() != null) {
+                gen.writeObjectFieldStart("scopes");
+                for (Map.Entry<String, Scope> entry : sorted(oauth2.getScopes()).entrySet()) {
+                    gen.writeFieldName(entry.getKey());
+                    if (entry.getValue() != null) writer.write(entry.getValue(), gen); else gen.writeNull();
+                }
+                gen.writeEndObject();
+            }
+            gen.writeEndObject();
+        }
+        gen.writeEndObject();
+    }
+
+    private void writeParameters(JsonGenerator gen, Map<String, Parameter> parameters) throws IOException {
+        if (parameters == null) return;
+        gen.writeObjectFieldStart("parameters");
+        for (Map.Entry<String, Parameter> entry : sorted(parameters).entrySet()) {
+            gen.writeFieldName(entry.getKey());
+            write(entry.getValue(), gen);
+        }
+        gen.writeEndObject();
+    }
+
+    private void writeMethods(JsonGenerator gen, Map<String, Method> methods) throws IOException {
+        if (methods == null) return;
+        gen.writeObjectFieldStart("methods");
+        for (Map.Entry<String, Method> entry : sorted(methods).entrySet()) {
+            gen.writeFieldName(entry.getKey());
+            write(entry.getValue(), gen);
+        }
+        gen.writeEndObject();
+    }
+
+    private static <V> SortedMap<String, V> sorted(Map<String, V> map) {
+        return map instanceof SortedMap && ((SortedMap<String, V>) map).comparator() == null
+                ? (SortedMap<String, V>) map : new TreeMap<String, V>(map);
+    }
+
+    private static void writeString(JsonGenerator gen, String name, String value) throws IOException {
+        if (value != null) gen.writeStringField(name, value);
+    }
+
+    private static void writeBoolean(JsonGenerator gen, String name, Boolean value) throws IOException {
+        if (value != null) gen.writeBooleanField(name, value);
+    }
+
+    private static void writeStrings(JsonGenerator gen, String name, List<String> values) throws IOException {
+        if (values == null) return;
+        gen.writeArrayFieldStart(name);
+        for (String value : values) {
+            gen.writeString(value);
+        }
+        gen.writeEndArray();
+    }
+
+    /**
+     * Add the count of some hashes, then the key and hash of each, to a digest.
+     */
+    private static void update(MessageDigest digest, SortedMap<String, byte[]> hashes) {
+        int count = hashes.size();
+        digest.update(new byte[] {(byte) (count >>> 24), (byte) (count >>> 16), (byte) (count >>> 8), (byte) count});
+        for (Map.Entry<String, byte[]> entry : hashes.entrySet()) {
+            digest.update(entry.getKey().getBytes(StandardCharsets.UTF_8));
+            digest.update((byte) 0);
+            digest.update(entry.getValue());
+        }
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(ALGORITHM + " is not available", e);
+        }
+    }
+
+    private static String hex(byte[] bytes, int length) {
+        StringBuilder hex = new StringBuilder(length * 2);
+        for (int i = 0; i < length; i++) {
+            hex.append(Character.forDigit((bytes[i] >> 4) & 0xf, 16)).append(Character.forDigit(bytes[i] & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+    /**
+     * The digest of a document, and the hashes of its schemas and top-level resources that it was computed from.
+     */
+    public static final class Digest {
+        private final String revision;
+        private final SortedMap<String, byte[]> schemas;
+        private final SortedMap<String, byte[]> resources;
+
+        private Digest(String revision, SortedMap<String, byte[]> schemas, SortedMap<String, byte[]> resources) {
+            this.revision = revision;
+            this.schemas = Collections.unmodifiableSortedMap(schemas);
+            this.resources = Collections.unmodifiableSortedMap(resources);
+        }
+
+        /**
+         * @return the digest of the document, in hex, as it was set as its {@code revision}
+         */
+        public String getRevision() {
+            return revision;
+        }
+
+        /**
+         * @return the hash of each schema, in hex, by key
+         */
+        public SortedMap<String, String> getSchemaHashes() {
+            return hexes(schemas);
+        }
+
+        /**
+         * @return the hash of each top-level resource, in hex, by key
+         */
+        public SortedMap<String, String> getResourceHashes() {
+            return hexes(resources);
+        }
+
+        private static SortedMap<String, String> hexes(SortedMap<String, byte[]> hashes) {
+            SortedMap<String, String> hexes = new TreeMap<String, String>();
+            for (Map.Entry<String, byte[]> entry : hashes.entrySet()) {
+                hexes.put(entry.getKey(), hex(entry.getValue(), entry.getValue().length));
+            }
+            return hexes;
+        }
+
+        @Override
+        public String toString() {
+            return revision;
+        }
+    }
+
+    /**
+     * Passes what is written on to a stream, if there is one, and to the digest currently being computed, if there is
+     * one.
+     */
+    private static final class DigestingStream extends OutputStream {
+        private final OutputStream out;
+        MessageDigest digest;
+
+        DigestingStream(OutputStream out) {
+            this.out = out;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            if (digest != null) digest.update((byte) b);
+            if (out != null) out.write(b);
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            if (digest != null) digest.update(b, off, len);
+            if (out != null) out.write(b, off, len);
+        }
+
+        @Override
+        public void flush() throws IOException {
+            if (out != null) out.flush();
+        }
+    }
+}
@@ -0,0 +1,311 @@
+package io.swagger.gdd.models.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import io.swagger.gdd.models.*;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes GDD models as JSON straight to a {@link JsonGenerator}, field by field, without any bean introspection.
+ *
+ * {@code null} fields are left out. Fields are written in a fixed order, which is the order a Jackson
+ * {@code ObjectMapper} configured to leave out {@code null}s would write them in, so the output is the same. Labels are
+ * written by name, as such a mapper does.
+ *
+ * Only the fields of the GDD models themselves are written, so subclasses with more fields should override the method
+ * for their type, preferably by calling super and then writing their own fields inside the same object.
+ */
+public class GDDJsonWriter {
+    private final JsonFactory factory;
+
+    public GDDJsonWriter() {
+        this(new JsonFactory());
+    }
+
+    /**
+     * @param factory the factory used to create generators for {@link #write(GoogleDiscoveryDocument, OutputStream)}
+     */
+    public GDDJsonWriter(JsonFactory factory) {
+        this.factory = factory;
+    }
+
+    /**
+     * Write a document as JSON. The stream is flushed, but not closed.
+     * @param gdd the document to write
+     * @param out where the JSON will be written
+     */
+    public void write(GoogleDiscoveryDocument gdd, OutputStream out) throws IOException {
+        JsonGenerator gen = factory.createGenerator(out);
+        gen.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        write(gdd, gen);
+        gen.close();
+    }
+
+    public void write(GoogleDiscoveryDocument gdd, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        writeString(gen, "kind", gdd.getKind());
+        writeString(gen, "discoveryVersion", gdd.getDiscoveryVersion());
+        writeString(gen, "id", gdd.getId());
+        writeString(gen, "name", gdd.getName());
+        writeString(gen, "version", gdd.getVersion());
+        writeString(gen, "revision", gdd.getRevision());
+        writeString(gen, "title", gdd.getTitle());
+        writeString(gen, "description", gdd.getDescription());
+        writeString(gen, "documentationLink", gdd.getDocumentationLink());
+        writeString(gen, "protocol", gdd.getProtocol());
+        writeString(gen, "rootUrl", gdd.getRootUrl());
+        writeString(gen, "servicePath", gdd.getServicePath());
+        writeString(gen, "batchPath", gdd.getBatchPath());
+        if (gdd.getIcons() != null) {
+            gen.writeFieldName("icons");
+            write(gdd.getIcons(), gen);
+        }
+        if (gdd.getLabels() != null) {
+            gen.writeArrayFieldStart("labels");
+            for (GoogleDiscoveryDocument.Label label : gdd.getLabels()) {
+                if (label != null) gen.writeString(label.name()); else gen.writeNull();
+            }
+            gen.writeEndArray();
+        }
+        writeParameters(gen, gdd.getParameters());
+        if (gdd.getAuth() != null) {
+            gen.writeFieldName("auth");
+            write(gdd.getAuth(), gen);
+        }
+        writeStrings(gen, "features", gdd.getFeatures());
+        if (gdd.getSchemas() != null) {
+            gen.writeObjectFieldStart("schemas");
+            for (Map.Entry<String, AbstractSchema> entry : gdd.getSchemas().entrySet()) {
+                gen.writeFieldName(entry.getKey());
+                write(entry.getValue(), gen);
+            }
+            gen.writeEndObject();
+        }
+        writeMethods(gen, gdd.getMethods());
+        writeResources(gen, gdd.getResources());
+        gen.writeEndObject();
+    }
+
+    public void write(Resource resource, JsonGenerator gen) throws IOException {
+        if (resource == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject();
+        writeMethods(gen, resource.getMethods());
+        writeResources(gen, resource.getResources());
+        gen.writeEndObject();
+    }
+
+    @SuppressWarnings("deprecation")
+    public void write(Method method, JsonGenerator gen) throws IOException {
+        if (method == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject();
+        writeString(gen, "id", method.getId());
+        writeString(gen, "description", method.getDescription());
+        writeString(gen, "path", method.getPath());
+        writeString(gen, "httpMethod", method.getHttpMethod());
+        if (method.getRequest() != null) {
+            gen.writeFieldName("request");
+            write(method.getRequest(), gen);
+        }
+        if (method.getResponse() != null) {
+            gen.writeFieldName("response");
+            write(method.getResponse(), gen);
+        }
+        writeParameters(gen, method.getParameters());
+        writeStrings(gen, "parameterOrder", method.getParameterOrder());
+        writeStrings(gen, "scopes", method.getScopes());
+        writeBoolean(gen, "supportsMediaDownload", method.getSupportsMediaDownload());
+        writeBoolean(gen, "supportsMediaUpload", method.getSupportsMediaUpload());
+        writeBoolean(gen, "supportsSubscription", method.getSupportsSubscription());
+        if (method.getMediaUpload() != null) {
+            gen.writeFieldName("mediaUpload");
+            write(method.getMediaUpload(), gen);
+        }
+        writeString(gen, "baseUrl", method.getBaseUrl());
+        writeString(gen, "basePath", method.getBasePath());
+        gen.writeEndObject();
+    }
+
+    /**
+     * Write a {@link Schema} or a {@link Parameter}.
+     */
+    public void write(AbstractSchema schema, JsonGenerator gen) throws IOException {
+        if (schema == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject();
+        writeString(gen, "id", schema.getId());
+        writeString(gen, "type", schema.getType());
+        writeString(gen, "$ref", schema.get$ref());
+        writeString(gen, "description", schema.getDescription());
+        writeString(gen, "location", schema.getLocation());
+        writeString(gen, "format", schema.getFormat());
+        writeString(gen, "pattern", schema.getPattern());
+        writeString(gen, "minimum", schema.getMinimum());
+        writeString(gen, "maximum", schema.getMaximum());
+        if (schema.getProperties() != null) {
+            gen.writeObjectFieldStart("properties");
+            for (Map.Entry<String, Schema> entry : schema.getProperties().entrySet()) {
+                gen.writeFieldName(entry.getKey());
+                write(entry.getValue(), gen);
+            }
+            gen.writeEndObject();
+        }
+        if (schema.getAdditionalProperties() != null) {
+            gen.writeFieldName("additionalProperties");
+            write(schema.getAdditionalProperties(), gen);
+        }
+        if (schema.getItems() != null) {
+            gen.writeFieldName("items");
+            write(schema.getItems(), gen);
+        }
+        if (schema.getAnnotations() != null) {
+            gen.writeFieldName("annotations");
+            write(schema.getAnnotations(), gen);
+        }
+        writeStrings(gen, "enumDescriptions", schema.getEnumDescriptions());
+        writeBoolean(gen, "required", schema.getRequired());
+        writeBoolean(gen, "repeated", schema.getRepeated());
+        // enum and default have no field of the same name, which puts them last
+        writeStrings(gen, "enum", schema.getEnum());
+        writeString(gen, "default", schema.getDefault());
+        gen.writeEndObject();
+    }
+
+    public void write(SchemaRef schemaRef, JsonGenerator gen) throws IOException {
+        if (schemaRef == null) {
+            gen.writeNull();
+            return;
+        }
+        gen.writeStartObject();
+        writeString(gen, "$ref", schemaRef.get$ref());
+        gen.writeEndObject();
+    }
+
+    public void write(MediaUpload mediaUpload, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        writeStrings(gen, "accept", mediaUpload.getAccept());
+        writeString(gen, "maxSize", mediaUpload.getMaxSize());
+        if (mediaUpload.getSimple() != null) {
+            gen.writeFieldName("simple");
+            write(mediaUpload.getSimple(), gen);
+        }
+        if (mediaUpload.getResumable() != null) {
+            gen.writeFieldName("resumable");
+            write(mediaUpload.getResumable(), gen);
+        }
+        gen.writeEndObject();
+    }
+
+    public void write(Protocol protocol, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        writeBoolean(gen, "multipart", protocol.getMultipart());
+        writeString(gen, "path", protocol.getPath());
+        gen.writeEndObject();
+    }
+
+    public void write(Icons icons, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        writeString(gen, "x16", icons.getX16());
+        writeString(gen, "x32", icons.getX32());
+        gen.writeEndObject();
+    }
+
+    public void write(Auth auth, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        if (auth.getOauth2() != null) {
+            gen.writeFieldName("oauth2");
+            write(auth.getOauth2(), gen);
+        }
+        gen.writeEndObject();
+    }
+
+    public void write(OAuth2 oauth2, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        if (oauth2.getScopes() != null) {
+            gen.writeObjectFieldStart("scopes");
+            for (Map.Entry<String, Scope> entry : oauth2.getScopes().entrySet()) {
+                gen.writeFieldName(entry.getKey());
+                if (entry.getValue() != null) write(entry.getValue(), gen); else gen.writeNull();
+            }
+            gen.writeEndObject();
+        }
+        gen.writeEndObject();
+    }
+
+    public void write(Scope scope, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        writeString(gen, "description", scope.getDescription());
+        gen.writeEndObject();
+    }
+
+    public void write(Annotations annotations, JsonGenerator gen) throws IOException {
+        gen.writeStartObject();
+        String[] required = annotations.getRequired();
+        if (required != null) {
+            gen.writeArrayFieldStart("required");
+            for (String name : required) {
+                gen.writeString(name);
+            }
+            gen.writeEndArray();
+        }
+        gen.writeEndObject();
+    }
+
+    private void writeParameters(JsonGenerator gen, Map<String, Parameter> parameters) throws IOException {
+        if (parameters == null) return;
+        gen.writeObjectFieldStart("parameters");
+        for (Map.Entry<String, Parameter> entry : parameters.entrySet()) {
+            gen.writeFieldName(entry.getKey());
+            write(entry.getValue(), gen);
+        }
+        gen.writeEndObject();
+    }
+
+    private void writeMethods(JsonGenerator gen, Map<String, Method> methods) throws IOException {
+        if (methods == null) return;
+        gen.writeObjectFieldStart("methods");
+        for (Map.Entry<String, Method> entry : methods.entrySet()) {
+            gen.writeFieldName(entry.getKey());
+            write(entry.getValue(), gen);
+        }
+        gen.writeEndObject();
+    }
+
+    private void writeResources(JsonGenerator gen, Map<String, Resource> resources) throws IOException {
+        if (resources == null) return;
+        gen.writeObjectFieldStart("resources");
+        for (Map.Entry<String, Resource> entry : resources.entrySet()) {
+            gen.writeFieldName(entry.getKey());
+            write(entry.getValue(), gen);
+        }
+        gen.writeEndObject();
+    }
+
+    private static void writeString(JsonGenerator gen, String name, String value) throws IOException {
+        if (value != null) gen.writeStringField(name, value);
+    }
+
+    private static void writeBoolean(JsonGenerator gen, String name, Boolean value) throws IOException {
+        if (value != null) gen.writeBooleanField(name, value);
+    }
+
+    private static void writeStrings(JsonGenerator gen, String name, List<String> values) throws IOException {
+        if (values == null) return;
+        gen.writeArrayFieldStart(name);
+        for (String value : values) {
+            gen.writeString(value);
+        }
+        gen.writeEndArray();
+    }
+}
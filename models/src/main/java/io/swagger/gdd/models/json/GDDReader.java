@@ -0,0 +1,468 @@
+package io.swagger.gdd.models.json;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import io.swagger.gdd.models.*;
+import io.swagger.gdd.models.factory.GDDModelFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads GDD JSON, such as that written by {@link GDDJsonWriter}, back into GDD models.
+ *
+ * Reading a document only scans it once, recording the byte offset of each entry of {@code schemas} and
+ * {@code resources}. Those entries are parsed the first time they are looked up, so a document whose schemas and
+ * resources are mostly not used costs little more than its bytes. The rest of the document is read up front.
+ * {@code schemas} and {@code resources} of a document that was read are therefore read-only, but the models in them
+ * are not.
+ *
+ * Unknown fields are skipped.
+ */
+public class GDDReader {
+    private final GDDModelFactory modelFactory;
+    private final JsonFactory factory;
+
+    public GDDReader() {
+        this(new GDDModelFactory(), new JsonFactory());
+    }
+
+    /**
+     * @param modelFactory factory for creating GDD models
+     * @param factory the factory used to create parsers
+     */
+    public GDDReader(GDDModelFactory modelFactory, JsonFactory factory) {
+        this.modelFactory = modelFactory;
+        this.factory = factory;
+    }
+
+    public GoogleDiscoveryDocument read(File file) throws IOException {
+        return read(Files.readAllBytes(file.toPath()));
+    }
+
+    /**
+     * Read a document. The array is kept by the document to parse its schemas and resources from, so it must not be
+     * changed afterward.
+     * @param json GDD JSON
+     * @return the document, with its schemas and resources not parsed yet
+     */
+    public GoogleDiscoveryDocument read(final byte[] json) throws IOException {
+        JsonParser p = factory.createParser(json);
+        try {
+            expect(p, p.nextToken(), JsonToken.START_OBJECT);
+            GoogleDiscoveryDocument gdd = modelFactory.newGoogleDiscoveryDocument();
+            while (p.nextToken() == JsonToken.FIELD_NAME) {
+                String name = p.getCurrentName();
+                JsonToken token = p.nextToken();
+                switch (name) {
+                    case "kind": gdd.setKind(string(p)); break;
+                    case "discoveryVersion": gdd.setDiscoveryVersion(string(p)); break;
+                    case "id": gdd.setId(string(p)); break;
+                    case "name": gdd.setName(string(p)); break;
+                    case "version": gdd.setVersion(string(p)); break;
+                    case "revision": gdd.setRevision(string(p)); break;
+                    case "title": gdd.setTitle(string(p)); break;
+                    case "description": gdd.setDescription(string(p)); break;
+                    case "documentationLink": gdd.setDocumentationLink(string(p)); break;
+                    case "protocol": gdd.setProtocol(string(p)); break;
+                    case "rootUrl": gdd.setRootUrl(string(p)); break;
+                    case "servicePath": gdd.setServicePath(string(p)); break;
+                    case "batchPath": gdd.setBatchPath(string(p)); break;
+                    case "icons": gdd.setIcons(readIcons(p)); break;
+                    case "labels": gdd.setLabels(readLabels(p)); break;
+                    case "parameters": gdd.setParameters(readParameters(p)); break;
+                    case "auth": gdd.setAuth(readAuth(p)); break;
+                    case "features": gdd.setFeatures(strings(p)); break;
+                    case "methods": gdd.setMethods(readMethods(p)); break;
+                    case "schemas":
+                        if (token == JsonToken.VALUE_NULL) break;
+                        gdd.setSchemas(new LazyMap<AbstractSchema>(index(p), new LazyMap.ValueParser<AbstractSchema>() {
+                            @Override
+                            public AbstractSchema parse(int offset) {
+                                try {
+                                    JsonParser entry = parserAt(json, offset);
+                                    try {
+                                        return readSchema(entry);
+                                    } finally {
+                                        entry.close();
+                                    }
+                                } catch (IOException e) {
+                                    throw new IllegalStateException("could not parse the schema at byte " + offset, e);
+                                }
+                            }
+                        }));
+                        break;
+                    case "resources":
+                        if (token == JsonToken.VALUE_NULL) break;
+                        gdd.setResources(new LazyMap<Resource>(index(p), new LazyMap.ValueParser<Resource>() {
+                            @Override
+                            public Resource parse(int offset) {
+                                try {
+                                    JsonParser entry = parserAt(json, offset);
+                                    try {
+                                        return readResource(entry);
+                                    } finally {
+                                        entry.close();
+                                    }
+                                } catch (IOException e) {
+                                    throw new IllegalStateException("could not parse the resource at byte " + offset, e);
+                                }
+                            }
+                        }));
+                        break;
+                    default: p.skipChildren();
+                }
+            }
+            return gdd;
+        } finally {
+            p.close();
+        }
+    }
+
+    /**
+     * Record the byte offset at which the value of each entry of the current object starts, skipping over the values.
+     */
+    private Map<String, Integer> index(JsonParser p) throws IOException {
+        expect(p, p.getCurrentToken(), JsonToken.START_OBJECT);
+        Map<String, Integer> offsets = new LinkedHashMap<String, Integer>();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String key = p.getCurrentName();
+            JsonToken token = p.nextToken();
+            if (token == JsonToken.START_OBJECT) {
+                // the token location of a value after a field name points at the name, so use the position past the {
+                offsets.put(key, (int) p.getCurrentLocation().getByteOffset() - 1);
+                p.skipChildren();
+            } else {
+                expect(p, token, JsonToken.VALUE_NULL);
+                offsets.put(key, -1);
+            }
+        }
+        return offsets;
+    }
+
+    private JsonParser parserAt(byte[] json, int offset) throws IOException {
+        JsonParser p = factory.createParser(json, offset, json.length - offset);
+        p.nextToken();
+        return p;
+    }
+
+    public Resource readResource(JsonParser p) throws IOException {
+        if (p.getCurrentToken() == JsonToken.VALUE_NULL) return null;
+        expect(p, p.getCurrentToken(), JsonToken.START_OBJECT);
+        Resource resource = modelFactory.newResource();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.getCurrentName();
+            p.nextToken();
+            switch (name) {
+                case "methods": resource.setMethods(readMethods(p)); break;
+                case "resources":
+                    if (p.getCurrentToken() == JsonToken.VALUE_NULL) break;
+                    Map<String, Resource> resources = new LinkedHashMap<String, Resource>();
+                    while (p.nextToken() == JsonToken.FIELD_NAME) {
+                        String key = p.getCurrentName();
+                        p.nextToken();
+                        resources.put(key, readResource(p));
+                    }
+                    resource.setResources(resources);
+                    break;
+                default: p.skipChildren();
+            }
+        }
+        return resource;
+    }
+
+    @SuppressWarnings("deprecation")
+    public Method readMethod(JsonParser p) throws IOException {
+        if (p.getCurrentToken() == JsonToken.VALUE_NULL) return null;
+        expect(p, p.getCurrentToken(), JsonToken.START_OBJECT);
+        Method method = modelFactory.newMethod();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.getCurrentName();
+            p.nextToken();
+            switch (name) {
+                case "id": method.setId(string(p)); break;
+                case "description": method.setDescription(string(p)); break;
+                case "path": method.setPath(string(p)); break;
+                case "httpMethod": method.setHttpMethod(string(p)); break;
+                case "request": method.setRequest(readSchemaRef(p)); break;
+                case "response": method.setResponse(readSchemaRef(p)); break;
+                case "parameters": method.setParameters(readParameters(p)); break;
+                case "parameterOrder": method.setParameterOrder(strings(p)); break;
+                case "scopes": method.setScopes(strings(p)); break;
+                case "supportsMediaDownload": method.setSupportsMediaDownload(bool(p)); break;
+                case "supportsMediaUpload": method.setSupportsMediaUpload(bool(p)); break;
+                case "supportsSubscription": method.setSupportsSubscription(bool(p)); break;
+                case "mediaUpload": method.setMediaUpload(readMediaUpload(p)); break;
+                case "baseUrl": method.setBaseUrl(string(p)); break;
+                case "basePath": method.setBasePath(string(p)); break;
+                default: p.skipChildren();
+            }
+        }
+        return method;
+    }
+
+    public Schema readSchema(JsonParser p) throws IOException {
+        if (p.getCurrentToken() == JsonToken.VALUE_NULL) return null;
+        Schema schema = modelFactory.newSchema();
+        readSchemaFields(p, schema);
+        return schema;
+    }
+
+    public Parameter readParameter(JsonParser p) throws IOException {
+        if (p.getCurrentToken() == JsonToken.VALUE_NULL) return null;
+        Parameter parameter = modelFactory.newParameter();
+        readSchemaFields(p, parameter);
+        return parameter;
+    }
+
+    private void readSchemaFields(JsonParser p, AbstractSchema schema) throws IOException {
+        expect(p, p.getCurrentToken(), JsonToken.START_OBJECT);
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.getCurrentName();
+            p.nextToken();
+            switch (name) {
+                case "id": schema.setId(string(p)); break;
+                case "type": schema.setType(string(p)); break;
+                case "$ref": schema.set$ref(string(p)); break;
+                case "description": schema.setDescription(string(p)); break;
+                case "location": schema.setLocation(string(p)); break;
+                case "format": schema.setFormat(string(p)); break;
+                case "pattern": schema.setPattern(string(p)); break;
+                case "minimum": schema.setMinimum(string(p)); break;
+                case "maximum": schema.setMaximum(string(p)); break;
+                case "properties":
+                    if (p.getCurrentToken() == JsonToken.VALUE_NULL) break;
+                    Map<String, Schema> properties = new LinkedHashMap<String, Schema>();
+                    while (p.nextToken() == JsonToken.FIELD_NAME) {
+                        String key = p.getCurrentName();
+                        p.nextToken();
+                        properties.put(key, readSchema(p));
+                    }
+                    schema.setProperties(properties);
+                    break;
+                case "additionalProperties": schema.setAdditionalProperties(readSchema(p)); break;
+                case "items": schema.setItems(readSchema(p)); break;
+                case "annotations": schema.setAnnotations(readAnnotations(p)); break;
+                case "enum": schema.setEnum(strings(p)); break;
+                case "enumDescriptions": schema.setEnumDescriptions(strings(p)); break;
+                case "required": schema.setRequired(bool(p)); break;
+                case "repeated": schema.setRepeated(bool(p)); break;
+                case "default": schema.setDefault(string(p)); break;
+                default: p.skipChildren();
+            }
+        }
+    }
+
+    private SchemaRef readSchemaRef(JsonParser p) throws IOException {
+        if (p.getCurrentToken() == JsonToken.VALUE_NULL) return null;
+        expect(p, p.getCurrentToken(), JsonToken.START_OBJECT);
+        SchemaRef schemaRef = modelFactory.newSchemaRef(null);
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.getCurrentName();
+            p.nextToken();
+            if ("$ref".equals(name)) schemaRef.set$ref(string(p)); else p.skipChildren();
+        }
+        return schemaRef;
+    }
+
+    private MediaUpload readMediaUpload(JsonParser p) throws IOException {
+        if (p.getCurrentToken() == JsonToken.VALUE_NULL) return null;
+        expect(p, p.getCurrentToken(), JsonToken.START_OBJECT);
+        MediaUpload mediaUpload = modelFactory.newMediaUpload();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.getCurrentName();
+            p.nextToken();
+            switch (name) {
+                case "accept": mediaUpload.setAccept(strings(p)); break;
+                case "maxSize": mediaUpload.setMaxSize(string(p)); break;
+                case "simple": mediaUpload.setSimple(readProtocol(p)); break;
+                case "resumable": mediaUpload.setResumable(readProtocol(p)); break;
+                default: p.skipChildren();
+            }
+        }
+        return mediaUpload;
+    }
+
+    private Protocol readProtocol(JsonParser p) throws IOException {
+        if (p.getCurrentToken() == JsonToken.VALUE_NULL) return null;
+        expect(p, p.getCurrentToken(), JsonToken.START_OBJECT);
+        Protocol protocol = modelFactory.newProtocol();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.getCurrentName();
+            p.nextToken();
+            switch (name) {
+                case "multipart": protocol.setMultipart(bool(p)); break;
+                case "path": protocol.setPath(string(p)); break;
+                default: p.skipChildren();
+            }
+        }
+        return protocol;
+    }
+
+    private Icons readIcons(JsonParser p) throws IOException {
+        if (p.getCurrentToken() == JsonToken.VALUE_NULL) return null;
+        expect(p, p.getCurrentToken(), JsonToken.START_OBJECT);
+        Icons icons = modelFactory.newIcons();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.getCurrentName();
+            p.nextToken();
+            switch (name) {
+                case "x16": icons.setX16(string(p)); break;
+                case "x32": icons.setX32(string(p)); break;
+                default: p.skipChildren();
+            }
+        }
+        return icons;
+    }
+
+    private Auth readAuth(JsonParser p) throws IOException {
+        if (p.getCurrentToken() == JsonToken.VALUE_NULL) return null;
+        expect(p, p.getCurrentToken(), JsonToken.START_OBJECT);
+        Auth auth = modelFactory.newAuth();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.getCurrentName();
+            p.nextToken();
+            if ("oauth2".equals(name)) auth.setOauth2(readOAuth2(p)); else p.skipChildren();
+        }
+        return auth;
+    }
+
+    private OAuth2 readOAuth2(JsonParser p) throws IOException {
+        if (p.getCurrentToken() == JsonToken.VALUE_NULL) return null;
+        expect(p, p.getCurrentToken(), JsonToken.START_OBJECT);
+        OAuth2 oauth2 = modelFactory.newOAuth2();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.getCurrentName();
+            p.nextToken();
+            if ("scopes".equals(name) && p.getCurrentToken() != JsonToken.VALUE_NULL) {
+                Map<String, Scope> scopes = new LinkedHashMap<String, Scope>();
+                while (p.nextToken() == JsonToken.FIELD_NAME) {
+                    String key = p.getCurrentName();
+                    p.nextToken();
+                    scopes.put(key, readScope(p));
+                }
+                oauth2.setScopes(scopes);
+            } else {
+                p.skipChildren();
+            }
+        }
+        return oauth2;
+    }
+
+    private Scope readScope(JsonParser p) throws IOException {
+        if (p.getCurrentToken() == JsonToken.VALUE_NULL) return null;
+        expect(p, p.getCurrentToken(), JsonToken.START_OBJECT);
+        Scope scope = modelFactory.newScope();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.getCurrentName();
+            p.nextToken();
+            if ("description".equals(name)) scope.setDescription(string(p)); else p.skipChildren();
+        }
+        return scope;
+    }
+
+    private Annotations readAnnotations(JsonParser p) throws IOException {
+        if (p.getCurrentToken() == JsonToken.VALUE_NULL) return null;
+        expect(p, p.getCurrentToken(), JsonToken.START_OBJECT);
+        Annotations annotations = modelFactory.newAnnotations();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String name = p.getCurrentName();
+            p.nextToken();
+            if ("required".equals(name)) {
+                List<String> required = strings(p);
+                annotations.setRequired(required != null ? required.toArray(new String[required.size()]) : null);
+            } else {
+                p.skipChildren();
+            }
+        }
+        return annotations;
+    }
+
+    private Map<String, Method> readMethods(JsonParser p) throws IOException {
+        if (p.getCurrentToken() == JsonToken.VALUE_NULL) return null;
+        expect(p, p.getCurrentToken(), JsonToken.START_OBJECT);
+        Map<String, Method> methods = new LinkedHashMap<String, Method>();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String key = p.getCurrentName();
+            p.nextToken();
+            methods.put(key, readMethod(p));
+        }
+        return methods;
+    }
+
+    private Map<String, Parameter> readParameters(JsonParser p) throws IOException {
+        if (p.getCurrentToken() == JsonToken.VALUE_NULL) return null;
+        expect(p, p.getCurrentToken(), JsonToken.START_OBJECT);
+        Map<String, Parameter> parameters = new LinkedHashMap<String, Parameter>();
+        while (p.nextToken() == JsonToken.FIELD_NAME) {
+            String key = p.getCurrentName();
+            p.nextToken();
+            parameters.put(key, readParameter(p));
+        }
+        return parameters;
+    }
+
+    /**
+     * Labels are matched by name, as {@link GDDJsonWriter} writes them, or by their string form.
+     */
+    private List<GoogleDiscoveryDocument.Label> readLabels(JsonParser p) throws IOException {
+        List<String> names = strings(p);
+        if (names == null) return null;
+        List<GoogleDiscoveryDocument.Label> labels = new ArrayList<GoogleDiscoveryDocument.Label>();
+        for (String name : names) {
+            GoogleDiscoveryDocument.Label match = null;
+            for (GoogleDiscoveryDocument.Label label : GoogleDiscoveryDocument.Label.values()) {
+                if (label.name().equals(name) || label.toString().equals(name)) match = label;
+            }
+            if (match == null && name != null) {
+                throw new JsonParseException("unknown label: " + name, p.getCurrentLocation());
+            }
+            labels.add(match);
+        }
+        return labels;
+    }
+
+    private static String string(JsonParser p) throws IOException {
+        expectScalar(p);
+        return p.getCurrentToken() == JsonToken.VALUE_NULL ? null : p.getValueAsString();
+    }
+
+    private static Boolean bool(JsonParser p) throws IOException {
+        expectScalar(p);
+        return p.getCurrentToken() == JsonToken.VALUE_NULL ? null : p.getValueAsBoolean();
+    }
+
+    private static List<String> strings(JsonParser p) throws IOException {
+        if (p.getCurrentToken() == JsonToken.VALUE_NULL) return null;
+        expect(p, p.getCurrentToken(), JsonToken.START_ARRAY);
+        List<String> values = new ArrayList<String>();
+        while (p.nextToken() != JsonToken.END_ARRAY) {
+            values.add(string(p));
+        }
+        return values;
+    }
+
+    /**
+     * An object or an array where a string or a boolean should be would otherwise be left unread, and its fields read
+     * as those of the model around it.
+     */
+    private static void expectScalar(JsonParser p) throws JsonParseException {
+        JsonToken actual = p.getCurrentToken();
+        if (actual == null || !actual.isScalarValue()) {
+            throw new JsonParseException("expected a scalar value but found " + actual, p.getCurrentLocation());
+        }
+    }
+
+    private static void expect(JsonParser p, JsonToken actual, JsonToken expected) throws JsonParseException {
+        if (actual != expected) {
+            throw new JsonParseException("expected " + expected + " but found " + actual, p.getCurrentLocation());
+        }
+    }
+}
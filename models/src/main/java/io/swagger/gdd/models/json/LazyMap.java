@@ -0,0 +1,129 @@
+package io.swagger.gdd.models.json;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A read-only map whose values are parsed from a serialized document, such as GDD JSON or a
+ * {@link io.swagger.gdd.models.snapshot.GDDSnapshotReader snapshot}, the first time they are looked up. It holds only
+ * the keys and the byte offset at which each value starts until then. Thread safe: if two threads parse the same value
+ * at once, both get the one that was stored first.
+ */
+public final class LazyMap<V> extends AbstractMap<String, V> {
+
+    /**
+     * Parses the value that starts at an offset.
+     */
+    public interface ValueParser<V> {
+        V parse(int offset);
+    }
+
+    private final Map<String, Integer> positions = new LinkedHashMap<String, Integer>();
+    private final String[] keys;
+    private final int[] offsets;
+    private final AtomicReferenceArray<Object> values;
+    private final ValueParser<V> parser;
+
+    /**
+     * @param offsets the byte offset at which the value of each key starts, or -1 for a {@code null} value, in order
+     * @param parser parses a value given its offset
+     */
+    public LazyMap(Map<String, Integer> offsets, ValueParser<V> parser) {
+        this.keys = new String[offsets.size()];
+        this.offsets = new int[offsets.size()];
+        int i = 0;
+        for (Map.Entry<String, Integer> entry : offsets.entrySet()) {
+            keys[i] = entry.getKey();
+            this.offsets[i] = entry.getValue();
+            positions.put(entry.getKey(), i);
+            i++;
+        }
+        this.values = new AtomicReferenceArray<Object>(keys.length);
+        this.parser = parser;
+    }
+
+    /**
+     * @return how many of the values have been parsed so far
+     */
+    int parsed() {
+        int count = 0;
+        for (int i = 0; i < keys.length; i++) {
+            if (values.get(i) != null) count++;
+        }
+        return count;
+    }
+
+    @SuppressWarnings("unchecked")
+    private V valueAt(int i) {
+        if (offsets[i] < 0) return null;
+        Object value = values.get(i);
+        if (value == null) {
+            values.compareAndSet(i, null, parser.parse(offsets[i]));
+            value = values.get(i);
+        }
+        return (V) value;
+    }
+
+    @Override
+    public int size() {
+        return keys.length;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return positions.containsKey(key);
+    }
+
+    @Override
+    public V get(Object key) {
+        Integer i = positions.get(key);
+        return i != null ? valueAt(i) : null;
+    }
+
+    @Override
+    public Set<String> keySet() {
+        return Collections.unmodifiableSet(positions.keySet());
+    }
+
+    @Override
+    public Set<Map.Entry<String, V>> entrySet() {
+        return new AbstractSet<Map.Entry<String, V>>() {
+            @Override
+            public Iterator<Map.Entry<String, V>> iterator() {
+                return new Iterator<Map.Entry<String, V>>() {
+                    private int next = 0;
+
+                    @Override
+                    public boolean hasNext() {
+                        return next < keys.length;
+                    }
+
+                    @Override
+                    public Map.Entry<String, V> next() {
+                        if (next >= keys.length) throw new NoSuchElementException();
+                        Map.Entry<String, V> entry = new SimpleImmutableEntry<String, V>(keys[next], valueAt(next));
+                        next++;
+                        return entry;
+                    }
+
+                    @Override
+                    public void remove() {
+                        throw new UnsupportedOperationException();
+                    }
+                };
+            }
+
+            @Override
+            public int size() {
+                return keys.length;
+            }
+        };
+    }
+}
@@ -0,0 +1,315 @@
+package io.swagger.gdd.models.routing;
+
+import io.swagger.gdd.models.GoogleDiscoveryDocument;
+import io.swagger.gdd.models.Method;
+import io.swagger.gdd.models.Resource;
+import io.swagger.gdd.models.validation.GDDValidator;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Finds the {@link Method} of a {@link GoogleDiscoveryDocument} that a request is for, from its HTTP method and path.
+ *
+ * Every {@code Method} in the document's {@code methods}, and in those of its {@code Resource}s all the way down, is
+ * compiled into a trie with a node for each segment of its {@code path}. A segment of a path template is one of:
+ *
+ * <ul>
+ *   <li>a literal, such as {@code pets}</li>
+ *   <li>a literal around one variable, such as {@code {petId}.json}</li>
+ *   <li>a variable, such as {@code {petId}}, which matches any one segment</li>
+ *   <li>a reserved expansion as the last segment, such as {@code {+name}}, which matches the rest of the path, slashes
+ *   and all; anywhere else, it matches one segment</li>
+ * </ul>
+ *
+ * Variables are named as {@link GDDValidator#variables} names them, without their operators and modifiers, so
+ * {@code {/name}}, {@code {.name}} and {@code {name*}} are all {@code name}. As they expand, {@code {/name}} starts a
+ * segment of its own and {@code {.name}} matches a variable after a literal {@code .}. A segment with more than one
+ * variable, such as {@code {name}.{format}}, is refused, since there is no telling where one would end and the next
+ * begin.
+ *
+ * A request path is matched one segment at a time, trying the kinds of segment in that order, so a literal wins over a
+ * variable. Only if nothing matches the rest of the path down one branch is the next one tried, and it allocates
+ * nothing. A lookup usually takes time proportional to the depth of the path, however many {@code Method}s there are.
+ * When sibling literals and variables both match segments but lead nowhere, it takes longer, but never more than the
+ * size of the trie: each node is at the depth of one segment of the path, so it is tried at most once.
+ * Empty segments, and the query string, are ignored, as are the query expressions of templates, such as
+ * {@code {?alt}}. If two {@code Method}s have the same HTTP method and the same template, the first one found wins.
+ *
+ * A router is a snapshot of the document, and is safe to share between threads once built.
+ */
+public final class MethodRouter {
+    private final Node root;
+    private final int size;
+
+    private MethodRouter(Node root, int size) {
+        this.root = root;
+        this.size = size;
+    }
+
+    /**
+     * @param gdd the document to route to
+     * @return a router for every {@code Method} of the document which has a {@code path} and an {@code httpMethod}
+     * @throws IllegalArgumentException if the {@code path} of a {@code Method} has more than one variable in a segment
+     */
+    public static MethodRouter of(GoogleDiscoveryDocument gdd) {
+        Builder builder = new Builder();
+        builder.addAll(gdd.getMethods());
+        if (gdd.getResources() != null) {
+            for (Resource resource : gdd.getResources().values()) {
+                builder.addAll(resource);
+            }
+        }
+        return new MethodRouter(builder.root.compile(), builder.size);
+    }
+
+    /**
+     * @return how many {@code Method}s can be routed to
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param httpMethod the HTTP method of the request, such as {@code GET}; it is matched exactly
+     * @param path the path of the request, relative to the document's {@code servicePath}, with or without its query
+     *             string
+     * @param variables set to the variables of the matched path; cleared if nothing matches
+     * @return the {@code Method} the request is for, or {@code null} if there is none
+     */
+    public Method route(String httpMethod, String path, PathVariables variables) {
+        int end = path.indexOf('?');
+        if (end < 0) end = path.length();
+        variables.reset(path);
+        Route route = match(root, httpMethod, path, 0, end, variables);
+        if (route == null) {
+            variables.clear();
+            return null;
+        }
+        variables.bind(route.names);
+        return route.method;
+    }
+
+    private static Route match(Node node, String httpMethod, String path, int start, int end,
+                               PathVariables variables) {
+        while (start < end && path.charAt(start) == '/') start++;
+        if (start == end) return node.route(httpMethod);
+        int segmentEnd = path.indexOf('/', start);
+        if (segmentEnd < 0 || segmentEnd > end) segmentEnd = end;
+
+        Node literal = node.literal(path, start, segmentEnd);
+        if (literal != null) {
+            Route route = match(literal, httpMethod, path, segmentEnd, end, variables);
+            if (route != null) return route;
+        }
+        for (Affixed affixed : node.affixed) {
+            if (affixed.matches(path, start, segmentEnd)) {
+                variables.push(start + affixed.prefix.length(), segmentEnd - affixed.suffix.length());
+                Route route = match(affixed.node, httpMethod, path, segmentEnd, end, variables);
+                if (route != null) return route;
+                variables.pop();
+            }
+        }
+        if (node.variable != null) {
+            variables.push(start, segmentEnd);
+            Route route = match(node.variable, httpMethod, path, segmentEnd, end, variables);
+            if (route != null) return route;
+            variables.pop();
+        }
+        if (node.rest != null) {
+            Route route = node.rest.route(httpMethod);
+            if (route != null) {
+                int restEnd = end;
+                while (restEnd > start && path.charAt(restEnd - 1) == '/') restEnd--;
+                variables.push(start, restEnd);
+                return route;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * A {@code Method}, with the names of the variables of its path in order.
+     */
+    private static final class Route {
+        final String httpMethod;
+        final Method method;
+        final String[] names;
+
+        Route(String httpMethod, Method method, String[] names) {
+            this.httpMethod = httpMethod;
+            this.method = method;
+            this.names = names;
+        }
+    }
+
+    /**
+     * A segment with a literal prefix and suffix around a variable.
+     */
+    private static final class Affixed {
+        final String prefix;
+        final String suffix;
+        final Node node;
+
+        Affixed(String prefix, String suffix, Node node) {
+            this.prefix = prefix;
+            this.suffix = suffix;
+            this.node = node;
+        }
+
+        boolean matches(String path, int start, int end) {
+            return end - start > prefix.length() + suffix.length()
+                    && path.regionMatches(start, prefix, 0, prefix.length())
+                    && path.regionMatches(end - suffix.length(), suffix, 0, suffix.length());
+        }
+    }
+
+    /**
+     * A node of the trie. Literal children are kept in a {@link RegionTable}, so that a segment of the request path can
+     * be looked up where it is, without cutting it out.
+     */
+    private static final class Node {
+        private static final Affixed[] NO_AFFIXED = new Affixed[0];
+        private static final Route[] NO_ROUTES = new Route[0];
+
+        // while building
+        Map<String, Node> literals = new LinkedHashMap<String, Node>();
+        Map<String, Affixed> affixedByTemplate = new LinkedHashMap<String, Affixed>();
+        List<Route> routeList = new ArrayList<Route>();
+
+        // once compiled
+        RegionTable<Node> children;
+        Affixed[] affixed = NO_AFFIXED;
+        Route[] routes = NO_ROUTES;
+        Node variable;
+        Node rest;
+
+        Node compile() {
+            for (Node child : literals.values()) {
+                child.compile();
+            }
+            children = new RegionTable<Node>(literals);
+            affixed = affixedByTemplate.values().toArray(NO_AFFIXED);
+            for (Affixed a : affixed) {
+                a.node.compile();
+            }
+            routes = routeList.toArray(NO_ROUTES);
+            if (variable != null) variable.compile();
+            if (rest != null) rest.compile();
+            literals = null;
+            affixedByTemplate = null;
+            routeList = null;
+            return this;
+        }
+
+        Node literal(String path, int start, int end) {
+            return children.get(path, start, end);
+        }
+
+        Route route(String httpMethod) {
+            for (Route route : routes) {
+                if (route.httpMethod.equals(httpMethod)) return route;
+            }
+            return null;
+        }
+    }
+
+    private static final class Builder {
+        final Node root = new Node();
+        int size;
+
+        void addAll(Resource resource) {
+            if (resource == null) return;
+            addAll(resource.getMethods());
+            if (resource.getResources() != null) {
+                for (Resource nested : resource.getResources().values()) {
+                    addAll(nested);
+                }
+            }
+        }
+
+        void addAll(Map<String, Method> methods) {
+            if (methods == null) return;
+            for (Method method : methods.values()) {
+                if (method != null && method.getPath() != null && method.getHttpMethod() != null) add(method);
+            }
+        }
+
+        private void add(Method method) {
+            List<String> names = new ArrayList<String>();
+            List<String> segments = segments(method.getPath());
+            Node node = root;
+            for (int i = 0; i < segments.size(); i++) {
+                String segment = segments.get(i);
+                List<String> variables = GDDValidator.variables(segment);
+                int open = segment.indexOf('{');
+                int close = segment.indexOf('}', open + 1);
+                if (variables.isEmpty()) {
+                    Node child = node.literals.get(segment);
+                    if (child == null) {
+                        child = new Node();
+                        node.literals.put(segment, child);
+                    }
+                    node = child;
+                    continue;
+                }
+                if (variables.size() > 1 || segment.indexOf('{', close) >= 0) {
+                    throw new IllegalArgumentException("the path of method " + method.getId()
+                            + " has more than one variable in the segment " + segment);
+                }
+                boolean reserved = segment.charAt(open + 1) == '+';
+                names.add(variables.get(0));
+                if (open > 0 || close < segment.length() - 1) {
+                    String template = segment.substring(0, open) + "{}" + segment.substring(close + 1);
+                    Affixed affixed = node.affixedByTemplate.get(template);
+                    if (affixed == null) {
+                        affixed = new Affixed(segment.substring(0, open), segment.substring(close + 1), new Node());
+                        node.affixedByTemplate.put(template, affixed);
+                    }
+                    node = affixed.node;
+                } else if (reserved && i == segments.size() - 1) {
+                    if (node.rest == null) node.rest = new Node();
+                    node = node.rest;
+                } else {
+                    if (node.variable == null) node.variable = new Node();
+                    node = node.variable;
+                }
+            }
+            for (Route route : node.routeList) {
+                if (route.httpMethod.equals(method.getHttpMethod())) return;
+            }
+            node.routeList.add(new Route(method.getHttpMethod(), method, names.toArray(new String[names.size()])));
+            size++;
+        }
+
+        /**
+         * @return the non-empty segments of a path template, without its query expressions, and with the {@code /} and
+         *         {@code .} operators moved out in front of their expressions
+         */
+        private static List<String> segments(String path) {
+            StringBuilder stripped = new StringBuilder(path.length());
+            int i = 0;
+            while (i < path.length()) {
+                char c = path.charAt(i);
+                if (c == '{' && i + 1 < path.length() && (path.charAt(i + 1) == '?' || path.charAt(i + 1) == '&')) {
+                    int close = path.indexOf('}', i);
+                    i = close < 0 ? path.length() : close + 1;
+                } else if (c == '{' && i + 1 < path.length()
+                        && (path.charAt(i + 1) == '/' || path.charAt(i + 1) == '.')) {
+                    stripped.append(path.charAt(i + 1)).append(c);
+                    i += 2;
+                } else {
+                    stripped.append(c);
+                    i++;
+                }
+            }
+            List<String> segments = new ArrayList<String>();
+            for (String segment : stripped.toString().split("/")) {
+                if (!segment.isEmpty()) segments.add(segment);
+            }
+            return segments;
+        }
+    }
+}
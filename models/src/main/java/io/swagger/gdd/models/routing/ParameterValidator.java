@@ -0,0 +1,442 @@
+package io.swagger.gdd.models.routing;
+
+import io.swagger.gdd.models.GoogleDiscoveryDocument;
+import io.swagger.gdd.models.Method;
+import io.swagger.gdd.models.Parameter;
+import io.swagger.gdd.models.Resource;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Checks the parameters of a request for one {@link Method} against their definitions, which are compiled once, up
+ * front: {@code pattern}s into {@link Pattern}s, {@code enum}s into hash tables, and {@code minimum}s and
+ * {@code maximum}s into numbers, as the {@code type} and {@code format} of each parameter call for.
+ *
+ * The parameters are those of the {@code Method}, and those of the document, which apply to every {@code Method}
+ * unless it has one of the same name. Those in the {@code Method}'s {@code parameterOrder} are required, as are those
+ * marked {@code required}, and are checked first, in that order. A parameter whose {@code location} is {@code path} is
+ * looked up in the {@link PathVariables} a {@link MethodRouter} matched, and any other in the query. Parameters that
+ * are not defined are let through.
+ *
+ * A value is checked against its type first, as one of:
+ *
+ * <ul>
+ *   <li>a 32-bit integer, signed or not, for a format of {@code int32} or {@code uint32}, or a type of
+ *   {@code integer}</li>
+ *   <li>a 64-bit integer, signed or not, for a format of {@code int64} or {@code uint64}</li>
+ *   <li>a decimal number, for a format of {@code double} or {@code float}, or a type of {@code number}</li>
+ *   <li>{@code true} or {@code false}, for a type of {@code boolean}</li>
+ *   <li>any string, otherwise</li>
+ * </ul>
+ *
+ * and then against its bounds, its {@code enum} and its {@code pattern}. As in JSON Schema, a pattern is not anchored,
+ * so it only has to be found somewhere in the value, unless it starts with {@code ^} and ends with {@code $}. Values of
+ * the query are checked as they are given, so they should already be percent-decoded. Path variables are decoded
+ * first, if they have anything to decode, and are otherwise checked where they are in the path. Integers are checked
+ * where they are too, so a request that is valid is checked without allocating anything, apart from cutting out a path
+ * variable which is a decimal number or which is percent-encoded. An {@code enum} value of {@code null} is ignored,
+ * since no value can be one.
+ *
+ * A validator is immutable, and safe to share between threads.
+ */
+public final class ParameterValidator {
+    private static final String PATH = "path";
+    private static final Check[] NO_CHECKS = new Check[0];
+
+    private final Check[] checks;
+
+    private ParameterValidator(Check[] checks) {
+        this.checks = checks;
+    }
+
+    /**
+     * @param gdd the document the method is in
+     * @param method the method to check the requests of
+     * @return a validator for the method's parameters, and the document's
+     * @throws IllegalArgumentException if a parameter's {@code pattern}, {@code minimum} or {@code maximum} can't be
+     *                                  compiled
+     */
+    public static ParameterValidator compile(GoogleDiscoveryDocument gdd, Method method) {
+        Map<String, Parameter> parameters = new LinkedHashMap<String, Parameter>();
+        if (gdd.getParameters() != null) parameters.putAll(gdd.getParameters());
+        if (method.getParameters() != null) parameters.putAll(method.getParameters());
+
+        List<Check> checks = new ArrayList<Check>(parameters.size());
+        if (method.getParameterOrder() != null) {
+            for (String name : method.getParameterOrder()) {
+                Parameter parameter = parameters.remove(name);
+                if (parameter != null) checks.add(new Check(name, parameter, true));
+            }
+        }
+        for (Map.Entry<String, Parameter> entry : parameters.entrySet()) {
+            Parameter parameter = entry.getValue();
+            if (parameter != null) {
+                checks.add(new Check(entry.getKey(), parameter, Boolean.TRUE.equals(parameter.getRequired())));
+            }
+        }
+        return new ParameterValidator(checks.toArray(NO_CHECKS));
+    }
+
+    /**
+     * Compile a validator for every {@code Method} of a document, and of its {@code Resource}s all the way down.
+     * @param gdd the document
+     * @return the validator of each {@code Method}, by identity, to look up the {@code Method} a
+     *         {@link MethodRouter} routed to
+     */
+    public static Map<Method, ParameterValidator> compileAll(GoogleDiscoveryDocument gdd) {
+        Map<Method, ParameterValidator> validators = new IdentityHashMap<Method, ParameterValidator>();
+        compileAll(gdd, gdd.getMethods(), validators);
+        if (gdd.getResources() != null) {
+            for (Resource resource : gdd.getResources().values()) {
+                compileAll(gdd, resource, validators);
+            }
+        }
+        return validators;
+    }
+
+    private static void compileAll(GoogleDiscoveryDocument gdd, Resource resource,
+                                   Map<Method, ParameterValidator> validators) {
+        if (resource == null) return;
+        compileAll(gdd, resource.getMethods(), validators);
+        if (resource.getResources() != null) {
+            for (Resource nested : resource.getResources().values()) {
+                compileAll(gdd, nested, validators);
+            }
+        }
+    }
+
+    private static void compileAll(GoogleDiscoveryDocument gdd, Map<String, Method> methods,
+                                   Map<Method, ParameterValidator> validators) {
+        if (methods == null) return;
+        for (Method method : methods.values()) {
+            if (method != null && !validators.containsKey(method)) validators.put(method, compile(gdd, method));
+        }
+    }
+
+    /**
+     * @param path the variables of the request's path
+     * @param query the values of each of the request's query parameters, by name
+     * @return what is wrong with the request's parameters, in the order they are checked; empty if nothing is
+     */
+    public List<Violation> validate(PathVariables path, Map<String, ? extends List<String>> query) {
+        List<Violation> violations = null;
+        for (Check check : checks) {
+            Violation violation = null;
+            if (check.path) {
+                int i = path.indexOf(check.name);
+                if (i >= 0) {
+                    violation = check.pathValue(path.path(), path.start(i), path.end(i));
+                } else if (check.required) {
+                    violation = new Violation(check.name, null, "is required");
+                }
+            } else {
+                List<String> values = query.get(check.name);
+                int count = values != null ? values.size() : 0;
+                if (count == 0) {
+                    if (check.required) violation = new Violation(check.name, null, "is required");
+                } else if (count > 1 && !check.repeated) {
+                    violation = new Violation(check.name, null, "must not be repeated");
+                } else {
+                    for (int i = 0; i < count && violation == null; i++) {
+                        String value = values.get(i);
+                        violation = check.value(value, 0, value.length());
+                    }
+                }
+            }
+            if (violation != null) {
+                if (violations == null) violations = new ArrayList<Violation>();
+                violations.add(violation);
+            }
+        }
+        return violations != null ? violations : Collections.<Violation>emptyList();
+    }
+
+    /**
+     * Something wrong with one parameter of a request.
+     */
+    public static final class Violation {
+        private final String parameter;
+        private final String value;
+        private final String message;
+
+        Violation(String parameter, String value, String message) {
+            this.parameter = parameter;
+            this.value = value;
+            this.message = message;
+        }
+
+        public String getParameter() {
+            return parameter;
+        }
+
+        /**
+         * @return the value that is wrong, or {@code null} if the parameter is missing or repeated
+         */
+        public String getValue() {
+            return value;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return parameter + (value != null ? " " + value : "") + ": " + message;
+        }
+    }
+
+    private enum Kind {
+        STRING, BOOLEAN, INT32, UINT32, INT64, UINT64, NUMBER
+    }
+
+    /**
+     * The compiled definition of one parameter.
+     */
+    private static final class Check {
+        final String name;
+        final boolean path;
+        final boolean required;
+        final boolean repeated;
+        private final Kind kind;
+        private final String minimum;
+        private final String maximum;
+        private final long longMinimum;
+        private final long longMaximum;
+        private final double doubleMinimum;
+        private final double doubleMaximum;
+        private final RegionTable<Boolean> values;
+        private final ThreadLocal<Matcher> matcher;
+
+        Check(String name, Parameter parameter, boolean required) {
+            this.name = name;
+            this.path = PATH.equals(parameter.getLocation());
+            this.required = required;
+            this.repeated = Boolean.TRUE.equals(parameter.getRepeated());
+            this.kind = kind(parameter);
+            this.minimum = parameter.getMinimum();
+            this.maximum = parameter.getMaximum();
+            try {
+                BigDecimal min = minimum != null ? new BigDecimal(minimum) : null;
+                BigDecimal max = maximum != null ? new BigDecimal(maximum) : null;
+                longMinimum = min != null ? clamp(min.setScale(0, RoundingMode.CEILING)) : Long.MIN_VALUE;
+                longMaximum = max != null ? clamp(max.setScale(0, RoundingMode.FLOOR)) : Long.MAX_VALUE;
+                doubleMinimum = min != null ? min.doubleValue() : Double.NEGATIVE_INFINITY;
+                doubleMaximum = max != null ? max.doubleValue() : Double.POSITIVE_INFINITY;
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("parameter " + name + " has a bound which is not a number", e);
+            }
+            if (parameter.getEnum() != null) {
+                Map<String, Boolean> allowed = new LinkedHashMap<String, Boolean>();
+                for (String value : parameter.getEnum()) {
+                    if (value != null) allowed.put(value, Boolean.TRUE);
+                }
+                values = new RegionTable<Boolean>(allowed);
+            } else {
+                values = null;
+            }
+            if (parameter.getPattern() != null) {
+                final Pattern pattern;
+                try {
+                    pattern = Pattern.compile(parameter.getPattern());
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("parameter " + name + " has an invalid pattern", e);
+                }
+                matcher = new ThreadLocal<Matcher>() {
+                    @Override
+                    protected Matcher initialValue() {
+                        return pattern.matcher("");
+                    }
+                };
+            } else {
+                matcher = null;
+            }
+        }
+
+        /**
+         * @return what is wrong with the region of {@code s}, once it is percent-decoded, or {@code null} if nothing is
+         */
+        Violation pathValue(String s, int start, int end) {
+            int percent = s.indexOf('%', start);
+            if (percent < 0 || percent >= end) return value(s, start, end);
+            String decoded = decode(s, start, end);
+            if (decoded == null) return new Violation(name, s.substring(start, end), "is not percent-encoded properly");
+            return value(decoded, 0, decoded.length());
+        }
+
+        /**
+         * @return what is wrong with the value in the region of {@code s}, or {@code null} if nothing is
+         */
+        Violation value(String s, int start, int end) {
+            String problem;
+            switch (kind) {
+                case BOOLEAN:
+                    problem = s.regionMatches(start, "true", 0, end - start) && end - start == 4
+                            || s.regionMatches(start, "false", 0, end - start) && end - start == 5
+                            ? null : "is not a boolean";
+                    break;
+                case INT32:
+                case UINT32:
+                case INT64:
+                case UINT64:
+                    problem = integer(s, start, end);
+                    break;
+                case NUMBER:
+                    problem = number(s, start, end);
+                    break;
+                default:
+                    problem = null;
+            }
+            if (problem == null && values != null && values.get(s, start, end) == null) {
+                problem = "is not one of the allowed values";
+            }
+            if (problem == null && matcher != null) {
+                Matcher m = matcher.get();
+                boolean found = m.reset(s).region(start, end).find();
+                // so that the thread's matcher doesn't hold on to the request
+                m.reset("");
+                if (!found) problem = "does not match the pattern";
+            }
+            return problem != null ? new Violation(name, s.substring(start, end), problem) : null;
+        }
+
+        private String integer(String s, int start, int end) {
+            int i = start;
+            boolean negative = false;
+            if (i < end && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+                negative = s.charAt(i) == '-';
+                i++;
+            }
+            if (i == end) return "is not an integer";
+            int digits = i;
+            // accumulate negatively, as Long.parseLong does, so that Long.MIN_VALUE fits
+            long limit = negative ? Long.MIN_VALUE : -Long.MAX_VALUE;
+            long result = 0;
+            boolean overflow = false;
+            for (; i < end; i++) {
+                char c = s.charAt(i);
+                if (c < '0' || c > '9') return "is not an integer";
+                int digit = c - '0';
+                if (overflow || result < limit / 10 || result * 10 < limit + digit) {
+                    overflow = true;
+                } else {
+                    result = result * 10 - digit;
+                }
+            }
+            long value = negative ? result : -result;
+            switch (kind) {
+                case INT32:
+                    if (overflow || value < Integer.MIN_VALUE || value > Integer.MAX_VALUE) return "is not an int32";
+                    break;
+                case UINT32:
+                    if (overflow || value < 0 || value > 0xFFFFFFFFL) return "is not a uint32";
+                    break;
+                case INT64:
+                    if (overflow) return "is not an int64";
+                    break;
+                default:
+                    if (value < 0 || overflow && (negative || !fitsUnsigned64(s, digits, end))) {
+                        return "is not a uint64";
+                    }
+                    // more than any long, so more than any bound but one which is too
+                    if (overflow) return longMaximum < Long.MAX_VALUE ? "is more than " + maximum : null;
+            }
+            if (value < longMinimum) return "is less than " + minimum;
+            if (value > longMaximum) return "is more than " + maximum;
+            return null;
+        }
+
+        private String number(String s, int start, int end) {
+            if (start == end) return "is not a number";
+            // Double.parseDouble also takes NaN, Infinity, hex and suffixes, which are not numbers in JSON
+            for (int i = start; i < end; i++) {
+                char c = s.charAt(i);
+                if ((c < '0' || c > '9') && c != '.' && c != '-' && c != '+' && c != 'e' && c != 'E') {
+                    return "is not a number";
+                }
+            }
+            double value;
+            try {
+                value = Double.parseDouble(start == 0 && end == s.length() ? s : s.substring(start, end));
+            } catch (NumberFormatException e) {
+                return "is not a number";
+            }
+            if (value < doubleMinimum) return "is less than " + minimum;
+            if (value > doubleMaximum) return "is more than " + maximum;
+            return null;
+        }
+
+        /**
+         * @return the region of {@code s} with its percent-encoded octets decoded as UTF-8, or {@code null} if a
+         *         {@code %} is not followed by two hex digits
+         */
+        private static String decode(String s, int start, int end) {
+            StringBuilder decoded = new StringBuilder(end - start);
+            byte[] octets = null;
+            int i = start;
+            while (i < end) {
+                char c = s.charAt(i);
+                if (c != '%') {
+                    decoded.append(c);
+                    i++;
+                    continue;
+                }
+                if (octets == null) octets = new byte[(end - i) / 3];
+                int count = 0;
+                while (i < end && s.charAt(i) == '%') {
+                    int high = i + 2 < end ? Character.digit(s.charAt(i + 1), 16) : -1;
+                    int low = i + 2 < end ? Character.digit(s.charAt(i + 2), 16) : -1;
+                    if (high < 0 || low < 0) return null;
+                    octets[count++] = (byte) (high << 4 | low);
+                    i += 3;
+                }
+                decoded.append(new String(octets, 0, count, StandardCharsets.UTF_8));
+            }
+            return decoded.toString();
+        }
+
+        /**
+         * @return whether the digits are at most 2<sup>64</sup> - 1
+         */
+        private static boolean fitsUnsigned64(String s, int start, int end) {
+            while (start < end - 1 && s.charAt(start) == '0') start++;
+            String max = "18446744073709551615";
+            if (end - start != max.length()) return end - start < max.length();
+            for (int i = 0; i < max.length(); i++) {
+                char c = s.charAt(start + i);
+                if (c != max.charAt(i)) return c < max.charAt(i);
+            }
+            return true;
+        }
+
+        private static long clamp(BigDecimal bound) {
+            if (bound.compareTo(BigDecimal.valueOf(Long.MAX_VALUE)) >= 0) return Long.MAX_VALUE;
+            if (bound.compareTo(BigDecimal.valueOf(Long.MIN_VALUE)) <= 0) return Long.MIN_VALUE;
+            return bound.longValue();
+        }
+
+        private static Kind kind(Parameter parameter) {
+            String format = parameter.getFormat();
+            if ("int32".equals(format)) return Kind.INT32;
+            if ("uint32".equals(format)) return Kind.UINT32;
+            if ("int64".equals(format)) return Kind.INT64;
+            if ("uint64".equals(format)) return Kind.UINT64;
+            if ("double".equals(format) || "float".equals(format)) return Kind.NUMBER;
+            String type = parameter.getType();
+            if ("integer".equals(type)) return Kind.INT32;
+            if ("number".equals(type)) return Kind.NUMBER;
+            if ("boolean".equals(type)) return Kind.BOOLEAN;
+            return Kind.STRING;
+        }
+    }
+}
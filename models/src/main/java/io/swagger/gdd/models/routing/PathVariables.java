@@ -0,0 +1,118 @@
+package io.swagger.gdd.models.routing;
+
+import java.util.Arrays;
+
+/**
+ * The variables of the path a {@link MethodRouter} matched, to be reused from one lookup to the next.
+ *
+ * Each variable is kept as the bounds of its value in the path, so a lookup allocates nothing unless the variables
+ * need more room than any lookup before it. A value is only cut out of the path when it is asked for. Values are as
+ * they appear in the path, still percent-encoded.
+ *
+ * Not thread safe; use one for each thread, or each request.
+ */
+public final class PathVariables {
+    private String path;
+    private String[] names;
+    private int[] bounds = new int[16];
+    private int size;
+
+    /**
+     * @return how many variables the path had
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * @param i which variable, in the order they are in the path
+     * @return its name, as it is in the {@code Method}'s path
+     */
+    public String name(int i) {
+        check(i);
+        return names[i];
+    }
+
+    /**
+     * @param i which variable, in the order they are in the path
+     * @return its value
+     */
+    public String value(int i) {
+        check(i);
+        return path.substring(bounds[2 * i], bounds[2 * i + 1]);
+    }
+
+    /**
+     * @param name the name of a variable
+     * @return its value, or {@code null} if the path had no such variable
+     */
+    public String get(String name) {
+        int i = indexOf(name);
+        return i >= 0 ? value(i) : null;
+    }
+
+    /**
+     * @param name the name of a variable
+     * @return which variable it is, or -1 if the path had no such variable
+     */
+    int indexOf(String name) {
+        for (int i = 0; i < size; i++) {
+            if (names[i].equals(name)) return i;
+        }
+        return -1;
+    }
+
+    String path() {
+        return path;
+    }
+
+    int start(int i) {
+        return bounds[2 * i];
+    }
+
+    int end(int i) {
+        return bounds[2 * i + 1];
+    }
+
+    void reset(String path) {
+        this.path = path;
+        this.names = null;
+        this.size = 0;
+    }
+
+    void push(int start, int end) {
+        if (2 * size == bounds.length) bounds = Arrays.copyOf(bounds, 2 * bounds.length);
+        bounds[2 * size] = start;
+        bounds[2 * size + 1] = end;
+        size++;
+    }
+
+    void pop() {
+        size--;
+    }
+
+    void bind(String[] names) {
+        this.names = names;
+    }
+
+    /**
+     * Forget the variables, after a lookup that matched nothing.
+     */
+    void clear() {
+        size = 0;
+    }
+
+    private void check(int i) {
+        if (i < 0 || i >= size) throw new IndexOutOfBoundsException("variable " + i + " of " + size);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder("{");
+        for (int i = 0; i < size; i++) {
+            if (i > 0) builder.append(", ");
+            builder.append(names[i]).append('=').append(value(i));
+        }
+        return builder.append('}').toString();
+    }
+}
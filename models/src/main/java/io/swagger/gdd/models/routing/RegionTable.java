@@ -0,0 +1,63 @@
+package io.swagger.gdd.models.routing;
+
+import java.util.Map;
+
+/**
+ * An immutable open-addressing table from strings to values, which can be looked up with a region of a longer string,
+ * such as one segment of a path, without cutting the region out.
+ *
+ * @param <V> the type of the values
+ */
+final class RegionTable<V> {
+    private final String[] keys;
+    private final int[] hashes;
+    private final Object[] values;
+
+    /**
+     * @param entries what to put in the table
+     */
+    RegionTable(Map<String, ? extends V> entries) {
+        int capacity = Integer.highestOneBit(Math.max(1, entries.size()) * 2) * 2;
+        keys = new String[capacity];
+        hashes = new int[capacity];
+        values = new Object[capacity];
+        for (Map.Entry<String, ? extends V> entry : entries.entrySet()) {
+            int hash = hash(entry.getKey(), 0, entry.getKey().length());
+            int i = hash & (capacity - 1);
+            while (keys[i] != null) i = (i + 1) & (capacity - 1);
+            keys[i] = entry.getKey();
+            hashes[i] = hash;
+            values[i] = entry.getValue();
+        }
+    }
+
+    /**
+     * @param s a string
+     * @param start where the region starts in it
+     * @param end where the region ends in it, exclusive
+     * @return the value whose key is the same as the region, or {@code null} if there is none
+     */
+    @SuppressWarnings("unchecked")
+    V get(String s, int start, int end) {
+        int length = end - start;
+        int hash = hash(s, start, end);
+        int mask = keys.length - 1;
+        for (int i = hash & mask; keys[i] != null; i = (i + 1) & mask) {
+            if (hashes[i] == hash && keys[i].length() == length && keys[i].regionMatches(0, s, start, length)) {
+                return (V) values[i];
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The same as {@link String#hashCode()} of the region, spread so that similar keys land apart.
+     */
+    private static int hash(String s, int start, int end) {
+        int h = 0;
+        for (int i = start; i < end; i++) {
+            h = 31 * h + s.charAt(i);
+        }
+        return h ^ (h >>> 16);
+    }
+}
@@ -0,0 +1,377 @@
+package io.swagger.gdd.models.snapshot;
+
+import io.swagger.gdd.models.*;
+import io.swagger.gdd.models.factory.GDDModelFactory;
+import io.swagger.gdd.models.json.LazyMap;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static io.swagger.gdd.models.snapshot.SnapshotFormat.*;
+
+/**
+ * Loads the GDDs in a snapshot written by a {@link GDDSnapshotWriter}.
+ *
+ * A snapshot file is memory-mapped rather than read, so loading one only reads its index of documents, however many
+ * documents it holds, and processes that map the same file share its pages in the page cache. A document is decoded the
+ * first time it is looked up, and its {@code schemas} and {@code resources} the first time each of them is looked up,
+ * as with {@link io.swagger.gdd.models.json.GDDReader GDDReader}. Each string is decoded once and shared by every
+ * document of the snapshot which has it.
+ *
+ * The maps of documents, {@code schemas} and {@code resources} are read-only, but the models in them are not. They can
+ * be looked up from any number of threads.
+ */
+public class GDDSnapshotReader {
+    private final GDDModelFactory modelFactory;
+
+    public GDDSnapshotReader() {
+        this(new GDDModelFactory());
+    }
+
+    /**
+     * @param modelFactory factory for creating GDD models
+     */
+    public GDDSnapshotReader(GDDModelFactory modelFactory) {
+        this.modelFactory = modelFactory;
+    }
+
+    /**
+     * Map a snapshot file into memory and load it. The file must not be changed while its documents are in use; replace
+     * it with a new file instead.
+     * @return the documents, keyed and ordered as they were added, with none of them decoded yet
+     */
+    public Map<String, GoogleDiscoveryDocument> read(File file) throws IOException {
+        RandomAccessFile raf = new RandomAccessFile(file, "r");
+        try {
+            // the mapping stays valid after the channel is closed
+            return read(raf.getChannel().map(FileChannel.MapMode.READ_ONLY, 0, raf.length()));
+        } finally {
+            raf.close();
+        }
+    }
+
+    /**
+     * Load a snapshot. The buffer is kept to decode the documents from, so its contents must not be changed afterward.
+     * Its position and limit are not used.
+     * @param buffer the whole snapshot, from index 0
+     * @return the documents, keyed and ordered as they were added, with none of them decoded yet
+     */
+    public Map<String, GoogleDiscoveryDocument> read(ByteBuffer buffer) throws IOException {
+        final Snapshot snapshot = new Snapshot(buffer.duplicate());
+        return new LazyMap<GoogleDiscoveryDocument>(snapshot.documents(),
+                new LazyMap.ValueParser<GoogleDiscoveryDocument>() {
+                    @Override
+                    public GoogleDiscoveryDocument parse(int offset) {
+                        try {
+                            return snapshot.readDocument(snapshot.at(offset));
+                        } catch (RuntimeException e) {
+                            throw new IllegalStateException("could not decode the document at byte " + offset, e);
+                        }
+                    }
+                });
+    }
+
+    /**
+     * Decodes the parts of one snapshot.
+     */
+    private final class Snapshot {
+        private final ByteBuffer buffer;
+        private final int stringsOffset;
+        private final int indexOffset;
+        private final AtomicReferenceArray<String> strings;
+
+        Snapshot(ByteBuffer buffer) throws IOException {
+            this.buffer = buffer;
+            int limit = buffer.limit();
+            if (limit < HEADER_SIZE + FOOTER_SIZE || buffer.getInt(0) != MAGIC || buffer.getInt(limit - 4) != MAGIC) {
+                throw new IOException("not a GDD snapshot");
+            }
+            if (buffer.getInt(4) != VERSION) {
+                throw new IOException("unsupported GDD snapshot version " + buffer.getInt(4));
+            }
+            this.stringsOffset = buffer.getInt(limit - FOOTER_SIZE);
+            this.indexOffset = buffer.getInt(limit - FOOTER_SIZE + 4);
+            if (stringsOffset < HEADER_SIZE || indexOffset < stringsOffset || indexOffset > limit - FOOTER_SIZE) {
+                throw new IOException("the GDD snapshot is truncated or corrupt");
+            }
+            this.strings = new AtomicReferenceArray<String>(buffer.getInt(stringsOffset));
+        }
+
+        /**
+         * @return a view of the snapshot for decoding from an offset
+         */
+        ByteBuffer at(int offset) {
+            ByteBuffer in = buffer.duplicate();
+            in.position(offset);
+            return in;
+        }
+
+        Map<String, Integer> documents() {
+            ByteBuffer in = at(indexOffset);
+            int count = in.getInt();
+            Map<String, Integer> offsets = new LinkedHashMap<String, Integer>();
+            for (int i = 0; i < count; i++) {
+                offsets.put(readString(in), in.getInt());
+            }
+            return offsets;
+        }
+
+        private String string(int index) {
+            if (index < 0) return null;
+            String string = strings.get(index);
+            if (string == null) {
+                ByteBuffer in = at(buffer.getInt(stringsOffset + 4 + 4 * index));
+                byte[] bytes = new byte[in.getInt()];
+                in.get(bytes);
+                strings.compareAndSet(index, null, new String(bytes, StandardCharsets.UTF_8));
+                string = strings.get(index);
+            }
+            return string;
+        }
+
+        private String readString(ByteBuffer in) {
+            return string(in.getInt());
+        }
+
+        private List<String> readStrings(ByteBuffer in) {
+            int size = in.getInt();
+            if (size < 0) return null;
+            List<String> values = new ArrayList<String>(size);
+            for (int i = 0; i < size; i++) {
+                values.add(readString(in));
+            }
+            return values;
+        }
+
+        private Boolean readBoolean(ByteBuffer in) {
+            byte value = in.get();
+            return value == 0 ? null : value == 2;
+        }
+
+        private boolean present(ByteBuffer in) {
+            return in.get() != 0;
+        }
+
+        GoogleDiscoveryDocument readDocument(ByteBuffer in) {
+            GoogleDiscoveryDocument gdd = modelFactory.newGoogleDiscoveryDocument();
+            gdd.setKind(readString(in));
+            gdd.setDiscoveryVersion(readString(in));
+            gdd.setId(readString(in));
+            gdd.setName(readString(in));
+            gdd.setVersion(readString(in));
+            gdd.setRevision(readString(in));
+            gdd.setTitle(readString(in));
+            gdd.setDescription(readString(in));
+            gdd.setDocumentationLink(readString(in));
+            gdd.setProtocol(readString(in));
+            gdd.setRootUrl(readString(in));
+            gdd.setServicePath(readString(in));
+            gdd.setBatchPath(readString(in));
+            if (present(in)) {
+                Icons icons = modelFactory.newIcons();
+                icons.setX16(readString(in));
+                icons.setX32(readString(in));
+                gdd.setIcons(icons);
+            }
+            List<String> labels = readStrings(in);
+            if (labels != null) {
+                List<GoogleDiscoveryDocument.Label> values = new ArrayList<GoogleDiscoveryDocument.Label>();
+                for (String label : labels) {
+                    values.add(label != null ? GoogleDiscoveryDocument.Label.valueOf(label) : null);
+                }
+                gdd.setLabels(values);
+            }
+            gdd.setParameters(readParameters(in));
+            if (present(in)) {
+                Auth auth = modelFactory.newAuth();
+                if (present(in)) {
+                    OAuth2 oauth2 = modelFactory.newOAuth2();
+                    int size = in.getInt();
+                    if (size >= 0) {
+                        Map<String, Scope> scopes = new LinkedHashMap<String, Scope>();
+                        for (int i = 0; i < size; i++) {
+                            String key = readString(in);
+                            Scope scope = null;
+                            if (present(in)) {
+                                scope = modelFactory.newScope();
+                                scope.setDescription(readString(in));
+                            }
+                            scopes.put(key, scope);
+                        }
+                        oauth2.setScopes(scopes);
+                    }
+                    auth.setOauth2(oauth2);
+                }
+                gdd.setAuth(auth);
+            }
+            gdd.setFeatures(readStrings(in));
+            gdd.setMethods(readMethods(in));
+            Map<String, Integer> schemas = readIndex(in);
+            if (schemas != null) {
+                gdd.setSchemas(new LazyMap<AbstractSchema>(schemas, new LazyMap.ValueParser<AbstractSchema>() {
+                    @Override
+                    public AbstractSchema parse(int offset) {
+                        try {
+                            return readSchema(at(offset));
+                        } catch (RuntimeException e) {
+                            throw new IllegalStateException("could not decode the schema at byte " + offset, e);
+                        }
+                    }
+                }));
+            }
+            Map<String, Integer> resources = readIndex(in);
+            if (resources != null) {
+                gdd.setResources(new LazyMap<Resource>(resources, new LazyMap.ValueParser<Resource>() {
+                    @Override
+                    public Resource parse(int offset) {
+                        try {
+                            return readResource(at(offset));
+                        } catch (RuntimeException e) {
+                            throw new IllegalStateException("could not decode the resource at byte " + offset, e);
+                        }
+                    }
+                }));
+            }
+            return gdd;
+        }
+
+        private Map<String, Integer> readIndex(ByteBuffer in) {
+            int size = in.getInt();
+            if (size < 0) return null;
+            Map<String, Integer> offsets = new LinkedHashMap<String, Integer>();
+            for (int i = 0; i < size; i++) {
+                offsets.put(readString(in), in.getInt());
+            }
+            return offsets;
+        }
+
+        private Resource readResource(ByteBuffer in) {
+            if (!present(in)) return null;
+            Resource resource = modelFactory.newResource();
+            resource.setMethods(readMethods(in));
+            int size = in.getInt();
+            if (size >= 0) {
+                Map<String, Resource> resources = new LinkedHashMap<String, Resource>();
+                for (int i = 0; i < size; i++) {
+                    String key = readString(in);
+                    resources.put(key, readResource(in));
+                }
+                resource.setResources(resources);
+            }
+            return resource;
+        }
+
+        private Map<String, Method> readMethods(ByteBuffer in) {
+            int size = in.getInt();
+            if (size < 0) return null;
+            Map<String, Method> methods = new LinkedHashMap<String, Method>();
+            for (int i = 0; i < size; i++) {
+                String key = readString(in);
+                methods.put(key, readMethod(in));
+            }
+            return methods;
+        }
+
+        @SuppressWarnings("deprecation")
+        private Method readMethod(ByteBuffer in) {
+            if (!present(in)) return null;
+            Method method = modelFactory.newMethod();
+            method.setId(readString(in));
+            method.setDescription(readString(in));
+            method.setPath(readString(in));
+            method.setHttpMethod(readString(in));
+            if (present(in)) method.setRequest(modelFactory.newSchemaRef(readString(in)));
+            if (present(in)) method.setResponse(modelFactory.newSchemaRef(readString(in)));
+            method.setParameters(readParameters(in));
+            method.setParameterOrder(readStrings(in));
+            method.setScopes(readStrings(in));
+            method.setSupportsMediaDownload(readBoolean(in));
+            method.setSupportsMediaUpload(readBoolean(in));
+            method.setSupportsSubscription(readBoolean(in));
+            if (present(in)) {
+                MediaUpload mediaUpload = modelFactory.newMediaUpload();
+                mediaUpload.setAccept(readStrings(in));
+                mediaUpload.setMaxSize(readString(in));
+                mediaUpload.setSimple(readProtocol(in));
+                mediaUpload.setResumable(readProtocol(in));
+                method.setMediaUpload(mediaUpload);
+            }
+            method.setBaseUrl(readString(in));
+            method.setBasePath(readString(in));
+            return method;
+        }
+
+        private Protocol readProtocol(ByteBuffer in) {
+            if (!present(in)) return null;
+            Protocol protocol = modelFactory.newProtocol();
+            protocol.setMultipart(readBoolean(in));
+            protocol.setPath(readString(in));
+            return protocol;
+        }
+
+        private Map<String, Parameter> readParameters(ByteBuffer in) {
+            int size = in.getInt();
+            if (size < 0) return null;
+            Map<String, Parameter> parameters = new LinkedHashMap<String, Parameter>();
+            for (int i = 0; i < size; i++) {
+                String key = readString(in);
+                parameters.put(key, (Parameter) readSchema(in));
+            }
+            return parameters;
+        }
+
+        private AbstractSchema readSchema(ByteBuffer in) {
+            int mask = in.getInt();
+            if (mask == -1) return null;
+            boolean parameter = (mask & 1 << PARAMETER) != 0;
+            AbstractSchema schema = parameter ? modelFactory.newParameter() : modelFactory.newSchema();
+            for (int field = 0; field < PARAMETER; field++) {
+                if ((mask & 1 << field) == 0) continue;
+                switch (field) {
+                    case ID: schema.setId(readString(in)); break;
+                    case TYPE: schema.setType(readString(in)); break;
+                    case REF: schema.set$ref(readString(in)); break;
+                    case DESCRIPTION: schema.setDescription(readString(in)); break;
+                    case LOCATION: schema.setLocation(readString(in)); break;
+                    case FORMAT: schema.setFormat(readString(in)); break;
+                    case PATTERN: schema.setPattern(readString(in)); break;
+                    case MINIMUM: schema.setMinimum(readString(in)); break;
+                    case MAXIMUM: schema.setMaximum(readString(in)); break;
+                    case DEFAULT: schema.setDefault(readString(in)); break;
+                    case PROPERTIES:
+                        int size = in.getInt();
+                        Map<String, Schema> properties = new LinkedHashMap<String, Schema>();
+                        for (int i = 0; i < size; i++) {
+                            String key = readString(in);
+                            properties.put(key, (Schema) readSchema(in));
+                        }
+                        schema.setProperties(properties);
+                        break;
+                    case ADDITIONAL_PROPERTIES: schema.setAdditionalProperties((Schema) readSchema(in)); break;
+                    case ITEMS: schema.setItems((Schema) readSchema(in)); break;
+                    case ANNOTATIONS:
+                        Annotations annotations = modelFactory.newAnnotations();
+                        List<String> required = readStrings(in);
+                        if (required != null) annotations.setRequired(required.toArray(new String[required.size()]));
+                        schema.setAnnotations(annotations);
+                        break;
+                    case ENUM: schema.setEnum(readStrings(in)); break;
+                    case ENUM_DESCRIPTIONS: schema.setEnumDescriptions(readStrings(in)); break;
+                    case REQUIRED: schema.setRequired(readBoolean(in)); break;
+                    case REPEATED: schema.setRepeated(readBoolean(in)); break;
+                    default: throw new IllegalStateException("unknown schema field " + field);
+                }
+            }
+            return schema;
+        }
+    }
+}
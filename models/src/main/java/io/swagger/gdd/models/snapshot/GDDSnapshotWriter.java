@@ -0,0 +1,411 @@
+package io.swagger.gdd.models.snapshot;
+
+import io.swagger.gdd.models.*;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static io.swagger.gdd.models.snapshot.SnapshotFormat.*;
+
+/**
+ * Writes GDDs into a binary snapshot, which a {@link GDDSnapshotReader} can load without parsing anything but what is
+ * looked up. See {@link SnapshotFormat} for the layout.
+ *
+ * Each document is written out as soon as it is added, so only the one being added and the strings seen so far are held
+ * in memory. Every distinct string is stored once for the whole snapshot, however many documents it is in. Documents
+ * can be added from more than one thread; they are written in the order they are added.
+ *
+ * If writing to the stream fails, there is no telling how much of the document made it out, and so where anything
+ * after it would be, so the snapshot can't be finished: any later {@code add} or {@code close} throws
+ * {@link IllegalStateException}.
+ *
+ * Only the fields of the GDD models themselves are written.
+ */
+public class GDDSnapshotWriter implements Closeable {
+    private final OutputStream out;
+    private final Map<String, Integer> strings = new LinkedHashMap<String, Integer>();
+    private final Map<String, Integer> documents = new LinkedHashMap<String, Integer>();
+    private long written;
+    private boolean closed;
+    private boolean failed;
+
+    /**
+     * @param out where the snapshot will be written; it is closed along with this writer
+     */
+    public GDDSnapshotWriter(OutputStream out) throws IOException {
+        this.out = out;
+        Buffer header = new Buffer(0);
+        header.writeInt(MAGIC);
+        header.writeInt(VERSION);
+        flush(header);
+    }
+
+    /**
+     * Write a document into the snapshot.
+     * @param key what the document is looked up by when it is read
+     * @param gdd the document
+     * @throws IllegalArgumentException if a document was already added with the same key
+     * @throws IllegalStateException if the snapshot was closed, or an earlier write to it failed
+     */
+    public synchronized void add(String key, GoogleDiscoveryDocument gdd) throws IOException {
+        if (closed) throw new IllegalStateException("the snapshot was already closed");
+        checkNotFailed();
+        if (key == null || documents.containsKey(key)) {
+            throw new IllegalArgumentException("a document was already added as " + key);
+        }
+        Buffer buffer = new Buffer(written);
+        writeDocument(buffer, gdd);
+        intern(key);
+        int offset = (int) written;
+        flush(buffer);
+        documents.put(key, offset);
+    }
+
+    /**
+     * Write the strings and the index of the documents, which finishes the snapshot, and close the stream.
+     * @throws IllegalStateException if an earlier write to the snapshot failed; the stream is still closed
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (closed) return;
+        closed = true;
+        try {
+            checkNotFailed();
+            int stringsOffset = (int) written;
+            List<byte[]> encoded = new ArrayList<byte[]>(strings.size());
+            for (String string : strings.keySet()) {
+                encoded.add(string.getBytes(StandardCharsets.UTF_8));
+            }
+            Buffer table = new Buffer(written);
+            table.writeInt(encoded.size());
+            long next = written + 4 + 4L * encoded.size();
+            for (byte[] bytes : encoded) {
+                table.writeInt((int) next);
+                next += 4 + bytes.length;
+            }
+            for (byte[] bytes : encoded) {
+                table.writeInt(bytes.length);
+                table.write(bytes);
+            }
+            flush(table);
+
+            int indexOffset = (int) written;
+            Buffer index = new Buffer(written);
+            index.writeInt(documents.size());
+            for (Map.Entry<String, Integer> document : documents.entrySet()) {
+                index.writeInt(strings.get(document.getKey()));
+                index.writeInt(document.getValue());
+            }
+            index.writeInt(stringsOffset);
+            index.writeInt(indexOffset);
+            index.writeInt(MAGIC);
+            flush(index);
+        } finally {
+            out.close();
+        }
+    }
+
+    private void flush(Buffer buffer) throws IOException {
+        if (written + buffer.size > Integer.MAX_VALUE) {
+            throw new IOException("a snapshot can't be larger than " + Integer.MAX_VALUE + " bytes");
+        }
+        try {
+            out.write(buffer.bytes, 0, buffer.size);
+        } catch (IOException | RuntimeException e) {
+            failed = true;
+            throw e;
+        }
+        written += buffer.size;
+    }
+
+    private void checkNotFailed() {
+        if (failed) throw new IllegalStateException("an earlier write to the snapshot failed, so it can't be finished");
+    }
+
+    private int intern(String string) {
+        Integer index = strings.get(string);
+        if (index == null) {
+            index = strings.size();
+            strings.put(string, index);
+        }
+        return index;
+    }
+
+    private void writeDocument(Buffer b, GoogleDiscoveryDocument gdd) {
+        writeString(b, gdd.getKind());
+        writeString(b, gdd.getDiscoveryVersion());
+        writeString(b, gdd.getId());
+        writeString(b, gdd.getName());
+        writeString(b, gdd.getVersion());
+        writeString(b, gdd.getRevision());
+        writeString(b, gdd.getTitle());
+        writeString(b, gdd.getDescription());
+        writeString(b, gdd.getDocumentationLink());
+        writeString(b, gdd.getProtocol());
+        writeString(b, gdd.getRootUrl());
+        writeString(b, gdd.getServicePath());
+        writeString(b, gdd.getBatchPath());
+        if (present(b, gdd.getIcons())) {
+            writeString(b, gdd.getIcons().getX16());
+            writeString(b, gdd.getIcons().getX32());
+        }
+        List<GoogleDiscoveryDocument.Label> labels = gdd.getLabels();
+        b.writeInt(labels != null ? labels.size() : -1);
+        if (labels != null) {
+            for (GoogleDiscoveryDocument.Label label : labels) {
+                writeString(b, label != null ? label.name() : null);
+            }
+        }
+        writeParameters(b, gdd.getParameters());
+        if (present(b, gdd.getAuth()) && present(b, gdd.getAuth().getOauth2())) {
+            Map<String, Scope> scopes = gdd.getAuth().getOauth2().getScopes();
+            b.writeInt(scopes != null ? scopes.size() : -1);
+            if (scopes != null) {
+                for (Map.Entry<String, Scope> entry : scopes.entrySet()) {
+                    writeString(b, entry.getKey());
+                    if (present(b, entry.getValue())) writeString(b, entry.getValue().getDescription());
+                }
+            }
+        }
+        writeStrings(b, gdd.getFeatures());
+        writeMethods(b, gdd.getMethods());
+
+        Map<String, AbstractSchema> schemas = gdd.getSchemas();
+        Map<String, Resource> resources = gdd.getResources();
+        int schemaAt = writeIndex(b, schemas);
+        int resourceAt = writeIndex(b, resources);
+        if (schemas != null) {
+            for (AbstractSchema schema : schemas.values()) {
+                if (schema != null) {
+                    b.patchInt(schemaAt, b.offset());
+                    writeSchema(b, schema);
+                }
+                schemaAt += 8;
+            }
+        }
+        if (resources != null) {
+            for (Resource resource : resources.values()) {
+                if (resource != null) {
+                    b.patchInt(resourceAt, b.offset());
+                    writeResource(b, resource);
+                }
+                resourceAt += 8;
+            }
+        }
+    }
+
+    /**
+     * Write the keys of a map, each followed by -1 to be replaced with the offset of its value.
+     * @return where the first offset is in the buffer
+     */
+    private int writeIndex(Buffer b, Map<String, ?> map) {
+        b.writeInt(map != null ? map.size() : -1);
+        int first = b.size + 4;
+        if (map != null) {
+            for (String key : map.keySet()) {
+                writeString(b, key);
+                b.writeInt(-1);
+            }
+        }
+        return first;
+    }
+
+    private void writeResource(Buffer b, Resource resource) {
+        if (!present(b, resource)) return;
+        writeMethods(b, resource.getMethods());
+        Map<String, Resource> resources = resource.getResources();
+        b.writeInt(resources != null ? resources.size() : -1);
+        if (resources != null) {
+            for (Map.Entry<String, Resource> entry : resources.entrySet()) {
+                writeString(b, entry.getKey());
+                writeResource(b, entry.getValue());
+            }
+        }
+    }
+
+    private void writeMethods(Buffer b, Map<String, Method> methods) {
+        b.writeInt(methods != null ? methods.size() : -1);
+        if (methods == null) return;
+        for (Map.Entry<String, Method> entry : methods.entrySet()) {
+            writeString(b, entry.getKey());
+            writeMethod(b, entry.getValue());
+        }
+    }
+
+    @SuppressWarnings("deprecation")
+    private void writeMethod(Buffer b, Method method) {
+        if (!present(b, method)) return;
+        writeString(b, method.getId());
+        writeString(b, method.getDescription());
+        writeString(b, method.getPath());
+        writeString(b, method.getHttpMethod());
+        if (present(b, method.getRequest())) writeString(b, method.getRequest().get$ref());
+        if (present(b, method.getResponse())) writeString(b, method.getResponse().get$ref());
+        writeParameters(b, method.getParameters());
+        writeStrings(b, method.getParameterOrder());
+        writeStrings(b, method.getScopes());
+        writeBoolean(b, method.getSupportsMediaDownload());
+        writeBoolean(b, method.getSupportsMediaUpload());
+        writeBoolean(b, method.getSupportsSubscription());
+        MediaUpload mediaUpload = method.getMediaUpload();
+        if (present(b, mediaUpload)) {
+            writeStrings(b, mediaUpload.getAccept());
+            writeString(b, mediaUpload.getMaxSize());
+            writeProtocol(b, mediaUpload.getSimple());
+            writeProtocol(b, mediaUpload.getResumable());
+        }
+        writeString(b, method.getBaseUrl());
+        writeString(b, method.getBasePath());
+    }
+
+    private void writeProtocol(Buffer b, Protocol protocol) {
+        if (!present(b, protocol)) return;
+        writeBoolean(b, protocol.getMultipart());
+        writeString(b, protocol.getPath());
+    }
+
+    private void writeParameters(Buffer b, Map<String, Parameter> parameters) {
+        b.writeInt(parameters != null ? parameters.size() : -1);
+        if (parameters == null) return;
+        for (Map.Entry<String, Parameter> entry : parameters.entrySet()) {
+            writeString(b, entry.getKey());
+            writeSchema(b, entry.getValue());
+        }
+    }
+
+    private void writeSchema(Buffer b, AbstractSchema schema) {
+        if (schema == null) {
+            b.writeInt(-1);
+            return;
+        }
+        Object[] fields = {
+                schema.getId(), schema.getType(), schema.get$ref(), schema.getDescription(), schema.getLocation(),
+                schema.getFormat(), schema.getPattern(), schema.getMinimum(), schema.getMaximum(), schema.getDefault(),
+                schema.getProperties(), schema.getAdditionalProperties(), schema.getItems(), schema.getAnnotations(),
+                schema.getEnum(), schema.getEnumDescriptions(), schema.getRequired(), schema.getRepeated()
+        };
+        int mask = schema instanceof Parameter ? 1 << PARAMETER : 0;
+        for (int field = 0; field < fields.length; field++) {
+            if (fields[field] != null) mask |= 1 << field;
+        }
+        b.writeInt(mask);
+        for (int field = 0; field < fields.length; field++) {
+            if (fields[field] == null) continue;
+            switch (field) {
+                case PROPERTIES:
+                    Map<String, Schema> properties = schema.getProperties();
+                    b.writeInt(properties.size());
+                    for (Map.Entry<String, Schema> entry : properties.entrySet()) {
+                        writeString(b, entry.getKey());
+                        writeSchema(b, entry.getValue());
+                    }
+                    break;
+                case ADDITIONAL_PROPERTIES:
+                case ITEMS:
+                    writeSchema(b, (Schema) fields[field]);
+                    break;
+                case ANNOTATIONS:
+                    String[] required = schema.getAnnotations().getRequired();
+                    writeStrings(b, required != null ? Arrays.asList(required) : null);
+                    break;
+                case ENUM:
+                case ENUM_DESCRIPTIONS:
+                    @SuppressWarnings("unchecked")
+                    List<String> values = (List<String>) fields[field];
+                    writeStrings(b, values);
+                    break;
+                case REQUIRED:
+                case REPEATED:
+                    writeBoolean(b, (Boolean) fields[field]);
+                    break;
+                default:
+                    writeString(b, (String) fields[field]);
+            }
+        }
+    }
+
+    private boolean present(Buffer b, Object value) {
+        b.writeByte(value != null ? 1 : 0);
+        return value != null;
+    }
+
+    private void writeString(Buffer b, String value) {
+        b.writeInt(value != null ? intern(value) : -1);
+    }
+
+    private void writeStrings(Buffer b, List<String> values) {
+        b.writeInt(values != null ? values.size() : -1);
+        if (values == null) return;
+        for (String value : values) {
+            writeString(b, value);
+        }
+    }
+
+    private void writeBoolean(Buffer b, Boolean value) {
+        b.writeByte(value == null ? 0 : value ? 2 : 1);
+    }
+
+    /**
+     * The bytes of one part of the snapshot, which knows where in the snapshot it will be written.
+     */
+    private static final class Buffer {
+        private final long start;
+        private byte[] bytes = new byte[256];
+        private int size;
+
+        Buffer(long start) {
+            this.start = start;
+        }
+
+        /**
+         * @return the offset in the snapshot of the next byte to be written
+         */
+        int offset() {
+            return (int) (start + size);
+        }
+
+        void writeByte(int value) {
+            ensure(1);
+            bytes[size++] = (byte) value;
+        }
+
+        void writeInt(int value) {
+            ensure(4);
+            putInt(size, value);
+            size += 4;
+        }
+
+        void write(byte[] value) {
+            ensure(value.length);
+            System.arraycopy(value, 0, bytes, size, value.length);
+            size += value.length;
+        }
+
+        /**
+         * Replace the int at a position in this buffer.
+         */
+        void patchInt(int at, int value) {
+            putInt(at, value);
+        }
+
+        private void putInt(int at, int value) {
+            bytes[at] = (byte) (value >>> 24);
+            bytes[at + 1] = (byte) (value >>> 16);
+            bytes[at + 2] = (byte) (value >>> 8);
+            bytes[at + 3] = (byte) value;
+        }
+
+        private void ensure(int more) {
+            if (size + more > bytes.length) {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, size + more));
+            }
+        }
+    }
+}
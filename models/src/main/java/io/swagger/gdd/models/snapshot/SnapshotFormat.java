@@ -0,0 +1,69 @@
+package io.swagger.gdd.models.snapshot;
+
+/**
+ * The layout of a GDD snapshot, as written by {@link GDDSnapshotWriter} and read by {@link GDDSnapshotReader}.
+ *
+ * A snapshot is a sequence of big-endian values. Every string is written once, in a table at the end, and referred to
+ * by its index in the table everywhere else:
+ *
+ * <pre>
+ * header:    magic, version
+ * documents: each document's encoding, one after the other
+ * strings:   count, the offset of each string, then each string as its length and its UTF-8 bytes
+ * index:     count, then the key and offset of each document
+ * footer:    offset of strings, offset of index, magic
+ * </pre>
+ *
+ * Within an encoding:
+ *
+ * <ul>
+ *   <li>a string is its index, or -1 for {@code null}</li>
+ *   <li>a {@code Boolean} is a byte: 0 for {@code null}, 1 for false, 2 for true</li>
+ *   <li>a list, or a map, is its size, or -1 for {@code null}, then its elements, each key followed by its value</li>
+ *   <li>any other object is a byte, 0 for {@code null} and 1 otherwise, then its fields in order</li>
+ *   <li>a schema is a mask with a bit for each field that is set, or -1 for {@code null}, then just the fields that are
+ *   set, in order</li>
+ * </ul>
+ *
+ * The {@code schemas} and {@code resources} of a document are each written as an index of the key and offset of each
+ * entry, -1 for a {@code null} value. The entries themselves follow both indexes, so that they can be decoded one at a
+ * time.
+ * Offsets are from the start of the snapshot, so a snapshot is at most 2 GB.
+ */
+final class SnapshotFormat {
+    /**
+     * "GDDS"
+     */
+    static final int MAGIC = 0x47444453;
+    static final int VERSION = 1;
+
+    static final int HEADER_SIZE = 8;
+    static final int FOOTER_SIZE = 12;
+
+    // the bits of a schema's mask, for each of its fields in the order they are written
+    static final int ID = 0;
+    static final int TYPE = 1;
+    static final int REF = 2;
+    static final int DESCRIPTION = 3;
+    static final int LOCATION = 4;
+    static final int FORMAT = 5;
+    static final int PATTERN = 6;
+    static final int MINIMUM = 7;
+    static final int MAXIMUM = 8;
+    static final int DEFAULT = 9;
+    static final int PROPERTIES = 10;
+    static final int ADDITIONAL_PROPERTIES = 11;
+    static final int ITEMS = 12;
+    static final int ANNOTATIONS = 13;
+    static final int ENUM = 14;
+    static final int ENUM_DESCRIPTIONS = 15;
+    static final int REQUIRED = 16;
+    static final int REPEATED = 17;
+    /**
+     * Set for a {@code Parameter} rather than a {@code Schema}. No field is written for it.
+     */
+    static final int PARAMETER = 18;
+
+    private SnapshotFormat() {
+    }
+}
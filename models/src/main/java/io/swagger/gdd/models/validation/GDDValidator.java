@@ -0,0 +1,325 @@
+package io.swagger.gdd.models.validation;
+
+import io.swagger.gdd.models.*;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+/**
+ * Checks that a {@link GoogleDiscoveryDocument} is consistent with itself, and collects every {@link Problem} it finds.
+ *
+ * The keys of the document's {@code schemas} and {@code parameters} are gathered into a symbol table first. Every part
+ * of the document is then visited once, and each check is one lookup in the table or in the {@code Method} it is in, so
+ * validating takes time linear in the size of the document. The document's own {@code schemas}, {@code parameters} and
+ * {@code methods}, and each of its top-level {@code Resource}s, are checked independently of each other, on the
+ * executor if there is one. Only checking {@code Method} ids for duplicates needs all of them, and that is done once
+ * they are done.
+ *
+ * A nested schema which appears more than once, such as an interned one, is only looked through the first time it is
+ * found within a top-level part of the document.
+ */
+public class GDDValidator {
+    private static final String PATH = "path";
+
+    private final ExecutorService executor;
+
+    /**
+     * Validate on the calling thread.
+     */
+    public GDDValidator() {
+        this(null);
+    }
+
+    /**
+     * @param executor runs the checks of the independent parts of each document; it is not shut down
+     */
+    public GDDValidator(ExecutorService executor) {
+        this.executor = executor;
+    }
+
+    /**
+     * @param gdd the document to validate; it must not change while it is validated
+     * @return the problems found, in the order of the parts of the document they were found in, followed by the
+     *         duplicated {@code Method} ids; empty if there are none
+     */
+    public List<Problem> validate(final GoogleDiscoveryDocument gdd) {
+        final Symbols symbols = new Symbols(gdd);
+        List<Callable<Checker>> parts = new ArrayList<Callable<Checker>>();
+        parts.add(new Callable<Checker>() {
+            @Override
+            public Checker call() {
+                Checker checker = new Checker(symbols);
+                checker.schemas(gdd.getSchemas(), "schemas");
+                checker.schemas(gdd.getParameters(), "parameters");
+                checker.methods(gdd.getMethods(), "methods");
+                return checker;
+            }
+        });
+        if (gdd.getResources() != null) {
+            for (final Map.Entry<String, Resource> entry : gdd.getResources().entrySet()) {
+                parts.add(new Callable<Checker>() {
+                    @Override
+                    public Checker call() {
+                        Checker checker = new Checker(symbols);
+                        checker.resource(entry.getValue(), "resources." + entry.getKey());
+                        return checker;
+                    }
+                });
+            }
+        }
+
+        List<Problem> problems = new ArrayList<Problem>();
+        Map<String, String> methodIds = new LinkedHashMap<String, String>();
+        List<Problem> duplicates = new ArrayList<Problem>();
+        for (Checker checker : run(parts)) {
+            problems.addAll(checker.problems);
+            for (int i = 0; i < checker.methodIds.size(); i += 2) {
+                String id = checker.methodIds.get(i);
+                String location = checker.methodIds.get(i + 1);
+                String first = methodIds.get(id);
+                if (first == null) {
+                    methodIds.put(id, location);
+                } else {
+                    duplicates.add(new Problem(Kind.DUPLICATE_METHOD_ID, location,
+                            "the id " + id + " is also the id of " + first));
+                }
+            }
+        }
+        problems.addAll(duplicates);
+        return problems;
+    }
+
+    private List<Checker> run(List<Callable<Checker>> parts) {
+        List<Checker> checkers = new ArrayList<Checker>(parts.size());
+        try {
+            if (executor == null || parts.size() == 1) {
+                for (Callable<Checker> part : parts) {
+                    checkers.add(part.call());
+                }
+            } else {
+                for (Future<Checker> future : executor.invokeAll(parts)) {
+                    checkers.add(future.get());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("interrupted while validating", e);
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (Exception e) {
+            throw rethrow(e);
+        }
+        return checkers;
+    }
+
+    private static RuntimeException rethrow(Throwable t) {
+        if (t instanceof RuntimeException) throw (RuntimeException) t;
+        if (t instanceof Error) throw (Error) t;
+        throw new IllegalStateException(t);
+    }
+
+    /**
+     * The kinds of problem a document can have.
+     */
+    public enum Kind {
+        /**
+         * A {@code $ref} which is not the key of one of the document's {@code schemas}.
+         */
+        DANGLING_REF,
+        /**
+         * An entry of a {@code Method}'s {@code parameterOrder} which is not one of its {@code parameters}.
+         */
+        UNKNOWN_PARAMETER_ORDER,
+        /**
+         * A {@code {variable}} in a {@code Method}'s {@code path} with no parameter whose {@code location} is
+         * {@code path}, in the {@code Method} or the document.
+         */
+        UNBOUND_PATH_VARIABLE,
+        /**
+         * A parameter whose {@code location} is {@code path}, but which is not {@code required}.
+         */
+        OPTIONAL_PATH_PARAMETER,
+        /**
+         * A {@code Method} id which another {@code Method} of the document has already.
+         */
+        DUPLICATE_METHOD_ID
+    }
+
+    /**
+     * Something wrong with a document, and where it is.
+     */
+    public static final class Problem {
+        private final Kind kind;
+        private final String location;
+        private final String message;
+
+        Problem(Kind kind, String location, String message) {
+            this.kind = kind;
+            this.location = location;
+            this.message = message;
+        }
+
+        public Kind getKind() {
+            return kind;
+        }
+
+        /**
+         * @return the keys leading to what is wrong from the document, separated by dots, such as
+         *         {@code resources.pets.methods.get.parameters.petId}
+         */
+        public String getLocation() {
+            return location;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+
+        @Override
+        public String toString() {
+            return location + ": " + message;
+        }
+    }
+
+    /**
+     * What the checks look names up in, built once for each document.
+     */
+    private static final class Symbols {
+        final Set<String> schemas;
+        final Map<String, Parameter> parameters;
+
+        Symbols(GoogleDiscoveryDocument gdd) {
+            schemas = gdd.getSchemas() != null
+                    ? new HashSet<String>(gdd.getSchemas().keySet()) : Collections.<String>emptySet();
+            parameters = gdd.getParameters() != null
+                    ? new LinkedHashMap<String, Parameter>(gdd.getParameters())
+                    : Collections.<String, Parameter>emptyMap();
+        }
+    }
+
+    /**
+     * Checks one part of a document, on one thread.
+     */
+    private static final class Checker {
+        private final Symbols symbols;
+        private final Map<AbstractSchema, Boolean> checked = new IdentityHashMap<AbstractSchema, Boolean>();
+        final List<Problem> problems = new ArrayList<Problem>();
+        /**
+         * Each id followed by the location of its {@code Method}.
+         */
+        final List<String> methodIds = new ArrayList<String>();
+
+        Checker(Symbols symbols) {
+            this.symbols = symbols;
+        }
+
+        void resource(Resource resource, String location) {
+            if (resource == null) return;
+            methods(resource.getMethods(), location + ".methods");
+            if (resource.getResources() != null) {
+                for (Map.Entry<String, Resource> entry : resource.getResources().entrySet()) {
+                    resource(entry.getValue(), location + ".resources." + entry.getKey());
+                }
+            }
+        }
+
+        void methods(Map<String, Method> methods, String location) {
+            if (methods == null) return;
+            for (Map.Entry<String, Method> entry : methods.entrySet()) {
+                if (entry.getValue() != null) method(entry.getValue(), location + "." + entry.getKey());
+            }
+        }
+
+        void schemas(Map<String, ? extends AbstractSchema> schemas, String location) {
+            if (schemas == null) return;
+            for (Map.Entry<String, ? extends AbstractSchema> entry : schemas.entrySet()) {
+                schema(entry.getValue(), location + "." + entry.getKey());
+            }
+        }
+
+        private void method(Method method, String location) {
+            if (method.getId() != null) {
+                methodIds.add(method.getId());
+                methodIds.add(location);
+            }
+            ref(method.getRequest(), location + ".request");
+            ref(method.getResponse(), location + ".response");
+
+            Map<String, Parameter> parameters = method.getParameters() != null
+                    ? method.getParameters() : Collections.<String, Parameter>emptyMap();
+            schemas(parameters, location + ".parameters");
+            if (method.getParameterOrder() != null) {
+                for (String name : method.getParameterOrder()) {
+                    if (!parameters.containsKey(name)) {
+                        problems.add(new Problem(Kind.UNKNOWN_PARAMETER_ORDER, location + ".parameterOrder",
+                                name + " is not one of the method's parameters"));
+                    }
+                }
+            }
+            if (method.getPath() != null) {
+                for (String variable : variables(method.getPath())) {
+                    Parameter parameter = parameters.get(variable);
+                    if (parameter == null) parameter = symbols.parameters.get(variable);
+                    if (parameter == null || !PATH.equals(parameter.getLocation())) {
+                        problems.add(new Problem(Kind.UNBOUND_PATH_VARIABLE, location + ".path",
+                                "{" + variable + "} is not a path parameter"));
+                    }
+                }
+            }
+        }
+
+        private void ref(SchemaRef ref, String location) {
+            if (ref != null && ref.get$ref() != null && !symbols.schemas.contains(ref.get$ref())) {
+                problems.add(new Problem(Kind.DANGLING_REF, location, ref.get$ref() + " is not a schema"));
+            }
+        }
+
+        private void schema(AbstractSchema schema, String location) {
+            if (schema == null || checked.put(schema, Boolean.TRUE) != null) return;
+            if (schema.get$ref() != null && !symbols.schemas.contains(schema.get$ref())) {
+                problems.add(new Problem(Kind.DANGLING_REF, location, schema.get$ref() + " is not a schema"));
+            }
+            if (PATH.equals(schema.getLocation()) && !Boolean.TRUE.equals(schema.getRequired())) {
+                problems.add(new Problem(Kind.OPTIONAL_PATH_PARAMETER, location,
+                        "a path parameter must be required"));
+            }
+            schemas(schema.getProperties(), location + ".properties");
+            schema(schema.getAdditionalProperties(), location + ".additionalProperties");
+            schema(schema.getItems(), location + ".items");
+        }
+    }
+
+    /**
+     * @param path a URI template
+     * @return the names of the variables in its expressions, such as {@code name} in {@code {name}} and
+     *         {@code {+name}}
+     */
+    public static List<String> variables(String path) {
+        List<String> variables = new ArrayList<String>();
+        int open = path.indexOf('{');
+        while (open >= 0) {
+            int close = path.indexOf('}', open);
+            if (close < 0) break;
+            int start = open + 1;
+            if (start < close && "+#./;?&".indexOf(path.charAt(start)) >= 0) start++;
+            for (String variable : path.substring(start, close).split(",")) {
+                int modifier = variable.indexOf(':');
+                if (modifier >= 0) variable = variable.substring(0, modifier);
+                if (variable.endsWith("*")) variable = variable.substring(0, variable.length() - 1);
+                if (!variable.isEmpty()) variables.add(variable);
+            }
+            open = path.indexOf('{', close);
+        }
+        return variables;
+    }
+}
@@ -0,0 +1,233 @@
+package io.swagger.gdd.server
+
+import java.io.{ByteArrayOutputStream, File}
+import java.net.InetSocketAddress
+import java.nio.charset.StandardCharsets
+import java.nio.file.{Files, Paths}
+import java.util.concurrent.{ExecutorService, Executors, TimeUnit}
+
+import scala.collection.JavaConverters._
+
+import com.fasterxml.jackson.core.{JsonFactory, JsonGenerator}
+import com.sun.net.httpserver.{HttpExchange, HttpHandler, HttpServer}
+import io.swagger.gdd.SwaggerToGDD
+import io.swagger.gdd.models.GoogleDiscoveryDocument
+import io.swagger.gdd.models.json.GDDJsonWriter
+import io.swagger.gdd.models.snapshot.GDDSnapshotReader
+import io.swagger.parser.SwaggerParser
+
+/**
+ * Serves GoogleDiscoveryDocuments the way the Google APIs Discovery Service does, on the JDK's `HttpServer`.
+ *
+ * <table>
+ *   <tr><th>Path</th><th>Response</th></tr>
+ *   <tr><td>`/discovery/v1/apis`</td><td>the directory list of every document</td></tr>
+ *   <tr><td>`/discovery/v1/apis/{name}/{version}/rest`</td><td>the document with that `name` and `version`</td></tr>
+ * </table>
+ *
+ * Every response is serialized and gzipped once, when the documents are [[publish published]] or, if they are published
+ * lazily, when it is first requested, and written out as is afterward. Responses are gzipped for clients which accept it, and carry a strong ETag, so that a request with a
+ * matching `If-None-Match` gets a 304 without a body. Only `GET` and `HEAD` are allowed.
+ *
+ * @param address the address to listen on; use port 0 to pick any free port
+ * @param rootUrl what to put before the paths above in the `discoveryRestUrl` of each directory item, such as
+ *                `https://example.com`
+ * @param threads how many requests to handle at once
+ */
+final class DiscoveryServer(address: InetSocketAddress,
+                            rootUrl: String = "",
+                            threads: Int = Runtime.getRuntime.availableProcessors) {
+  import DiscoveryServer._
+
+  @volatile private var responses = Map.empty[String, Published]
+
+  private val jsonFactory = new JsonFactory()
+  private val writer = new GDDJsonWriter(jsonFactory)
+  private val server = HttpServer.create(address, 0)
+  private var executor: ExecutorService = _
+
+  server.createContext(ApisPath, new Handler)
+
+  /**
+   * @return the address the server is bound to
+   */
+  def boundAddress: InetSocketAddress = server.getAddress
+
+  /**
+   * Serve the given documents, in place of the ones that were served before. Requests see either the old documents or
+   * the new ones.
+   *
+   * The directory list has an item for each document, in order. The last document of each `name` is the preferred one.
+   *
+   * @param documents the documents to serve; each must have a `name` and a `version`, and no two may have the same ones
+   * @param lazily whether to serialize each document on its first request, rather than all of them before any is served;
+   *               for documents that are themselves decoded lazily, such as those of a snapshot, of which only a few may
+   *               ever be requested
+   */
+  def publish(documents: Seq[GoogleDiscoveryDocument], lazily: Boolean = false): Unit = {
+    val keys = documents.map { gdd =>
+      require(gdd.getName != null && gdd.getVersion != null, s"a document needs a name and a version: ${gdd.getId}")
+      gdd.getName -> gdd.getVersion
+    }
+    require(keys.distinct.size == keys.size, "more than one document has the same name and version")
+    val preferred = keys.groupBy(_._1).map { case (name, versions) => name -> versions.last._2 }
+    val rest = documents.map { gdd =>
+      val response = new Published(new PrecomputedResponse(json(gen => writer.write(gdd, gen)), JsonType))
+      if (!lazily) response.get
+      restPath(gdd.getName, gdd.getVersion) -> response
+    }
+    val directory = json { gen =>
+      gen.writeStartObject()
+      gen.writeStringField("kind", "discovery#directoryList")
+      gen.writeStringField("discoveryVersion", "v1")
+      gen.writeArrayFieldStart("items")
+      documents.foreach { gdd =>
+        gen.writeStartObject()
+        gen.writeStringField("kind", "discovery#directoryItem")
+        gen.writeStringField("id", s"${gdd.getName}:${gdd.getVersion}")
+        gen.writeStringField("name", gdd.getName)
+        gen.writeStringField("version", gdd.getVersion)
+        Option(gdd.getTitle).foreach(gen.writeStringField("title", _))
+        Option(gdd.getDescription).foreach(gen.writeStringField("description", _))
+        gen.writeStringField("discoveryRestUrl", rootUrl + restPath(gdd.getName, gdd.getVersion))
+        gen.writeStringField("discoveryLink", s"./apis/${gdd.getName}/${gdd.getVersion}/rest")
+        Option(gdd.getIcons).foreach { icons =>
+          gen.writeFieldName("icons")
+          writer.write(icons, gen)
+        }
+        Option(gdd.getDocumentationLink).foreach(gen.writeStringField("documentationLink", _))
+        Option(gdd.getLabels).foreach { labels =>
+          gen.writeArrayFieldStart("labels")
+          labels.asScala.foreach(label => gen.writeString(label.name()))
+          gen.writeEndArray()
+        }
+        gen.writeBooleanField("preferred", preferred(gdd.getName) == gdd.getVersion)
+        gen.writeEndObject()
+      }
+      gen.writeEndArray()
+      gen.writeEndObject()
+    }
+    val directoryResponse = new Published(new PrecomputedResponse(directory, JsonType))
+    directoryResponse.get
+    responses = (rest :+ (ApisPath -> directoryResponse)).toMap
+  }
+
+  def start(): Unit = {
+    executor = Executors.newFixedThreadPool(threads)
+    server.setExecutor(executor)
+    server.start()
+  }
+
+  /**
+   * Stop accepting requests, and wait up to `delaySeconds` for the ones being handled to finish.
+   */
+  def stop(delaySeconds: Int = 0): Unit = {
+    server.stop(delaySeconds)
+    if (executor != null) {
+      executor.shutdown()
+      executor.awaitTermination(1, TimeUnit.MINUTES)
+    }
+  }
+
+  private def json(write: JsonGenerator => Unit): Array[Byte] = {
+    val out = new ByteArrayOutputStream()
+    val gen = jsonFactory.createGenerator(out)
+    write(gen)
+    gen.close()
+    out.toByteArray
+  }
+
+  private class Handler extends HttpHandler {
+    override def handle(exchange: HttpExchange): Unit = {
+      try {
+        val method = exchange.getRequestMethod
+        val headers = exchange.getResponseHeaders
+        if (method != "GET" && method != "HEAD") {
+          headers.set("Allow", "GET, HEAD")
+          exchange.sendResponseHeaders(405, -1)
+        } else responses.get(exchange.getRequestURI.getPath).map(_.get) match {
+          case None => exchange.sendResponseHeaders(404, -1)
+          case Some(response) =>
+            val gzip = acceptsGzip(exchange.getRequestHeaders.getFirst("Accept-Encoding"))
+            headers.set("ETag", response.etag(gzip))
+            headers.set("Vary", "Accept-Encoding")
+            val ifNoneMatch = exchange.getRequestHeaders.getFirst("If-None-Match")
+            if (ifNoneMatch != null && response.matches(ifNoneMatch)) {
+              exchange.sendResponseHeaders(304, -1)
+            } else {
+              headers.set("Content-Type", response.contentType)
+              if (gzip) headers.set("Content-Encoding", "gzip")
+              if (method == "HEAD") {
+                exchange.sendResponseHeaders(200, -1)
+              } else {
+                exchange.sendResponseHeaders(200, response.length(gzip))
+                response.writeTo(gzip, exchange.getResponseBody)
+              }
+            }
+        }
+      } finally {
+        exchange.close()
+      }
+    }
+  }
+}
+
+/**
+ * Serves Swagger files from the command line, converted to GDDs, or the GDDs in a snapshot written by
+ * [[io.swagger.gdd.BatchConverter BatchConverter]], which are loaded without parsing or converting anything.
+ *
+ * {{{
+ * DiscoveryServer <port> <swagger file>...
+ * DiscoveryServer <port> --snapshot <file>
+ * }}}
+ */
+object DiscoveryServer {
+
+  private val ApisPath = "/discovery/v1/apis"
+
+  private val JsonType = "application/json; charset=UTF-8"
+
+  private def restPath(name: String, version: String): String = s"$ApisPath/$name/$version/rest"
+
+  /**
+   * A response which is computed once, by whichever comes first of publishing it eagerly and a request for it.
+   */
+  private final class Published(compute: => PrecomputedResponse) {
+    lazy val get: PrecomputedResponse = compute
+  }
+
+  /**
+   * @param acceptEncoding the value of an `Accept-Encoding` header, or `null`
+   * @return whether it accepts gzip
+   */
+  private[server] def acceptsGzip(acceptEncoding: String): Boolean = {
+    Option(acceptEncoding).exists(_.split(',').exists { coding =>
+      val parts = coding.split(';').map(_.trim)
+      val quality = parts.drop(1).collectFirst {
+        case q if q.startsWith("q=") => scala.util.Try(q.drop(2).toDouble).getOrElse(0d)
+      }.getOrElse(1d)
+      Set("gzip", "x-gzip", "*").contains(parts(0).toLowerCase) && quality > 0
+    })
+  }
+
+  def main(args: Array[String]): Unit = args.toList match {
+    case port :: "--snapshot" :: file :: Nil =>
+      serve(port.toInt, new GDDSnapshotReader().read(new File(file)).values.asScala.toSeq, lazily = true)
+    case port :: files if files.nonEmpty =>
+      serve(port.toInt, files.map { file =>
+        val swagger = new SwaggerParser().parse(new String(Files.readAllBytes(Paths.get(file)), StandardCharsets.UTF_8))
+        require(swagger != null, s"not a Swagger document: $file")
+        SwaggerToGDD.swaggerToGDD(swagger)
+      })
+    case _ =>
+      System.err.println("usage: DiscoveryServer <port> <swagger file>... | DiscoveryServer <port> --snapshot <file>")
+      sys.exit(2)
+  }
+
+  private def serve(port: Int, documents: Seq[GoogleDiscoveryDocument], lazily: Boolean = false): Unit = {
+    val server = new DiscoveryServer(new InetSocketAddress(port))
+    server.publish(documents, lazily)
+    server.start()
+    println(s"serving ${documents.size} documents at http://localhost:${server.boundAddress.getPort}$ApisPath")
+  }
+}
@@ -0,0 +1,72 @@
+package io.swagger.gdd.server
+
+import java.io.{ByteArrayOutputStream, OutputStream}
+import java.security.MessageDigest
+import java.util.zip.{Deflater, GZIPOutputStream}
+
+/**
+ * A response body which is serialized and compressed once, up front, and then written out as is for every request.
+ *
+ * The body is kept as it is and gzipped. Each copy has its own strong ETag, derived from a SHA-256 of the body, since
+ * the two are not byte-for-byte the same. The bytes are never handed out, so they can't be changed after the fact.
+ *
+ * @param identity the uncompressed body
+ * @param contentType the media type of the body
+ */
+private[server] final class PrecomputedResponse(identity: Array[Byte], val contentType: String) {
+  import PrecomputedResponse._
+
+  private val gzipped = gzip(identity)
+
+  private val hash = {
+    val digest = MessageDigest.getInstance("SHA-256").digest(identity)
+    digest.take(16).map(b => f"${b & 0xff}%02x").mkString
+  }
+
+  /**
+   * @param gzip whether the gzipped copy is meant
+   * @return the quoted ETag of a copy of the body
+   */
+  def etag(gzip: Boolean): String = if (gzip) "\"" + hash + "-gzip\"" else "\"" + hash + "\""
+
+  /**
+   * @param gzip whether the gzipped copy is meant
+   * @return the length of a copy of the body
+   */
+  def length(gzip: Boolean): Int = if (gzip) gzipped.length else identity.length
+
+  /**
+   * @param ifNoneMatch the value of an `If-None-Match` header
+   * @return whether it names either copy of the body, in which case the client already has it
+   */
+  def matches(ifNoneMatch: String): Boolean = {
+    ifNoneMatch.split(',').map(_.trim.stripPrefix("W/")).exists { tag =>
+      tag == "*" || tag == etag(gzip = false) || tag == etag(gzip = true)
+    }
+  }
+
+  /**
+   * Write a copy of the body.
+   * @param gzip whether to write the gzipped copy
+   * @param out where to write it
+   */
+  def writeTo(gzip: Boolean, out: OutputStream): Unit = {
+    if (gzip) out.write(gzipped) else out.write(identity)
+  }
+}
+
+private[server] object PrecomputedResponse {
+
+  /**
+   * Since a body is compressed only once, it is compressed as much as it can be.
+   */
+  private def gzip(bytes: Array[Byte]): Array[Byte] = {
+    val out = new ByteArrayOutputStream(bytes.length / 4 + 64)
+    val gzip = new GZIPOutputStream(out) {
+      `def`.setLevel(Deflater.BEST_COMPRESSION)
+    }
+    gzip.write(bytes)
+    gzip.close()
+    out.toByteArray
+  }
+}
@@ -0,0 +1,181 @@
+package io.swagger.gdd.server
+
+import java.io.{ByteArrayOutputStream, InputStream}
+import java.net.{HttpURLConnection, InetSocketAddress, URL}
+import java.util.zip.GZIPInputStream
+
+import io.swagger.gdd.models.{AbstractSchema, GoogleDiscoveryDocument}
+import io.swagger.gdd.models.json.GDDJsonWriter
+import org.specs2.Specification
+import org.specs2.specification.AfterAll
+import org.specs2.specification.core.SpecStructure
+
+/**
+ * Tests [[io.swagger.gdd.server.DiscoveryServer DiscoveryServer]].
+ */
+class DiscoveryServerSpecs extends Specification with AfterAll {
+  override def is: SpecStructure = sequential ^ s2"""
+  DiscoveryServer serves GoogleDiscoveryDocuments at the Discovery Service's endpoints.
+
+  It should:
+    Serve each document at /discovery/v1/apis/{name}/{version}/rest as GDDJsonWriter writes it   $rest
+    Serve the gzipped document, with its own ETag, to clients that accept gzip                    $gzipped
+    Answer a matching If-None-Match with a 304 and no body                                        $notModified
+    List every document in the directory, preferring the last version of each name                $directory
+    Answer unknown paths with a 404, and methods other than GET and HEAD with a 405               $errors
+    Serve newly published documents in place of the old ones                                      $republish
+    Serialize a lazily published document on its first request, and only then                    $lazily
+    Decide whether a client accepts gzip by its Accept-Encoding                                   $acceptEncoding
+  """
+
+  def gdd(name: String, version: String): GoogleDiscoveryDocument = {
+    val gdd = new GoogleDiscoveryDocument
+    gdd.setName(name)
+    gdd.setVersion(version)
+    gdd.setTitle(s"$name $version")
+    gdd
+  }
+
+  val pets1 = gdd("pets", "v1")
+  val pets2 = gdd("pets", "v2")
+  val owners = gdd("owners", "v1")
+
+  lazy val server = {
+    val server = new DiscoveryServer(new InetSocketAddress("localhost", 0), rootUrl = "https://example.com", threads = 2)
+    server.publish(Seq(pets1, pets2, owners))
+    server.start()
+    server
+  }
+
+  override def afterAll(): Unit = server.stop()
+
+  case class Reply(status: Int, headers: Map[String, String], body: Array[Byte]) {
+    def text: String = new String(body, "UTF-8")
+  }
+
+  def request(path: String, method: String = "GET", headers: Map[String, String] = Map.empty): Reply = {
+    val connection = new URL(s"http://localhost:${server.boundAddress.getPort}$path").openConnection()
+      .asInstanceOf[HttpURLConnection]
+    connection.setRequestMethod(method)
+    headers.foreach { case (name, value) => connection.setRequestProperty(name, value) }
+    val status = connection.getResponseCode
+    val in = if (status >= 400) connection.getErrorStream else connection.getInputStream
+    val body = Option(in).map(readAll).getOrElse(Array.empty[Byte])
+    val replyHeaders = Seq("ETag", "Content-Encoding", "Content-Type", "Allow").flatMap { name =>
+      Option(connection.getHeaderField(name)).map(name -> _)
+    }.toMap
+    connection.disconnect()
+    Reply(status, replyHeaders, body)
+  }
+
+  def readAll(in: InputStream): Array[Byte] = {
+    val out = new ByteArrayOutputStream()
+    val buffer = new Array[Byte](4096)
+    var read = in.read(buffer)
+    while (read >= 0) {
+      out.write(buffer, 0, read)
+      read = in.read(buffer)
+    }
+    in.close()
+    out.toByteArray
+  }
+
+  def written(gdd: GoogleDiscoveryDocument): String = {
+    val out = new ByteArrayOutputStream()
+    new GDDJsonWriter().write(gdd, out)
+    out.toString("UTF-8")
+  }
+
+  def rest = {
+    val reply = request("/discovery/v1/apis/pets/v2/rest")
+    (reply.status must beEqualTo(200)) and
+      (reply.text must beEqualTo(written(pets2))) and
+      (reply.headers.get("Content-Type") must beSome("application/json; charset=UTF-8")) and
+      (reply.headers.get("Content-Encoding") must beNone) and
+      (reply.headers.get("ETag") must beSome)
+  }
+
+  def gzipped = {
+    val plain = request("/discovery/v1/apis/owners/v1/rest")
+    val reply = request("/discovery/v1/apis/owners/v1/rest", headers = Map("Accept-Encoding" -> "deflate, gzip;q=0.5"))
+    (reply.headers.get("Content-Encoding") must beSome("gzip")) and
+      (new String(readAll(new GZIPInputStream(new java.io.ByteArrayInputStream(reply.body))), "UTF-8") must beEqualTo(
+        written(owners))) and
+      (reply.headers.get("ETag") must not(beEqualTo(plain.headers.get("ETag"))))
+  }
+
+  def notModified = {
+    val etag = request("/discovery/v1/apis/pets/v1/rest").headers("ETag")
+    val reply = request("/discovery/v1/apis/pets/v1/rest", headers = Map("If-None-Match" -> s""""other", $etag"""))
+    val stale = request("/discovery/v1/apis/pets/v1/rest", headers = Map("If-None-Match" -> "\"other\""))
+    (reply.status must beEqualTo(304)) and
+      (reply.body must beEmpty) and
+      (reply.headers.get("ETag") must beSome(etag)) and
+      (stale.status must beEqualTo(200))
+  }
+
+  def directory = {
+    val reply = request("/discovery/v1/apis")
+    val items = """"id":"([^"]+)".*?"discoveryRestUrl":"([^"]+)".*?"preferred":(true|false)""".r
+      .findAllMatchIn(reply.text).map(m => (m.group(1), m.group(2), m.group(3).toBoolean)).toList
+    (reply.text must startWith("""{"kind":"discovery#directoryList","discoveryVersion":"v1","items":[""")) and
+      (items must beEqualTo(List(
+        ("pets:v1", "https://example.com/discovery/v1/apis/pets/v1/rest", false),
+        ("pets:v2", "https://example.com/discovery/v1/apis/pets/v2/rest", true),
+        ("owners:v1", "https://example.com/discovery/v1/apis/owners/v1/rest", true))))
+  }
+
+  def errors = {
+    val missing = request("/discovery/v1/apis/pets/v3/rest")
+    val post = request("/discovery/v1/apis/pets/v1/rest", method = "POST")
+    (missing.status must beEqualTo(404)) and
+      (post.status must beEqualTo(405)) and
+      (post.headers.get("Allow") must beSome("GET, HEAD"))
+  }
+
+  def republish = {
+    val before = request("/discovery/v1/apis/pets/v1/rest").headers("ETag")
+    val changed = gdd("pets", "v1")
+    changed.setDescription("changed")
+    server.publish(Seq(changed))
+    val reply = request("/discovery/v1/apis/pets/v1/rest")
+    val gone = request("/discovery/v1/apis/owners/v1/rest")
+    (reply.text must beEqualTo(written(changed))) and
+      (reply.headers.get("ETag") must not(beSome(before))) and
+      (gone.status must beEqualTo(404))
+  }
+
+  def lazily = {
+    var serialized = 0
+    val counted = new GoogleDiscoveryDocument {
+      override def getSchemas: java.util.Map[String, AbstractSchema] = {
+        serialized += 1
+        super.getSchemas
+      }
+    }
+    counted.setName("counted")
+    counted.setVersion("v1")
+    server.publish(Seq(counted), lazily = true)
+    val published = serialized
+    val listed = request("/discovery/v1/apis")
+    val first = request("/discovery/v1/apis/counted/v1/rest")
+    val second = request("/discovery/v1/apis/counted/v1/rest")
+    val requested = serialized
+    val expected = written(counted)
+    val once = serialized - requested
+    (published must beEqualTo(0)) and
+      (listed.text must contain("counted:v1")) and
+      (requested must beEqualTo(once)) and
+      (first.text must beEqualTo(expected)) and
+      (second.headers.get("ETag") must beEqualTo(first.headers.get("ETag")))
+  }
+
+  def acceptEncoding = {
+    import DiscoveryServer.acceptsGzip
+    (acceptsGzip(null) must beFalse) and
+      (acceptsGzip("identity") must beFalse) and
+      (acceptsGzip("gzip;q=0") must beFalse) and
+      (acceptsGzip("GZIP") must beTrue) and
+      (acceptsGzip("br, *;q=0.1") must beTrue)
+  }
+}